@@ -0,0 +1,114 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.inject.Singleton;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import org.apache.aurora.benchmark.fakes.FakeStatsProvider;
+import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.common.util.Clock;
+import org.apache.aurora.gen.storage.Op;
+import org.apache.aurora.gen.storage.SaveTasks;
+import org.apache.aurora.scheduler.log.Log;
+import org.apache.aurora.scheduler.storage.Snapshotter;
+import org.apache.aurora.scheduler.storage.durability.Persistence;
+import org.apache.aurora.scheduler.storage.durability.Persistence.PersistenceException;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.storage.log.FakeLog;
+import org.apache.aurora.scheduler.storage.log.LogPersistenceModule;
+import org.apache.aurora.scheduler.storage.log.SnapshotterImpl;
+import org.apache.aurora.scheduler.storage.mem.MemStorageModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance benchmarks for recovering storage from the replicated log.
+ */
+public class LogRecoveryBenchmarks {
+  /**
+   * Replays a log of task transactions through {@link FakeLog}.  The log size is the product of
+   * the transaction count and tasks per transaction, and may be raised with {@code -p} to
+   * approximate a production log, provided the benchmark heap is raised to match.
+   */
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @Threads(1)
+  @State(Scope.Thread)
+  public static class RecoverLogBenchmark {
+    private Persistence persistence;
+
+    @Param({"1", "4"})
+    private int decodeThreads;
+
+    @Param({"20000"})
+    private int transactionCount;
+
+    @Param({"10"})
+    private int tasksPerTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws PersistenceException {
+      LogPersistenceModule.Options options = new LogPersistenceModule.Options();
+      options.recoveryDecodeThreads = decodeThreads;
+
+      Injector injector = Guice.createInjector(
+          new AbstractModule() {
+            @Override
+            protected void configure() {
+              bind(Clock.class).toInstance(Clock.SYSTEM_CLOCK);
+              bind(StatsProvider.class).toInstance(new FakeStatsProvider());
+              bind(Log.class).toInstance(new FakeLog());
+              bind(Snapshotter.class).to(SnapshotterImpl.class);
+              bind(SnapshotterImpl.class).in(Singleton.class);
+            }
+          },
+          new MemStorageModule(),
+          new LogPersistenceModule(options));
+
+      persistence = injector.getInstance(Persistence.class);
+      persistence.prepare();
+      for (int i = 0; i < transactionCount; i++) {
+        SaveTasks saveTasks = new SaveTasks(IScheduledTask.toBuildersSet(
+            new Tasks.Builder().setRole("role" + i).build(tasksPerTransaction)));
+        persistence.persist(Stream.of(Op.saveTasks(saveTasks)));
+      }
+    }
+
+    @Benchmark
+    public long run() throws PersistenceException {
+      return persistence.recover().count();
+    }
+  }
+}
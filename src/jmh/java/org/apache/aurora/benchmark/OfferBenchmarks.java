@@ -0,0 +1,108 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Data;
+import org.apache.aurora.scheduler.offers.HostOffer;
+import org.apache.aurora.scheduler.offers.IndexedOfferSet;
+import org.apache.aurora.scheduler.offers.OfferOrder;
+import org.apache.aurora.scheduler.offers.OfferOrderBuilder;
+import org.apache.aurora.scheduler.offers.OfferSet;
+import org.apache.aurora.scheduler.offers.OfferSetImpl;
+import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance benchmarks for holding outstanding offers.
+ */
+public class OfferBenchmarks {
+  /**
+   * Measures the throughput of removing and re-adding offers to an {@link OfferSet} holding many
+   * outstanding offers, as happens when offers are accepted, rescinded or re-sorted.  Offers have
+   * varied resources so that resource orderings must compare them.
+   */
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @Threads(1)
+  @State(Scope.Thread)
+  public static class AddRemoveBenchmark {
+    private OfferSet offerSet;
+    private List<HostOffer> offers;
+    private int next = 0;
+
+    @Param({"20000"})
+    private int offerCount;
+
+    @Param({"CPU,MEMORY,RANDOM", "REVOCABLE_CPU,DISK,RANDOM"})
+    private String offerOrder;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      Ordering<HostOffer> ordering = OfferOrderBuilder.create(ImmutableList.copyOf(
+          Iterables.transform(Splitter.on(',').split(offerOrder), OfferOrder::valueOf)));
+      offerSet = indexed ? new IndexedOfferSet(ordering) : new OfferSetImpl(ordering);
+
+      ImmutableList.Builder<HostOffer> builder = ImmutableList.builder();
+      int i = 0;
+      for (IHostAttributes host : new Hosts.Builder().build(offerCount)) {
+        builder.add(Iterables.getOnlyElement(new Offers.Builder()
+            .setCpu(1 + i % 32)
+            .setRam(Amount.of(1L + i % 64, Data.GB))
+            .setDisk(Amount.of(16L + i % 256, Data.GB))
+            .setPorts(16)
+            .build(ImmutableSet.of(host))));
+        i++;
+      }
+      offers = builder.build();
+      offers.forEach(offerSet::add);
+    }
+
+    @Benchmark
+    public int run() {
+      HostOffer offer = offers.get(next);
+      next = (next + 1) % offers.size();
+      offerSet.remove(offer);
+      offerSet.add(offer);
+      return next;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+
+import org.apache.aurora.scheduler.resources.ResourceBag;
+import org.apache.aurora.scheduler.resources.ResourceManager;
+import org.apache.aurora.scheduler.storage.entities.IResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.apache.aurora.gen.Resource.diskMb;
+import static org.apache.aurora.gen.Resource.numCpus;
+import static org.apache.aurora.gen.Resource.ramMb;
+
+/**
+ * Performance benchmarks for {@link ResourceBag} arithmetic, as performed when summing victim
+ * resources during preemption and when aggregating quota.  The allocation rate reported by the
+ * {@code gc} profiler (enabled for {@code ./gradlew jmh}, or {@code -prof gc} when running JMH
+ * directly) is the main figure of interest.
+ */
+public class ResourceBagBenchmarks {
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @Threads(1)
+  @State(Scope.Thread)
+  public static class SumBenchmark {
+    private List<ResourceBag> bags;
+    private ResourceBag required;
+
+    @Param({"10", "1000"})
+    private int bagCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      ImmutableList.Builder<ResourceBag> builder = ImmutableList.builder();
+      for (int i = 0; i < bagCount; i++) {
+        builder.add(ResourceManager.bagFromResources(ImmutableList.of(
+            IResource.build(numCpus(1 + i % 4)),
+            IResource.build(ramMb(1024 * (1 + i % 8))),
+            IResource.build(diskMb(4096)))));
+      }
+      bags = builder.build();
+      required = bags.get(bags.size() - 1).scale(bagCount);
+    }
+
+    /**
+     * Sums bags one immutable bag at a time, allocating an intermediate bag per step.
+     */
+    @Benchmark
+    public boolean addChain() {
+      ResourceBag total = ResourceBag.EMPTY;
+      for (ResourceBag bag : bags) {
+        total = total.add(bag);
+        if (total.greaterThanOrEqualTo(required)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Sums bags in place.
+     */
+    @Benchmark
+    public boolean accumulator() {
+      ResourceBag.Accumulator total = new ResourceBag.Accumulator();
+      for (ResourceBag bag : bags) {
+        total.add(bag);
+        if (total.greaterThanOrEqualTo(required)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
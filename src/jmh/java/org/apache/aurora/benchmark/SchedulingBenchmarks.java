@@ -55,6 +55,7 @@ import org.apache.aurora.scheduler.config.CommandLine;
 import org.apache.aurora.scheduler.config.types.TimeAmount;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
 import org.apache.aurora.scheduler.events.EventSink;
+import org.apache.aurora.scheduler.filter.JobAttributeIndex.IncrementalAggregates;
 import org.apache.aurora.scheduler.filter.SchedulingFilter;
 import org.apache.aurora.scheduler.filter.SchedulingFilterImpl;
 import org.apache.aurora.scheduler.mesos.Driver;
@@ -69,6 +70,7 @@ import org.apache.aurora.scheduler.offers.OfferOrderBuilder;
 import org.apache.aurora.scheduler.offers.OfferSetImpl;
 import org.apache.aurora.scheduler.offers.OfferSettings;
 import org.apache.aurora.scheduler.preemptor.BiCache;
+import org.apache.aurora.scheduler.preemptor.PreemptableCapacityIndex;
 import org.apache.aurora.scheduler.preemptor.PreemptorModule;
 import org.apache.aurora.scheduler.scheduling.RescheduleCalculator;
 import org.apache.aurora.scheduler.scheduling.TaskScheduler;
@@ -136,6 +138,7 @@ public class SchedulingBenchmarks {
       options.preemptor.preemptionDelay = NO_DELAY;
       options.preemptor.preemptionSlotSearchInterval = NO_DELAY;
       options.preemptor.reservationMaxBatchSize = BATCH_SIZE;
+      withOptions(options);
 
       // TODO(maxim): Find a way to DRY it and reuse existing modules instead.
       Injector injector = Guice.createInjector(
@@ -183,6 +186,7 @@ public class SchedulingBenchmarks {
               bind(SchedulingFilter.class).to(SchedulingFilterImpl.class);
               bind(SchedulingFilterImpl.class).in(Singleton.class);
               bind(ExecutorSettings.class).toInstance(TestExecutorSettings.THERMOS_EXECUTOR);
+              bind(Boolean.class).annotatedWith(IncrementalAggregates.class).toInstance(false);
               bind(Storage.class).toInstance(storage);
               bind(Driver.class).toInstance(new FakeDriver());
               bind(RescheduleCalculator.class).toInstance(new FakeRescheduleCalculator());
@@ -197,6 +201,7 @@ public class SchedulingBenchmarks {
       taskScheduler = injector.getInstance(TaskScheduler.class);
       offerManager = injector.getInstance(OfferManager.class);
       eventBus.register(injector.getInstance(ClusterStateImpl.class));
+      eventBus.register(injector.getInstance(PreemptableCapacityIndex.class));
 
       withInjector(injector);
 
@@ -210,6 +215,11 @@ public class SchedulingBenchmarks {
       saveTasks(settings.getTasks());
     }
 
+    protected void withOptions(CliOptions options) {
+      // No-op by default.  Subclasses may use this to adjust the options of the modules under
+      // test.
+    }
+
     protected void withInjector(Injector injector) {
       // No-op by default.  Subclasses may use this to retrieve bindings from the injector for use
       // in their test.
@@ -347,6 +357,25 @@ public class SchedulingBenchmarks {
     }
   }
 
+  /**
+   * Tests scheduling performance with a task carrying many constraints, all of which are evaluated
+   * against every offer before the last one vetoes it.
+   */
+  public static class ConstraintHeavySchedulingBenchmark extends AbstractBase {
+    @Override
+    protected BenchmarkSettings getSettings() {
+      return new BenchmarkSettings.Builder()
+          .setHostAttributes(new Hosts.Builder().setNumHostsPerRack(2).build(1000))
+          .setTasks(new Tasks.Builder()
+              .setTier(TaskTestUtil.PROD_TIER_NAME)
+              .addValueConstraint("rack", true, "denied-1", "denied-2", "denied-3", "denied-4")
+              .addValueConstraint("host", true, "denied-1", "denied-2", "denied-3", "denied-4")
+              .addLimitConstraint("rack", 1000)
+              .addLimitConstraint("host", 0)
+              .build(1)).build();
+    }
+  }
+
   /**
    * Tests scheduling performance with a large number of tasks and slaves where the cluster
    * is completely filled up.
@@ -400,6 +429,20 @@ public class SchedulingBenchmarks {
     }
   }
 
+  /**
+   * Tests preemptor searching for a preemption slot in a completely filled up cluster, with the
+   * agents for each task group searched by multiple threads.
+   */
+  public static class ParallelPreemptorSlotSearchBenchmark extends PreemptorSlotSearchBenchmark {
+    @Param({"1", "4", "16"})
+    public int slotSearchThreads;
+
+    @Override
+    protected void withOptions(CliOptions options) {
+      options.preemptor.slotSearchThreads = slotSearchThreads;
+    }
+  }
+
   private static class NoopExecutor extends AbstractExecutorService
       implements ScheduledExecutorService {
 
@@ -13,9 +13,11 @@
  */
 package org.apache.aurora.benchmark;
 
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.util.Modules;
@@ -23,6 +25,7 @@ import com.google.inject.util.Modules;
 import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.common.util.Clock;
 import org.apache.aurora.common.util.testing.FakeClock;
+import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.TaskStore;
@@ -33,6 +36,8 @@ import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
@@ -145,4 +150,77 @@ public class TaskStoreBenchmarks {
           store -> store.getTaskStore().fetchTasks(Query.instanceScoped(job, 0))).size();
     }
   }
+
+  /**
+   * Measures index lookups by concurrent readers while a writer continuously moves tasks between
+   * statuses, which updates the status index entries the readers are looking up.
+   */
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @State(Scope.Group)
+  public static class ConcurrentFetchUnderMutation {
+    private Storage storage;
+    private List<String> taskIds;
+    private int nextTask;
+
+    @Param({"10000", "50000", "100000"})
+    private int numTasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      storage = Guice.createInjector(
+          Modules.combine(
+              new MemStorageModule(),
+              new AbstractModule() {
+                @Override
+                protected void configure() {
+                  bind(StatsProvider.class).toInstance(new FakeStatsProvider());
+                  bind(Clock.class).toInstance(new FakeClock());
+                }
+              }))
+          .getInstance(Storage.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+      Set<IScheduledTask> tasks = new Tasks.Builder().build(numTasks);
+      taskIds = ImmutableList.copyOf(org.apache.aurora.scheduler.base.Tasks.ids(tasks));
+      nextTask = 0;
+      storage.write((Storage.MutateWork.NoResult.Quiet)
+          storeProvider -> storeProvider.getUnsafeTaskStore().saveTasks(tasks));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+      storage.write((Storage.MutateWork.NoResult.Quiet)
+          storeProvider -> storeProvider.getUnsafeTaskStore().deleteAllTasks());
+    }
+
+    @Benchmark
+    @Group("fetchUnderMutation")
+    @GroupThreads(3)
+    public int fetch() {
+      return storage.read(
+          store -> store.getTaskStore().fetchTasks(Query.statusScoped(ScheduleStatus.RUNNING)))
+          .size();
+    }
+
+    @Benchmark
+    @Group("fetchUnderMutation")
+    @GroupThreads(1)
+    public boolean mutate() {
+      // Only the single writer thread advances the cursor.
+      String taskId = taskIds.get(nextTask++ % taskIds.size());
+      return storage.write(store -> store.getUnsafeTaskStore().mutateTask(
+          taskId,
+          task -> IScheduledTask.build(task.newBuilder().setStatus(
+              task.getStatus() == ScheduleStatus.RUNNING
+                  ? ScheduleStatus.PENDING
+                  : ScheduleStatus.RUNNING))))
+          .isPresent();
+    }
+  }
 }
@@ -101,11 +101,15 @@ final class Tasks {
     }
 
     Builder addValueConstraint(String name, String value) {
+      return addValueConstraint(name, false, value);
+    }
+
+    Builder addValueConstraint(String name, boolean negated, String... values) {
       constraints.add(new Constraint()
           .setName(name)
           .setConstraint(TaskConstraint.value(new ValueConstraint()
-              .setNegated(false)
-              .setValues(ImmutableSet.of(value)))));
+              .setNegated(negated)
+              .setValues(ImmutableSet.copyOf(values)))));
 
       return this;
     }
@@ -126,6 +126,33 @@ public class ThriftApiBenchmarks {
     }
   }
 
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @State(Scope.Thread)
+  public static class GetTasksWithoutConfigsBenchmark {
+    private ReadOnlyScheduler.Iface api;
+
+    @Param({
+        "{\"jobs\": 1}",
+        "{\"jobs\": 100}",
+        "{\"instances\": 100}",
+        "{\"instances\": 10000}"})
+    private String testConfiguration;
+
+    @Setup
+    public void setUp() {
+      api = createPopulatedApi(testConfiguration);
+    }
+
+    @Benchmark
+    public Response run() throws TException {
+      return api.getTasksWithoutConfigs(new TaskQuery());
+    }
+  }
+
   private static ReadOnlyScheduler.Iface createPopulatedApi(String testConfiguration) {
     TestConfiguration config = new Gson().fromJson(testConfiguration, TestConfiguration.class);
 
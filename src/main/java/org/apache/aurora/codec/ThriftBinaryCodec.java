@@ -16,6 +16,7 @@ package org.apache.aurora.codec;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
@@ -145,29 +146,65 @@ public final class ThriftBinaryCodec {
   public static byte[] deflateNonNull(TBase<?, ?> tBase) throws CodingException {
     requireNonNull(tBase);
 
+    ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+    try {
+      deflate(tBase::write, outBytes);
+    } catch (CodingException e) {
+      throw new CodingException("Failed to serialize: " + tBase, e.getCause());
+    }
+    return outBytes.toByteArray();
+  }
+
+  /**
+   * Encodes thrift data into a DEFLATE-compressed stream.  This produces the same bytes as
+   * {@link #deflateNonNull(TBase)} for equivalent data, but allows the caller to stream values to
+   * the protocol rather than building an object to encode, and to control where compressed output
+   * is buffered.  The output stream is closed when encoding completes.
+   *
+   * @param writer Writes the data to encode.
+   * @param out Stream to write compressed data to.
+   * @throws CodingException If the data could not be encoded.
+   */
+  public static void deflate(ThriftWriter writer, OutputStream out) throws CodingException {
+    requireNonNull(writer);
+    requireNonNull(out);
+
     // NOTE: Buffering is needed here for performance.
     // There are actually 2 buffers in play here - the BufferedOutputStream prevents thrift from
     // causing a call to deflate() on every encoded primitive. The DeflaterOutputStream buffer
     // allows the underlying Deflater to operate on a larger chunk at a time without stopping to
-    // copy the intermediate compressed output to outBytes.
+    // copy the intermediate compressed output to out.
     // See http://bugs.java.com/bugdatabase/view_bug.do?bug_id=4986239
-    ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
     TTransport transport = new TIOStreamTransport(
         new BufferedOutputStream(
-            new DeflaterOutputStream(outBytes, new Deflater(DEFLATE_LEVEL), DEFLATER_BUFFER_SIZE),
+            new DeflaterOutputStream(out, new Deflater(DEFLATE_LEVEL), DEFLATER_BUFFER_SIZE),
             DEFLATER_BUFFER_SIZE));
     try {
       TProtocol protocol = PROTOCOL_FACTORY.getProtocol(transport);
-      tBase.write(protocol);
+      writer.write(protocol);
       transport.close(); // calls finish() on the underlying stream, completing the compression
-      return outBytes.toByteArray();
     } catch (TException e) {
-      throw new CodingException("Failed to serialize: " + tBase, e);
+      throw new CodingException("Failed to serialize", e);
     } finally {
       transport.close();
     }
   }
 
+  /**
+   * Writes thrift data to a protocol, as generated thrift objects do with
+   * {@link TBase#write(TProtocol)}.
+   */
+  @FunctionalInterface
+  public interface ThriftWriter {
+    /**
+     * Writes data to a protocol.
+     *
+     * @param protocol Protocol to write to.
+     * @throws TException If the data could not be written.
+     */
+    void write(TProtocol protocol) throws TException;
+  }
+
   /**
    * Decodes a thrift object from a DEFLATE-compressed byte array into a target type.
    *
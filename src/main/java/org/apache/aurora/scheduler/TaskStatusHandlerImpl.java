@@ -16,10 +16,19 @@ package org.apache.aurora.scheduler;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Qualifier;
@@ -31,12 +40,16 @@ import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.scheduler.base.Conversions;
+import org.apache.aurora.scheduler.base.Query;
+import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.mesos.Driver;
 import org.apache.aurora.scheduler.state.StateChangeResult;
 import org.apache.aurora.scheduler.state.StateManager;
 import org.apache.aurora.scheduler.stats.CachedCounters;
 import org.apache.aurora.scheduler.storage.Storage;
+import org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
 import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.mesos.v1.Protos.TaskStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,12 +75,23 @@ public class TaskStatusHandlerImpl extends AbstractExecutionThreadService
   @VisibleForTesting
   static final String DISK_LIMIT_DISPLAY = "Task used more disk than requested.";
 
+  @VisibleForTesting
+  static final String NOOP_UPDATES = "status_updates_noop";
+
+  @VisibleForTesting
+  static final String PROCESSED_UPDATES = "status_updates_processed";
+
+  // Upper bounds of the buckets of the batch size histogram.
+  private static final int[] BATCH_SIZE_BUCKETS = {1, 10, 100, 1000};
+
   private final Storage storage;
   private final StateManager stateManager;
   private final Driver driver;
   private final BlockingQueue<TaskStatus> pendingUpdates;
   private final int maxBatchSize;
   private final CachedCounters counters;
+  private final AtomicLong noopUpdates;
+  private final AtomicLong processedUpdates;
 
   private final AtomicReference<Thread> threadReference = new AtomicReference<>();
 
@@ -106,6 +130,14 @@ public class TaskStatusHandlerImpl extends AbstractExecutionThreadService
     requireNonNull(statsProvider);
 
     statsProvider.exportSize("status_updates_queue_size", this.pendingUpdates);
+    noopUpdates = statsProvider.makeCounter(NOOP_UPDATES);
+    processedUpdates = statsProvider.makeCounter(PROCESSED_UPDATES);
+    statsProvider.makeGauge(
+        "status_updates_noop_ratio",
+        () -> {
+          long processed = processedUpdates.get();
+          return processed == 0 ? 0.0 : (double) noopUpdates.get() / processed;
+        });
 
     addListener(
         new Listener() {
@@ -147,26 +179,15 @@ public class TaskStatusHandlerImpl extends AbstractExecutionThreadService
       }
 
       // Process all other available updates, up to the limit on batch size.
-      // TODO(bmahler): Expose histogram metrics of the batch sizes.
       pendingUpdates.drainTo(updates, maxBatchSize - updates.size());
+      counters.get(batchSizeStatName(updates.size())).incrementAndGet();
+      processedUpdates.addAndGet(updates.size());
 
       try {
-        storage.write((NoResult.Quiet) storeProvider -> {
-          for (TaskStatus status : updates) {
-            ScheduleStatus translatedState = Conversions.convertProtoState(status.getState());
-
-            StateChangeResult result = stateManager.changeState(
-                storeProvider,
-                status.getTaskId().getValue(),
-                Optional.empty(),
-                translatedState,
-                formatMessage(status));
-
-            if (status.hasReason()) {
-              counters.get(statName(status, result)).incrementAndGet();
-            }
-          }
-        });
+        List<TaskStatus> changes = filterNoopUpdates(updates);
+        if (!changes.isEmpty()) {
+          storage.write((NoResult.Quiet) storeProvider -> applyUpdates(storeProvider, changes));
+        }
 
         for (TaskStatus status : updates) {
           driver.acknowledgeStatusUpdate(status);
@@ -177,6 +198,92 @@ public class TaskStatusHandlerImpl extends AbstractExecutionThreadService
     }
   }
 
+  /**
+   * Finds the updates that would change task state.  Updates that match the stored state of their
+   * task (as is the case for most updates from reconciliation) are accounted for here without a
+   * write transaction.
+   *
+   * @param updates Batch of status updates, in the order they were received.
+   * @return The updates to apply, in the order they were received.
+   */
+  private List<TaskStatus> filterNoopUpdates(Collection<TaskStatus> updates) {
+    Set<String> taskIds = updates.stream()
+        .map(status -> status.getTaskId().getValue())
+        .collect(Collectors.toSet());
+    Map<String, ScheduleStatus> storedStates = storage.read(storeProvider ->
+        storeProvider.getTaskStore().fetchTasks(Query.taskScoped(taskIds)).stream()
+            .collect(Collectors.toMap(Tasks::id, IScheduledTask::getStatus)));
+
+    List<TaskStatus> changes = new ArrayList<>();
+    Set<String> changedTasks = new HashSet<>();
+    for (TaskStatus status : updates) {
+      String taskId = status.getTaskId().getValue();
+      // Once an update for a task is to be applied, the stored state of the task is no longer
+      // known, so all later updates for it are applied as well.
+      if (!changedTasks.contains(taskId)
+          && Conversions.convertProtoState(status.getState()) == storedStates.get(taskId)) {
+
+        recordNoop(status);
+      } else {
+        changedTasks.add(taskId);
+        changes.add(status);
+      }
+    }
+    return changes;
+  }
+
+  private void applyUpdates(MutableStoreProvider storeProvider, List<TaskStatus> updates) {
+    // The state most recently applied to each task in this batch.
+    Map<String, ScheduleStatus> appliedStates = new HashMap<>();
+    for (TaskStatus status : updates) {
+      String taskId = status.getTaskId().getValue();
+      ScheduleStatus translatedState = Conversions.convertProtoState(status.getState());
+
+      // Repeated updates for a task are coalesced when the earlier update left the task in the
+      // same state.
+      if (appliedStates.get(taskId) == translatedState
+          && storeProvider.getTaskStore().fetchTask(taskId)
+              .map(IScheduledTask::getStatus)
+              .orElse(null) == translatedState) {
+
+        recordNoop(status);
+        continue;
+      }
+
+      StateChangeResult result = stateManager.changeState(
+          storeProvider,
+          taskId,
+          Optional.empty(),
+          translatedState,
+          formatMessage(status));
+      appliedStates.put(taskId, translatedState);
+
+      if (result == StateChangeResult.NOOP) {
+        noopUpdates.incrementAndGet();
+      }
+      if (status.hasReason()) {
+        counters.get(statName(status, result)).incrementAndGet();
+      }
+    }
+  }
+
+  private void recordNoop(TaskStatus status) {
+    noopUpdates.incrementAndGet();
+    if (status.hasReason()) {
+      counters.get(statName(status, StateChangeResult.NOOP)).incrementAndGet();
+    }
+  }
+
+  @VisibleForTesting
+  static String batchSizeStatName(int batchSize) {
+    for (int bound : BATCH_SIZE_BUCKETS) {
+      if (batchSize <= bound) {
+        return "status_updates_batch_size_le_" + bound;
+      }
+    }
+    return "status_updates_batch_size_gt_" + BATCH_SIZE_BUCKETS[BATCH_SIZE_BUCKETS.length - 1];
+  }
+
   @VisibleForTesting
   static String statName(TaskStatus status, StateChangeResult result) {
     return "status_update_" + status.getReason() + "_" + result;
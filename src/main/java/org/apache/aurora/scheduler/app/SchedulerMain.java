@@ -188,7 +188,7 @@ public class SchedulerMain {
         new StatsModule(options.stats),
         new AppModule(options),
         new CronModule(options.cron),
-        new MemStorageModule(Bindings.annotatedKeyFactory(Volatile.class)));
+        new MemStorageModule(options.memStorage, Bindings.annotatedKeyFactory(Volatile.class)));
   }
 
   /**
@@ -251,7 +251,7 @@ public class SchedulerMain {
         .add(
             new CommandLineDriverSettingsModule(options.driver, options.main.allowGpuResource),
             new LibMesosLoadingModule(options.main.driverImpl),
-            new DurableStorageModule(),
+            new DurableStorageModule(options.durableStorage),
             new MesosLogStreamModule(options.mesosLog, FlaggedZooKeeperConfig.create(options.zk)),
             new LogPersistenceModule(options.logPersistence),
             new SnapshotModule(options.snapshot),
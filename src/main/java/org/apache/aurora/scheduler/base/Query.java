@@ -17,6 +17,7 @@ import java.util.EnumSet;
 import java.util.Objects;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
@@ -353,6 +354,31 @@ public final class Query {
       return new Builder(query.deepCopy().setJobKeys(IJobKey.toBuildersSet(jobKeys)));
     }
 
+    /**
+     * Returns a new builder that skips the given number of matching tasks. The order of matching
+     * tasks is not specified, but is stable as long as the matching tasks are not modified.
+     *
+     * @param offset The number of matching tasks to skip, where {@code 0} skips none.
+     * @return A new Builder that skips {@code offset} matching tasks.
+     */
+    public Builder offset(int offset) {
+      Preconditions.checkArgument(offset >= 0, "Offset must not be negative.");
+
+      return new Builder(query.deepCopy().setOffset(offset));
+    }
+
+    /**
+     * Returns a new builder that yields at most the given number of matching tasks.
+     *
+     * @param limit The maximum number of tasks to yield, where {@code 0} imposes no limit.
+     * @return A new Builder limited to {@code limit} matching tasks.
+     */
+    public Builder limit(int limit) {
+      Preconditions.checkArgument(limit >= 0, "Limit must not be negative.");
+
+      return new Builder(query.deepCopy().setLimit(limit));
+    }
+
     /**
      * A convenience method to scope this builder to {@link Tasks#ACTIVE_STATES}.
      *
@@ -18,8 +18,10 @@ import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
 
 import org.apache.aurora.common.collections.Pair;
 import org.apache.aurora.scheduler.base.Query;
@@ -47,7 +49,13 @@ public final class AttributeAggregate {
    * A mapping from attribute name and value to the count of tasks with that name/value combination.
    * See doc for {@link #getNumTasksWithAttribute(String, String)} for further details.
    */
-  private Supplier<Multiset<Pair<String, String>>> aggregate;
+  private final Supplier<Multiset<Pair<String, String>>> aggregate;
+
+  /**
+   * Attributes of the hosts that tasks were placed on after the aggregate was captured.  These are
+   * kept apart from the captured aggregate so that a placement does not copy it.
+   */
+  private final Multiset<Pair<String, String>> placed = HashMultiset.create();
 
   private AttributeAggregate(Supplier<Multiset<Pair<String, String>>> aggregate) {
     this.aggregate = Suppliers.memoize(aggregate);
@@ -99,6 +107,16 @@ public final class AttributeAggregate {
     return new AttributeAggregate(aggregator);
   }
 
+  /**
+   * Creates an {@link AttributeAggregate} from precomputed attribute counts.
+   *
+   * @param counts Count of tasks for each attribute name and value.  Must not be mutated afterwards.
+   * @return An {@link AttributeAggregate} instance.
+   */
+  static AttributeAggregate fromCounts(Multiset<Pair<String, String>> counts) {
+    return new AttributeAggregate(Suppliers.ofInstance(counts));
+  }
+
   private static ImmutableMultiset.Builder<Pair<String, String>> addAttributes(
       ImmutableMultiset.Builder<Pair<String, String>> builder,
       Iterable<IAttribute> attributes) {
@@ -112,16 +130,11 @@ public final class AttributeAggregate {
   }
 
   public void updateAttributeAggregate(IHostAttributes attributes) {
-    final Supplier<Multiset<Pair<String, String>>> previous = aggregate;
-    aggregate = Suppliers.memoize(
-        () -> {
-          ImmutableMultiset.Builder<Pair<String, String>> builder
-              = new ImmutableMultiset.Builder<>();
-          builder.addAll(previous.get());
-          addAttributes(builder, attributes.getAttributes());
-          return builder.build();
-        }
-    );
+    for (IAttribute attribute : attributes.getAttributes()) {
+      for (String value : attribute.getValues()) {
+        placed.add(Pair.of(attribute.getName(), value));
+      }
+    }
   }
 
   @VisibleForTesting
@@ -147,12 +160,13 @@ public final class AttributeAggregate {
    * @return Number of tasks in the job whose hosts have the provided attribute name and value.
    */
   public long getNumTasksWithAttribute(String name, String value) {
-    return aggregate.get().count(Pair.of(name, value));
+    Pair<String, String> attribute = Pair.of(name, value);
+    return aggregate.get().count(attribute) + placed.count(attribute);
   }
 
   @VisibleForTesting
   Multiset<Pair<String, String>> getAggregates() {
-    return aggregate.get();
+    return placed.isEmpty() ? aggregate.get() : Multisets.sum(aggregate.get(), placed);
   }
 
   @Override
@@ -13,18 +13,17 @@
  */
 package org.apache.aurora.scheduler.filter;
 
+import java.util.Comparator;
 import java.util.Optional;
 import java.util.Set;
 
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
 
-import org.apache.aurora.gen.Attribute;
+import org.apache.aurora.gen.TaskConstraint;
 import org.apache.aurora.scheduler.base.SchedulerException;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.Veto;
-import org.apache.aurora.scheduler.storage.entities.IAttribute;
 import org.apache.aurora.scheduler.storage.entities.IConstraint;
 import org.apache.aurora.scheduler.storage.entities.ITaskConstraint;
 
@@ -36,75 +35,103 @@ final class ConstraintMatcher {
     // Utility class.
   }
 
-  private static final Function<IAttribute, Set<String>> GET_VALUES =
-      IAttribute::getValues;
+  private static boolean isValueConstraint(IConstraint constraint) {
+    return constraint.getConstraint().getSetField() == TaskConstraint._Fields.VALUE;
+  }
+
+  private static final Ordering<IConstraint> VALUES_FIRST = Ordering.from(
+      new Comparator<IConstraint>() {
+        @Override
+        public int compare(IConstraint a, IConstraint b) {
+          if (a.getConstraint().getSetField() == b.getConstraint().getSetField()) {
+            return 0;
+          }
+          return isValueConstraint(a) ? -1 : 1;
+        }
+      });
 
   /**
-   * Gets the veto (if any) for a scheduling constraint based on the {@link AttributeAggregate} this
-   * filter was created with.
+   * Prepares a task's constraints to be matched against many hosts.  Value constraints are ordered
+   * first, since they are cheaper to check than limit constraints.
    *
-   * @param constraint Scheduling filter to check.
-   * @return A veto if the constraint is not satisfied based on the existing state of the job.
+   * @param constraints Task constraints.
+   * @return The compiled constraints, in the order they should be checked.
    */
-  static Optional<Veto> getVeto(
-      AttributeAggregate cachedjobState,
-      Iterable<IAttribute> hostAttributes,
-      IConstraint constraint) {
-
-    Iterable<IAttribute> sameNameAttributes =
-        Iterables.filter(hostAttributes, new NameFilter(constraint.getName()));
-    Optional<IAttribute> attribute;
-    if (Iterables.isEmpty(sameNameAttributes)) {
-      attribute = Optional.empty();
-    } else {
-      Set<String> attributeValues = ImmutableSet.copyOf(
-          Iterables.concat(Iterables.transform(sameNameAttributes, GET_VALUES)));
-      attribute =
-          Optional.of(IAttribute.build(new Attribute(constraint.getName(), attributeValues)));
-    }
-
-    ITaskConstraint taskConstraint = constraint.getConstraint();
-    switch (taskConstraint.getSetField()) {
-      case VALUE:
-        boolean matches = AttributeFilter.matches(
-            attribute.map(GET_VALUES).orElse(ImmutableSet.of()),
-            taskConstraint.getValue());
-        return matches
-            ? Optional.empty()
-            : Optional.of(Veto.constraintMismatch(constraint.getName()));
-
-      case LIMIT:
-        if (!attribute.isPresent()) {
-          return Optional.of(Veto.constraintMismatch(constraint.getName()));
-        }
-
-        boolean satisfied = AttributeFilter.matches(
-            attribute.get(),
-            taskConstraint.getLimit().getLimit(),
-            cachedjobState);
-        return satisfied
-            ? Optional.empty()
-            : Optional.of(Veto.unsatisfiedLimit(constraint.getName()));
-
-      default:
-        throw new SchedulerException("Failed to recognize the constraint type: "
-            + taskConstraint.getSetField());
+  static ImmutableList<CompiledConstraint> compile(Iterable<IConstraint> constraints) {
+    ImmutableList.Builder<CompiledConstraint> compiled = ImmutableList.builder();
+    for (IConstraint constraint : VALUES_FIRST.sortedCopy(constraints)) {
+      compiled.add(new CompiledConstraint(constraint));
     }
+    return compiled.build();
   }
 
   /**
-   * A filter to find attributes matching a name.
+   * A scheduling constraint along with the vetoes it may produce, so that matching it does not
+   * allocate.
    */
-  static class NameFilter implements Predicate<IAttribute> {
-    private final String attributeName;
+  static final class CompiledConstraint {
+    private final String name;
+    private final TaskConstraint._Fields type;
+    private final ImmutableSet<String> values;
+    private final boolean negated;
+    private final int limit;
+    private final Optional<Veto> mismatch;
+    private final Optional<Veto> unsatisfiedLimit;
+
+    CompiledConstraint(IConstraint constraint) {
+      ITaskConstraint taskConstraint = constraint.getConstraint();
+      this.name = constraint.getName();
+      this.type = taskConstraint.getSetField();
+      this.mismatch = Optional.of(Veto.constraintMismatch(name));
+      switch (type) {
+        case VALUE:
+          this.values = ImmutableSet.copyOf(taskConstraint.getValue().getValues());
+          this.negated = taskConstraint.getValue().isNegated();
+          this.limit = 0;
+          this.unsatisfiedLimit = Optional.empty();
+          break;
+
+        case LIMIT:
+          this.values = ImmutableSet.of();
+          this.negated = false;
+          this.limit = taskConstraint.getLimit().getLimit();
+          this.unsatisfiedLimit = Optional.of(Veto.unsatisfiedLimit(name));
+          break;
 
-    NameFilter(String attributeName) {
-      this.attributeName = attributeName;
+        default:
+          throw new SchedulerException("Failed to recognize the constraint type: " + type);
+      }
     }
 
-    @Override
-    public boolean apply(IAttribute attribute) {
-      return attributeName.equals(attribute.getName());
+    /**
+     * Gets the veto (if any) for this constraint on a host.
+     *
+     * @param jobState Existing state of the job.
+     * @param attributes Attributes of the host.
+     * @return A veto if the constraint is not satisfied based on the existing state of the job.
+     */
+    Optional<Veto> getVeto(AttributeAggregate jobState, IndexedHostAttributes attributes) {
+      Set<String> hostValues = attributes.getValues(name);
+      if (type == TaskConstraint._Fields.VALUE) {
+        boolean matches = false;
+        for (String value : values) {
+          if (hostValues.contains(value)) {
+            matches = true;
+            break;
+          }
+        }
+        return negated ^ matches ? Optional.empty() : mismatch;
+      }
+
+      if (!attributes.hasAttribute(name)) {
+        return mismatch;
+      }
+      for (String value : hostValues) {
+        if (limit <= jobState.getNumTasksWithAttribute(name, value)) {
+          return unsatisfiedLimit;
+        }
+      }
+      return Optional.empty();
     }
   }
 }
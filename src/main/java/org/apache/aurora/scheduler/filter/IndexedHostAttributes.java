@@ -0,0 +1,69 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.filter;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import org.apache.aurora.scheduler.storage.entities.IAttribute;
+import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
+
+import static org.apache.aurora.scheduler.configuration.ConfigurationManager.DEDICATED_ATTRIBUTE;
+
+/**
+ * The attributes of a host, indexed by name so that constraints can be matched against them with
+ * hash lookups.  Values of attributes that share a name are merged.
+ */
+public final class IndexedHostAttributes {
+  private final ImmutableMap<String, ImmutableSet<String>> valuesByName;
+
+  private IndexedHostAttributes(ImmutableMap<String, ImmutableSet<String>> valuesByName) {
+    this.valuesByName = valuesByName;
+  }
+
+  /**
+   * Indexes the attributes of a host.
+   *
+   * @param attributes Host attributes.
+   * @return The indexed attributes.
+   */
+  public static IndexedHostAttributes from(IHostAttributes attributes) {
+    Map<String, ImmutableSet.Builder<String>> builders = Maps.newHashMap();
+    for (IAttribute attribute : attributes.getAttributes()) {
+      builders.computeIfAbsent(attribute.getName(), name -> ImmutableSet.builder())
+          .addAll(attribute.getValues());
+    }
+
+    ImmutableMap.Builder<String, ImmutableSet<String>> valuesByName = ImmutableMap.builder();
+    builders.forEach((name, values) -> valuesByName.put(name, values.build()));
+    return new IndexedHostAttributes(valuesByName.build());
+  }
+
+  boolean hasAttribute(String name) {
+    return valuesByName.containsKey(name);
+  }
+
+  Set<String> getValues(String name) {
+    Set<String> values = valuesByName.get(name);
+    return values == null ? ImmutableSet.of() : values;
+  }
+
+  boolean isDedicated() {
+    return hasAttribute(DEDICATED_ATTRIBUTE);
+  }
+}
@@ -0,0 +1,259 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.filter;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Qualifier;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.google.common.eventbus.Subscribe;
+
+import org.apache.aurora.common.collections.Pair;
+import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
+import org.apache.aurora.scheduler.events.PubsubEvent.HostAttributesChanged;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
+import org.apache.aurora.scheduler.storage.AttributeStore;
+import org.apache.aurora.scheduler.storage.Storage;
+import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
+import org.apache.aurora.scheduler.storage.entities.IAttribute;
+import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
+import org.apache.aurora.scheduler.storage.entities.IJobKey;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maintains the attribute counts of each job's slave-assigned tasks, so that an
+ * {@link AttributeAggregate} for a job can be obtained without fetching all of the job's tasks and
+ * the attributes of their hosts.
+ * <p>
+ * The index is updated from task state change and host attribute change events.  Events are
+ * delivered asynchronously and not necessarily in order, so rather than applying the state carried
+ * by an event, the index re-reads the affected task or host from storage.  Delivery also lags the
+ * transaction that changed a task, so callers that assign tasks must {@link #refresh} them within
+ * the same transaction.  Otherwise a later scheduling attempt could miss the placement and
+ * violate a limit constraint.
+ * <p>
+ * When disabled, aggregates are computed from storage on every call.
+ */
+public class JobAttributeIndex implements EventSubscriber {
+
+  /**
+   * Binding annotation for whether the index is maintained and used.
+   */
+  @Qualifier
+  @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
+  public @interface IncrementalAggregates { }
+
+  private final Storage storage;
+  private final boolean enabled;
+
+  // All of the state below is guarded by the intrinsic lock, which is also held while reading
+  // the tasks and hosts being indexed from storage.
+  private final Map<String, Placement> placements = Maps.newHashMap();
+  private final Multimap<String, String> tasksByHost = HashMultimap.create();
+  private final Map<IJobKey, JobCounts> jobs = Maps.newHashMap();
+
+  @Inject
+  JobAttributeIndex(Storage storage, @IncrementalAggregates boolean enabled) {
+    this.storage = requireNonNull(storage);
+    this.enabled = enabled;
+  }
+
+  /**
+   * Gets the attribute aggregate of a job's slave-assigned tasks.  The returned aggregate is not
+   * affected by subsequent changes to the index.
+   *
+   * @param storeProvider Store provider to compute the aggregate from, if the index is disabled.
+   * @param jobKey Job key.
+   * @return The job's attribute aggregate.
+   */
+  public AttributeAggregate getJobState(StoreProvider storeProvider, IJobKey jobKey) {
+    if (!enabled) {
+      return AttributeAggregate.getJobActiveState(storeProvider, jobKey);
+    }
+
+    synchronized (this) {
+      JobCounts counts = jobs.get(jobKey);
+      return AttributeAggregate.fromCounts(
+          counts == null ? ImmutableMultiset.of() : counts.snapshot());
+    }
+  }
+
+  /**
+   * Updates the index with the current state of tasks in a store.
+   *
+   * @param storeProvider Store provider to read the tasks from.
+   * @param taskIds IDs of the tasks to update.
+   */
+  public void refresh(StoreProvider storeProvider, Set<String> taskIds) {
+    if (!enabled) {
+      return;
+    }
+
+    synchronized (this) {
+      for (String taskId : taskIds) {
+        removePlacement(taskId);
+        storeProvider.getTaskStore().fetchTask(taskId)
+            .filter(task -> Tasks.SLAVE_ASSIGNED_STATES.contains(task.getStatus()))
+            .filter(task -> Tasks.scheduledToSlaveHost(task) != null)
+            .ifPresent(task -> addPlacement(taskId, task, storeProvider.getAttributeStore()));
+      }
+    }
+  }
+
+  @Subscribe
+  public void taskChangedState(TaskStateChange change) {
+    refresh(ImmutableSet.of(Tasks.id(change.getTask())));
+  }
+
+  @Subscribe
+  public void tasksDeleted(TasksDeleted deleted) {
+    refresh(Tasks.ids(deleted.getTasks()));
+  }
+
+  @Subscribe
+  public void hostAttributesChanged(HostAttributesChanged change) {
+    if (!enabled) {
+      return;
+    }
+
+    String host = change.getAttributes().getHost();
+    storage.read(storeProvider -> {
+      synchronized (this) {
+        for (String taskId : ImmutableList.copyOf(tasksByHost.get(host))) {
+          Placement placement = removePlacement(taskId);
+          addPlacement(
+              taskId,
+              placement.jobKey,
+              host,
+              getAttributes(storeProvider.getAttributeStore(), host));
+        }
+      }
+      return null;
+    });
+  }
+
+  private void refresh(Set<String> taskIds) {
+    if (enabled) {
+      storage.read(storeProvider -> {
+        refresh(storeProvider, taskIds);
+        return null;
+      });
+    }
+  }
+
+  private static Iterable<IAttribute> getAttributes(AttributeStore store, String host) {
+    return store.getHostAttributes(host)
+        .map(IHostAttributes::getAttributes)
+        .orElse(ImmutableSet.of());
+  }
+
+  private void addPlacement(String taskId, IScheduledTask task, AttributeStore attributeStore) {
+    String host = Tasks.scheduledToSlaveHost(task);
+    addPlacement(taskId, Tasks.getJob(task), host, getAttributes(attributeStore, host));
+  }
+
+  private void addPlacement(
+      String taskId,
+      IJobKey jobKey,
+      String host,
+      Iterable<IAttribute> attributes) {
+
+    Placement placement = new Placement(jobKey, host, attributes);
+    placements.put(taskId, placement);
+    tasksByHost.put(host, taskId);
+    jobs.computeIfAbsent(jobKey, key -> new JobCounts()).add(placement.attributes);
+  }
+
+  private Placement removePlacement(String taskId) {
+    Placement placement = placements.remove(taskId);
+    if (placement != null) {
+      tasksByHost.remove(placement.host, taskId);
+      JobCounts counts = jobs.get(placement.jobKey);
+      counts.remove(placement.attributes);
+      if (counts.isEmpty()) {
+        jobs.remove(placement.jobKey);
+      }
+    }
+    return placement;
+  }
+
+  /**
+   * The attributes a task was counted with, so that it can be uncounted even if its host's
+   * attributes have since changed.
+   */
+  private static final class Placement {
+    private final IJobKey jobKey;
+    private final String host;
+    private final ImmutableList<Pair<String, String>> attributes;
+
+    Placement(IJobKey jobKey, String host, Iterable<IAttribute> attributes) {
+      this.jobKey = requireNonNull(jobKey);
+      this.host = requireNonNull(host);
+      ImmutableList.Builder<Pair<String, String>> builder = ImmutableList.builder();
+      for (IAttribute attribute : attributes) {
+        for (String value : attribute.getValues()) {
+          builder.add(Pair.of(attribute.getName(), value));
+        }
+      }
+      this.attributes = builder.build();
+    }
+  }
+
+  private static final class JobCounts {
+    private final Multiset<Pair<String, String>> counts = HashMultiset.create();
+    // An immutable copy of the counts, captured on demand and discarded when the counts change.
+    private ImmutableMultiset<Pair<String, String>> snapshot;
+
+    void add(Iterable<Pair<String, String>> attributes) {
+      attributes.forEach(counts::add);
+      snapshot = null;
+    }
+
+    void remove(Iterable<Pair<String, String>> attributes) {
+      attributes.forEach(counts::remove);
+      snapshot = null;
+    }
+
+    boolean isEmpty() {
+      return counts.isEmpty();
+    }
+
+    ImmutableMultiset<Pair<String, String>> snapshot() {
+      if (snapshot == null) {
+        snapshot = ImmutableMultiset.copyOf(counts);
+      }
+      return snapshot;
+    }
+  }
+}
@@ -20,9 +20,12 @@ import java.util.Set;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 
 import org.apache.aurora.scheduler.TierManager;
+import org.apache.aurora.scheduler.configuration.ConfigurationManager;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
+import org.apache.aurora.scheduler.filter.ConstraintMatcher.CompiledConstraint;
 import org.apache.aurora.scheduler.offers.HostOffer;
 import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
@@ -258,6 +261,8 @@ public interface SchedulingFilter {
     private final ResourceBag offer;
     private final IHostAttributes attributes;
     private final Optional<Instant> unavailabilityStart;
+    // Indexed on first use unless provided by the offer.
+    private IndexedHostAttributes indexedAttributes;
 
     @VisibleForTesting
     public UnusedResource(ResourceBag offer, IHostAttributes attributes) {
@@ -266,6 +271,7 @@ public interface SchedulingFilter {
 
     public UnusedResource(HostOffer offer, boolean revocable) {
       this(offer.getResourceBag(revocable), offer.getAttributes(), offer.getUnavailabilityStart());
+      this.indexedAttributes = offer.getIndexedAttributes();
     }
 
     public UnusedResource(ResourceBag offer, IHostAttributes attributes, Optional<Instant> start) {
@@ -282,6 +288,13 @@ public interface SchedulingFilter {
       return attributes;
     }
 
+    IndexedHostAttributes getIndexedAttributes() {
+      if (indexedAttributes == null) {
+        indexedAttributes = IndexedHostAttributes.from(attributes);
+      }
+      return indexedAttributes;
+    }
+
     public Optional<Instant> getUnavailabilityStart() {
       return unavailabilityStart;
     }
@@ -312,6 +325,10 @@ public interface SchedulingFilter {
     private final ResourceBag request;
     private final AttributeAggregate jobState;
     private final boolean revocable;
+    // Derived from the task's constraints once, rather than for every offer the request is matched
+    // against.
+    private final ImmutableList<CompiledConstraint> compiledConstraints;
+    private final boolean dedicated;
 
     private ResourceRequest(
         ITaskConfig task,
@@ -323,6 +340,8 @@ public interface SchedulingFilter {
       this.request = requireNonNull(request);
       this.jobState = requireNonNull(jobState);
       this.revocable = revocable;
+      this.compiledConstraints = ConstraintMatcher.compile(task.getConstraints());
+      this.dedicated = ConfigurationManager.isDedicated(task.getConstraints());
     }
 
     public static ResourceRequest fromTask(
@@ -358,6 +377,14 @@ public interface SchedulingFilter {
       return revocable;
     }
 
+    ImmutableList<CompiledConstraint> getCompiledConstraints() {
+      return compiledConstraints;
+    }
+
+    boolean isDedicated() {
+      return dedicated;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (!(o instanceof ResourceRequest)) {
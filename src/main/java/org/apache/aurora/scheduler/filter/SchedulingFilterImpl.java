@@ -14,7 +14,6 @@
 package org.apache.aurora.scheduler.filter;
 
 import java.time.Instant;
-import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.Optional;
 import java.util.Set;
@@ -23,28 +22,21 @@ import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Ordering;
 
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.util.Clock;
 import org.apache.aurora.gen.MaintenanceMode;
-import org.apache.aurora.gen.TaskConstraint;
-import org.apache.aurora.scheduler.configuration.ConfigurationManager;
+import org.apache.aurora.scheduler.filter.ConstraintMatcher.CompiledConstraint;
 import org.apache.aurora.scheduler.offers.OfferManagerModule.UnavailabilityThreshold;
 import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceType;
-import org.apache.aurora.scheduler.storage.entities.IAttribute;
-import org.apache.aurora.scheduler.storage.entities.IConstraint;
-import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
 
 import static java.util.Objects.requireNonNull;
 
 import static org.apache.aurora.gen.MaintenanceMode.DRAINED;
 import static org.apache.aurora.gen.MaintenanceMode.DRAINING;
-import static org.apache.aurora.scheduler.configuration.ConfigurationManager.DEDICATED_ATTRIBUTE;
 
 /**
  * Implementation of the scheduling filter that ensures resource requirements of tasks are
@@ -85,33 +77,18 @@ public class SchedulingFilterImpl implements SchedulingFilter {
 
   private static Set<Veto> getResourceVetoes(ResourceBag available, ResourceBag required) {
     ImmutableSet.Builder<Veto> vetoes = ImmutableSet.builder();
-    required.streamResourceVectors().forEach(
-        e -> maybeAddVeto(vetoes, e.getKey(), available.valueOf(e.getKey()), e.getValue()));
+    required.forEachVector(
+        (type, value) -> maybeAddVeto(vetoes, type, available.valueOf(type), value));
     return vetoes.build();
   }
 
-  private static boolean isValueConstraint(IConstraint constraint) {
-    return constraint.getConstraint().getSetField() == TaskConstraint._Fields.VALUE;
-  }
-
-  private static final Ordering<IConstraint> VALUES_FIRST = Ordering.from(
-      new Comparator<IConstraint>() {
-        @Override
-        public int compare(IConstraint a, IConstraint b) {
-          if (a.getConstraint().getSetField() == b.getConstraint().getSetField()) {
-            return 0;
-          }
-          return isValueConstraint(a) ? -1 : 1;
-        }
-      });
-
-  private Optional<Veto> getConstraintVeto(
-      Iterable<IConstraint> taskConstraints,
+  private static Optional<Veto> getConstraintVeto(
+      Iterable<CompiledConstraint> taskConstraints,
       AttributeAggregate jobState,
-      Iterable<IAttribute> offerAttributes) {
+      IndexedHostAttributes offerAttributes) {
 
-    for (IConstraint constraint : VALUES_FIRST.sortedCopy(taskConstraints)) {
-      Optional<Veto> veto = ConstraintMatcher.getVeto(jobState, offerAttributes, constraint);
+    for (CompiledConstraint constraint : taskConstraints) {
+      Optional<Veto> veto = constraint.getVeto(jobState, offerAttributes);
       if (veto.isPresent()) {
         // Break early to avoid potentially-expensive operations to satisfy other constraints.
         return veto;
@@ -139,12 +116,6 @@ public class SchedulingFilterImpl implements SchedulingFilter {
     return Optional.empty();
   }
 
-  private boolean isDedicated(IHostAttributes attributes) {
-    return Iterables.any(
-        attributes.getAttributes(),
-        new ConstraintMatcher.NameFilter(DEDICATED_ATTRIBUTE));
-  }
-
   @Timed("scheduling_filter")
   @Override
   public Set<Veto> filter(UnusedResource resource, ResourceRequest request) {
@@ -152,9 +123,10 @@ public class SchedulingFilterImpl implements SchedulingFilter {
     // early any time a veto from a score group is applied. This helps to more accurately report
     // a veto reason in the NearestFit.
 
+    IndexedHostAttributes attributes = resource.getIndexedAttributes();
+
     // 1. Dedicated constraint check (highest score).
-    if (!ConfigurationManager.isDedicated(request.getConstraints())
-        && isDedicated(resource.getAttributes())) {
+    if (!request.isDedicated() && attributes.isDedicated()) {
 
       return ImmutableSet.of(Veto.dedicatedHostConstraintMismatch());
     }
@@ -173,9 +145,9 @@ public class SchedulingFilterImpl implements SchedulingFilter {
 
     // 3. Value and limit constraint check.
     Optional<Veto> constraintVeto = getConstraintVeto(
-        request.getConstraints(),
+        request.getCompiledConstraints(),
         request.getJobState(),
-        resource.getAttributes().getAttributes());
+        attributes);
 
     if (constraintVeto.isPresent()) {
       return ImmutableSet.of(constraintVeto.get());
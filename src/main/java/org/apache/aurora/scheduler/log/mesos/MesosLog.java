@@ -15,6 +15,8 @@ package org.apache.aurora.scheduler.log.mesos;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -31,7 +33,6 @@ import javax.inject.Qualifier;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.UnmodifiableIterator;
 import com.google.common.primitives.Longs;
 
@@ -76,6 +77,14 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
   @Target({ PARAMETER, METHOD })
   public @interface ReadTimeout { }
 
+  /**
+   * Binding annotation for the maximum number of log positions fetched by a single read.
+   */
+  @Qualifier
+  @Retention(RUNTIME)
+  @Target({ PARAMETER, METHOD })
+  public @interface ReadBatchSize { }
+
   /**
    * Binding annotation for log write timeouts - used for truncates and appends.
    */
@@ -88,6 +97,7 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
 
   private final Provider<ReaderInterface> readerFactory;
   private final Amount<Long, Time> readTimeout;
+  private final int readBatchSize;
 
   private final Provider<WriterInterface> writerFactory;
   private final Amount<Long, Time> writeTimeout;
@@ -102,6 +112,7 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
    * @param logFactory Factory to provide access to log.
    * @param readerFactory Factory to provide access to log readers.
    * @param readTimeout Log read timeout.
+   * @param readBatchSize Maximum number of log positions to fetch in a single read.
    * @param writerFactory Factory to provide access to log writers.
    * @param writeTimeout Log write timeout.
    * @param noopEntry A no-op log entry blob.
@@ -112,6 +123,7 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
       Provider<LogInterface> logFactory,
       Provider<ReaderInterface> readerFactory,
       @ReadTimeout Amount<Long, Time> readTimeout,
+      @ReadBatchSize int readBatchSize,
       Provider<WriterInterface> writerFactory,
       @WriteTimeout Amount<Long, Time> writeTimeout,
       @NoopEntry byte[] noopEntry,
@@ -121,6 +133,8 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
 
     this.readerFactory = requireNonNull(readerFactory);
     this.readTimeout = requireNonNull(readTimeout);
+    Preconditions.checkArgument(readBatchSize > 0);
+    this.readBatchSize = readBatchSize;
 
     this.writerFactory = requireNonNull(writerFactory);
     this.writeTimeout = requireNonNull(writeTimeout);
@@ -136,6 +150,7 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
         logFactory.get(),
         readerFactory.get(),
         readTimeout,
+        readBatchSize,
         writerFactory,
         writeTimeout,
         noopEntry,
@@ -177,6 +192,7 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
     private final ReaderInterface reader;
     private final long readTimeout;
     private final TimeUnit readTimeUnit;
+    private final int readBatchSize;
 
     private final Provider<WriterInterface> writerFactory;
     private final long writeTimeout;
@@ -203,6 +219,7 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
         LogInterface log,
         ReaderInterface reader,
         Amount<Long, Time> readTimeout,
+        int readBatchSize,
         Provider<WriterInterface> writerFactory,
         Amount<Long, Time> writeTimeout,
         byte[] noopEntry,
@@ -213,6 +230,7 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
       this.reader = reader;
       this.readTimeout = readTimeout.getValue();
       this.readTimeUnit = readTimeout.getUnit().getTimeUnit();
+      this.readBatchSize = readBatchSize;
 
       this.writerFactory = writerFactory;
       this.writeTimeout = writeTimeout.getValue();
@@ -239,40 +257,45 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
       final Log.Position to = end().unwrap();
 
       // Reading all the entries at once may cause large garbage collections. Instead, we
-      // lazily read the entries one by one as they are requested.
+      // lazily read the entries in batches of positions as they are requested.
       // TODO(Benjamin Hindman): Eventually replace this functionality with functionality
       // from the Mesos Log.
       return new UnmodifiableIterator<Entry>() {
         private long position = Longs.fromByteArray(from.identity());
         private final long endPosition = Longs.fromByteArray(to.identity());
-        private Entry entry = null;
+        private final Deque<Entry> entries = new ArrayDeque<>();
 
         @Override
         public boolean hasNext() {
-          if (entry != null) {
+          if (!entries.isEmpty()) {
             return true;
           }
 
           while (position <= endPosition) {
             long start = System.nanoTime();
             try {
-              Log.Position p = log.position(Longs.toByteArray(position));
-              LOG.debug("Reading position {} from the log", position);
-              List<Log.Entry> entries = reader.read(p, p, readTimeout, readTimeUnit);
+              long batchEnd = Math.min(endPosition, position + readBatchSize - 1);
+              Log.Position first = log.position(Longs.toByteArray(position));
+              Log.Position last = batchEnd == position
+                  ? first
+                  : log.position(Longs.toByteArray(batchEnd));
+              LOG.debug("Reading positions {} through {} from the log", position, batchEnd);
+              List<Log.Entry> read = reader.read(first, last, readTimeout, readTimeUnit);
 
               // N.B. HACK! There is currently no way to "increment" a position. Until the Mesos
               // Log actually provides a way to "stream" the log, we approximate as much by
               // using longs via Log.Position.identity and Log.position.
-              position++;
+              long positionsRead = batchEnd - position + 1;
+              position = batchEnd + 1;
 
-              // Reading positions in this way means it's possible that we get an "invalid" entry
+              // Reading positions in this way means it's possible that we get "invalid" entries
               // (e.g., in the underlying log terminology this would be anything but an append)
-              // which will be removed from the returned entries resulting in an empty list.
-              // We skip these.
-              if (entries.isEmpty()) {
-                entriesSkipped.getAndIncrement();
-              } else {
-                entry = MESOS_ENTRY_TO_ENTRY.apply(Iterables.getOnlyElement(entries));
+              // which will be removed from the returned entries.  We skip these.
+              entriesSkipped.getAndAdd(positionsRead - read.size());
+              for (Log.Entry entry : read) {
+                entries.add(MESOS_ENTRY_TO_ENTRY.apply(entry));
+              }
+              if (!entries.isEmpty()) {
                 return true;
               }
             } catch (TimeoutException e) {
@@ -290,13 +313,11 @@ public class MesosLog implements org.apache.aurora.scheduler.log.Log {
 
         @Override
         public Entry next() {
-          if (entry == null && !hasNext()) {
+          if (entries.isEmpty() && !hasNext()) {
             throw new NoSuchElementException();
           }
 
-          Entry result = requireNonNull(entry);
-          entry = null;
-          return result;
+          return entries.remove();
         }
       };
     }
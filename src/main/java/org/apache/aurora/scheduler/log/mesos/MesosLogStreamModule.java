@@ -36,6 +36,7 @@ import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.zookeeper.Credentials;
 import org.apache.aurora.gen.storage.LogEntry;
 import org.apache.aurora.scheduler.config.types.TimeAmount;
+import org.apache.aurora.scheduler.config.validators.PositiveNumber;
 import org.apache.aurora.scheduler.discovery.ServiceDiscoveryBindings;
 import org.apache.aurora.scheduler.discovery.ZooKeeperConfig;
 import org.apache.aurora.scheduler.log.mesos.LogInterface.ReaderInterface;
@@ -92,6 +93,11 @@ public class MesosLogStreamModule extends PrivateModule {
         description = "The timeout for doing log reads.")
     public TimeAmount readTimeout = new TimeAmount(5, Time.SECONDS);
 
+    @Parameter(names = "-native_log_read_batch_size",
+        validateValueWith = PositiveNumber.class,
+        description = "The maximum number of log positions to fetch in a single log read.")
+    public int readBatchSize = 64;
+
     @Parameter(names = "-native_log_write_timeout",
         description = "The timeout for doing log appends and truncations.")
     public TimeAmount writeTimeout = new TimeAmount(3, Time.SECONDS);
@@ -119,6 +125,8 @@ public class MesosLogStreamModule extends PrivateModule {
   protected void configure() {
     bind(new TypeLiteral<Amount<Long, Time>>() { }).annotatedWith(MesosLog.ReadTimeout.class)
         .toInstance(options.readTimeout);
+    bind(Integer.class).annotatedWith(MesosLog.ReadBatchSize.class)
+        .toInstance(options.readBatchSize);
     bind(new TypeLiteral<Amount<Long, Time>>() { }).annotatedWith(MesosLog.WriteTimeout.class)
         .toInstance(options.writeTimeout);
 
@@ -16,12 +16,11 @@ package org.apache.aurora.scheduler.offers;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Supplier;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.base.Suppliers;
 
 import org.apache.aurora.scheduler.base.Conversions;
+import org.apache.aurora.scheduler.filter.IndexedHostAttributes;
 import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceType;
 import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
@@ -38,8 +37,16 @@ import static org.apache.mesos.v1.Protos.Offer;
 public class HostOffer {
   private final Offer offer;
   private final IHostAttributes hostAttributes;
-  private final Supplier<ResourceBag> revocableResources;
-  private final Supplier<ResourceBag> nonRevocableResources;
+  // Attributes indexed for constraint matching, computed once for all requests matched against
+  // this offer.
+  private final IndexedHostAttributes indexedAttributes;
+  private final ResourceBag revocableResources;
+  private final ResourceBag nonRevocableResources;
+  private final Optional<Instant> unavailabilityStart;
+
+  // Values that offers may be ordered by, computed once so that comparing offers does not need to
+  // read the offer's resources or allocate.  Indexed by SortKey ordinal.
+  private final double[] sortKeys;
 
   // Offers lacking CPU or mem are flagged so that they may be efficiently ignored during
   // scheduling.  However, they are retained for other purposes such as preemption and cluster
@@ -48,14 +55,40 @@ public class HostOffer {
   // of whether the resource is revocable.
   private final boolean nonZeroCpuAndMem;
 
+  /**
+   * Resource values that offers may be ordered by.
+   */
+  enum SortKey {
+    CPUS(ResourceType.CPUS, false),
+    RAM_MB(ResourceType.RAM_MB, false),
+    DISK_MB(ResourceType.DISK_MB, false),
+    REVOCABLE_CPUS(ResourceType.CPUS, true);
+
+    private final ResourceType type;
+    private final boolean revocable;
+
+    SortKey(ResourceType type, boolean revocable) {
+      this.type = type;
+      this.revocable = revocable;
+    }
+  }
+
   public HostOffer(Offer offer, IHostAttributes hostAttributes) {
     this.offer = requireNonNull(offer);
     this.hostAttributes = requireNonNull(hostAttributes);
+    this.indexedAttributes = IndexedHostAttributes.from(hostAttributes);
     this.nonZeroCpuAndMem = offerHasCpuAndMem(offer);
-    this.revocableResources =
-        Suppliers.memoize(() -> bagFromMesosResources(getOfferResources(offer, true)));
-    this.nonRevocableResources =
-        Suppliers.memoize(() -> bagFromMesosResources(getOfferResources(offer, false)));
+    this.revocableResources = bagFromMesosResources(getOfferResources(offer, true));
+    this.nonRevocableResources = bagFromMesosResources(getOfferResources(offer, false));
+    this.unavailabilityStart = offer.hasUnavailability()
+        ? Optional.of(Conversions.getStart(offer.getUnavailability()))
+        : Optional.empty();
+
+    SortKey[] keys = SortKey.values();
+    sortKeys = new double[keys.length];
+    for (SortKey key : keys) {
+      sortKeys[key.ordinal()] = getResourceBag(key.revocable).valueOf(key.type);
+    }
   }
 
   private static boolean offerHasCpuAndMem(Offer offer) {
@@ -72,20 +105,24 @@ public class HostOffer {
     return hostAttributes;
   }
 
+  public IndexedHostAttributes getIndexedAttributes() {
+    return indexedAttributes;
+  }
+
   public boolean hasCpuAndMem() {
     return nonZeroCpuAndMem;
   }
 
   public ResourceBag getResourceBag(boolean revocable) {
-    return revocable ? revocableResources.get() : nonRevocableResources.get();
+    return revocable ? revocableResources : nonRevocableResources;
   }
 
   public Optional<Instant> getUnavailabilityStart() {
-    if (offer.hasUnavailability()) {
-      return Optional.of(Conversions.getStart(offer.getUnavailability()));
-    } else {
-      return Optional.empty();
-    }
+    return unavailabilityStart;
+  }
+
+  double getSortKey(SortKey key) {
+    return sortKeys[key.ordinal()];
   }
 
   @Override
@@ -13,15 +13,22 @@
  */
 package org.apache.aurora.scheduler.offers;
 
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.FluentIterable;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -42,6 +49,15 @@ import static java.util.Objects.requireNonNull;
  * reason about the different indices used and their consistency.
  */
 class HostOffers {
+  // Candidate offers are matched in batches that double in size up to this limit, so that the
+  // first matching offer is found without evaluating many more, while long scans take the monitor
+  // once per batch rather than once per offer.
+  private static final int MAX_MATCH_BATCH_SIZE = 1024;
+
+  // Batches of at least this many offers are evaluated across the veto pool, if there is one.
+  @VisibleForTesting
+  static final int PARALLEL_VETO_THRESHOLD = 64;
+
   private final OfferSet offers;
 
   private final Map<Protos.OfferID, HostOffer> offersById = Maps.newHashMap();
@@ -59,6 +75,11 @@ class HostOffers {
   // Keep track of the number of offers evaluated for vetoes when getting matching offers
   private final AtomicLong vetoEvaluatedOffers;
 
+  // Time spent holding the monitor while matching offers.
+  private final AtomicLong matchingMonitorHoldNanos;
+
+  private final Optional<ForkJoinPool> vetoPool;
+
   HostOffers(StatsProvider statsProvider,
              OfferSettings offerSettings,
              SchedulingFilter schedulingFilter) {
@@ -67,6 +88,7 @@ class HostOffers {
         .getStaticBanCacheBuilder()
         .build();
     this.schedulingFilter = requireNonNull(schedulingFilter);
+    this.vetoPool = offerSettings.getVetoPool();
 
     statsProvider.makeGauge(OfferManagerImpl.OUTSTANDING_OFFERS, offers::size);
     statsProvider.makeGauge(OfferManagerImpl.STATICALLY_BANNED_OFFERS,
@@ -76,6 +98,8 @@ class HostOffers {
     statsProvider.makeGauge(OfferManagerImpl.GLOBALLY_BANNED_OFFERS, globallyBannedOffers::size);
 
     vetoEvaluatedOffers = statsProvider.makeCounter(OfferManagerImpl.VETO_EVALUATED_OFFERS);
+    matchingMonitorHoldNanos =
+        statsProvider.makeCounter(OfferManagerImpl.MATCHING_MONITOR_HOLD_NANOS);
   }
 
   /**
@@ -151,64 +175,140 @@ class HostOffers {
         .toSet();
   }
 
-  synchronized Optional<HostOffer> getMatching(
-      Protos.AgentID slaveId,
-      ResourceRequest resourceRequest) {
-
-    return get(slaveId)
-        .filter(offer -> !isGloballyBanned(offer))
-        .filter(offer -> !isVetoed(offer, resourceRequest, Optional.empty()));
+  Optional<HostOffer> getMatching(Protos.AgentID slaveId, ResourceRequest resourceRequest) {
+    // The offer is vetoed outside of the monitor, as the scheduling filter may be expensive.
+    return get(slaveId).filter(offer -> getVetoes(offer, resourceRequest).isEmpty());
   }
 
   /**
-   * Returns a weakly-consistent iterable giving the available offers to a given
-   * {@code groupKey}. This iterable can handle concurrent operations on its underlying
-   * collection, and may reflect changes that happen after the construction of the iterable.
-   * This property is mainly used in {@code launchTask}.
+   * Returns an iterable giving the available offers to a given {@code groupKey}, in offer order.
+   * <p>
+   * Candidates are read from the offer set and matched lazily in batches as the iterable is
+   * consumed, so offers added or removed during iteration may or may not be seen.  Each batch of
+   * candidates is read under the monitor, and vetoes are evaluated without holding it, across the
+   * veto pool for large batches.  Matched offers are then claimed under the monitor, dropping any
+   * offer that was removed or banned in the meantime.
    *
    * @param groupKey The task group to get offers for.
    * @return The offers a given task group can use.
    */
-  synchronized Iterable<HostOffer> getAllMatching(TaskGroupKey groupKey,
-                                                  ResourceRequest resourceRequest) {
+  Iterable<HostOffer> getAllMatching(TaskGroupKey groupKey, ResourceRequest resourceRequest) {
+    return () -> new MatchingOffers(groupKey, resourceRequest);
+  }
 
-    return Iterables.unmodifiableIterable(
-        FluentIterable.from(offers.getOrdered(groupKey, resourceRequest))
-            .filter(o -> !isGloballyBanned(o))
-            .filter(o -> !isStaticallyBanned(o, groupKey))
-            .filter(HostOffer::hasCpuAndMem)
-            .filter(o -> !isVetoed(o, resourceRequest, Optional.of(groupKey))));
+  private <T> T holdingMonitor(Supplier<T> work) {
+    synchronized (this) {
+      long start = System.nanoTime();
+      try {
+        return work.get();
+      } finally {
+        matchingMonitorHoldNanos.addAndGet(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private boolean isEligible(HostOffer offer, TaskGroupKey groupKey) {
+    Protos.OfferID id = offer.getOffer().getId();
+    return offersById.get(id) == offer
+        && !globallyBannedOffers.contains(id)
+        && staticallyBannedOffers.getIfPresent(Pair.of(id, groupKey)) == null;
   }
 
-  private synchronized boolean isGloballyBanned(HostOffer offer) {
-    return globallyBannedOffers.contains(offer.getOffer().getId());
+  private List<HostOffer> match(
+      List<HostOffer> eligible,
+      TaskGroupKey groupKey,
+      ResourceRequest resourceRequest) {
+
+    List<Set<Veto>> vetoes = getVetoes(eligible, resourceRequest);
+
+    return holdingMonitor(() -> {
+      List<HostOffer> matched = Lists.newArrayListWithCapacity(eligible.size());
+      for (int i = 0; i < eligible.size(); i++) {
+        HostOffer offer = eligible.get(i);
+        Set<Veto> offerVetoes = vetoes.get(i);
+        if (offerVetoes.isEmpty()) {
+          if (isEligible(offer, groupKey)) {
+            matched.add(offer);
+          }
+        } else if (Veto.identifyGroup(offerVetoes) == SchedulingFilter.VetoGroup.STATIC) {
+          // Temporarily ban the offer from ever matching the task group.
+          addStaticGroupBan(offer.getOffer().getId(), groupKey);
+        }
+      }
+      return matched;
+    });
   }
 
-  private synchronized boolean isStaticallyBanned(HostOffer offer, TaskGroupKey groupKey) {
-    return staticallyBannedOffers.getIfPresent(Pair.of(offer.getOffer().getId(), groupKey)) != null;
+  private List<Set<Veto>> getVetoes(List<HostOffer> batch, ResourceRequest resourceRequest) {
+    if (vetoPool.isPresent() && batch.size() >= PARALLEL_VETO_THRESHOLD) {
+      return vetoPool.get().submit(() -> batch.parallelStream()
+          .map(offer -> getVetoes(offer, resourceRequest))
+          .collect(Collectors.toList()))
+          .join();
+    }
+
+    return batch.stream()
+        .map(offer -> getVetoes(offer, resourceRequest))
+        .collect(Collectors.toList());
   }
 
   /**
-   * Determine whether or not the {@link HostOffer} is vetoed for the given {@link ResourceRequest}.
-   * If {@code groupKey} is present, this method will also temporarily ban the offer from ever
-   * matching the {@link TaskGroupKey}.
+   * Evaluates the vetoes of the {@link HostOffer} for the given {@link ResourceRequest}.
    */
-  private boolean isVetoed(HostOffer offer,
-                           ResourceRequest resourceRequest,
-                           Optional<TaskGroupKey> groupKey) {
-
+  private Set<Veto> getVetoes(HostOffer offer, ResourceRequest resourceRequest) {
     vetoEvaluatedOffers.incrementAndGet();
     UnusedResource unusedResource = new UnusedResource(offer, resourceRequest.isRevocable());
-    Set<Veto> vetoes = schedulingFilter.filter(unusedResource, resourceRequest);
-    if (!vetoes.isEmpty()) {
-      if (groupKey.isPresent() && Veto.identifyGroup(vetoes) == SchedulingFilter.VetoGroup.STATIC) {
-        addStaticGroupBan(offer.getOffer().getId(), groupKey.get());
-      }
+    return schedulingFilter.filter(unusedResource, resourceRequest);
+  }
 
-      return true;
+  /**
+   * Matches candidate offers in batches of increasing size as they are consumed.
+   */
+  private final class MatchingOffers extends AbstractIterator<HostOffer> {
+    private final TaskGroupKey groupKey;
+    private final ResourceRequest resourceRequest;
+    // Created and advanced while holding the monitor.
+    private Iterator<HostOffer> candidates;
+    private boolean exhausted = false;
+    private Iterator<HostOffer> matched = Collections.emptyIterator();
+    private int batchSize = 1;
+
+    MatchingOffers(TaskGroupKey groupKey, ResourceRequest resourceRequest) {
+      this.groupKey = groupKey;
+      this.resourceRequest = resourceRequest;
     }
 
-    return false;
+    @Override
+    protected HostOffer computeNext() {
+      while (!matched.hasNext()) {
+        if (exhausted) {
+          return endOfData();
+        }
+
+        List<HostOffer> eligible = holdingMonitor(this::nextEligible);
+        batchSize = Math.min(batchSize * 2, MAX_MATCH_BATCH_SIZE);
+        matched = match(eligible, groupKey, resourceRequest).iterator();
+      }
+      return matched.next();
+    }
+
+    // Must be called while holding the monitor.  Reads the next batch of candidates, returning
+    // those that are eligible to be matched.
+    private List<HostOffer> nextEligible() {
+      if (candidates == null) {
+        candidates = offers.getOrdered(groupKey, resourceRequest).iterator();
+      }
+
+      List<HostOffer> eligible = Lists.newArrayListWithCapacity(batchSize);
+      for (int i = 0; i < batchSize && candidates.hasNext(); i++) {
+        HostOffer offer = candidates.next();
+        if (offer.hasCpuAndMem() && isEligible(offer, groupKey)) {
+          eligible.add(offer);
+        }
+      }
+      exhausted = !candidates.hasNext();
+      return eligible;
+    }
   }
 
   @VisibleForTesting
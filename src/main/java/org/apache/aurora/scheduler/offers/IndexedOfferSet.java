@@ -0,0 +1,212 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.offers;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Ordering;
+import com.google.inject.Inject;
+
+import org.apache.aurora.scheduler.base.TaskGroupKey;
+import org.apache.aurora.scheduler.filter.SchedulingFilter.ResourceRequest;
+import org.apache.aurora.scheduler.resources.ResourceBag;
+import org.apache.aurora.scheduler.resources.ResourceType;
+
+import static java.util.Objects.requireNonNull;
+
+import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
+import static org.apache.aurora.scheduler.resources.ResourceType.DISK_MB;
+import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
+
+/**
+ * An OfferSet that indexes offers by their CPU, RAM and disk resources, so that
+ * {@link #getOrdered(TaskGroupKey, ResourceRequest)} only yields offers with enough resources to
+ * satisfy the request.
+ * <p>
+ * Offers are grouped into buckets by the binary order of magnitude of each indexed resource,
+ * separately for revocable and non-revocable resources.  A request only visits the buckets that
+ * may hold offers large enough for it.  Every bucket is ordered by the configured offer ordering,
+ * so merging the visited buckets yields fitting offers in that ordering.
+ */
+@VisibleForTesting
+public class IndexedOfferSet implements OfferSet {
+
+  private final Ordering<HostOffer> ordering;
+  private final Set<HostOffer> offers;
+  private final Index nonRevocable = new Index(false);
+  private final Index revocable = new Index(true);
+
+  @Inject
+  public IndexedOfferSet(Ordering<HostOffer> ordering) {
+    this.ordering = requireNonNull(ordering);
+    offers = new ConcurrentSkipListSet<>(ordering);
+  }
+
+  @Override
+  public synchronized void add(HostOffer offer) {
+    if (offers.add(offer)) {
+      nonRevocable.add(offer);
+      revocable.add(offer);
+    }
+  }
+
+  @Override
+  public synchronized void remove(HostOffer removed) {
+    if (offers.remove(removed)) {
+      nonRevocable.remove(removed);
+      revocable.remove(removed);
+    }
+  }
+
+  @Override
+  public int size() {
+    return offers.size();
+  }
+
+  @Override
+  public synchronized void clear() {
+    offers.clear();
+    nonRevocable.clear();
+    revocable.clear();
+  }
+
+  @Override
+  public Iterable<HostOffer> values() {
+    return offers;
+  }
+
+  @Override
+  public Iterable<HostOffer> getOrdered(TaskGroupKey groupKey, ResourceRequest resourceRequest) {
+    Index index = resourceRequest.isRevocable() ? revocable : nonRevocable;
+    return index.getFitting(resourceRequest.getResourceBag());
+  }
+
+  /**
+   * Whether an offer has enough of each requested resource.  This mirrors the resource check of
+   * the scheduling filter, so that no offer the filter would accept is skipped.
+   */
+  private static boolean fits(ResourceBag available, ResourceBag requested) {
+    for (Map.Entry<ResourceType, Double> entry : requested.getResourceVectors().entrySet()) {
+      if (entry.getValue() - available.valueOf(entry.getKey()) > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private final class Index {
+    private final boolean revocable;
+    // Buckets are only added and removed while holding the offer set's monitor, but may be read
+    // concurrently by iterators.
+    private final ConcurrentMap<BucketKey, Set<HostOffer>> buckets = new ConcurrentHashMap<>();
+
+    Index(boolean revocable) {
+      this.revocable = revocable;
+    }
+
+    void add(HostOffer offer) {
+      buckets.computeIfAbsent(
+          BucketKey.of(offer.getResourceBag(revocable)),
+          key -> new ConcurrentSkipListSet<>(ordering))
+          .add(offer);
+    }
+
+    void remove(HostOffer offer) {
+      BucketKey key = BucketKey.of(offer.getResourceBag(revocable));
+      Set<HostOffer> bucket = buckets.get(key);
+      if (bucket != null) {
+        bucket.remove(offer);
+        if (bucket.isEmpty()) {
+          buckets.remove(key);
+        }
+      }
+    }
+
+    void clear() {
+      buckets.clear();
+    }
+
+    Iterable<HostOffer> getFitting(ResourceBag requested) {
+      BucketKey minimum = BucketKey.of(requested);
+      return () -> {
+        List<Iterator<HostOffer>> candidates = buckets.entrySet().stream()
+            .filter(entry -> entry.getKey().canHold(minimum))
+            .map(entry -> entry.getValue().iterator())
+            .collect(Collectors.toList());
+
+        // Offers in buckets at the boundary of the request may still be too small.
+        return Iterators.filter(
+            Iterators.mergeSorted(candidates, ordering),
+            offer -> fits(offer.getResourceBag(revocable), requested));
+      };
+    }
+  }
+
+  /**
+   * Identifies a bucket of offers by the binary exponent of each indexed resource.  The exponent
+   * never decreases as a value grows, so an offer can only fit a request if its bucket is at least
+   * as large as the request's bucket in every dimension.
+   */
+  private static final class BucketKey {
+    private final int cpus;
+    private final int ramMb;
+    private final int diskMb;
+
+    private BucketKey(int cpus, int ramMb, int diskMb) {
+      this.cpus = cpus;
+      this.ramMb = ramMb;
+      this.diskMb = diskMb;
+    }
+
+    static BucketKey of(ResourceBag bag) {
+      return new BucketKey(
+          exponent(bag.valueOf(CPUS)),
+          exponent(bag.valueOf(RAM_MB)),
+          exponent(bag.valueOf(DISK_MB)));
+    }
+
+    private static int exponent(double value) {
+      // Empty resources are placed below any non-empty value.
+      return value > 0 ? Math.getExponent(value) : Integer.MIN_VALUE;
+    }
+
+    boolean canHold(BucketKey request) {
+      return cpus >= request.cpus && ramMb >= request.ramMb && diskMb >= request.diskMb;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof BucketKey)) {
+        return false;
+      }
+      BucketKey other = (BucketKey) o;
+      return cpus == other.cpus && ramMb == other.ramMb && diskMb == other.diskMb;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(cpus, ramMb, diskMb);
+    }
+  }
+}
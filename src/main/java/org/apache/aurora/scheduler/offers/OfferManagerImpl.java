@@ -57,6 +57,8 @@ public class OfferManagerImpl implements OfferManager {
   static final String GLOBALLY_BANNED_OFFERS = "globally_banned_offers_size";
   @VisibleForTesting
   static final String VETO_EVALUATED_OFFERS = "veto_evaluated_offers";
+  @VisibleForTesting
+  static final String MATCHING_MONITOR_HOLD_NANOS = "offer_matching_monitor_hold_nanos";
 
   private final HostOffers hostOffers;
   private final AtomicLong offerRaces;
@@ -193,8 +195,7 @@ public class OfferManagerImpl implements OfferManager {
     // Guard against an offer being removed after we grabbed it from the iterator.
     // If that happens, the offer will not exist in hostOffers, and we can immediately
     // send it back to LOST for quick reschedule.
-    // Removing while iterating counts on the use of a weakly-consistent iterator being used,
-    // which is a feature of ConcurrentSkipListSet.
+    // Removing while iterating is safe, as matching offers are iterated from a snapshot.
     if (hostOffers.remove(offerId)) {
       try {
         Protos.Offer.Operation launch = Protos.Offer.Operation.newBuilder()
@@ -31,6 +31,7 @@ import com.google.inject.PrivateModule;
 import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
 
+import org.apache.aurora.common.application.ShutdownRegistry;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.util.Random;
@@ -40,6 +41,7 @@ import org.apache.aurora.scheduler.config.splitters.CommaSplitter;
 import org.apache.aurora.scheduler.config.types.TimeAmount;
 import org.apache.aurora.scheduler.config.validators.NotNegativeAmount;
 import org.apache.aurora.scheduler.config.validators.NotNegativeNumber;
+import org.apache.aurora.scheduler.config.validators.PositiveNumber;
 import org.apache.aurora.scheduler.events.PubsubEventModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -107,6 +109,12 @@ public class OfferManagerModule extends AbstractModule {
                 + "the cache will grow indefinitely. However, entries will expire within "
                 + "'min_offer_hold_time' + 'offer_hold_jitter_window' of being written.")
     public long offerStaticBanCacheMaxSize = Long.MAX_VALUE;
+
+    @Parameter(names = "-offer_veto_parallelism",
+        validateValueWith = PositiveNumber.class,
+        description = "Number of threads used to evaluate scheduling vetoes for large batches of "
+            + "candidate offers. A value of 1 evaluates vetoes on the scheduling thread.")
+    public int offerVetoParallelism = 1;
   }
 
   /**
@@ -138,6 +146,32 @@ public class OfferManagerModule extends AbstractModule {
     }
   }
 
+  /**
+   * Provides an {@link IndexedOfferSet}, which only yields offers with enough resources for a
+   * task's resource request rather than leaving them to be vetoed by the scheduling filter.
+   */
+  public static class IndexedOfferSetModule extends AbstractModule {
+    private final CliOptions options;
+
+    public IndexedOfferSetModule(CliOptions options) {
+      this.options = options;
+    }
+
+    @Override
+    protected void configure() {
+      install(new PrivateModule() {
+        @Override
+        protected void configure() {
+          bind(new TypeLiteral<Ordering<HostOffer>>() { })
+              .toInstance(OfferOrderBuilder.create(options.offer.offerOrder));
+          bind(IndexedOfferSet.class).in(Singleton.class);
+          bind(OfferSet.class).to(IndexedOfferSet.class);
+          expose(OfferSet.class);
+        }
+      });
+    }
+  }
+
   private final CliOptions cliOptions;
 
   public OfferManagerModule(CliOptions cliOptions) {
@@ -146,6 +180,8 @@ public class OfferManagerModule extends AbstractModule {
 
   @Override
   protected void configure() {
+    requireBinding(ShutdownRegistry.class);
+
     Options options = cliOptions.offer;
     if (!options.holdOffersForever) {
       long offerHoldTime = options.offerHoldJitterWindow.as(Time.SECONDS)
@@ -190,7 +226,7 @@ public class OfferManagerModule extends AbstractModule {
 
   @Provides
   @Singleton
-  OfferSettings provideOfferSettings(OfferSet offerSet) {
+  OfferSettings provideOfferSettings(OfferSet offerSet, ShutdownRegistry shutdownRegistry) {
     // We have a dual eviction strategy for the static ban cache in OfferManager that is based on
     // both maximum size of the cache and the length an offer is valid. We do this in order to
     // satisfy requirements in both single- and multi-framework environments. If offers are held for
@@ -207,11 +243,14 @@ public class OfferManagerModule extends AbstractModule {
           + cliOptions.offer.offerHoldJitterWindow.as(Time.SECONDS);
     }
 
-    return new OfferSettings(
+    OfferSettings settings = new OfferSettings(
         cliOptions.offer.offerFilterDuration,
         offerSet,
         Amount.of(maxOfferHoldTime, Time.SECONDS),
         cliOptions.offer.offerStaticBanCacheMaxSize,
-        Ticker.systemTicker());
+        Ticker.systemTicker(),
+        cliOptions.offer.offerVetoParallelism);
+    settings.getVetoPool().ifPresent(pool -> shutdownRegistry.addAction(pool::shutdown));
+    return settings;
   }
 }
@@ -19,15 +19,12 @@ import java.util.List;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Ordering;
 
-import org.apache.aurora.scheduler.resources.ResourceType;
+import org.apache.aurora.scheduler.offers.HostOffer.SortKey;
 
 import static org.apache.aurora.gen.MaintenanceMode.DRAINED;
 import static org.apache.aurora.gen.MaintenanceMode.DRAINING;
 import static org.apache.aurora.gen.MaintenanceMode.NONE;
 import static org.apache.aurora.gen.MaintenanceMode.SCHEDULED;
-import static org.apache.aurora.scheduler.resources.ResourceManager.bagFromMesosResources;
-import static org.apache.aurora.scheduler.resources.ResourceManager.getNonRevocableOfferResources;
-import static org.apache.aurora.scheduler.resources.ResourceManager.getRevocableOfferResources;
 
 /**
  * Utility class for creating compounded offer orders based on some combination of offer ordering.
@@ -55,32 +52,23 @@ public final class OfferOrderBuilder {
       AURORA_MAINTENANCE_COMPARATOR.compound(MESOS_MAINTENANCE_COMPARATOR);
 
   private static final Ordering<Object> RANDOM_COMPARATOR = Ordering.arbitrary();
-  private static final Ordering<HostOffer> CPU_COMPARATOR =
-      nonRevocableResourceOrdering(ResourceType.CPUS);
-  private static final Ordering<HostOffer> RAM_COMPARATOR =
-      nonRevocableResourceOrdering(ResourceType.RAM_MB);
-  private static final Ordering<HostOffer> DISK_COMPARATOR =
-      nonRevocableResourceOrdering(ResourceType.DISK_MB);
-  private static final Ordering<HostOffer> REVOCABLE_CPU_COMPARATOR =
-      revocableResourceOrdering(ResourceType.CPUS);
+  private static final Ordering<HostOffer> CPU_COMPARATOR = resourceOrdering(SortKey.CPUS);
+  private static final Ordering<HostOffer> RAM_COMPARATOR = resourceOrdering(SortKey.RAM_MB);
+  private static final Ordering<HostOffer> DISK_COMPARATOR = resourceOrdering(SortKey.DISK_MB);
+  private static final Ordering<HostOffer> REVOCABLE_CPU_COMPARATOR = Ordering.from(
+      (a, b) -> Double.compare(revocableCpuKey(a), revocableCpuKey(b)));
 
-  private static Ordering<HostOffer> nonRevocableResourceOrdering(ResourceType resourceType) {
-    return Ordering
-        .natural()
-        .onResultOf(o -> bagFromMesosResources(
-            getNonRevocableOfferResources(o.getOffer())).valueOf(resourceType));
+  // Offer orderings are evaluated for every insertion into the offer set, so they compare the
+  // primitive sort keys precomputed by HostOffer rather than re-reading offer resources.
+  private static Ordering<HostOffer> resourceOrdering(SortKey key) {
+    return Ordering.from((a, b) -> Double.compare(a.getSortKey(key), b.getSortKey(key)));
   }
 
-  private static Ordering<HostOffer> revocableResourceOrdering(ResourceType resourceType) {
-    return Ordering
-        .natural()
-        .onResultOf(o -> {
-          double resource = bagFromMesosResources(
-              getRevocableOfferResources(o.getOffer())).valueOf(resourceType);
-          // resource will be 0.0 if there is no revocable cpus available. Since the purpose of
-          // this ordering is to bin-pack revocable then we push those offers to the back.
-          return resource == 0.0 ? Double.MAX_VALUE : resource;
-        });
+  private static double revocableCpuKey(HostOffer offer) {
+    double resource = offer.getSortKey(SortKey.REVOCABLE_CPUS);
+    // resource will be 0.0 if there is no revocable cpus available. Since the purpose of
+    // this ordering is to bin-pack revocable then we push those offers to the back.
+    return resource == 0.0 ? Double.MAX_VALUE : resource;
   }
 
   private static Ordering<HostOffer> getOrdering(Ordering<HostOffer> base, OfferOrder order) {
@@ -13,6 +13,9 @@
  */
 package org.apache.aurora.scheduler.offers;
 
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
@@ -22,6 +25,8 @@ import org.apache.aurora.common.quantity.Time;
 
 import static java.util.Objects.requireNonNull;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Settings required to create an OfferManager.
  */
@@ -31,6 +36,7 @@ public class OfferSettings {
   private final Amount<Long, Time> filterDuration;
   private final OfferSet offerSet;
   private final CacheBuilder<Object, Object> staticBanCacheBuilder;
+  private final Optional<ForkJoinPool> vetoPool;
 
   @VisibleForTesting
   public OfferSettings(Amount<Long, Time> filterDuration,
@@ -39,6 +45,18 @@ public class OfferSettings {
                        long staticBanCacheMaxSize,
                        Ticker staticBanTicker) {
 
+    this(filterDuration, offerSet, maxHoldTime, staticBanCacheMaxSize, staticBanTicker, 1);
+  }
+
+  @VisibleForTesting
+  public OfferSettings(Amount<Long, Time> filterDuration,
+                       OfferSet offerSet,
+                       Amount<Long, Time> maxHoldTime,
+                       long staticBanCacheMaxSize,
+                       Ticker staticBanTicker,
+                       int vetoParallelism) {
+
+    checkArgument(vetoParallelism > 0);
     this.filterDuration = requireNonNull(filterDuration);
     this.offerSet = requireNonNull(offerSet);
     this.staticBanCacheBuilder = CacheBuilder.newBuilder()
@@ -46,6 +64,9 @@ public class OfferSettings {
         .maximumSize(staticBanCacheMaxSize)
         .ticker(staticBanTicker)
         .recordStats();
+    this.vetoPool = vetoParallelism > 1
+        ? Optional.of(new ForkJoinPool(vetoParallelism))
+        : Optional.empty();
   }
 
   /**
@@ -69,4 +90,13 @@ public class OfferSettings {
   CacheBuilder<Object, Object> getStaticBanCacheBuilder() {
     return staticBanCacheBuilder;
   }
+
+  /**
+   * The pool to evaluate vetoes of large batches of offers in, if vetoes are evaluated in
+   * parallel. Absent when vetoes are evaluated on the calling thread. The owner of the settings
+   * is responsible for shutting the pool down.
+   */
+  Optional<ForkJoinPool> getVetoPool() {
+    return vetoPool;
+  }
 }
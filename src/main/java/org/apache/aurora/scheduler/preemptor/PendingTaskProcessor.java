@@ -21,6 +21,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiPredicate;
 
 import javax.inject.Inject;
 import javax.inject.Qualifier;
@@ -32,6 +38,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -90,6 +97,8 @@ public class PendingTaskProcessor implements Runnable {
   private final ClusterState clusterState;
   private final Clock clock;
   private final Integer reservationBatchSize;
+  private final Integer slotSearchThreads;
+  private final Executor slotSearchExecutor;
 
   /**
    * Binding annotation for the time interval after which a pending task becomes eligible to
@@ -111,6 +120,21 @@ public class PendingTaskProcessor implements Runnable {
   @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
   @interface ReservationBatchSize { }
 
+  /**
+   * Binding annotation for the number of threads the agents are partitioned across when searching
+   * for a preemption slot for a task group.
+   */
+  @Qualifier
+  @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
+  @interface SlotSearchThreads { }
+
+  /**
+   * Binding annotation for the executor that runs partitions of a preemption slot search.
+   */
+  @Qualifier
+  @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
+  @interface SlotSearchExecutor { }
+
   @Inject
   PendingTaskProcessor(
       Storage storage,
@@ -121,7 +145,9 @@ public class PendingTaskProcessor implements Runnable {
       BiCache<PreemptionProposal, TaskGroupKey> slotCache,
       ClusterState clusterState,
       Clock clock,
-      @ReservationBatchSize Integer reservationBatchSize) {
+      @ReservationBatchSize Integer reservationBatchSize,
+      @SlotSearchThreads Integer slotSearchThreads,
+      @SlotSearchExecutor Executor slotSearchExecutor) {
 
     this.storage = requireNonNull(storage);
     this.offerManager = requireNonNull(offerManager);
@@ -132,6 +158,8 @@ public class PendingTaskProcessor implements Runnable {
     this.clusterState = requireNonNull(clusterState);
     this.clock = requireNonNull(clock);
     this.reservationBatchSize = requireNonNull(reservationBatchSize);
+    this.slotSearchThreads = requireNonNull(slotSearchThreads);
+    this.slotSearchExecutor = requireNonNull(slotSearchExecutor);
   }
 
   @Timed("pending_task_processor_run")
@@ -151,9 +179,9 @@ public class PendingTaskProcessor implements Runnable {
       Map<String, HostOffer> slavesToOffers =
           Maps.uniqueIndex(offerManager.getAll(), OFFER_TO_SLAVE_ID);
 
-      Set<String> allSlaves = Sets.newHashSet(Iterables.concat(
+      List<String> slaves = Lists.newArrayList(Sets.newHashSet(Iterables.concat(
           slavesToOffers.keySet(),
-          slavesToActiveTasks.keySet()));
+          slavesToActiveTasks.keySet())));
 
       // The algorithm below attempts to find a reservation for every task group by matching
       // it against all available slaves until a preemption slot is found. Groups are evaluated
@@ -162,48 +190,62 @@ public class PendingTaskProcessor implements Runnable {
       // identical task group instances are removed from further iteration if none of the
       // available slaves could yield a preemption proposal. A consuming iterator is used for
       // task groups to ensure iteration order is preserved after a task group is removed.
+      // The slaves for a single group may be searched in parallel, but groups are still matched
+      // one at a time and always take the first slave in order that fits, so the outcome does not
+      // depend on the number of search threads.
       LoadingCache<IJobKey, AttributeAggregate> jobStates = attributeCache(store);
       List<TaskGroupKey> pendingGroups = fetchIdlePendingGroups(store);
       Iterator<TaskGroupKey> groups = Iterators.consumingIterator(pendingGroups.iterator());
       TaskGroupKey lastGroup = null;
-      Iterator<String> slaveIterator = allSlaves.iterator();
+      int nextSlave = 0;
 
       while (!pendingGroups.isEmpty()) {
         boolean matched = false;
         TaskGroupKey group = groups.next();
         ITaskConfig task = group.getTask();
+        AttributeAggregate jobState = jobStates.getUnchecked(task.getJob());
+        BiPredicate<String, Optional<HostOffer>> slaveFilter =
+            preemptionVictimFilter.getSlaveFilter(task);
 
         LOG.info("Searching for preemptible slots for {}", group);
         metrics.recordPreemptionAttemptFor(task);
         // Start over only if a different task group is being processed
         if (!group.equals(lastGroup)) {
-          slaveIterator = allSlaves.iterator();
+          nextSlave = 0;
         }
-        while (slaveIterator.hasNext()) {
-          String slaveId = slaveIterator.next();
-          Optional<ImmutableSet<PreemptionVictim>> candidates =
-              preemptionVictimFilter.filterPreemptionVictims(
+        List<Optional<ImmutableSet<PreemptionVictim>>> results = searchSlaves(
+            slaves.subList(nextSlave, slaves.size()),
+            slaveId -> {
+              Optional<HostOffer> offer = Optional.ofNullable(slavesToOffers.get(slaveId));
+              if (!slaveFilter.test(slaveId, offer)) {
+                return Optional.empty();
+              }
+              return preemptionVictimFilter.filterPreemptionVictims(
                   task,
                   slavesToActiveTasks.get(slaveId),
-                  jobStates.getUnchecked(task.getJob()),
-                  Optional.ofNullable(slavesToOffers.get(slaveId)),
+                  jobState,
+                  offer,
                   store);
+            });
 
+        for (Optional<ImmutableSet<PreemptionVictim>> candidates : results) {
           metrics.recordSlotSearchResult(candidates, task);
-          if (candidates.isPresent()) {
-            // Slot found -> remove slave to avoid multiple task reservations.
-            Iterable<String> candidateTaskIds = Iterables.transform(
-                candidates.get(),
-                PreemptionVictim::getTaskId);
-            LOG.info("Found preemptible slot on agent {} for {} with candidates {}",
-                slaveId,
-                group,
-                Joiner.on(",").join(candidateTaskIds));
-            slaveIterator.remove();
-            slotCache.put(new PreemptionProposal(candidates.get(), slaveId), group);
-            matched = true;
-            break;
-          }
+        }
+        nextSlave += results.size();
+        Optional<ImmutableSet<PreemptionVictim>> candidates =
+            results.isEmpty() ? Optional.empty() : Iterables.getLast(results);
+        if (candidates.isPresent()) {
+          // Slot found -> remove slave to avoid multiple task reservations.
+          String slaveId = slaves.remove(--nextSlave);
+          Iterable<String> candidateTaskIds = Iterables.transform(
+              candidates.get(),
+              PreemptionVictim::getTaskId);
+          LOG.info("Found preemptible slot on agent {} for {} with candidates {}",
+              slaveId,
+              group,
+              Joiner.on(",").join(candidateTaskIds));
+          slotCache.put(new PreemptionProposal(candidates.get(), slaveId), group);
+          matched = true;
         }
         if (!matched) {
           // No slot found for the group -> remove group and reset group iterator.
@@ -218,6 +260,70 @@ public class PendingTaskProcessor implements Runnable {
     });
   }
 
+  /**
+   * Searches slaves in order until one yields preemption victims.  When more than one search
+   * thread is configured, the slaves are dealt round-robin to the threads, and each thread stops
+   * once it passes the earliest match found so far.  The results are the same as those of a
+   * sequential search.
+   *
+   * @param slaves Slaves to search, in order.
+   * @param search Finds the victims to preempt on a slave, if any.
+   * @return The search results for each slave up to and including the first match, in order.
+   */
+  private List<Optional<ImmutableSet<PreemptionVictim>>> searchSlaves(
+      List<String> slaves,
+      Function<String, Optional<ImmutableSet<PreemptionVictim>>> search) {
+
+    int shards = Math.min(slotSearchThreads, slaves.size());
+    if (shards <= 1) {
+      List<Optional<ImmutableSet<PreemptionVictim>>> results = Lists.newArrayList();
+      for (String slaveId : slaves) {
+        Optional<ImmutableSet<PreemptionVictim>> candidates = search.apply(slaveId);
+        results.add(candidates);
+        if (candidates.isPresent()) {
+          break;
+        }
+      }
+      return results;
+    }
+
+    AtomicReferenceArray<Optional<ImmutableSet<PreemptionVictim>>> results =
+        new AtomicReferenceArray<>(slaves.size());
+    AtomicInteger firstMatch = new AtomicInteger(slaves.size());
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[shards];
+    for (int shard = 0; shard < shards; shard++) {
+      int start = shard;
+      futures[shard] = CompletableFuture.runAsync(
+          () -> {
+            for (int i = start; i < firstMatch.get(); i += shards) {
+              Optional<ImmutableSet<PreemptionVictim>> candidates = search.apply(slaves.get(i));
+              results.set(i, candidates);
+              if (candidates.isPresent()) {
+                firstMatch.accumulateAndGet(i, Math::min);
+                break;
+              }
+            }
+          },
+          slotSearchExecutor);
+    }
+
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+
+    // Every slave before the first match has been searched, since each thread searches its slaves
+    // in order and the first match only moves earlier.
+    int searched = Math.min(firstMatch.get() + 1, slaves.size());
+    List<Optional<ImmutableSet<PreemptionVictim>>> ordered = Lists.newArrayList();
+    for (int i = 0; i < searched; i++) {
+      ordered.add(results.get(i));
+    }
+    return ordered;
+  }
+
   private List<TaskGroupKey> fetchIdlePendingGroups(StoreProvider store) {
     Multiset<TaskGroupKey> taskGroupCounts = HashMultiset.create(
         FluentIterable.from(store.getTaskStore().fetchTasks(Query.statusScoped(PENDING)))
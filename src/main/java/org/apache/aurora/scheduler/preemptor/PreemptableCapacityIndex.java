@@ -0,0 +1,226 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.preemptor;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.eventbus.Subscribe;
+
+import org.apache.aurora.common.collections.Pair;
+import org.apache.aurora.scheduler.TierManager;
+import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
+import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.resources.ResourceBag;
+import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
+import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+
+import static java.util.Objects.requireNonNull;
+
+import static org.apache.aurora.scheduler.resources.ResourceBag.IS_MESOS_REVOCABLE;
+
+/**
+ * Maintains the resources that could be freed on each agent by preempting its active tasks, so
+ * that agents where a pending task could not preempt enough resources are ruled out without
+ * examining their victims.
+ * <p>
+ * Victims are bucketed by the preemptibility of their tier, their role and their priority,
+ * following the rules of {@link PreemptionVictimFilter.PreemptionVictimFilterImpl}: a task in a
+ * non-preemptible tier may preempt any task in a preemptible tier, and otherwise only tasks of the
+ * same role and tier preemptibility with a lower priority.
+ */
+public class PreemptableCapacityIndex implements EventSubscriber {
+  // Allowance for rounding differences between summing resources here and in the victim filter,
+  // so that an agent is never ruled out when its victims exactly fit a task.
+  private static final double EPSILON = 1e-6;
+
+  private final ExecutorSettings executorSettings;
+  private final TierManager tierManager;
+
+  // Resources of indexed victims, readable without holding the lock.
+  private final Map<PreemptionVictim, ResourceBag> victimResources = Maps.newConcurrentMap();
+  // Guarded by the intrinsic lock.
+  private final Map<String, Agent> agents = Maps.newHashMap();
+
+  @Inject
+  PreemptableCapacityIndex(ExecutorSettings executorSettings, TierManager tierManager) {
+    this.executorSettings = requireNonNull(executorSettings);
+    this.tierManager = requireNonNull(tierManager);
+  }
+
+  @Subscribe
+  public void taskChangedState(TaskStateChange stateChange) {
+    IAssignedTask task = stateChange.getTask().getAssignedTask();
+    PreemptionVictim victim = PreemptionVictim.fromTask(task);
+    synchronized (this) {
+      if (Tasks.SLAVE_ASSIGNED_STATES.contains(stateChange.getNewState())) {
+        add(task.getSlaveId(), victim);
+      } else {
+        remove(task.getSlaveId(), victim);
+      }
+    }
+  }
+
+  /**
+   * Gets the resources that preempting a victim would free.  Compressible resources of a victim in
+   * a revocable tier are excluded.
+   *
+   * @param victim Preemption victim.
+   * @return The victim's preemptable resources.
+   */
+  ResourceBag getResources(PreemptionVictim victim) {
+    ResourceBag bag = victimResources.get(victim);
+    return bag == null ? computeResources(victim) : bag;
+  }
+
+  /**
+   * Checks whether an agent may have enough preemptable resources for a task.  This is a cheap
+   * upper bound: a {@code true} result does not guarantee that victims will be found.
+   *
+   * @param slaveId Agent ID.
+   * @param pendingTask Task to search a preemption slot for.
+   * @param required Resources required by the task.
+   * @param slack Unused resources offered by the agent.
+   * @return {@code false} if the agent can be ruled out.
+   */
+  synchronized boolean mayFit(
+      String slaveId,
+      ITaskConfig pendingTask,
+      ResourceBag required,
+      ResourceBag slack) {
+
+    Agent agent = agents.get(slaveId);
+    if (agent == null) {
+      return false;
+    }
+
+    boolean preemptible = tierManager.getTier(pendingTask).isPreemptible();
+    int victims = 0;
+    ResourceBag.Accumulator available = new ResourceBag.Accumulator(slack);
+    if (!preemptible) {
+      victims += agent.preemptible.size();
+      available.add(agent.preemptible.getTotal());
+    }
+    NavigableMap<Integer, Bucket> byPriority =
+        agent.byRole.get(Pair.of(pendingTask.getJob().getRole(), preemptible));
+    if (byPriority != null) {
+      for (Bucket bucket : byPriority.headMap(pendingTask.getPriority(), false).values()) {
+        victims += bucket.size();
+        available.add(bucket.getTotal());
+      }
+    }
+
+    ResourceBag fits = available.toBag();
+    return victims > 0 && required.streamResourceVectors()
+        .allMatch(e -> e.getValue() - fits.valueOf(e.getKey()) <= EPSILON);
+  }
+
+  private ResourceBag computeResources(PreemptionVictim victim) {
+    ResourceBag bag = victim.getResourceBag(executorSettings);
+
+    if (tierManager.getTier(victim.getConfig()).isRevocable()) {
+      // Revocable task CPU cannot be used for preemption purposes as it's a compressible
+      // resource. We can still use RAM, DISK and PORTS as they are not compressible.
+      bag = bag.filter(IS_MESOS_REVOCABLE.negate());
+    }
+
+    return bag;
+  }
+
+  private void add(String slaveId, PreemptionVictim victim) {
+    if (victimResources.containsKey(victim)) {
+      return;
+    }
+
+    victimResources.put(victim, computeResources(victim));
+    boolean preemptible = tierManager.getTier(victim.getConfig()).isPreemptible();
+    Agent agent = agents.computeIfAbsent(slaveId, id -> new Agent());
+    if (preemptible) {
+      agent.preemptible.add(victim);
+    }
+    agent.byRole
+        .computeIfAbsent(Pair.of(victim.getRole(), preemptible), key -> Maps.newTreeMap())
+        .computeIfAbsent(victim.getPriority(), priority -> new Bucket())
+        .add(victim);
+  }
+
+  private void remove(String slaveId, PreemptionVictim victim) {
+    if (!victimResources.containsKey(victim)) {
+      return;
+    }
+
+    boolean preemptible = tierManager.getTier(victim.getConfig()).isPreemptible();
+    Agent agent = agents.get(slaveId);
+    if (preemptible) {
+      agent.preemptible.remove(victim);
+    }
+    Pair<String, Boolean> roleKey = Pair.of(victim.getRole(), preemptible);
+    NavigableMap<Integer, Bucket> byPriority = agent.byRole.get(roleKey);
+    Bucket bucket = byPriority.get(victim.getPriority());
+    bucket.remove(victim);
+    if (bucket.size() == 0) {
+      byPriority.remove(victim.getPriority());
+      if (byPriority.isEmpty()) {
+        agent.byRole.remove(roleKey);
+        if (agent.byRole.isEmpty()) {
+          agents.remove(slaveId);
+        }
+      }
+    }
+    victimResources.remove(victim);
+  }
+
+  private final class Agent {
+    // Victims in preemptible tiers, which any task in a non-preemptible tier may preempt.
+    private final Bucket preemptible = new Bucket();
+    // All victims, by role and tier preemptibility, then by priority.
+    private final Map<Pair<String, Boolean>, NavigableMap<Integer, Bucket>> byRole =
+        Maps.newHashMap();
+  }
+
+  private final class Bucket {
+    private final Set<PreemptionVictim> victims = Sets.newHashSet();
+    private ResourceBag total = ResourceBag.EMPTY;
+
+    void add(PreemptionVictim victim) {
+      victims.add(victim);
+      total = total.add(victimResources.get(victim));
+    }
+
+    void remove(PreemptionVictim victim) {
+      victims.remove(victim);
+      // Re-sum rather than subtract, so that rounding errors do not accumulate.
+      ResourceBag.Accumulator sum = new ResourceBag.Accumulator();
+      for (PreemptionVictim remaining : victims) {
+        sum.add(victimResources.get(remaining));
+      }
+      total = sum.toBag();
+    }
+
+    int size() {
+      return victims.size();
+    }
+
+    ResourceBag getTotal() {
+      return total;
+    }
+  }
+}
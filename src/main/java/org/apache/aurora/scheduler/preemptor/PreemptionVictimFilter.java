@@ -17,6 +17,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.stream.StreamSupport;
 
 import javax.inject.Inject;
@@ -39,6 +40,7 @@ import org.apache.aurora.scheduler.filter.SchedulingFilter.UnusedResource;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.Veto;
 import org.apache.aurora.scheduler.offers.HostOffer;
 import org.apache.aurora.scheduler.resources.ResourceBag;
+import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.resources.ResourceType;
 import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
 import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
@@ -47,7 +49,6 @@ import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import static java.util.Objects.requireNonNull;
 
 import static org.apache.aurora.scheduler.resources.ResourceBag.EMPTY;
-import static org.apache.aurora.scheduler.resources.ResourceBag.IS_MESOS_REVOCABLE;
 import static org.apache.aurora.scheduler.resources.ResourceManager.bagFromMesosResources;
 import static org.apache.aurora.scheduler.resources.ResourceManager.getNonRevocableOfferResources;
 
@@ -84,23 +85,38 @@ public interface PreemptionVictimFilter {
       Optional<HostOffer> offer,
       StoreProvider storeProvider);
 
+  /**
+   * Creates a check that cheaply rules out slaves where a task could not preempt enough resources,
+   * before their victims are filtered.  Slaves that pass the check may still yield no victims.
+   *
+   * @param pendingTask Task to search preemption slot for.
+   * @return A predicate over a slave ID and its offer that is {@code false} if the slave can be
+   *     ruled out.
+   */
+  default BiPredicate<String, Optional<HostOffer>> getSlaveFilter(ITaskConfig pendingTask) {
+    return (slaveId, offer) -> true;
+  }
+
   class PreemptionVictimFilterImpl implements PreemptionVictimFilter {
     private final SchedulingFilter schedulingFilter;
     private final ExecutorSettings executorSettings;
     private final PreemptorMetrics metrics;
     private final TierManager tierManager;
+    private final PreemptableCapacityIndex capacityIndex;
 
     @Inject
     PreemptionVictimFilterImpl(
         SchedulingFilter schedulingFilter,
         ExecutorSettings executorSettings,
         PreemptorMetrics metrics,
-        TierManager tierManager) {
+        TierManager tierManager,
+        PreemptableCapacityIndex capacityIndex) {
 
       this.schedulingFilter = requireNonNull(schedulingFilter);
       this.executorSettings = requireNonNull(executorSettings);
       this.metrics = requireNonNull(metrics);
       this.tierManager = requireNonNull(tierManager);
+      this.capacityIndex = requireNonNull(capacityIndex);
     }
 
     private static final Function<HostOffer, String> OFFER_TO_HOST =
@@ -109,21 +125,9 @@ public interface PreemptionVictimFilter {
     private static final Function<PreemptionVictim, String> VICTIM_TO_HOST =
         PreemptionVictim::getSlaveHost;
 
+    // Uses the resources cached by the capacity index for victims it has indexed.
     private final Function<PreemptionVictim, ResourceBag> victimToResources =
-        new Function<PreemptionVictim, ResourceBag>() {
-          @Override
-          public ResourceBag apply(PreemptionVictim victim) {
-            ResourceBag bag = victim.getResourceBag(executorSettings);
-
-            if (tierManager.getTier(victim.getConfig()).isRevocable()) {
-              // Revocable task CPU cannot be used for preemption purposes as it's a compressible
-              // resource. We can still use RAM, DISK and PORTS as they are not compressible.
-              bag = bag.filter(IS_MESOS_REVOCABLE.negate());
-            }
-
-            return bag;
-          }
-        };
+        victim -> capacityIndex.getResources(victim);
 
     /**
      * We compare ResourceBags lexicographically according to the order of ResourceType enum
@@ -149,6 +153,20 @@ public interface PreemptionVictimFilter {
     private final Ordering<PreemptionVictim> resourceOrder =
         ORDER.onResultOf(victimToResources).reverse();
 
+    @Override
+    public BiPredicate<String, Optional<HostOffer>> getSlaveFilter(ITaskConfig pendingTask) {
+      ResourceBag required = ResourceManager.bagFromTask(pendingTask, executorSettings);
+      return (slaveId, offer) -> capacityIndex.mayFit(
+          slaveId,
+          pendingTask,
+          required,
+          offer.map(PreemptionVictimFilterImpl::getSlackResources).orElse(EMPTY));
+    }
+
+    private static ResourceBag getSlackResources(HostOffer offer) {
+      return bagFromMesosResources(getNonRevocableOfferResources(offer.getOffer()));
+    }
+
     @Override
     public Optional<ImmutableSet<PreemptionVictim>> filterPreemptionVictims(
         ITaskConfig pendingTask,
@@ -174,7 +192,7 @@ public interface PreemptionVictimFilter {
           .build();
 
       ResourceBag slackResources = offer
-          .map(o -> bagFromMesosResources(getNonRevocableOfferResources(o.getOffer())))
+          .map(PreemptionVictimFilterImpl::getSlackResources)
           .orElse(EMPTY);
 
       Optional<IHostAttributes> attributes =
@@ -189,14 +207,14 @@ public interface PreemptionVictimFilter {
 
       Optional<Instant> unavailability = offer.flatMap(HostOffer::getUnavailabilityStart);
 
-      ResourceBag totalResource = slackResources;
+      ResourceBag.Accumulator totalResource = new ResourceBag.Accumulator(slackResources);
       Set<PreemptionVictim> toPreemptTasks = Sets.newHashSet();
       for (PreemptionVictim victim : sortedVictims) {
         toPreemptTasks.add(victim);
-        totalResource = totalResource.add(victimToResources.apply(victim));
+        totalResource.add(victimToResources.apply(victim));
 
         Set<Veto> vetoes = schedulingFilter.filter(
-            new UnusedResource(totalResource, attributes.get(), unavailability),
+            new UnusedResource(totalResource.toBag(), attributes.get(), unavailability),
             requiredResources);
 
         if (vetoes.isEmpty()) {
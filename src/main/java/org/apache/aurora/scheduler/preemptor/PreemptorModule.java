@@ -17,6 +17,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.inject.Inject;
 import javax.inject.Qualifier;
@@ -26,6 +28,7 @@ import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.AbstractScheduledService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
 import com.google.inject.PrivateModule;
@@ -35,6 +38,7 @@ import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.scheduler.SchedulerServicesModule;
 import org.apache.aurora.scheduler.app.MoreModules;
+import org.apache.aurora.scheduler.base.AsyncUtil;
 import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.config.CliOptions;
 import org.apache.aurora.scheduler.config.splitters.CommaSplitter;
@@ -91,6 +95,12 @@ public class PreemptorModule extends AbstractModule {
         description = "The maximum number of reservations for a task group to be made in a batch.")
     public int reservationMaxBatchSize = 5;
 
+    @Parameter(names = "-preemption_slot_search_threads",
+        validateValueWith = PositiveNumber.class,
+        description = "Number of threads used to search agents for a preemption slot for a task "
+            + "group. A value of 1 searches on the preemptor thread.")
+    public int slotSearchThreads = 1;
+
     @Parameter(names = "-preemption_slot_finder_modules",
         description = "Guice modules for custom preemption slot searching for pending tasks.",
         splitter = CommaSplitter.class)
@@ -134,6 +144,19 @@ public class PreemptorModule extends AbstractModule {
           bind(new TypeLiteral<Integer>() { })
               .annotatedWith(PendingTaskProcessor.ReservationBatchSize.class)
               .toInstance(options.reservationMaxBatchSize);
+          bind(new TypeLiteral<Integer>() { })
+              .annotatedWith(PendingTaskProcessor.SlotSearchThreads.class)
+              .toInstance(options.slotSearchThreads);
+          bind(Executor.class)
+              .annotatedWith(PendingTaskProcessor.SlotSearchExecutor.class)
+              .toInstance(options.slotSearchThreads > 1
+                  ? AsyncUtil.loggingExecutor(
+                      options.slotSearchThreads,
+                      options.slotSearchThreads,
+                      new LinkedBlockingQueue<>(),
+                      "PreemptorSlotSearch-%d",
+                      LOG)
+                  : MoreExecutors.directExecutor());
 
           for (Module module: MoreModules.instantiateAll(options.slotFinderModules, cliOptions)) {
             install(module);
@@ -164,6 +187,8 @@ public class PreemptorModule extends AbstractModule {
     // the other bindings private.
     PubsubEventModule.bindSubscriber(binder(), ClusterStateImpl.class);
     if (options.enablePreemptor) {
+      bind(PreemptableCapacityIndex.class).in(Singleton.class);
+      PubsubEventModule.bindSubscriber(binder(), PreemptableCapacityIndex.class);
       SchedulerServicesModule.addSchedulerActiveServiceBinding(binder())
           .to(PreemptorService.class);
     }
@@ -14,11 +14,11 @@
 package org.apache.aurora.scheduler.quota;
 
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
@@ -453,9 +453,14 @@ public interface QuotaManager {
     }
 
     private static ResourceBag addAll(Iterable<ResourceBag> aggregates) {
-      return StreamSupport.stream(aggregates.spliterator(), false)
-          .reduce((l, r) -> l.add(r))
-          .orElse(EMPTY);
+      Iterator<ResourceBag> iterator = aggregates.iterator();
+      if (!iterator.hasNext()) {
+        return EMPTY;
+      }
+
+      ResourceBag.Accumulator sum = new ResourceBag.Accumulator(iterator.next());
+      iterator.forEachRemaining(sum::add);
+      return sum.toBag();
     }
 
     private static ResourceBag scale(ITaskConfig taskConfig, int instanceCount) {
@@ -99,6 +99,25 @@ public class ReconciliationModule extends AbstractModule {
         validateValueWith = PositiveAmount.class,
         description = "Interval between explicit batch reconciliation requests.")
     public TimeAmount reconciliationBatchInterval = new TimeAmount(5L, Time.SECONDS);
+
+    @Parameter(names = "-reconciliation_explicit_adaptive",
+        description = "Size and pace explicit reconciliation batches based on the status update "
+            + "queue depth and storage write lock wait, scaling the configured batch size and "
+            + "interval by up to a factor of 8.",
+        arity = 1)
+    public boolean reconciliationExplicitAdaptive = false;
+
+    @Parameter(names = "-reconciliation_explicit_adaptive_max_queue_depth",
+        validateValueWith = PositiveNumber.class,
+        description = "Status update queue depth above which adaptive explicit reconciliation "
+            + "backs off.")
+    public int reconciliationAdaptiveMaxQueueDepth = 1000;
+
+    @Parameter(names = "-reconciliation_explicit_adaptive_max_lock_wait",
+        validateValueWith = PositiveAmount.class,
+        description = "Mean storage write lock wait above which adaptive explicit reconciliation "
+            + "backs off.")
+    public TimeAmount reconciliationAdaptiveMaxLockWait = new TimeAmount(10L, Time.MILLISECONDS);
   }
 
   @Qualifier
@@ -148,7 +167,12 @@ public class ReconciliationModule extends AbstractModule {
             options.reconciliationImplicitInterval,
             options.reconciliationScheduleSpread,
             options.reconciliationBatchInterval,
-            options.reconciliationBatchSize));
+            options.reconciliationBatchSize,
+            options.reconciliationExplicitAdaptive,
+            options.reconciliationAdaptiveMaxQueueDepth,
+            options.reconciliationAdaptiveMaxLockWait));
+        bind(TaskReconciler.SchedulerLoad.class).to(StatsSchedulerLoad.class);
+        bind(StatsSchedulerLoad.class).in(Singleton.class);
         bind(ScheduledExecutorService.class).annotatedWith(BackgroundWorker.class)
             .toInstance(AsyncUtil.loggingScheduledExecutor(1, "TaskReconciler-%d", LOG));
         bind(TaskReconciler.class).in(Singleton.class);
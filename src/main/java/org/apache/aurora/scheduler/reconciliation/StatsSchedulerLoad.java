@@ -0,0 +1,88 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.reconciliation;
+
+import java.util.concurrent.BlockingQueue;
+
+import javax.inject.Inject;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.apache.aurora.common.stats.RecordingStat;
+import org.apache.aurora.common.stats.Stat;
+import org.apache.aurora.common.stats.StatRegistry;
+import org.apache.aurora.scheduler.TaskStatusHandlerImpl.StatusUpdateQueue;
+import org.apache.aurora.scheduler.reconciliation.TaskReconciler.SchedulerLoad;
+import org.apache.mesos.v1.Protos.TaskStatus;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads scheduler load from the status update queue and the stats exported for storage write
+ * lock waits.
+ */
+class StatsSchedulerLoad implements SchedulerLoad {
+  @VisibleForTesting
+  static final String LOCK_WAIT_TOTAL_STAT_NAME = "storage_write_lock_wait_ns_total";
+
+  @VisibleForTesting
+  static final String LOCK_WAIT_EVENTS_STAT_NAME = "storage_write_lock_wait_events";
+
+  private final BlockingQueue<TaskStatus> statusUpdates;
+  private final StatRegistry statRegistry;
+
+  // Resolved once storage has exported them.
+  private Stat<? extends Number> lockWaitTotal;
+  private Stat<? extends Number> lockWaitEvents;
+  private long lastTotal;
+  private long lastEvents;
+
+  @Inject
+  StatsSchedulerLoad(
+      @StatusUpdateQueue BlockingQueue<TaskStatus> statusUpdates,
+      StatRegistry statRegistry) {
+
+    this.statusUpdates = requireNonNull(statusUpdates);
+    this.statRegistry = requireNonNull(statRegistry);
+  }
+
+  @Override
+  public int getStatusUpdateQueueDepth() {
+    return statusUpdates.size();
+  }
+
+  @Override
+  public synchronized long sampleWriteLockWaitNanos() {
+    if (lockWaitTotal == null || lockWaitEvents == null) {
+      for (RecordingStat<? extends Number> stat : statRegistry.getStats()) {
+        if (LOCK_WAIT_TOTAL_STAT_NAME.equals(stat.getName())) {
+          lockWaitTotal = stat;
+        } else if (LOCK_WAIT_EVENTS_STAT_NAME.equals(stat.getName())) {
+          lockWaitEvents = stat;
+        }
+      }
+      if (lockWaitTotal == null || lockWaitEvents == null) {
+        return 0L;
+      }
+    }
+
+    long total = lockWaitTotal.read().longValue();
+    long events = lockWaitEvents.read().longValue();
+    long waits = events - lastEvents;
+    long meanWait = waits > 0 ? (total - lastTotal) / waits : 0L;
+    lastTotal = total;
+    lastEvents = events;
+    return meanWait;
+  }
+}
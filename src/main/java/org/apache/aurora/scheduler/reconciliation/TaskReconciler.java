@@ -13,10 +13,13 @@
  */
 package org.apache.aurora.scheduler.reconciliation;
 
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -25,6 +28,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.AbstractIdleService;
 
 import org.apache.aurora.common.quantity.Amount;
@@ -43,7 +48,9 @@ import static java.util.Objects.requireNonNull;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import static org.apache.aurora.common.quantity.Time.MILLISECONDS;
 import static org.apache.aurora.common.quantity.Time.MINUTES;
+import static org.apache.aurora.common.quantity.Time.NANOSECONDS;
 import static org.apache.aurora.common.quantity.Time.SECONDS;
 
 /**
@@ -59,12 +66,51 @@ public class TaskReconciler extends AbstractIdleService {
   @VisibleForTesting
   static final String IMPLICIT_STAT_NAME = "reconciliation_implicit_runs";
 
+  @VisibleForTesting
+  static final String EXPLICIT_REMAINING_STAT_NAME = "reconciliation_explicit_remaining_tasks";
+
+  @VisibleForTesting
+  static final String EXPLICIT_PROGRESS_STAT_NAME = "reconciliation_explicit_progress_percent";
+
+  @VisibleForTesting
+  static final String EXPLICIT_ETA_STAT_NAME = "reconciliation_explicit_eta_secs";
+
+  @VisibleForTesting
+  static final String EXPLICIT_BACKOFF_STAT_NAME = "reconciliation_explicit_backoffs";
+
+  // How far adaptive reconciliation may scale the configured batch size and interval.
+  @VisibleForTesting
+  static final int ADAPTIVE_SCALE = 8;
+
   private final TaskReconcilerSettings settings;
   private final Storage storage;
   private final Driver driver;
   private final ScheduledExecutorService executor;
+  private final SchedulerLoad load;
   private final AtomicLong explicitRuns;
   private final AtomicLong implicitRuns;
+  private final AtomicLong explicitBackoffs;
+  // The latest adaptive explicit reconciliation run, which supersedes any earlier one.
+  private final AtomicReference<AdaptiveRun> adaptiveRun = new AtomicReference<>();
+
+  /**
+   * Measures how heavily loaded the scheduler is, to pace adaptive explicit reconciliation.
+   */
+  interface SchedulerLoad {
+    /**
+     * Gets the number of status updates waiting to be processed.
+     *
+     * @return Status update queue depth.
+     */
+    int getStatusUpdateQueueDepth();
+
+    /**
+     * Gets the mean time writers waited for the storage write lock since the previous call.
+     *
+     * @return Mean write lock wait, in nanoseconds.
+     */
+    long sampleWriteLockWaitNanos();
+  }
 
   static class TaskReconcilerSettings {
     private final Amount<Long, Time> explicitInterval;
@@ -72,7 +118,11 @@ public class TaskReconciler extends AbstractIdleService {
     private final long explicitDelayMinutes;
     private final long implicitDelayMinutes;
     private final long explicitBatchDelaySeconds;
+    private final long explicitBatchDelayMillis;
     private final int explicitBatchSize;
+    private final boolean explicitAdaptive;
+    private final int adaptiveMaxQueueDepth;
+    private final long adaptiveMaxLockWaitNanos;
 
     @VisibleForTesting
     TaskReconcilerSettings(
@@ -81,14 +131,21 @@ public class TaskReconciler extends AbstractIdleService {
         Amount<Long, Time> implicitInterval,
         Amount<Long, Time> scheduleSpread,
         Amount<Long, Time> explicitBatchInterval,
-        int explicitBatchSize) {
+        int explicitBatchSize,
+        boolean explicitAdaptive,
+        int adaptiveMaxQueueDepth,
+        Amount<Long, Time> adaptiveMaxLockWait) {
 
       this.explicitInterval = requireNonNull(explicitInterval);
       this.implicitInterval = requireNonNull(implicitInterval);
       explicitDelayMinutes = requireNonNull(initialDelay).as(MINUTES);
       implicitDelayMinutes = initialDelay.as(MINUTES) + scheduleSpread.as(MINUTES);
       explicitBatchDelaySeconds = explicitBatchInterval.as(SECONDS);
+      explicitBatchDelayMillis = explicitBatchInterval.as(MILLISECONDS);
       this.explicitBatchSize = explicitBatchSize;
+      this.explicitAdaptive = explicitAdaptive;
+      this.adaptiveMaxQueueDepth = adaptiveMaxQueueDepth;
+      adaptiveMaxLockWaitNanos = requireNonNull(adaptiveMaxLockWait).as(NANOSECONDS);
 
       checkArgument(
           explicitDelayMinutes >= 0,
@@ -109,14 +166,33 @@ public class TaskReconciler extends AbstractIdleService {
       Storage storage,
       Driver driver,
       @BackgroundWorker ScheduledExecutorService executor,
+      SchedulerLoad load,
       StatsProvider stats) {
 
     this.settings = requireNonNull(settings);
     this.storage = requireNonNull(storage);
     this.driver = requireNonNull(driver);
     this.executor = requireNonNull(executor);
+    this.load = requireNonNull(load);
     this.explicitRuns = stats.makeCounter(EXPLICIT_STAT_NAME);
     this.implicitRuns = stats.makeCounter(IMPLICIT_STAT_NAME);
+    if (settings.explicitAdaptive) {
+      this.explicitBackoffs = stats.makeCounter(EXPLICIT_BACKOFF_STAT_NAME);
+      stats.makeGauge(EXPLICIT_REMAINING_STAT_NAME, () -> {
+        AdaptiveRun run = adaptiveRun.get();
+        return run == null ? 0 : run.remaining;
+      });
+      stats.makeGauge(EXPLICIT_PROGRESS_STAT_NAME, () -> {
+        AdaptiveRun run = adaptiveRun.get();
+        return run == null ? 0.0 : run.getProgressPercent();
+      });
+      stats.makeGauge(EXPLICIT_ETA_STAT_NAME, () -> {
+        AdaptiveRun run = adaptiveRun.get();
+        return run == null ? 0L : run.getEtaSecs();
+      });
+    } else {
+      this.explicitBackoffs = null;
+    }
   }
 
   public void triggerExplicitReconciliation(Optional<Integer> batchSize) {
@@ -155,6 +231,12 @@ public class TaskReconciler extends AbstractIdleService {
   }
 
   private void doExplicitReconcile(int batchSize) {
+    if (settings.explicitAdaptive) {
+      startAdaptiveReconcile(batchSize);
+      explicitRuns.incrementAndGet();
+      return;
+    }
+
     Iterable<List<IScheduledTask>> activeBatches = Iterables.partition(
         Storage.Util.fetchTasks(storage, Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES)),
         batchSize);
@@ -170,6 +252,102 @@ public class TaskReconciler extends AbstractIdleService {
     explicitRuns.incrementAndGet();
   }
 
+  private void startAdaptiveReconcile(int batchSize) {
+    // Stream the active tasks rather than copying them, retaining only the IDs Mesos needs.
+    Queue<TaskStatus> statuses = storage.read(storeProvider -> storeProvider.getTaskStore()
+        .streamTasks(Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES))
+        .map(TASK_TO_PROTO::apply)
+        .collect(Collectors.toCollection(ArrayDeque::new)));
+
+    AdaptiveRun run = new AdaptiveRun(statuses, batchSize);
+    adaptiveRun.set(run);
+    executor.execute(() -> sendAdaptiveBatch(run));
+  }
+
+  private void sendAdaptiveBatch(AdaptiveRun run) {
+    if (adaptiveRun.get() != run || run.remaining == 0) {
+      // Superseded by a newer run, or there was nothing to reconcile.
+      return;
+    }
+
+    if (run.remaining < run.total) {
+      run.adjustPace(load.getStatusUpdateQueueDepth(), load.sampleWriteLockWaitNanos());
+    }
+    driver.reconcileTasks(run.nextBatch());
+    if (run.remaining > 0) {
+      executor.schedule(
+          () -> sendAdaptiveBatch(run),
+          run.delayMillis,
+          MILLISECONDS.getTimeUnit());
+    }
+  }
+
+  /**
+   * An explicit reconciliation run whose batch size and interval adapt to scheduler load: each
+   * time the status update queue or storage write lock wait exceeds its limit, the batch size is
+   * halved and the interval doubled; otherwise the batch size grows linearly and the interval
+   * shrinks.  Both stay within a factor of {@link #ADAPTIVE_SCALE} of the configured values.
+   */
+  private final class AdaptiveRun {
+    private final Queue<TaskStatus> pending;
+    private final int total;
+    private final int initialBatchSize;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+
+    // Written by the reconciliation thread, read by stats.
+    private volatile int remaining;
+    private volatile int batchSize;
+    private volatile long delayMillis;
+
+    AdaptiveRun(Queue<TaskStatus> pending, int batchSize) {
+      this.pending = pending;
+      this.total = pending.size();
+      this.remaining = total;
+      this.initialBatchSize = batchSize;
+      this.batchSize = batchSize;
+      this.minBatchSize = Math.max(1, batchSize / ADAPTIVE_SCALE);
+      this.maxBatchSize = Ints.saturatedCast((long) batchSize * ADAPTIVE_SCALE);
+      this.delayMillis = Math.max(1L, settings.explicitBatchDelayMillis);
+      this.minDelayMillis = Math.max(1L, delayMillis / ADAPTIVE_SCALE);
+      this.maxDelayMillis = delayMillis * ADAPTIVE_SCALE;
+    }
+
+    void adjustPace(int queueDepth, long lockWaitNanos) {
+      if (queueDepth > settings.adaptiveMaxQueueDepth
+          || lockWaitNanos > settings.adaptiveMaxLockWaitNanos) {
+
+        batchSize = Math.max(minBatchSize, batchSize / 2);
+        delayMillis = Math.min(maxDelayMillis, delayMillis * 2);
+        explicitBackoffs.incrementAndGet();
+      } else {
+        batchSize = Ints.saturatedCast(Math.min(maxBatchSize, (long) batchSize + initialBatchSize));
+        delayMillis = Math.max(minDelayMillis, delayMillis / 2);
+      }
+    }
+
+    List<TaskStatus> nextBatch() {
+      List<TaskStatus> batch = Lists.newArrayListWithCapacity(Math.min(batchSize, remaining));
+      while (batch.size() < batchSize && !pending.isEmpty()) {
+        batch.add(pending.poll());
+      }
+      remaining = pending.size();
+      return batch;
+    }
+
+    double getProgressPercent() {
+      return total == 0 ? 100.0 : 100.0 * (total - remaining) / total;
+    }
+
+    long getEtaSecs() {
+      // Assumes the current pace holds for the remaining batches.
+      long batches = ((long) remaining + batchSize - 1) / batchSize;
+      return MILLISECONDS.getTimeUnit().toSeconds(batches * delayMillis);
+    }
+  }
+
   @Override
   protected void shutDown() {
     // Nothing to do - await VM shutdown.
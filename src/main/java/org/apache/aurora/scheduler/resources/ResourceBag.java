@@ -14,17 +14,17 @@
 package org.apache.aurora.scheduler.resources;
 
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.ObjDoubleConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Sets;
 
-import static java.util.stream.Collectors.toMap;
+import static java.util.Objects.requireNonNull;
+
+import static com.google.common.base.Preconditions.checkState;
 
 import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
 import static org.apache.aurora.scheduler.resources.ResourceType.DISK_MB;
@@ -34,6 +34,13 @@ import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
  * A bag of unique resource values aggregated by {@link ResourceType}.
  */
 public class ResourceBag {
+  // Declared ahead of the constants below, which depend on it.
+  private static final ResourceType[] TYPES = ResourceType.values();
+
+  static {
+    checkState(TYPES.length <= Integer.SIZE, "Too many resource types for a bag.");
+  }
+
   public static final ResourceBag EMPTY = new ResourceBag(ImmutableMap.of(
       CPUS, 0.0,
       RAM_MB, 0.0,
@@ -73,7 +80,12 @@ public class ResourceBag {
   public static final Predicate<Map.Entry<ResourceType, Double>> IS_MESOS_REVOCABLE =
       entry -> entry.getKey().isMesosRevocable();
 
-  private final Map<ResourceType, Double> resourceVectors;
+  // Resource values indexed by ResourceType ordinal.  A type is in the bag if its bit is set in
+  // the mask, and otherwise has a value of 0.0.
+  private final double[] values;
+  private final int mask;
+  // Map view of the values, built on first use.
+  private volatile Map<ResourceType, Double> resourceVectors;
 
   /**
    * Creates an instance of ResourceBag with given resource vectors (type -> value).
@@ -81,7 +93,24 @@ public class ResourceBag {
    * @param resourceVectors Map of resource vectors.
    */
   ResourceBag(Map<ResourceType, Double> resourceVectors) {
-    this.resourceVectors = ImmutableMap.copyOf(resourceVectors);
+    double[] vectors = new double[TYPES.length];
+    int types = 0;
+    for (Map.Entry<ResourceType, Double> entry : resourceVectors.entrySet()) {
+      int ordinal = entry.getKey().ordinal();
+      vectors[ordinal] = requireNonNull(entry.getValue());
+      types |= 1 << ordinal;
+    }
+    this.values = vectors;
+    this.mask = types;
+  }
+
+  private ResourceBag(double[] values, int mask) {
+    this.values = values;
+    this.mask = mask;
+  }
+
+  private static boolean contains(int mask, int ordinal) {
+    return (mask & (1 << ordinal)) != 0;
   }
 
   /**
@@ -90,7 +119,14 @@ public class ResourceBag {
    * @return Map of resource vectors.
    */
   public Map<ResourceType, Double> getResourceVectors() {
-    return resourceVectors;
+    Map<ResourceType, Double> vectors = resourceVectors;
+    if (vectors == null) {
+      ImmutableMap.Builder<ResourceType, Double> builder = ImmutableMap.builder();
+      forEachVector(builder::put);
+      vectors = builder.build();
+      resourceVectors = vectors;
+    }
+    return vectors;
   }
 
   /**
@@ -99,7 +135,20 @@ public class ResourceBag {
    * @return A stream of resource vectors.
    */
   public Stream<Map.Entry<ResourceType, Double>> streamResourceVectors() {
-    return resourceVectors.entrySet().stream();
+    return getResourceVectors().entrySet().stream();
+  }
+
+  /**
+   * Applies {@code action} to each resource vector in the bag, without boxing values.
+   *
+   * @param action Action to apply to each resource type and its value.
+   */
+  public void forEachVector(ObjDoubleConsumer<ResourceType> action) {
+    for (int i = 0; i < TYPES.length; i++) {
+      if (contains(mask, i)) {
+        action.accept(TYPES[i], values[i]);
+      }
+    }
   }
 
   /**
@@ -109,7 +158,7 @@ public class ResourceBag {
    * @return Resource value or 0.0 if no mapping for {@code type} is found.
    */
   public double valueOf(ResourceType type) {
-    return resourceVectors.getOrDefault(type, 0.0);
+    return values[type.ordinal()];
   }
 
   /**
@@ -151,7 +200,7 @@ public class ResourceBag {
    * @return A new bag with max resource vectors.
    */
   public ResourceBag max(ResourceBag other) {
-    return binaryOp(other, (l, r) -> Math.max(l, r));
+    return binaryOp(other, Math::max);
   }
 
   /**
@@ -161,8 +210,13 @@ public class ResourceBag {
    * @return Result of scale operation.
    */
   public ResourceBag scale(int m) {
-    return new ResourceBag(resourceVectors.entrySet().stream()
-        .collect(toMap(Map.Entry::getKey, v -> v.getValue() * m)));
+    double[] result = new double[TYPES.length];
+    for (int i = 0; i < TYPES.length; i++) {
+      if (contains(mask, i)) {
+        result[i] = values[i] * m;
+      }
+    }
+    return new ResourceBag(result, mask);
   }
 
   /**
@@ -172,9 +226,16 @@ public class ResourceBag {
    * @return A new bag with resources filtered by {@code predicate}.
    */
   public ResourceBag filter(Predicate<Map.Entry<ResourceType, Double>> predicate) {
-    return new ResourceBag(resourceVectors.entrySet().stream()
-        .filter(predicate)
-        .collect(toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    double[] result = new double[TYPES.length];
+    int resultMask = 0;
+    for (Map.Entry<ResourceType, Double> entry : getResourceVectors().entrySet()) {
+      if (predicate.test(entry)) {
+        int ordinal = entry.getKey().ordinal();
+        result[ordinal] = values[ordinal];
+        resultMask |= 1 << ordinal;
+      }
+    }
+    return new ResourceBag(result, resultMask);
   }
 
   /**
@@ -184,8 +245,17 @@ public class ResourceBag {
    * @return Whether or not the bag fits.
    */
   public boolean greaterThanOrEqualTo(ResourceBag other) {
-    // Subtract the subject and check if any of the resources have a negative value.
-    return subtract(other).filter(IS_NEGATIVE).getResourceVectors().isEmpty();
+    return fits(values, other);
+  }
+
+  // Equivalent to checking that subtracting the other bag leaves no negative values.
+  private static boolean fits(double[] values, ResourceBag other) {
+    for (int i = 0; i < TYPES.length; i++) {
+      if (values[i] - other.values[i] < 0) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -196,17 +266,79 @@ public class ResourceBag {
    * @param operator Operator to apply.
    * @return Operation result.
    */
-  private ResourceBag binaryOp(ResourceBag other, BinaryOperator<Double> operator) {
-    ImmutableMap.Builder<ResourceType, Double> builder = ImmutableMap.builder();
-    Set<ResourceType> resourceTypes =
-        Sets.union(resourceVectors.keySet(), other.getResourceVectors().keySet());
-    for (ResourceType type : resourceTypes) {
-      Double left = resourceVectors.getOrDefault(type, 0.0);
-      Double right = other.getResourceVectors().getOrDefault(type, 0.0);
-      builder.put(type, operator.apply(left, right));
+  private ResourceBag binaryOp(ResourceBag other, DoubleBinaryOperator operator) {
+    int resultMask = mask | other.mask;
+    double[] result = new double[TYPES.length];
+    for (int i = 0; i < TYPES.length; i++) {
+      if (contains(resultMask, i)) {
+        result[i] = operator.applyAsDouble(values[i], other.values[i]);
+      }
+    }
+    return new ResourceBag(result, resultMask);
+  }
+
+  /**
+   * A mutable sum of resource bags, for accumulating many bags without allocating a bag for each
+   * intermediate result.  Not thread-safe.
+   */
+  public static final class Accumulator {
+    private final double[] values = new double[TYPES.length];
+    private int mask;
+
+    public Accumulator() {
+      // Empty.
+    }
+
+    public Accumulator(ResourceBag initial) {
+      add(initial);
+    }
+
+    /**
+     * Adds a bag's contents to the sum.
+     *
+     * @param bag Bag to add.
+     * @return This accumulator.
+     */
+    public Accumulator add(ResourceBag bag) {
+      for (int i = 0; i < TYPES.length; i++) {
+        values[i] += bag.values[i];
+      }
+      mask |= bag.mask;
+      return this;
+    }
+
+    /**
+     * Subtracts a bag's contents from the sum.
+     *
+     * @param bag Bag to subtract.
+     * @return This accumulator.
+     */
+    public Accumulator subtract(ResourceBag bag) {
+      for (int i = 0; i < TYPES.length; i++) {
+        values[i] -= bag.values[i];
+      }
+      mask |= bag.mask;
+      return this;
+    }
+
+    /**
+     * Verifies whether a bag would be able to fit into the sum.
+     *
+     * @param other Bag to try and fit.
+     * @return Whether or not the bag fits.
+     */
+    public boolean greaterThanOrEqualTo(ResourceBag other) {
+      return fits(values, other);
     }
 
-    return new ResourceBag(builder.build());
+    /**
+     * Gets the current sum.
+     *
+     * @return A bag holding the sum.
+     */
+    public ResourceBag toBag() {
+      return new ResourceBag(values.clone(), mask);
+    }
   }
 
   @Override
@@ -216,16 +348,33 @@ public class ResourceBag {
     }
 
     ResourceBag other = (ResourceBag) o;
-    return Objects.equals(resourceVectors, other.resourceVectors);
+    if (mask != other.mask) {
+      return false;
+    }
+    for (int i = 0; i < TYPES.length; i++) {
+      if (Double.doubleToLongBits(values[i]) != Double.doubleToLongBits(other.values[i])) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(resourceVectors);
+    // Consistent with the hash code of the map view.
+    int hash = 0;
+    for (int i = 0; i < TYPES.length; i++) {
+      if (contains(mask, i)) {
+        hash += TYPES[i].hashCode() ^ Double.hashCode(values[i]);
+      }
+    }
+    return hash;
   }
 
   @Override
   public String toString() {
-    return MoreObjects.toStringHelper(this).add("resourceVectors", resourceVectors).toString();
+    return MoreObjects.toStringHelper(this)
+        .add("resourceVectors", getResourceVectors())
+        .toString();
   }
 }
@@ -29,6 +29,7 @@ import org.apache.aurora.scheduler.config.types.TimeAmount;
 import org.apache.aurora.scheduler.config.validators.PositiveAmount;
 import org.apache.aurora.scheduler.config.validators.PositiveNumber;
 import org.apache.aurora.scheduler.events.PubsubEventModule;
+import org.apache.aurora.scheduler.filter.JobAttributeIndex;
 import org.apache.aurora.scheduler.preemptor.BiCache;
 import org.apache.aurora.scheduler.scheduling.RescheduleCalculator.RescheduleCalculatorImpl;
 
@@ -94,6 +95,25 @@ public class SchedulingModule extends AbstractModule {
         validateValueWith = PositiveNumber.class,
         description = "The maximum number of tasks to pick in a single scheduling attempt.")
     public int maxTasksPerScheduleAttempt = 5;
+
+    @Parameter(names = "-max_task_groups_per_schedule_round",
+        validateValueWith = PositiveNumber.class,
+        description = "The maximum number of task groups to schedule together in a single "
+            + "scheduling round. With a value of 1, each task group is scheduled separately.")
+    public int maxTaskGroupsPerScheduleRound = 1;
+
+    @Parameter(names = "-scheduling_best_fit",
+        description = "If true, assign each task to the matching offer it fills most completely "
+            + "across CPU, RAM and disk, rather than to the first matching offer in offer order.",
+        arity = 1)
+    public boolean schedulingBestFit = false;
+
+    @Parameter(names = "-incremental_attribute_aggregates",
+        description = "If true, maintain per-job counts of host attributes as tasks change state, "
+            + "rather than fetching all of a job's active tasks to evaluate its constraints on "
+            + "each scheduling attempt.",
+        arity = 1)
+    public boolean incrementalAttributeAggregates = false;
   }
 
   private final Options options;
@@ -111,7 +131,8 @@ public class SchedulingModule extends AbstractModule {
             options.firstScheduleDelay,
             new TruncatedBinaryBackoff(options.initialSchedulePenalty, options.maxSchedulePenalty),
             RateLimiter.create(options.maxScheduleAttemptsPerSec),
-            options.maxTasksPerScheduleAttempt));
+            options.maxTasksPerScheduleAttempt,
+            options.maxTaskGroupsPerScheduleRound));
 
         bind(RescheduleCalculatorImpl.RescheduleCalculatorSettings.class)
             .toInstance(new RescheduleCalculatorImpl.RescheduleCalculatorSettings(
@@ -146,6 +167,12 @@ public class SchedulingModule extends AbstractModule {
     });
     PubsubEventModule.bindSubscriber(binder(), TaskScheduler.class);
 
+    bind(Boolean.class)
+        .annotatedWith(JobAttributeIndex.IncrementalAggregates.class)
+        .toInstance(options.incrementalAttributeAggregates);
+    bind(JobAttributeIndex.class).in(Singleton.class);
+    PubsubEventModule.bindSubscriber(binder(), JobAttributeIndex.class);
+
     install(new PrivateModule() {
       @Override
       protected void configure() {
@@ -13,6 +13,8 @@
  */
 package org.apache.aurora.scheduler.scheduling;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
@@ -20,6 +22,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
+import javax.inject.Qualifier;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
@@ -34,6 +37,7 @@ import org.apache.aurora.scheduler.mesos.MesosTaskFactory;
 import org.apache.aurora.scheduler.offers.HostOffer;
 import org.apache.aurora.scheduler.offers.OfferManager;
 import org.apache.aurora.scheduler.offers.OfferManager.LaunchException;
+import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.resources.ResourceType;
 import org.apache.aurora.scheduler.state.StateManager;
@@ -45,11 +49,18 @@ import org.apache.mesos.v1.Protos;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static java.util.Objects.requireNonNull;
 
 import static org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import static org.apache.aurora.gen.ScheduleStatus.ASSIGNED;
 import static org.apache.aurora.gen.ScheduleStatus.LOST;
+import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
+import static org.apache.aurora.scheduler.resources.ResourceType.DISK_MB;
+import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
 
 public class TaskAssignerImpl implements TaskAssigner {
   private static final Logger LOG = LoggerFactory.getLogger(TaskAssignerImpl.class);
@@ -59,13 +70,27 @@ public class TaskAssignerImpl implements TaskAssigner {
       Optional.of("Unknown exception attempting to schedule task.");
   @VisibleForTesting
   static final String ASSIGNER_LAUNCH_FAILURES = "assigner_launch_failures";
+  @VisibleForTesting
+  static final String ASSIGNER_PACKING_EFFICIENCY = "assigner_packing_efficiency_pct";
+
+  private static final Set<ResourceType> PACKED_RESOURCES = ImmutableSet.of(CPUS, RAM_MB, DISK_MB);
+
+  /**
+   * Binding annotation for whether tasks are assigned to the best fitting offer rather than the
+   * first matching offer.
+   */
+  @Qualifier
+  @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
+  public @interface BestFit { }
 
   private final AtomicLong launchFailures;
+  private final AtomicLong packingEfficiency;
 
   private final StateManager stateManager;
   private final MesosTaskFactory taskFactory;
   private final OfferManager offerManager;
   private final UpdateAgentReserver updateAgentReserver;
+  private final boolean bestFit;
 
   @Inject
   public TaskAssignerImpl(
@@ -73,13 +98,16 @@ public class TaskAssignerImpl implements TaskAssigner {
       MesosTaskFactory taskFactory,
       OfferManager offerManager,
       UpdateAgentReserver updateAgentReserver,
-      StatsProvider statsProvider) {
+      StatsProvider statsProvider,
+      @BestFit boolean bestFit) {
 
     this.stateManager = requireNonNull(stateManager);
     this.taskFactory = requireNonNull(taskFactory);
     this.offerManager = requireNonNull(offerManager);
     this.launchFailures = statsProvider.makeCounter(ASSIGNER_LAUNCH_FAILURES);
+    this.packingEfficiency = statsProvider.makeCounter(ASSIGNER_PACKING_EFFICIENCY);
     this.updateAgentReserver = requireNonNull(updateAgentReserver);
+    this.bestFit = bestFit;
   }
 
   @VisibleForTesting
@@ -212,6 +240,48 @@ public class TaskAssignerImpl implements TaskAssigner {
     }
   }
 
+  /**
+   * Computes the fraction of an offer's CPU, RAM and disk that a request would consume, averaged
+   * over the resources the offer has.  Higher values leave less capacity stranded on the agent.
+   */
+  private static double fill(HostOffer offer, ResourceRequest resourceRequest) {
+    ResourceBag available = offer.getResourceBag(resourceRequest.isRevocable());
+    ResourceBag requested = resourceRequest.getResourceBag();
+    double sum = 0;
+    int count = 0;
+    for (ResourceType type : PACKED_RESOURCES) {
+      double offered = available.valueOf(type);
+      if (offered > 0) {
+        sum += Math.min(1.0, requested.valueOf(type) / offered);
+        count++;
+      }
+    }
+    return count == 0 ? 0 : sum / count;
+  }
+
+  /**
+   * Picks the offer that the request fills most completely, preferring earlier offers on ties.
+   */
+  private static Optional<HostOffer> findBestFit(
+      Iterable<HostOffer> offers,
+      ResourceRequest resourceRequest) {
+
+    HostOffer best = null;
+    double bestFill = -1;
+    for (HostOffer offer : offers) {
+      double offerFill = fill(offer, resourceRequest);
+      if (offerFill > bestFill) {
+        best = offer;
+        bestFill = offerFill;
+        if (bestFill >= 1.0) {
+          // No offer can be filled more completely.
+          break;
+        }
+      }
+    }
+    return Optional.ofNullable(best);
+  }
+
   private Collection<SchedulingMatch> findMatches(
       ResourceRequest resourceRequest,
       TaskGroupKey groupKey,
@@ -235,7 +305,9 @@ public class TaskAssignerImpl implements TaskAssigner {
             o -> !matchesByOffer.containsKey(o.getOffer().getId().getValue())
                 && !isAgentReserved(o, groupKey, preemptionReservations));
 
-        chosenOffer = Optional.ofNullable(Iterables.getFirst(matchingOffers, null));
+        chosenOffer = bestFit
+            ? findBestFit(matchingOffers, resourceRequest)
+            : Optional.ofNullable(Iterables.getFirst(matchingOffers, null));
       }
 
       chosenOffer.ifPresent(hostOffer -> matchesByOffer.put(
@@ -243,6 +315,14 @@ public class TaskAssignerImpl implements TaskAssigner {
           new SchedulingMatch(task, hostOffer)));
     });
 
+    if (!matchesByOffer.isEmpty()) {
+      double fillSum = 0;
+      for (SchedulingMatch match : matchesByOffer.values()) {
+        fillSum += fill(match.offer, resourceRequest);
+      }
+      packingEfficiency.set(Math.round(100 * fillSum / matchesByOffer.size()));
+    }
+
     return matchesByOffer.values();
   }
 
@@ -17,13 +17,23 @@ import javax.inject.Singleton;
 
 import com.google.inject.AbstractModule;
 
+import org.apache.aurora.scheduler.config.CliOptions;
+import org.apache.aurora.scheduler.scheduling.TaskAssignerImpl.BestFit;
+
 /**
  * The default TaskAssigner implementation.
  */
 public class TaskAssignerImplModule extends AbstractModule {
 
+  private final boolean bestFit;
+
+  public TaskAssignerImplModule(CliOptions options) {
+    this.bestFit = options.scheduling.schedulingBestFit;
+  }
+
   @Override
   protected void configure() {
+    bind(Boolean.class).annotatedWith(BestFit.class).toInstance(bestFit);
     bind(TaskAssigner.class).to(TaskAssignerImpl.class);
     bind(TaskAssignerImpl.class).in(Singleton.class);
   }
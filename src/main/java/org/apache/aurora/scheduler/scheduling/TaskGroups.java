@@ -15,6 +15,8 @@ package org.apache.aurora.scheduler.scheduling;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
@@ -28,9 +30,11 @@ import javax.inject.Qualifier;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.util.concurrent.RateLimiter;
 
@@ -49,6 +53,8 @@ import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static java.lang.annotation.ElementType.FIELD;
 import static java.lang.annotation.ElementType.METHOD;
@@ -69,6 +75,7 @@ import static org.apache.aurora.gen.ScheduleStatus.PENDING;
  * cannot starve a 1 instance job.
  */
 public class TaskGroups implements EventSubscriber {
+  private static final Logger LOG = LoggerFactory.getLogger(TaskGroups.class);
 
   @VisibleForTesting
   static final String SCHEDULE_ATTEMPTS_BLOCKS = "schedule_attempts_blocks";
@@ -86,6 +93,10 @@ public class TaskGroups implements EventSubscriber {
       new SlidingStats("scheduled_task_penalty", "ms");
   private final AtomicLong scheduleAttemptsBlocks;
 
+  // Groups waiting for the next multi-group scheduling round, in the order they became ready.
+  private final Map<TaskGroup, RoundEntry> roundQueue = Maps.newLinkedHashMap();
+  private boolean roundInFlight = false;
+
   /**
    * Annotation for the max scheduling batch size.
    */
@@ -116,6 +127,7 @@ public class TaskGroups implements EventSubscriber {
     private final BackoffStrategy taskGroupBackoff;
     private final RateLimiter rateLimiter;
     private final int maxTasksPerSchedule;
+    private final int maxGroupsPerRound;
 
     public TaskGroupsSettings(
         Amount<Long, Time> firstScheduleDelay,
@@ -123,12 +135,34 @@ public class TaskGroups implements EventSubscriber {
         RateLimiter rateLimiter,
         int maxTasksPerSchedule) {
 
+      this(firstScheduleDelay, taskGroupBackoff, rateLimiter, maxTasksPerSchedule, 1);
+    }
+
+    public TaskGroupsSettings(
+        Amount<Long, Time> firstScheduleDelay,
+        BackoffStrategy taskGroupBackoff,
+        RateLimiter rateLimiter,
+        int maxTasksPerSchedule,
+        int maxGroupsPerRound) {
+
       this.firstScheduleDelay = requireNonNull(firstScheduleDelay);
       Preconditions.checkArgument(firstScheduleDelay.getValue() > 0);
       this.taskGroupBackoff = requireNonNull(taskGroupBackoff);
       this.rateLimiter = requireNonNull(rateLimiter);
       this.maxTasksPerSchedule = maxTasksPerSchedule;
       Preconditions.checkArgument(maxTasksPerSchedule > 0);
+      this.maxGroupsPerRound = maxGroupsPerRound;
+      Preconditions.checkArgument(maxGroupsPerRound > 0);
+    }
+  }
+
+  private static final class RoundEntry {
+    private final Set<String> taskIds;
+    private final Runnable evaluate;
+
+    RoundEntry(Set<String> taskIds, Runnable evaluate) {
+      this.taskIds = requireNonNull(taskIds);
+      this.evaluate = requireNonNull(evaluate);
     }
   }
 
@@ -170,6 +204,10 @@ public class TaskGroups implements EventSubscriber {
           if (settings.rateLimiter.acquire() > 0) {
             scheduleAttemptsBlocks.incrementAndGet();
           }
+          if (settings.maxGroupsPerRound > 1) {
+            joinRound(group, new RoundEntry(taskIds, this));
+            return;
+          }
           CompletableFuture<Set<String>> result = batchWorker.execute(storeProvider ->
               taskScheduler.schedule(storeProvider, taskIds));
 
@@ -181,15 +219,7 @@ public class TaskGroups implements EventSubscriber {
             throw new RuntimeException(e);
           }
 
-          scheduledTaskPenalties.accumulate(group.getPenaltyMs());
-          if (scheduled.isEmpty()) {
-            penaltyMs = settings.taskGroupBackoff.calculateBackoffMs(group.getPenaltyMs());
-          } else {
-            group.remove(scheduled);
-            if (group.hasMore()) {
-              penaltyMs = settings.firstScheduleDelay.as(Time.MILLISECONDS);
-            }
-          }
+          penaltyMs = getPenaltyMs(group, scheduled);
         }
 
         group.setPenaltyMs(penaltyMs);
@@ -199,6 +229,76 @@ public class TaskGroups implements EventSubscriber {
     evaluateGroupLater(monitor, group);
   }
 
+  private long getPenaltyMs(TaskGroup group, Set<String> scheduled) {
+    scheduledTaskPenalties.accumulate(group.getPenaltyMs());
+    if (scheduled.isEmpty()) {
+      return settings.taskGroupBackoff.calculateBackoffMs(group.getPenaltyMs());
+    }
+
+    group.remove(scheduled);
+    return group.hasMore() ? settings.firstScheduleDelay.as(Time.MILLISECONDS) : 0;
+  }
+
+  /**
+   * Queues a group for a multi-group scheduling round, starting a round unless one is in flight.
+   * Groups that become ready while a round is in flight are scheduled together in the next round,
+   * rather than each group blocking on its own scheduling attempt.
+   */
+  private void joinRound(TaskGroup group, RoundEntry entry) {
+    synchronized (roundQueue) {
+      roundQueue.put(group, entry);
+      if (roundInFlight) {
+        return;
+      }
+      roundInFlight = true;
+    }
+    startRound();
+  }
+
+  private void startRound() {
+    Map<TaskGroup, RoundEntry> round;
+    synchronized (roundQueue) {
+      if (roundQueue.isEmpty()) {
+        roundInFlight = false;
+        return;
+      }
+
+      ImmutableMap.Builder<TaskGroup, RoundEntry> builder = ImmutableMap.builder();
+      Iterator<Map.Entry<TaskGroup, RoundEntry>> queued = roundQueue.entrySet().iterator();
+      for (int i = 0; i < settings.maxGroupsPerRound && queued.hasNext(); i++) {
+        Map.Entry<TaskGroup, RoundEntry> next = queued.next();
+        builder.put(next.getKey(), next.getValue());
+        queued.remove();
+      }
+      round = builder.build();
+    }
+
+    ImmutableMap.Builder<TaskGroupKey, Set<String>> taskIds = ImmutableMap.builder();
+    round.forEach((group, entry) -> taskIds.put(group.getKey(), entry.taskIds));
+    Map<TaskGroupKey, Set<String>> taskIdsByGroup = taskIds.build();
+    batchWorker.execute(storeProvider -> taskScheduler.scheduleRound(storeProvider, taskIdsByGroup))
+        .whenComplete((scheduled, error) -> {
+          if (error != null) {
+            LOG.warn("Scheduling round failed, will be retried", error);
+          }
+          try {
+            round.forEach((group, entry) -> {
+              Set<String> groupScheduled = error == null
+                  ? ImmutableSet.copyOf(Sets.intersection(scheduled, entry.taskIds))
+                  : ImmutableSet.of();
+              group.setPenaltyMs(getPenaltyMs(group, groupScheduled));
+              evaluateGroupLater(entry.evaluate, group);
+            });
+          } catch (RuntimeException e) {
+            LOG.error("Failed to complete scheduling round", e);
+          } finally {
+            // The next round must always start, as no other round can start while one is in
+            // flight.
+            startRound();
+          }
+        });
+  }
+
   /**
    * Informs the task groups of a task state change.
    * <p>
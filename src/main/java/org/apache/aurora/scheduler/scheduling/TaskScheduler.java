@@ -13,8 +13,10 @@
  */
 package org.apache.aurora.scheduler.scheduling;
 
+import java.util.Map;
 import java.util.Set;
 
+import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
 import org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
 
@@ -32,4 +34,17 @@ public interface TaskScheduler extends EventSubscriber {
    *         task ID was not present in the result.
    */
   Set<String> schedule(MutableStoreProvider storeProvider, Set<String> taskIds);
+
+  /**
+   * Attempts to schedule tasks of several task groups in a single round, sharing the work common
+   * to the groups.
+   *
+   * @param storeProvider {@code MutableStoreProvider} instance to access data store.
+   * @param taskIdsByGroup The tasks to attempt to schedule, by task group.
+   * @return Successfully scheduled task IDs of all groups, as for
+   *         {@link #schedule(MutableStoreProvider, Set)}.
+   */
+  Set<String> scheduleRound(
+      MutableStoreProvider storeProvider,
+      Map<TaskGroupKey, Set<String>> taskIdsByGroup);
 }
@@ -29,10 +29,12 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
+import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.common.stats.Stats;
 import org.apache.aurora.scheduler.TierManager;
 import org.apache.aurora.scheduler.base.Query;
@@ -40,12 +42,14 @@ import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
 import org.apache.aurora.scheduler.events.PubsubEvent;
 import org.apache.aurora.scheduler.filter.AttributeAggregate;
+import org.apache.aurora.scheduler.filter.JobAttributeIndex;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.ResourceRequest;
 import org.apache.aurora.scheduler.preemptor.BiCache;
 import org.apache.aurora.scheduler.preemptor.Preemptor;
 import org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
 import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
 import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
+import org.apache.aurora.scheduler.storage.entities.IJobKey;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.slf4j.Logger;
@@ -82,10 +86,13 @@ public class TaskSchedulerImpl implements TaskScheduler {
   private final ExecutorSettings executorSettings;
   private final TierManager tierManager;
   private final BiCache<String, TaskGroupKey> reservations;
+  private final JobAttributeIndex jobAttributes;
 
   private final AtomicLong attemptsFired = Stats.exportLong("schedule_attempts_fired");
   private final AtomicLong attemptsFailed = Stats.exportLong("schedule_attempts_failed");
   private final AtomicLong attemptsNoMatch = Stats.exportLong("schedule_attempts_no_match");
+  private final SlidingStats roundTasksPlaced =
+      new SlidingStats("schedule_round_tasks_placed", "tasks");
 
   @Inject
   TaskSchedulerImpl(
@@ -93,13 +100,15 @@ public class TaskSchedulerImpl implements TaskScheduler {
       Preemptor preemptor,
       ExecutorSettings executorSettings,
       TierManager tierManager,
-      BiCache<String, TaskGroupKey> reservations) {
+      BiCache<String, TaskGroupKey> reservations,
+      JobAttributeIndex jobAttributes) {
 
     this.assigner = requireNonNull(assigner);
     this.preemptor = requireNonNull(preemptor);
     this.executorSettings = requireNonNull(executorSettings);
     this.tierManager = requireNonNull(tierManager);
     this.reservations = requireNonNull(reservations);
+    this.jobAttributes = requireNonNull(jobAttributes);
   }
 
   @Timed("task_schedule_attempt")
@@ -117,6 +126,47 @@ public class TaskSchedulerImpl implements TaskScheduler {
     }
   }
 
+  @Timed("task_schedule_round")
+  @Override
+  public Set<String> scheduleRound(
+      MutableStoreProvider store,
+      Map<TaskGroupKey, Set<String>> taskIdsByGroup) {
+
+    LOG.debug("Attempting to schedule {} task groups", taskIdsByGroup.size());
+    Map<String, IAssignedTask> tasksById;
+    try {
+      tasksById = fetchTasks(
+          store,
+          taskIdsByGroup.values().stream().flatMap(Set::stream).collect(Collectors.toSet()));
+    } catch (RuntimeException e) {
+      LOG.warn("Task scheduling unexpectedly failed, will be retried", e);
+      attemptsFailed.incrementAndGet();
+      return ImmutableSet.of();
+    }
+
+    // Groups of the same job share the job's attribute aggregate, so that each group observes
+    // the tasks placed by the groups evaluated before it.
+    Map<IJobKey, AttributeAggregate> aggregates = Maps.newHashMap();
+    ImmutableSet.Builder<String> scheduled = ImmutableSet.builder();
+    long placed = 0;
+    for (Set<String> ids : taskIdsByGroup.values()) {
+      try {
+        Set<String> groupScheduled = scheduleTasks(
+            store,
+            ids,
+            Maps.filterKeys(tasksById, ids::contains),
+            job -> aggregates.computeIfAbsent(job, key -> jobAttributes.getJobState(store, key)));
+        scheduled.addAll(groupScheduled);
+        placed += groupScheduled.stream().filter(tasksById::containsKey).count();
+      } catch (RuntimeException e) {
+        LOG.warn("Task scheduling unexpectedly failed, will be retried", e);
+        attemptsFailed.incrementAndGet();
+      }
+    }
+    roundTasksPlaced.accumulate(placed);
+    return scheduled.build();
+  }
+
   private Map<String, IAssignedTask> fetchTasks(StoreProvider store, Set<String> ids) {
     Map<String, IAssignedTask> tasks = store.getTaskStore()
         .fetchTasks(Query.taskScoped(ids).byStatus(PENDING))
@@ -136,7 +186,18 @@ public class TaskSchedulerImpl implements TaskScheduler {
 
   private Set<String> scheduleTasks(MutableStoreProvider store, Set<String> ids) {
     LOG.debug("Attempting to schedule tasks {}", ids);
-    Map<String, IAssignedTask> tasksById = fetchTasks(store, ids);
+    return scheduleTasks(
+        store,
+        ids,
+        fetchTasks(store, ids),
+        job -> jobAttributes.getJobState(store, job));
+  }
+
+  private Set<String> scheduleTasks(
+      MutableStoreProvider store,
+      Set<String> ids,
+      Map<String, IAssignedTask> tasksById,
+      Function<IJobKey, AttributeAggregate> jobState) {
 
     if (tasksById.isEmpty()) {
       // None of the tasks were found in storage.  This could be caused by a task group that was
@@ -148,7 +209,7 @@ public class TaskSchedulerImpl implements TaskScheduler {
     ITaskConfig task = Iterables.getOnlyElement(tasksById.values().stream()
         .map(IAssignedTask::getTask)
         .collect(Collectors.toSet()));
-    AttributeAggregate aggregate = AttributeAggregate.getJobActiveState(store, task.getJob());
+    AttributeAggregate aggregate = jobState.apply(task.getJob());
 
     // Attempt to schedule using available resources.
     Set<String> launched = assigner.maybeAssign(
@@ -157,6 +218,9 @@ public class TaskSchedulerImpl implements TaskScheduler {
         TaskGroupKey.from(task),
         ImmutableSet.copyOf(tasksById.values()),
         reservations.asMap());
+    // Account for the new placements before the next attempt, which may precede the delivery of
+    // their state change events.
+    jobAttributes.refresh(store, launched);
 
     attemptsFired.addAndGet(tasksById.size());
 
@@ -15,6 +15,7 @@ package org.apache.aurora.scheduler.sla;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
@@ -109,6 +110,7 @@ public class MetricCalculator implements Runnable {
 
   private final LoadingCache<String, Counter> metricCache;
   private final Storage storage;
+  private final SlaIndex index;
   private final Clock clock;
   private final MetricCalculatorSettings settings;
 
@@ -116,21 +118,36 @@ public class MetricCalculator implements Runnable {
     private final long refreshRateMs;
     private final Set<MetricCategory> prodMetrics;
     private final Set<MetricCategory> nonProdMetrics;
+    private final boolean incremental;
 
     MetricCalculatorSettings(
         long refreshRateMs,
         Set<MetricCategory> prodMetrics,
-        Set<MetricCategory> nonProdMetrics) {
+        Set<MetricCategory> nonProdMetrics,
+        boolean incremental) {
 
       this.refreshRateMs = refreshRateMs;
       this.prodMetrics = requireNonNull(prodMetrics);
       this.nonProdMetrics = requireNonNull(nonProdMetrics);
+      this.incremental = incremental;
     }
 
     long getRefreshRateMs() {
       return refreshRateMs;
     }
 
+    Set<MetricCategory> getProdMetrics() {
+      return prodMetrics;
+    }
+
+    Set<MetricCategory> getNonProdMetrics() {
+      return nonProdMetrics;
+    }
+
+    boolean isIncremental() {
+      return incremental;
+    }
+
   }
 
   private static class Counter implements Supplier<Number> {
@@ -159,11 +176,13 @@ public class MetricCalculator implements Runnable {
   @Inject
   MetricCalculator(
       Storage storage,
+      SlaIndex index,
       Clock clock,
       MetricCalculatorSettings settings,
       final StatsProvider statsProvider) {
 
     this.storage = requireNonNull(storage);
+    this.index = requireNonNull(index);
     this.clock = requireNonNull(clock);
     this.settings = requireNonNull(settings);
 
@@ -179,6 +198,14 @@ public class MetricCalculator implements Runnable {
   @Timed("sla_stats_computation")
   @Override
   public void run() {
+    if (index.isEnabled()) {
+      long nowMs = clock.nowMillis();
+      Range<Long> timeRange = Range.closedOpen(nowMs - settings.refreshRateMs, nowMs);
+      runIndexedAlgorithms(true, settings.prodMetrics, timeRange, NAME_QUALIFIER_PROD);
+      runIndexedAlgorithms(false, settings.nonProdMetrics, timeRange, NAME_QUALIFIER_NON_PROD);
+      return;
+    }
+
     FluentIterable<IScheduledTask> tasks =
         FluentIterable.from(Storage.Util.fetchTasks(storage, Query.unscoped()));
 
@@ -216,4 +243,26 @@ public class MetricCalculator implements Runnable {
       }
     }
   }
+
+  private void runIndexedAlgorithms(
+      boolean production,
+      Set<MetricCategory> categories,
+      Range<Long> timeRange,
+      String nameQualifier) {
+
+    for (MetricCategory category : categories) {
+      for (Entry<AlgorithmType, GroupType> slaMetric : category.getMetrics().entries()) {
+        AlgorithmType algoType = slaMetric.getKey();
+        Map<String, Number> values = index.calculate(
+            production,
+            slaMetric.getValue(),
+            algoType.getAlgorithm(),
+            timeRange);
+        for (Entry<String, Number> namedValue : values.entrySet()) {
+          String metricName = namedValue.getKey() + algoType.getAlgorithmName() + nameQualifier;
+          metricCache.getUnchecked(metricName).set(metricName, namedValue.getValue());
+        }
+      }
+    }
+  }
 }
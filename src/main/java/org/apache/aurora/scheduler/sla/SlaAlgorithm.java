@@ -61,6 +61,18 @@ interface SlaAlgorithm {
    */
   Number calculate(Iterable<IScheduledTask> tasks, Range<Long> timeFrame);
 
+  /**
+   * Applies this algorithm to a group of tasks maintained by {@link SlaIndex}, using the state
+   * the index precomputed for the group where possible.
+   *
+   * @param group Group of tasks to apply this algorithm to.
+   * @param timeFrame Relevant time frame.
+   * @return Produced metric value.
+   */
+  default Number calculate(SlaIndex.Group group, Range<Long> timeFrame) {
+    return calculate(group.getTasks(), timeFrame);
+  }
+
   /**
    * Pre-configured SLA algorithms.
    */
@@ -178,6 +190,14 @@ interface SlaAlgorithm {
 
       return (double) SlaUtil.percentile(uptimes, percentile) / 1000;
     }
+
+    @Override
+    public Number calculate(SlaIndex.Group group, Range<Long> timeFrame) {
+      return (double) SlaUtil.elapsedPercentile(
+          group.getRunningTimestamps(),
+          timeFrame.upperEndpoint(),
+          percentile) / 1000;
+    }
   }
 
   /**
@@ -233,7 +253,7 @@ interface SlaAlgorithm {
       UP
     }
 
-    private static class Interval {
+    static final class Interval {
       private final SlaState state;
       private final Range<Long> range;
 
@@ -373,6 +393,16 @@ interface SlaAlgorithm {
       // Interface private.
     }
 
+    /**
+     * Converts the history of all tasks of an instance into {@link SlaState} based intervals.
+     *
+     * @param instanceTasks All tasks of an instance.
+     * @return Instance intervals, in chronological order.
+     */
+    static List<Interval> toIntervals(Collection<IScheduledTask> instanceTasks) {
+      return TASK_EVENTS_TO_INTERVALS.apply(TO_SORTED_EVENTS.apply(instanceTasks));
+    }
+
     @Override
     public Number calculate(Iterable<IScheduledTask> tasks, Range<Long> timeFrame) {
       // Given the set of tasks do the following:
@@ -387,9 +417,35 @@ interface SlaAlgorithm {
 
       // Given the instance timeline converted to SlaState-based time intervals, aggregate the
       // platform uptime per given timeFrame.
-      long aggregateUptime = 0;
-      long aggregateTotal = 0;
+      UptimeSum uptime = new UptimeSum(timeFrame);
       for (List<Interval> intervals : instanceSlaTimeline.values()) {
+        uptime.add(intervals);
+      }
+      return uptime.getPercent();
+    }
+
+    @Override
+    public Number calculate(SlaIndex.Group group, Range<Long> timeFrame) {
+      UptimeSum uptime = new UptimeSum(timeFrame);
+      for (List<Interval> intervals : group.getInstanceIntervals()) {
+        uptime.add(intervals);
+      }
+      return uptime.getPercent();
+    }
+
+    /**
+     * Aggregates the platform uptime of instances over a time frame.
+     */
+    private static final class UptimeSum {
+      private final Range<Long> timeFrame;
+      private long aggregateUptime;
+      private long aggregateTotal;
+
+      UptimeSum(Range<Long> timeFrame) {
+        this.timeFrame = timeFrame;
+      }
+
+      void add(List<Interval> intervals) {
         long instanceUptime = elapsedFromRange(timeFrame);
         long instanceTotal = instanceUptime;
         for (Interval interval : intervals) {
@@ -407,8 +463,10 @@ interface SlaAlgorithm {
         aggregateTotal += instanceTotal;
       }
 
-      // Calculate effective platform uptime or default to 100.0 if no instances are running yet.
-      return aggregateTotal > 0 ? (double) aggregateUptime * 100 / aggregateTotal : 100.0;
+      Number getPercent() {
+        // Calculate effective platform uptime or default to 100.0 if no instances are running yet.
+        return aggregateTotal > 0 ? (double) aggregateUptime * 100 / aggregateTotal : 100.0;
+      }
     }
 
     private static long elapsedFromRange(Range<Long> range) {
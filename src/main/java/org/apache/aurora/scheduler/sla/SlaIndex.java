@@ -0,0 +1,299 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.sla;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.primitives.Longs;
+
+import org.apache.aurora.common.collections.Pair;
+import org.apache.aurora.gen.ScheduleStatus;
+import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
+import org.apache.aurora.scheduler.sla.MetricCalculator.MetricCalculatorSettings;
+import org.apache.aurora.scheduler.sla.MetricCalculator.MetricCategory;
+import org.apache.aurora.scheduler.sla.SlaAlgorithm.AggregatePlatformUptime;
+import org.apache.aurora.scheduler.sla.SlaAlgorithm.AggregatePlatformUptime.Interval;
+import org.apache.aurora.scheduler.sla.SlaGroup.GroupType;
+import org.apache.aurora.scheduler.storage.Storage;
+import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
+import org.apache.aurora.scheduler.storage.entities.IJobKey;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maintains the service tasks of each SLA group along with state precomputed for the SLA
+ * algorithms, so that {@link MetricCalculator} does not have to fetch and regroup all tasks and
+ * replay their histories on every run.  Each group tracks the timestamps its running tasks entered
+ * RUNNING, and the {@link AggregatePlatformUptime} intervals of each of its instances, which are
+ * only recomputed after one of the instance's tasks changes.
+ * <p>
+ * The index is updated from task state change and deletion events.  Events are delivered
+ * asynchronously and not necessarily in order, so rather than applying the state carried by an
+ * event, the index re-reads the affected task from storage.
+ * <p>
+ * When disabled, the index ignores all events.
+ */
+class SlaIndex implements EventSubscriber {
+  private final Storage storage;
+  private final boolean enabled;
+
+  // All of the state below is guarded by the intrinsic lock, which is acquired within the storage
+  // reads of the tasks being indexed.  Groups are keyed by whether they hold production tasks,
+  // then by group type and name.  Only tiers and group types with configured metrics are indexed.
+  private final Map<Boolean, Map<GroupType, Map<String, Group>>> groups;
+  private final Map<String, IndexedTask> tasks = Maps.newHashMap();
+
+  @Inject
+  SlaIndex(Storage storage, MetricCalculatorSettings settings) {
+    this.storage = requireNonNull(storage);
+    this.enabled = settings.isIncremental();
+
+    ImmutableMap.Builder<Boolean, Map<GroupType, Map<String, Group>>> tiers =
+        ImmutableMap.builder();
+    addTier(tiers, true, settings.getProdMetrics());
+    addTier(tiers, false, settings.getNonProdMetrics());
+    this.groups = tiers.build();
+  }
+
+  private static void addTier(
+      ImmutableMap.Builder<Boolean, Map<GroupType, Map<String, Group>>> tiers,
+      boolean production,
+      Set<MetricCategory> categories) {
+
+    ImmutableMap.Builder<GroupType, Map<String, Group>> groupTypes = ImmutableMap.builder();
+    categories.stream()
+        .flatMap(category -> category.getMetrics().values().stream())
+        .distinct()
+        .forEach(type -> groupTypes.put(type, Maps.newHashMap()));
+    tiers.put(production, groupTypes.build());
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  @Subscribe
+  public void taskChangedState(TaskStateChange stateChange) {
+    if (enabled) {
+      refresh(ImmutableList.of(stateChange.getTaskId()));
+    }
+  }
+
+  @Subscribe
+  public void tasksDeleted(TasksDeleted event) {
+    if (enabled) {
+      refresh(Iterables.transform(event.getTasks(), Tasks::id));
+    }
+  }
+
+  private void refresh(Iterable<String> taskIds) {
+    storage.read(storeProvider -> {
+      synchronized (this) {
+        for (String taskId : taskIds) {
+          refresh(storeProvider, taskId);
+        }
+      }
+      return null;
+    });
+  }
+
+  private void refresh(StoreProvider storeProvider, String taskId) {
+    IndexedTask previous = tasks.remove(taskId);
+    if (previous != null) {
+      Map<GroupType, Map<String, Group>> tier = groups.get(previous.production);
+      for (Pair<GroupType, String> membership : previous.memberships) {
+        Map<String, Group> named = tier.get(membership.getFirst());
+        Group group = named.get(membership.getSecond());
+        group.remove(previous.task);
+        if (group.isEmpty()) {
+          named.remove(membership.getSecond());
+        }
+      }
+    }
+
+    storeProvider.getTaskStore().fetchTask(taskId).ifPresent(this::add);
+  }
+
+  private void add(IScheduledTask task) {
+    ITaskConfig config = task.getAssignedTask().getTask();
+    Map<GroupType, Map<String, Group>> tier = groups.get(config.isProduction());
+    if (!config.isIsService() || tier.isEmpty()) {
+      return;
+    }
+
+    ImmutableList.Builder<Pair<GroupType, String>> memberships = ImmutableList.builder();
+    for (Map.Entry<GroupType, Map<String, Group>> entry : tier.entrySet()) {
+      GroupType type = entry.getKey();
+      Set<String> names = type.getSlaGroup().createNamedGroups(ImmutableList.of(task)).keySet();
+      for (String name : names) {
+        entry.getValue().computeIfAbsent(name, key -> new Group()).add(task);
+        memberships.add(Pair.of(type, name));
+      }
+    }
+    tasks.put(Tasks.id(task), new IndexedTask(task, config.isProduction(), memberships.build()));
+  }
+
+  /**
+   * Applies an SLA algorithm to every group of a type.
+   *
+   * @param production Whether to calculate the metric for production or non-production tasks.
+   * @param type Group type.
+   * @param algorithm Algorithm to apply.
+   * @param timeFrame Relevant time frame.
+   * @return Metric values, by group name.
+   */
+  synchronized Map<String, Number> calculate(
+      boolean production,
+      GroupType type,
+      SlaAlgorithm algorithm,
+      Range<Long> timeFrame) {
+
+    Map<String, Group> named = groups.get(production).get(type);
+    if (named == null) {
+      return ImmutableMap.of();
+    }
+
+    ImmutableMap.Builder<String, Number> values = ImmutableMap.builder();
+    named.forEach((name, group) -> values.put(name, algorithm.calculate(group, timeFrame)));
+    return values.build();
+  }
+
+  private static final class IndexedTask {
+    private final IScheduledTask task;
+    private final boolean production;
+    private final List<Pair<GroupType, String>> memberships;
+
+    IndexedTask(
+        IScheduledTask task,
+        boolean production,
+        List<Pair<GroupType, String>> memberships) {
+
+      this.task = task;
+      this.production = production;
+      this.memberships = memberships;
+    }
+  }
+
+  /**
+   * The tasks in an SLA group, along with state precomputed for the SLA algorithms.  Only
+   * accessed while holding the index lock.
+   */
+  static final class Group {
+    private final Map<Pair<IJobKey, Integer>, Instance> instances = Maps.newHashMap();
+    private final Map<String, Long> runningTimestamps = Maps.newHashMap();
+    // Running timestamps in ascending order, or null if they changed since last requested.
+    private long[] sortedRunningTimestamps;
+
+    private void add(IScheduledTask task) {
+      instances.computeIfAbsent(toInstanceId(task), id -> new Instance()).add(task);
+      if (task.getStatus() == ScheduleStatus.RUNNING) {
+        runningTimestamps.put(Tasks.id(task), Tasks.getLatestEvent(task).getTimestamp());
+        sortedRunningTimestamps = null;
+      }
+    }
+
+    private void remove(IScheduledTask task) {
+      Pair<IJobKey, Integer> instanceId = toInstanceId(task);
+      Instance instance = instances.get(instanceId);
+      instance.remove(task);
+      if (instance.tasks.isEmpty()) {
+        instances.remove(instanceId);
+      }
+      if (runningTimestamps.remove(Tasks.id(task)) != null) {
+        sortedRunningTimestamps = null;
+      }
+    }
+
+    private boolean isEmpty() {
+      return instances.isEmpty();
+    }
+
+    private static Pair<IJobKey, Integer> toInstanceId(IScheduledTask task) {
+      return Pair.of(Tasks.getJob(task), task.getAssignedTask().getInstanceId());
+    }
+
+    /**
+     * Gets all tasks in the group.
+     *
+     * @return Group tasks.
+     */
+    Iterable<IScheduledTask> getTasks() {
+      return Iterables.concat(Iterables.transform(
+          instances.values(),
+          instance -> instance.tasks.values()));
+    }
+
+    /**
+     * Gets the timestamps at which the RUNNING tasks in the group last changed state.
+     *
+     * @return Timestamps, in ascending order.
+     */
+    long[] getRunningTimestamps() {
+      if (sortedRunningTimestamps == null) {
+        sortedRunningTimestamps = Longs.toArray(runningTimestamps.values());
+        Arrays.sort(sortedRunningTimestamps);
+      }
+      return sortedRunningTimestamps;
+    }
+
+    /**
+     * Gets the {@link AggregatePlatformUptime} intervals of each instance in the group, computed
+     * from the instance's tasks in the group.
+     *
+     * @return Intervals of each instance.
+     */
+    Iterable<List<Interval>> getInstanceIntervals() {
+      return Iterables.transform(instances.values(), Instance::getIntervals);
+    }
+  }
+
+  private static final class Instance {
+    private final Map<String, IScheduledTask> tasks = Maps.newHashMap();
+    // Null if the instance's tasks changed since the intervals were last requested.
+    private List<Interval> intervals;
+
+    void add(IScheduledTask task) {
+      tasks.put(Tasks.id(task), task);
+      intervals = null;
+    }
+
+    void remove(IScheduledTask task) {
+      tasks.remove(Tasks.id(task));
+      intervals = null;
+    }
+
+    List<Interval> getIntervals() {
+      if (intervals == null) {
+        intervals = AggregatePlatformUptime.toIntervals(tasks.values());
+      }
+      return intervals;
+    }
+  }
+}
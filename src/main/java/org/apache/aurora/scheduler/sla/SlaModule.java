@@ -37,6 +37,7 @@ import org.apache.aurora.scheduler.base.AsyncUtil;
 import org.apache.aurora.scheduler.config.splitters.CommaSplitter;
 import org.apache.aurora.scheduler.config.types.TimeAmount;
 import org.apache.aurora.scheduler.config.validators.PositiveAmount;
+import org.apache.aurora.scheduler.events.PubsubEventModule;
 import org.apache.aurora.scheduler.sla.MetricCalculator.MetricCalculatorSettings;
 import org.apache.aurora.scheduler.sla.MetricCalculator.MetricCategory;
 import org.apache.aurora.scheduler.sla.SlaManager.SlaAwareKillNonProd;
@@ -82,6 +83,13 @@ public class SlaModule extends AbstractModule {
         splitter = CommaSplitter.class)
     public List<MetricCategory> slaNonProdMetrics = ImmutableList.of();
 
+    @Parameter(names = "-sla_incremental_metrics",
+        description = "Maintain the task groups and instance histories used to calculate SLA "
+            + "metrics as tasks change state, instead of fetching and regrouping all tasks on "
+            + "every SLA stat refresh.",
+        arity = 1)
+    public boolean slaIncrementalMetrics = false;
+
     @Parameter(names = "-sla_coordinator_timeout",
         validateValueWith = PositiveAmount.class,
         description = "Timeout interval for communicating with Coordinator.")
@@ -126,8 +134,11 @@ public class SlaModule extends AbstractModule {
         .toInstance(new MetricCalculatorSettings(
             options.slaRefreshInterval.as(Time.MILLISECONDS),
             ImmutableSet.copyOf(options.slaProdMetrics),
-            ImmutableSet.copyOf(options.slaNonProdMetrics)));
+            ImmutableSet.copyOf(options.slaNonProdMetrics),
+            options.slaIncrementalMetrics));
 
+    bind(SlaIndex.class).in(Singleton.class);
+    PubsubEventModule.bindSubscriber(binder(), SlaIndex.class);
     bind(MetricCalculator.class).in(Singleton.class);
     bind(ScheduledExecutorService.class)
         .annotatedWith(SlaExecutor.class)
@@ -17,6 +17,8 @@ import java.util.List;
 
 import com.google.common.math.Quantiles;
 
+import org.apache.aurora.common.collections.Pair;
+
 /**
  * Utility methods for the SLA calculations.
  */
@@ -45,6 +47,48 @@ final class SlaUtil {
       return 0.0;
     }
 
+    Pair<Integer, Integer> scaleAndIndex = toScaleAndIndex(percentile);
+    return Quantiles.scale(scaleAndIndex.getFirst()).index(scaleAndIndex.getSecond())
+        .compute(list);
+  }
+
+  /**
+   * Reports the percentile value of the times elapsed since a list of timestamps.  Equivalent to
+   * {@link #percentile(List, double)} over {@code now - timestamp} for each timestamp, but only
+   * reads the samples it interpolates between.
+   *
+   * @param timestamps Timestamps, in ascending order.
+   * @param now Time to measure the elapsed times to.
+   * @param percentile Percentile value to apply.
+   * @return Elapsed time at the given percentile.
+   */
+  static Number elapsedPercentile(long[] timestamps, long now, double percentile) {
+    if (timestamps.length == 0) {
+      return 0.0;
+    }
+
+    // Mirrors Quantiles: select the sample at the quotient, then interpolate towards the next
+    // sample by the remainder.
+    Pair<Integer, Integer> scaleAndIndex = toScaleAndIndex(percentile);
+    int scale = scaleAndIndex.getFirst();
+    long numerator = (long) scaleAndIndex.getSecond() * (timestamps.length - 1);
+    int quotient = (int) (numerator / scale);
+    int remainder = (int) (numerator - (long) quotient * scale);
+
+    double lower = elapsed(timestamps, now, quotient);
+    if (remainder == 0) {
+      return lower;
+    }
+    double upper = elapsed(timestamps, now, quotient + 1);
+    return lower + (upper - lower) * remainder / scale;
+  }
+
+  // Gets the k-th smallest elapsed time, which is measured from the k-th latest timestamp.
+  private static double elapsed(long[] timestamps, long now, int k) {
+    return now - timestamps[timestamps.length - 1 - k];
+  }
+
+  private static Pair<Integer, Integer> toScaleAndIndex(double percentile) {
     // index should be a full integer. use quantile scale to allow reporting of percentile values
     // such as p99.9.
     double percentileCopy = percentile;
@@ -54,7 +98,6 @@ final class SlaUtil {
       percentileCopy *= 10;
     }
 
-    return Quantiles.scale(quantileScale).index((int) Math.floor(quantileScale - percentileCopy))
-        .compute(list);
+    return Pair.of(quantileScale, (int) Math.floor(quantileScale - percentileCopy));
   }
 }
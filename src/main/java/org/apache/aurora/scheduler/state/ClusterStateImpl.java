@@ -29,11 +29,16 @@ import org.apache.aurora.scheduler.preemptor.PreemptionVictim;
 public class ClusterStateImpl implements ClusterState, PubsubEvent.EventSubscriber {
 
   private final Multimap<String, PreemptionVictim> victims = HashMultimap.create();
+  // An immutable copy of the victims, captured on demand and discarded when the victims change.
+  private ImmutableSetMultimap<String, PreemptionVictim> snapshot;
 
   @Override
   public Multimap<String, PreemptionVictim> getSlavesToActiveTasks() {
     synchronized (victims) {
-      return ImmutableSetMultimap.copyOf(victims);
+      if (snapshot == null) {
+        snapshot = ImmutableSetMultimap.copyOf(victims);
+      }
+      return snapshot;
     }
   }
 
@@ -42,10 +47,14 @@ public class ClusterStateImpl implements ClusterState, PubsubEvent.EventSubscrib
     synchronized (victims) {
       String slaveId = stateChange.getTask().getAssignedTask().getSlaveId();
       PreemptionVictim victim = PreemptionVictim.fromTask(stateChange.getTask().getAssignedTask());
+      boolean changed;
       if (Tasks.SLAVE_ASSIGNED_STATES.contains(stateChange.getNewState())) {
-        victims.put(slaveId, victim);
+        changed = victims.put(slaveId, victim);
       } else {
-        victims.remove(slaveId, victim);
+        changed = victims.remove(slaveId, victim);
+      }
+      if (changed) {
+        snapshot = null;
       }
     }
   }
@@ -29,7 +29,6 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.FluentIterable;
-import com.google.common.collect.Iterables;
 
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.Tasks;
@@ -56,12 +55,6 @@ public class ResourceCounter {
     this.storage = Objects.requireNonNull(storage);
   }
 
-  private Iterable<ITaskConfig> getTasks(Query.Builder query) throws StorageException {
-    return Iterables.transform(
-        Storage.Util.fetchTasks(storage, query),
-        Tasks::getConfig);
-  }
-
   private static final Function<MetricType, Metric> TO_METRIC = Metric::new;
 
   /**
@@ -75,12 +68,16 @@ public class ResourceCounter {
         .transform(TO_METRIC)
         .toList();
 
-    for (ITaskConfig task : getTasks(Query.unscoped().active())) {
-      for (Metric count : counts) {
-        count.accumulate(task);
-      }
-    }
-    return counts;
+    return storage.read(storeProvider -> {
+      storeProvider.getTaskStore().streamTasks(Query.unscoped().active())
+          .map(Tasks::getConfig)
+          .forEach(task -> {
+            for (Metric count : counts) {
+              count.accumulate(task);
+            }
+          });
+      return counts;
+    });
   }
 
   /**
@@ -136,10 +133,13 @@ public class ResourceCounter {
             return new Metric();
           }
         });
-    for (ITaskConfig task : Iterables.filter(getTasks(query), filter)) {
-      metrics.getUnchecked(keyFunction.apply(task)).accumulate(task);
-    }
-    return metrics.asMap();
+    return storage.read(storeProvider -> {
+      storeProvider.getTaskStore().streamTasks(query)
+          .map(Tasks::getConfig)
+          .filter(filter)
+          .forEach(task -> metrics.getUnchecked(keyFunction.apply(task)).accumulate(task));
+      return metrics.asMap();
+    });
   }
 
   public enum MetricType {
@@ -157,7 +157,7 @@ public class ResourceCounter {
 
   public static class Metric {
     public final MetricType type;
-    private ResourceBag bag;
+    private final ResourceBag.Accumulator bag;
 
     public Metric() {
       this(MetricType.TOTAL_CONSUMED);
@@ -168,27 +168,27 @@ public class ResourceCounter {
     }
 
     public Metric(Metric copy) {
-      this(copy.type, copy.bag);
+      this(copy.type, copy.getBag());
     }
 
     @VisibleForTesting
     Metric(MetricType type, ResourceBag bag) {
       this.type = type;
-      this.bag = bag;
+      this.bag = new ResourceBag.Accumulator(bag);
     }
 
     void accumulate(ITaskConfig task) {
       if (type.filter.apply(task)) {
-        bag = bag.add(QUOTA_RESOURCES.apply(task));
+        bag.add(QUOTA_RESOURCES.apply(task));
       }
     }
 
     void accumulate(IResourceAggregate aggregate) {
-      bag = bag.add(ResourceManager.bagFromAggregate(aggregate));
+      bag.add(ResourceManager.bagFromAggregate(aggregate));
     }
 
     public ResourceBag getBag() {
-      return bag;
+      return bag.toBag();
     }
 
     @Override
@@ -199,12 +199,12 @@ public class ResourceCounter {
 
       Metric other = (Metric) o;
       return Objects.equals(other.type, this.type)
-          && Objects.equals(other.bag, this.bag);
+          && Objects.equals(other.getBag(), this.getBag());
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(type, bag);
+      return Objects.hash(type, getBag());
     }
   }
 }
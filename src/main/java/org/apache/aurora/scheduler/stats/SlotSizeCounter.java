@@ -40,6 +40,9 @@ import static org.apache.aurora.scheduler.resources.ResourceBag.XLARGE;
 /**
  * A stat computer that aggregates the number of 'slots' available at different pre-determined
  * slot sizes, broken down by dedicated and non-dedicated hosts.
+ * <p>
+ * For each slot count, a fragmentation stat reports the percentage of slots that would fit into
+ * the pooled slack of all hosts, but are lost because the slack is split across hosts.
  */
 class SlotSizeCounter implements Runnable {
   private static final Map<String, ResourceBag> SLOT_SIZES = ImmutableMap.of(
@@ -132,12 +135,25 @@ class SlotSizeCounter implements Runnable {
     return getPrefix(dedicated, revocable) + slotName;
   }
 
-  private int countSlots(Iterable<ResourceBag> slots, final ResourceBag slotSize) {
-    Function<ResourceBag, Integer> counter = machineSlack -> Ordering.natural().min(
+  private static String getFragmentationStatName(String statName) {
+    return statName + "_fragmentation_pct";
+  }
+
+  @VisibleForTesting
+  static String getFragmentationStatName(String slotName, boolean dedicated, boolean revocable) {
+    return getFragmentationStatName(getStatName(slotName, dedicated, revocable));
+  }
+
+  private static int countSlots(ResourceBag machineSlack, ResourceBag slotSize) {
+    return Ordering.natural().min(
         machineSlack.divide(slotSize).streamResourceVectors()
             .map(entry -> entry.getValue())
             .collect(Collectors.toSet()))
         .intValue();
+  }
+
+  private int countSlots(Iterable<ResourceBag> slots, final ResourceBag slotSize) {
+    Function<ResourceBag, Integer> counter = machineSlack -> countSlots(machineSlack, slotSize);
 
     int sum = 0;
     for (int slotCount : FluentIterable.from(slots).transform(counter)) {
@@ -146,6 +162,19 @@ class SlotSizeCounter implements Runnable {
     return sum;
   }
 
+  private static int fragmentationPercent(
+      Iterable<ResourceBag> slots,
+      int slotCount,
+      ResourceBag slotSize) {
+
+    ResourceBag pooled = ResourceBag.EMPTY;
+    for (ResourceBag machineSlack : slots) {
+      pooled = pooled.add(machineSlack);
+    }
+    int pooledCount = countSlots(pooled, slotSize);
+    return pooledCount > 0 ? 100 * (pooledCount - slotCount) / pooledCount : 0;
+  }
+
   private void updateStats(
       String name,
       Iterable<MachineResource> slots,
@@ -160,7 +189,10 @@ class SlotSizeCounter implements Runnable {
 
     for (String slotGroup : SLOT_GROUPS) {
       String statName = slotGroup + name;
-      cachedCounters.get(statName).set(countSlots(sizes.get(statName), slotSize));
+      int slotCount = countSlots(sizes.get(statName), slotSize);
+      cachedCounters.get(statName).set(slotCount);
+      cachedCounters.get(getFragmentationStatName(statName))
+          .set(fragmentationPercent(sizes.get(statName), slotCount, slotSize));
     }
   }
 
@@ -132,6 +132,12 @@ public class CallOrderEnforcingStorage implements NonVolatileStorage {
     return wrapped.write(work);
   }
 
+  @Override
+  public <T, E extends Exception> T readSnapshot(Work<T, E> work) throws StorageException, E {
+    checkState(State.READY);
+    return wrapped.readSnapshot(work);
+  }
+
   /**
    * Creates a binding module that will wrap a storage class with {@link CallOrderEnforcingStorage},
    * exposing the order-enforced storage as {@link Storage} and {@link NonVolatileStorage}.
@@ -227,6 +227,26 @@ public interface Storage {
    */
   <T, E extends Exception> T write(MutateWork<T, E> work) throws StorageException, E;
 
+  /**
+   * Executes the unit of read-only {@code work} against a consistent, point-in-time view of
+   * storage.  Unlike {@link #read(Work)}, the view is isolated from concurrent writers.  Unlike
+   * {@link #write(MutateWork)}, writers need only be excluded while the view is captured, not for
+   * the duration of the work.
+   * <p>
+   * The default implementation performs the work within a write operation, which is consistent
+   * but excludes writers until the work completes.
+   *
+   * @param work The unit of work to execute.
+   * @param <T> The type of result this unit of work produces.
+   * @param <E> The type of exception this unit of work can throw.
+   * @return the result when the unit of work completes successfully
+   * @throws StorageException if there was a problem reading from stable storage.
+   * @throws E bubbled transparently when the unit of work throws
+   */
+  default <T, E extends Exception> T readSnapshot(Work<T, E> work) throws StorageException, E {
+    return write((MutateWork<T, E>) work::apply);
+  }
+
   /**
    * Requests the underlying storage prepare its data set; ie: initialize schemas, begin syncing
    * out of date data, etc.  This method should not block.
@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.storage;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
@@ -43,13 +44,25 @@ public interface TaskStore {
 
   /**
    * Fetches a read-only view of tasks matching a query and filters. Intended for use with a
-   * {@link Query.Builder}.
+   * {@link Query.Builder}. The offset and limit of the query, if set, select a page of the
+   * matching tasks.
    *
    * @param query Builder of the query to identify tasks with.
    * @return A read-only view of matching tasks.
    */
   Collection<IScheduledTask> fetchTasks(Query.Builder query);
 
+  /**
+   * Lazily fetches tasks matching a query, applying its offset and limit like
+   * {@link #fetchTasks(Query.Builder)}. Unlike {@link #fetchTasks(Query.Builder)}, matching tasks
+   * are not collected up front, so consuming a page of a large result only allocates for that
+   * page. The returned stream must be consumed within the storage operation that created it.
+   *
+   * @param query Builder of the query to identify tasks with.
+   * @return A stream of matching tasks.
+   */
+  Stream<IScheduledTask> streamTasks(Query.Builder query);
+
   /**
    * Fetches all job keys represented in the task store.
    *
@@ -107,8 +120,9 @@ public interface TaskStore {
     }
 
     public static Predicate<IScheduledTask> queryFilter(final Query.Builder queryBuilder) {
+      // Building the query copies it, so it is done once rather than once per task.
+      ITaskQuery query = queryBuilder.get();
       return task -> {
-        ITaskQuery query = queryBuilder.get();
         ITaskConfig config = task.getAssignedTask().getTask();
         // TODO(wfarner): Investigate why blank inputs are treated specially for the role field.
         if (query.getRole() != null
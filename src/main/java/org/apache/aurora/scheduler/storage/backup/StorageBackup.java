@@ -152,7 +152,7 @@ public interface StorageBackup {
 
     @Override
     public void backupNow() {
-      save(storage.write(delegate::from));
+      save(storage.readSnapshot(delegate::from));
     }
 
     @VisibleForTesting
@@ -16,9 +16,12 @@ package org.apache.aurora.scheduler.storage.durability;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.gen.storage.Op;
 import org.apache.aurora.scheduler.base.SchedulerException;
@@ -62,6 +65,11 @@ import static java.util.Objects.requireNonNull;
  *
  * <p>If the op fails to apply to local storage we will never persist the op, and if the op
  * fails to persist, it'll throw and abort the local storage operation as well.
+ *
+ * <p>When group commit is enabled, the write lock is released as soon as a transaction has been
+ * applied locally, and the ops of concurrent transactions are persisted together by a
+ * {@link GroupCommitter}.  Writers are still only acknowledged once their ops are durable, but
+ * other threads may observe locally-applied changes before then.
  */
 public class DurableStorage implements NonVolatileStorage {
 
@@ -92,10 +100,49 @@ public class DurableStorage implements NonVolatileStorage {
   private final ThriftBackfill thriftBackfill;
 
   private final WriteRecorder writeRecorder;
+  @Nullable
+  private final GroupCommitter groupCommitter;
 
   private TransactionRecorder transaction = null;
+  // The outermost transaction's pending group commit, guarded by writeLock.
+  private GroupCommitter.Commit pendingCommit = null;
 
   private final SlidingStats writerWaitStats = new SlidingStats("storage_write_lock_wait", "ns");
+  private final SlidingStats writeApplyStats = new SlidingStats("storage_write_apply", "ns");
+  private final SlidingStats writePersistStats = new SlidingStats("storage_write_persist", "ns");
+  private final SlidingStats commitWaitStats = new SlidingStats("storage_write_commit_wait", "ns");
+  private final SlidingStats viewCaptureStats =
+      new SlidingStats("storage_read_snapshot_capture", "ns");
+  private final SlidingStats recoveryApplyStats =
+      new SlidingStats("scheduler_storage_recover_apply", "ns");
+
+  /**
+   * Settings for coalescing concurrent transactions into shared persistence calls.
+   */
+  public static class GroupCommitSettings {
+    public static final GroupCommitSettings DISABLED =
+        new GroupCommitSettings(false, 1, Amount.of(0L, Time.MILLISECONDS));
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Amount<Long, Time> maxLinger;
+
+    public GroupCommitSettings(boolean enabled, int maxBatchSize, Amount<Long, Time> maxLinger) {
+      this.enabled = enabled;
+      this.maxBatchSize = maxBatchSize;
+      this.maxLinger = requireNonNull(maxLinger);
+    }
+
+    /**
+     * Whether transactions are persisted after the write lock is released.  When disabled,
+     * transactions are persisted while holding the write lock.
+     *
+     * @return Whether group commit is enabled.
+     */
+    public boolean isEnabled() {
+      return enabled;
+    }
+  }
 
   @Inject
   DurableStorage(
@@ -110,7 +157,8 @@ public class DurableStorage implements NonVolatileStorage {
       @Volatile HostMaintenanceStore.Mutable hostMaintenanceStore,
       EventSink eventSink,
       ReentrantLock writeLock,
-      ThriftBackfill thriftBackfill) {
+      ThriftBackfill thriftBackfill,
+      GroupCommitSettings groupCommitSettings) {
 
     this.persistence = requireNonNull(persistence);
 
@@ -120,6 +168,12 @@ public class DurableStorage implements NonVolatileStorage {
     this.writeBehindStorage = requireNonNull(delegateStorage);
     this.writeLock = requireNonNull(writeLock);
     this.thriftBackfill = requireNonNull(thriftBackfill);
+    this.groupCommitter = groupCommitSettings.enabled
+        ? new GroupCommitter(
+            this::persist,
+            groupCommitSettings.maxBatchSize,
+            groupCommitSettings.maxLinger)
+        : null;
     TransactionManager transactionManager = new TransactionManager() {
       @Override
       public boolean hasActiveTransaction() {
@@ -175,7 +229,13 @@ public class DurableStorage implements NonVolatileStorage {
   @Timed("scheduler_storage_recover")
   void recover(MutableStoreProvider stores) throws RecoveryFailedException {
     try {
-      Loader.load(stores, thriftBackfill, persistence.recover());
+      // Edits may be read and decoded ahead by the persistence layer, but are applied in order on
+      // this thread.
+      persistence.recover().forEachOrdered(edit -> {
+        long applyStart = System.nanoTime();
+        Loader.load(stores, thriftBackfill, edit);
+        recoveryApplyStats.accumulate(System.nanoTime() - applyStart);
+      });
     } catch (PersistenceException e) {
       throw new RecoveryFailedException(e);
     }
@@ -199,13 +259,15 @@ public class DurableStorage implements NonVolatileStorage {
     transaction = new TransactionRecorder();
     try {
       return writeBehindStorage.write(unused -> {
+        long applyStart = System.nanoTime();
         T result = work.apply(writeRecorder);
+        writeApplyStats.accumulate(System.nanoTime() - applyStart);
         List<Op> ops = transaction.getOps();
         if (!ops.isEmpty()) {
-          try {
-            persistence.persist(ops.stream());
-          } catch (PersistenceException e) {
-            throw new StorageException("Failed to persist storage changes", e);
+          if (groupCommitter == null) {
+            persist(ops);
+          } else {
+            pendingCommit = groupCommitter.enqueue(ops);
           }
         }
         return result;
@@ -215,20 +277,68 @@ public class DurableStorage implements NonVolatileStorage {
     }
   }
 
+  private void persist(List<Op> ops) throws StorageException {
+    long persistStart = System.nanoTime();
+    try {
+      persistence.persist(ops.stream());
+    } catch (PersistenceException e) {
+      throw new StorageException("Failed to persist storage changes", e);
+    } finally {
+      writePersistStats.accumulate(System.nanoTime() - persistStart);
+    }
+  }
+
   @Override
   public <T, E extends Exception> T write(final MutateWork<T, E> work) throws StorageException, E {
     long waitStart = System.nanoTime();
+    T result;
+    GroupCommitter.Commit commit;
     writeLock.lock();
     try {
       writerWaitStats.accumulate(System.nanoTime() - waitStart);
-      return doInTransaction(work);
+      result = doInTransaction(work);
+      commit = pendingCommit;
     } finally {
+      pendingCommit = null;
       writeLock.unlock();
     }
+
+    if (commit != null) {
+      long commitStart = System.nanoTime();
+      // Lingering for other writers is pointless if this thread still holds the write lock, as is
+      // the case for the initialization logic run from start().
+      groupCommitter.await(commit, !writeLock.isHeldByCurrentThread());
+      commitWaitStats.accumulate(System.nanoTime() - commitStart);
+    }
+    return result;
   }
 
   @Override
   public <T, E extends Exception> T read(Work<T, E> work) throws StorageException, E {
     return writeBehindStorage.read(work);
   }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The view is captured while holding the write lock, after any group commits that are still in
+   * flight have been persisted.  The view therefore reflects exactly the transactions persisted so
+   * far.  If called within a write operation, the view also includes that operation's changes.
+   */
+  @Override
+  public <T, E extends Exception> T readSnapshot(Work<T, E> work) throws StorageException, E {
+    StoreProvider view;
+    writeLock.lock();
+    try {
+      long captureStart = System.nanoTime();
+      if (groupCommitter != null) {
+        groupCommitter.flush();
+      }
+      view = writeBehindStorage.readSnapshot((Work.Quiet<StoreProvider>) stores -> stores);
+      viewCaptureStats.accumulate(System.nanoTime() - captureStart);
+    } finally {
+      writeLock.unlock();
+    }
+    return work.apply(view);
+  }
 }
@@ -15,21 +15,66 @@ package org.apache.aurora.scheduler.storage.durability;
 
 import javax.inject.Singleton;
 
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
 import com.google.inject.PrivateModule;
 
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.scheduler.config.types.TimeAmount;
+import org.apache.aurora.scheduler.config.validators.PositiveNumber;
 import org.apache.aurora.scheduler.storage.CallOrderEnforcingStorage;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.Storage.NonVolatileStorage;
+import org.apache.aurora.scheduler.storage.durability.DurableStorage.GroupCommitSettings;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * Binding module for a durable storage layer.
  */
 public class DurableStorageModule extends PrivateModule {
+
+  @Parameters(separators = "=")
+  public static class Options {
+    @Parameter(names = "-storage_group_commit",
+        description = "Release the storage write lock once a transaction is applied locally, and "
+            + "persist the transactions of concurrent writers together. Writers are acknowledged "
+            + "once their batch is durable.",
+        arity = 1)
+    public boolean groupCommit = false;
+
+    @Parameter(names = "-storage_group_commit_max_batch_size",
+        validateValueWith = PositiveNumber.class,
+        description = "Maximum number of storage transactions to persist in a single group "
+            + "commit.")
+    public int groupCommitMaxBatchSize = 64;
+
+    @Parameter(names = "-storage_group_commit_max_linger",
+        description = "Maximum time to wait for more storage transactions to join a group commit "
+            + "before persisting it.")
+    public TimeAmount groupCommitMaxLinger = new TimeAmount(1, Time.MILLISECONDS);
+  }
+
+  private final Options options;
+
+  public DurableStorageModule() {
+    this(new Options());
+  }
+
+  public DurableStorageModule(Options options) {
+    this.options = requireNonNull(options);
+  }
+
   @Override
   protected void configure() {
+    bind(GroupCommitSettings.class).toInstance(new GroupCommitSettings(
+        options.groupCommit,
+        options.groupCommitMaxBatchSize,
+        options.groupCommitMaxLinger));
     install(CallOrderEnforcingStorage.wrappingModule(DurableStorage.class));
     bind(DurableStorage.class).in(Singleton.class);
     expose(Storage.class);
     expose(NonVolatileStorage.class);
+    expose(GroupCommitSettings.class);
   }
 }
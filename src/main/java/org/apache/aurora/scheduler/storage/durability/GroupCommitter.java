@@ -0,0 +1,225 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.storage.durability;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.stats.SlidingStats;
+import org.apache.aurora.gen.storage.Op;
+import org.apache.aurora.scheduler.storage.Storage.StorageException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coalesces the ops of concurrent storage transactions into shared calls to the persistence layer.
+ * <p>
+ * Transactions must be enqueued in the order they were applied to local storage, and are
+ * persisted in that order.  There is no dedicated flushing thread.  Instead, the first waiting
+ * writer that finds no flush in progress becomes the leader: it optionally lingers to let more
+ * transactions join, and then persists up to the maximum batch size on behalf of every writer in
+ * the batch.  Other writers wait until the batch containing their transaction is durable.
+ */
+class GroupCommitter {
+
+  private final Consumer<List<Op>> persister;
+  private final int maxBatchSize;
+  private final long maxLingerNanos;
+  private final SlidingStats batchSizeStats =
+      new SlidingStats("storage_group_commit_batch", "transactions");
+
+  private final Lock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  // Guarded by lock.
+  private final Queue<Commit> pending = new ArrayDeque<>();
+  // Guarded by lock.
+  private boolean flushing = false;
+  // The most recently enqueued transaction, guarded by lock.
+  private Commit last = null;
+
+  /**
+   * Creates a new group committer.
+   *
+   * @param persister Durably saves a batch of ops, throwing {@link StorageException} on failure.
+   * @param maxBatchSize Maximum number of transactions to persist at once.
+   * @param maxLinger Maximum time a leader waits for a batch to fill before persisting it.
+   */
+  GroupCommitter(Consumer<List<Op>> persister, int maxBatchSize, Amount<Long, Time> maxLinger) {
+    Preconditions.checkArgument(maxBatchSize > 0);
+    this.persister = requireNonNull(persister);
+    this.maxBatchSize = maxBatchSize;
+    this.maxLingerNanos = maxLinger.as(Time.NANOSECONDS);
+  }
+
+  /**
+   * Adds the ops of a locally-applied transaction to the next batch.
+   *
+   * @param ops Ops recorded by the transaction.
+   * @return A handle to pass to {@link #await(Commit, boolean)}.
+   */
+  Commit enqueue(List<Op> ops) {
+    Commit commit = new Commit(ops);
+    lock.lock();
+    try {
+      pending.add(commit);
+      last = commit;
+      if (pending.size() >= maxBatchSize) {
+        changed.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+    return commit;
+  }
+
+  /**
+   * Blocks until a transaction is durably persisted, persisting it (and any other pending
+   * transactions) from the calling thread if no other thread is doing so.
+   *
+   * @param commit The transaction to wait for.
+   * @param allowLinger Whether the caller may wait for other writers to join its batch.  This
+   *                    should be {@code false} if the caller prevents other writers from enqueuing.
+   * @throws StorageException If the batch containing the transaction failed to persist.  If the
+   *                          calling thread persisted the batch and failed with an {@link Error},
+   *                          the error is thrown instead.
+   */
+  void await(Commit commit, boolean allowLinger) throws StorageException {
+    boolean interrupted = false;
+    lock.lock();
+    try {
+      while (!commit.done) {
+        if (flushing) {
+          changed.awaitUninterruptibly();
+          continue;
+        }
+
+        flushing = true;
+        if (allowLinger) {
+          interrupted |= linger();
+        }
+        List<Commit> batch = Lists.newArrayListWithCapacity(
+            Math.min(pending.size(), maxBatchSize));
+        while (!pending.isEmpty() && batch.size() < maxBatchSize) {
+          batch.add(pending.remove());
+        }
+
+        lock.unlock();
+        Throwable failure = null;
+        try {
+          persist(batch);
+        } catch (Throwable e) {
+          // Every writer in the batch must be released, even if the failure is not recoverable.
+          failure = e;
+          Throwables.throwIfInstanceOf(e, Error.class);
+        } finally {
+          lock.lock();
+          for (Commit flushed : batch) {
+            flushed.done = true;
+            flushed.failure = failure;
+          }
+          flushing = false;
+          changed.signalAll();
+        }
+      }
+    } finally {
+      lock.unlock();
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (commit.failure != null) {
+      throw new StorageException("Group commit failed to persist", commit.failure);
+    }
+  }
+
+  /**
+   * Blocks until every transaction enqueued so far is durably persisted, persisting from the
+   * calling thread if no other thread is doing so.  Batches are persisted in order, so this is
+   * equivalent to awaiting the most recently enqueued transaction.
+   *
+   * @throws StorageException If a batch being waited on failed to persist.
+   */
+  void flush() throws StorageException {
+    Commit awaited;
+    lock.lock();
+    try {
+      awaited = last == null || last.done ? null : last;
+    } finally {
+      lock.unlock();
+    }
+    if (awaited != null) {
+      await(awaited, false);
+    }
+  }
+
+  // Must be called while holding lock.  Returns whether the thread was interrupted.
+  private boolean linger() {
+    long remainingNanos = maxLingerNanos;
+    while (pending.size() < maxBatchSize && remainingNanos > 0) {
+      try {
+        remainingNanos = changed.awaitNanos(remainingNanos);
+      } catch (InterruptedException e) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void persist(List<Commit> batch) {
+    // Folding the batch through a single recorder coalesces adjacent ops across transactions.
+    TransactionRecorder combined = new TransactionRecorder();
+    for (Commit commit : batch) {
+      commit.ops.forEach(combined::add);
+    }
+    batchSizeStats.accumulate(batch.size());
+    persister.accept(combined.getOps());
+  }
+
+  @VisibleForTesting
+  int getPendingCount() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A locally-applied transaction awaiting persistence.
+   */
+  static final class Commit {
+    private final List<Op> ops;
+    // Guarded by the committer's lock.
+    private boolean done = false;
+    private Throwable failure = null;
+
+    private Commit(List<Op> ops) {
+      this.ops = requireNonNull(ops);
+    }
+  }
+}
@@ -54,7 +54,14 @@ public final class Loader {
     edits.forEach(edit -> load(stores, backfill, edit));
   }
 
-  private static void load(MutableStoreProvider stores, ThriftBackfill backfill, Edit edit) {
+  /**
+   * Loads a single storage operation into the provided stores, applying backfills.
+   *
+   * @param stores Stores to populate.
+   * @param backfill Backfill mechanism to use.
+   * @param edit Edit to apply.
+   */
+  public static void load(MutableStoreProvider stores, ThriftBackfill backfill, Edit edit) {
     if (edit.isDeleteAll()) {
       LOG.info("Resetting storage");
       stores.getCronJobStore().deleteJobs();
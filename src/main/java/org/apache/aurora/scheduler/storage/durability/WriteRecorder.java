@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
@@ -369,6 +370,11 @@ public class WriteRecorder implements
     return this.taskStore.fetchTasks(query);
   }
 
+  @Override
+  public Stream<IScheduledTask> streamTasks(Query.Builder query) {
+    return this.taskStore.streamTasks(query);
+  }
+
   @Override
   public Set<IJobKey> getJobKeys() {
     return this.taskStore.getJobKeys();
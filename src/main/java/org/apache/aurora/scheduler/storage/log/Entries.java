@@ -17,11 +17,17 @@ import com.google.common.base.Preconditions;
 
 import org.apache.aurora.codec.ThriftBinaryCodec;
 import org.apache.aurora.codec.ThriftBinaryCodec.CodingException;
+import org.apache.aurora.codec.ThriftBinaryCodec.ThriftWriter;
 import org.apache.aurora.gen.storage.LogEntry;
 import org.apache.aurora.gen.storage.LogEntry._Fields;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Utility class for working with log entries.
  */
@@ -29,6 +35,8 @@ public final class Entries {
 
   private static final Logger LOG = LoggerFactory.getLogger(Entries.class);
 
+  private static final TStruct LOG_ENTRY_STRUCT = new TStruct("LogEntry");
+
   private Entries() {
     // Utility class.
   }
@@ -50,6 +58,28 @@ public final class Entries {
     return LogEntry.deflatedEntry(ThriftBinaryCodec.deflateNonNull(entry));
   }
 
+  /**
+   * Creates a writer for a log entry whose value is written directly to the protocol, rather than
+   * being set on a {@link LogEntry} object.  The writer produces the same bytes as writing a
+   * {@link LogEntry} with the field set to the equivalent value.
+   *
+   * @param field The field of the entry to write.
+   * @param value Writes the value of the field, which must be a struct.
+   * @return A writer for the log entry.
+   */
+  static ThriftWriter structEntry(_Fields field, ThriftWriter value) {
+    requireNonNull(value);
+    TField fieldDesc = new TField(field.getFieldName(), TType.STRUCT, field.getThriftFieldId());
+    return protocol -> {
+      protocol.writeStructBegin(LOG_ENTRY_STRUCT);
+      protocol.writeFieldBegin(fieldDesc);
+      value.write(protocol);
+      protocol.writeFieldEnd();
+      protocol.writeFieldStop();
+      protocol.writeStructEnd();
+    };
+  }
+
   /**
    * Inflates and deserializes a deflated log entry.
    * <p>
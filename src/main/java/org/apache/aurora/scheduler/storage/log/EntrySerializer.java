@@ -13,16 +13,24 @@
  */
 package org.apache.aurora.scheduler.storage.log;
 
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
 
+import org.apache.aurora.codec.ThriftBinaryCodec;
+import org.apache.aurora.codec.ThriftBinaryCodec.ThriftWriter;
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Data;
@@ -30,6 +38,7 @@ import org.apache.aurora.gen.storage.Frame;
 import org.apache.aurora.gen.storage.FrameChunk;
 import org.apache.aurora.gen.storage.FrameHeader;
 import org.apache.aurora.gen.storage.LogEntry;
+import org.apache.thrift.protocol.TType;
 
 import static java.util.Objects.requireNonNull;
 
@@ -51,8 +60,26 @@ public interface EntrySerializer {
    */
   Iterable<byte[]> serialize(LogEntry logEntry) throws CodingException;
 
+  /**
+   * Serializes a log entry as a {@code deflatedEntry}, and splits it into chunks no larger than
+   * {@code maxEntrySizeBytes}.  This produces the same chunks as
+   * {@code serialize(Entries.deflate(logEntry))}, but the entry is compressed as it is encoded and
+   * the compressed data is written directly into chunks, so the encoded entry is never held in
+   * memory uncompressed or in a single contiguous buffer.  The returned iterable's iterator is not
+   * thread-safe.
+   *
+   * @param writer Writes the log entry to deflate.
+   * @return Serialized and chunked deflated log entry.
+   * @throws CodingException If the entry could not be serialized.
+   */
+  Iterable<byte[]> serializeDeflated(ThriftWriter writer) throws CodingException;
+
   @VisibleForTesting
   class EntrySerializerImpl implements EntrySerializer {
+    // A deflated entry is encoded as a LogEntry with only the binary deflatedEntry field set: the
+    // field type and id, the length of the compressed value, the value itself, and a stop marker.
+    private static final int DEFLATED_ENTRY_PREFIX_BYTES = 1 + 2 + 4;
+
     private final HashFunction hashFunction;
     private final int maxEntrySizeBytes;
 
@@ -74,15 +101,48 @@ public interface EntrySerializer {
         return ImmutableList.of(entry);
       }
 
-      final int chunks = (int) Math.ceil(entry.length / (double) maxEntrySizeBytes);
+      ImmutableList.Builder<ByteBuffer> chunks = ImmutableList.builder();
+      for (int offset = 0; offset < entry.length; offset += maxEntrySizeBytes) {
+        chunks.add(
+            ByteBuffer.wrap(entry, offset, Math.min(maxEntrySizeBytes, entry.length - offset)));
+      }
+      return frames(chunks.build());
+    }
 
+    @Override
+    @Timed("log_entry_serialize_deflated")
+    public Iterable<byte[]> serializeDeflated(ThriftWriter writer) throws CodingException {
+      ChunkOutputStream out = new ChunkOutputStream(maxEntrySizeBytes);
+      // Reserve space for the prefix, which depends on the compressed size.
+      out.write(new byte[DEFLATED_ENTRY_PREFIX_BYTES], 0, DEFLATED_ENTRY_PREFIX_BYTES);
+      ThriftBinaryCodec.deflate(writer, out);
+
+      long deflatedBytes = out.size() - DEFLATED_ENTRY_PREFIX_BYTES;
+      if (deflatedBytes > Integer.MAX_VALUE) {
+        throw new CodingException("Deflated entry is too large to encode: " + deflatedBytes);
+      }
+      out.write(TType.STOP);
+      out.overwrite(0, ByteBuffer.allocate(DEFLATED_ENTRY_PREFIX_BYTES)
+          .put(TType.STRING)
+          .putShort(LogEntry._Fields.DEFLATED_ENTRY.getThriftFieldId())
+          .putInt((int) deflatedBytes)
+          .array());
+
+      List<byte[]> chunks = out.toChunks();
+      if (chunks.size() == 1) {
+        return chunks;
+      }
+      return frames(ImmutableList.copyOf(Lists.transform(chunks, ByteBuffer::wrap)));
+    }
+
+    private Iterable<byte[]> frames(List<ByteBuffer> chunks) throws CodingException {
       final byte[] header = encode(
-          Frame.header(new FrameHeader(chunks, ByteBuffer.wrap(checksum(entry)))));
+          Frame.header(new FrameHeader(chunks.size(), ByteBuffer.wrap(checksum(chunks)))));
 
-      return () -> streamFrames(header, chunks, entry);
+      return () -> streamFrames(header, chunks);
     }
 
-    Iterator<byte[]> streamFrames(final byte[] header, final int chunks, final byte[] entry) {
+    Iterator<byte[]> streamFrames(final byte[] header, final List<ByteBuffer> chunks) {
       return new AbstractIterator<byte[]>() {
         private int i = -1;
 
@@ -91,12 +151,9 @@ public interface EntrySerializer {
           byte[] result;
           if (i == -1) {
             result = header;
-          } else if (i < chunks) {
-            int offset = i * maxEntrySizeBytes;
-            ByteBuffer chunk =
-                ByteBuffer.wrap(entry, offset, Math.min(maxEntrySizeBytes, entry.length - offset));
+          } else if (i < chunks.size()) {
             try {
-              result = encode(Frame.chunk(new FrameChunk(chunk)));
+              result = encode(Frame.chunk(new FrameChunk(chunks.get(i))));
             } catch (CodingException e) {
               throw new RuntimeException(e);
             }
@@ -111,9 +168,13 @@ public interface EntrySerializer {
     }
 
     @Timed("log_entry_checksum")
-    protected byte[] checksum(byte[] data) {
-      // TODO(ksweeney): Use the streaming API here.
-      return hashFunction.hashBytes(data).asBytes();
+    protected byte[] checksum(List<ByteBuffer> chunks) {
+      Hasher hasher = hashFunction.newHasher();
+      for (ByteBuffer chunk : chunks) {
+        // Hashing consumes the buffer, which is also needed to encode the chunk.
+        hasher.putBytes(chunk.duplicate());
+      }
+      return hasher.hash().asBytes();
     }
 
     @Timed("log_entry_encode")
@@ -121,4 +182,91 @@ public interface EntrySerializer {
       return Entries.thriftBinaryEncode(LogEntry.frame(frame));
     }
   }
+
+  /**
+   * An output stream that collects written bytes into chunks of a maximum size.  The first chunk
+   * grows as it is written to, so that entries smaller than a chunk do not allocate a full one.
+   */
+  final class ChunkOutputStream extends OutputStream {
+    private static final int INITIAL_CHUNK_BYTES = Amount.of(8, Data.KB).as(Data.BYTES);
+
+    private final int maxChunkBytes;
+    private final List<byte[]> chunks = Lists.newArrayList();
+    private byte[] chunk;
+    private int count = 0;
+    private long size = 0;
+
+    ChunkOutputStream(int maxChunkBytes) {
+      Preconditions.checkArgument(maxChunkBytes > 0);
+      this.maxChunkBytes = maxChunkBytes;
+      chunk = new byte[Math.min(maxChunkBytes, INITIAL_CHUNK_BYTES)];
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity();
+      chunk[count++] = (byte) b;
+      size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      while (len > 0) {
+        ensureCapacity();
+        int written = Math.min(len, chunk.length - count);
+        System.arraycopy(b, off, chunk, count, written);
+        count += written;
+        size += written;
+        off += written;
+        len -= written;
+      }
+    }
+
+    // Ensures that there is room to write at least one byte to the current chunk.
+    private void ensureCapacity() {
+      if (count < chunk.length) {
+        return;
+      }
+      if (chunk.length == maxChunkBytes) {
+        // Once an entry spans chunks, later chunks are likely to be filled.
+        chunks.add(chunk);
+        chunk = new byte[maxChunkBytes];
+        count = 0;
+      } else {
+        chunk = Arrays.copyOf(chunk, (int) Math.min(maxChunkBytes, 2L * chunk.length));
+      }
+    }
+
+    long size() {
+      return size;
+    }
+
+    /**
+     * Replaces bytes that were previously written.
+     *
+     * @param position Offset of the first byte to replace, from the start of the stream.
+     * @param bytes Replacement bytes.
+     */
+    void overwrite(long position, byte[] bytes) {
+      Preconditions.checkArgument(position >= 0 && position + bytes.length <= size);
+      for (int i = 0; i < bytes.length; i++) {
+        long offset = position + i;
+        int index = (int) (offset / maxChunkBytes);
+        byte[] target = index < chunks.size() ? chunks.get(index) : chunk;
+        target[(int) (offset % maxChunkBytes)] = bytes[i];
+      }
+    }
+
+    /**
+     * Completes the stream.  No further bytes may be written.
+     *
+     * @return The chunks written, all but the last of which contain exactly the maximum chunk size.
+     */
+    List<byte[]> toChunks() {
+      chunks.add(count == chunk.length ? chunk : Arrays.copyOf(chunk, count));
+      List<byte[]> result = ImmutableList.copyOf(chunks);
+      chunk = null;
+      return result;
+    }
+  }
 }
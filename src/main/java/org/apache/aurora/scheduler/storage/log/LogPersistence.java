@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.storage.log;
 import java.io.IOException;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -62,6 +63,24 @@ class LogPersistence implements Persistence {
     }
   }
 
+  /**
+   * Holds back transactions until the calling thread saves or abandons a snapshot.
+   *
+   * @see StreamManager#beginSnapshot()
+   */
+  void beginSnapshot() {
+    streamManager.beginSnapshot();
+  }
+
+  /**
+   * Abandons a snapshot begun by the calling thread.
+   *
+   * @see StreamManager#abortSnapshot()
+   */
+  void abortSnapshot() {
+    streamManager.abortSnapshot();
+  }
+
   /**
    * Saves a snapshot to the log stream.
    *
@@ -71,6 +90,16 @@ class LogPersistence implements Persistence {
     streamManager.snapshot(snapshot);
   }
 
+  /**
+   * Gets the log growth since the last snapshot.
+   *
+   * @return Bytes appended since the last snapshot as a fraction of its size, or absent if no
+   *         snapshot has been saved since the log was opened.
+   */
+  Optional<Double> getGrowthSinceSnapshot() {
+    return streamManager.getGrowthSinceSnapshot();
+  }
+
   @Override
   public void persist(Stream<Op> mutations) throws PersistenceException {
     try {
@@ -26,11 +26,13 @@ import com.google.inject.assistedinject.FactoryModuleBuilder;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Data;
 import org.apache.aurora.scheduler.config.types.DataAmount;
+import org.apache.aurora.scheduler.config.validators.PositiveNumber;
 import org.apache.aurora.scheduler.storage.durability.Persistence;
 import org.apache.aurora.scheduler.storage.log.EntrySerializer.EntrySerializerImpl;
 import org.apache.aurora.scheduler.storage.log.LogManager.LogEntryHashFunction;
 import org.apache.aurora.scheduler.storage.log.LogManager.MaxEntrySize;
 import org.apache.aurora.scheduler.storage.log.SnapshotDeduplicator.SnapshotDeduplicatorImpl;
+import org.apache.aurora.scheduler.storage.log.StreamManagerImpl.RecoverySettings;
 
 /**
  * Bindings for scheduler distributed log based persistence.
@@ -44,6 +46,18 @@ public class LogPersistenceModule extends PrivateModule {
             "Specifies the maximum entry size to append to the log. Larger entries will be "
                 + "split across entry Frames.")
     public DataAmount maxLogEntrySize = new DataAmount(512, Data.KB);
+
+    @Parameter(names = "-dlog_recovery_decode_threads",
+        validateValueWith = PositiveNumber.class,
+        description = "Number of threads used to decode log entries while recovering from the "
+            + "log. Entries are still applied to storage in log order.")
+    public int recoveryDecodeThreads = 4;
+
+    @Parameter(names = "-dlog_recovery_read_ahead",
+        validateValueWith = PositiveNumber.class,
+        description = "Maximum number of log entries to read and decode ahead of the entry being "
+            + "applied while recovering from the log.")
+    public int recoveryReadAhead = 256;
   }
 
   private final Options options;
@@ -56,6 +70,8 @@ public class LogPersistenceModule extends PrivateModule {
   protected void configure() {
     bind(new TypeLiteral<Amount<Integer, Data>>() { }).annotatedWith(MaxEntrySize.class)
         .toInstance(options.maxLogEntrySize);
+    bind(RecoverySettings.class).toInstance(
+        new RecoverySettings(options.recoveryDecodeThreads, options.recoveryReadAhead));
     bind(LogManager.class).in(Singleton.class);
     bind(LogPersistence.class).in(Singleton.class);
     bind(Persistence.class).to(LogPersistence.class);
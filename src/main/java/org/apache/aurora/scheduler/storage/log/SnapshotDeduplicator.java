@@ -28,11 +28,20 @@ import org.apache.aurora.gen.TaskConfig;
 import org.apache.aurora.gen.storage.DeduplicatedScheduledTask;
 import org.apache.aurora.gen.storage.DeduplicatedSnapshot;
 import org.apache.aurora.gen.storage.Snapshot;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.apache.aurora.gen.AssignedTask._Fields.TASK;
 import static org.apache.aurora.gen.ScheduledTask._Fields.ASSIGNED_TASK;
+import static org.apache.aurora.gen.storage.DeduplicatedSnapshot._Fields.PARTIAL_SNAPSHOT;
+import static org.apache.aurora.gen.storage.DeduplicatedSnapshot._Fields.PARTIAL_TASKS;
+import static org.apache.aurora.gen.storage.DeduplicatedSnapshot._Fields.TASK_CONFIGS;
 import static org.apache.aurora.gen.storage.Snapshot._Fields.TASKS;
 
 /**
@@ -50,6 +59,17 @@ public interface SnapshotDeduplicator {
    */
   DeduplicatedSnapshot deduplicate(Snapshot snapshot);
 
+  /**
+   * Writes a Snapshot to a protocol in the deduplicated format.  This is equivalent to writing the
+   * result of {@link #deduplicate(Snapshot)}, but shares values with the input snapshot rather
+   * than copying them into a new object.
+   *
+   * @param snapshot Snapshot to write.
+   * @param protocol Protocol to write the deduplicated snapshot to.
+   * @throws TException If the snapshot could not be written.
+   */
+  void write(Snapshot snapshot, TProtocol protocol) throws TException;
+
   /**
    * Restore a deduplicated snapshot to its original denormalized form.
    *
@@ -65,7 +85,19 @@ public interface SnapshotDeduplicator {
     private static final Function<ScheduledTask, TaskConfig> SCHEDULED_TO_CONFIG =
         task -> task.getAssignedTask().getTask();
 
-    private static ScheduledTask deepCopyWithoutTaskConfig(ScheduledTask scheduledTask) {
+    private static final TStruct DEDUPLICATED_SNAPSHOT_STRUCT =
+        new TStruct("DeduplicatedSnapshot");
+    private static final TField PARTIAL_SNAPSHOT_FIELD = field(PARTIAL_SNAPSHOT, TType.STRUCT);
+    private static final TField PARTIAL_TASKS_FIELD = field(PARTIAL_TASKS, TType.LIST);
+    private static final TField TASK_CONFIGS_FIELD = field(TASK_CONFIGS, TType.LIST);
+
+    private static TField field(DeduplicatedSnapshot._Fields field, byte type) {
+      return new TField(field.getFieldName(), type, field.getThriftFieldId());
+    }
+
+    // The copy shares values with the original, so it must not outlive or be mutated separately
+    // from it.
+    private static ScheduledTask copyWithoutTaskConfig(ScheduledTask scheduledTask) {
       ScheduledTask scheduledTaskCopy = new ScheduledTask();
       for (ScheduledTask._Fields scheduledTaskField : ScheduledTask._Fields.values()) {
         if (scheduledTaskField == ASSIGNED_TASK) {
@@ -84,20 +116,28 @@ public interface SnapshotDeduplicator {
               scheduledTaskField, scheduledTask.getFieldValue(scheduledTaskField));
         }
       }
-      return scheduledTaskCopy.deepCopy();
+      return scheduledTaskCopy;
+    }
+
+    private static ScheduledTask deepCopyWithoutTaskConfig(ScheduledTask scheduledTask) {
+      return copyWithoutTaskConfig(scheduledTask).deepCopy();
     }
 
     // NOTE: We intentionally try to minimize the number of copies of the Snapshot#tasks field
     // we make. The simpler implementation of deepCopy followed by unsetTasks creates a
     // lot of GC pressure.
-    private static Snapshot deepCopyWithoutTasks(Snapshot snapshot) {
+    private static Snapshot copyWithoutTasks(Snapshot snapshot) {
       Snapshot snapshotCopy = new Snapshot();
       for (Snapshot._Fields field : Snapshot._Fields.values()) {
         if (field != TASKS && snapshot.isSet(field)) {
           snapshotCopy.setFieldValue(field, snapshot.getFieldValue(field));
         }
       }
-      return snapshotCopy.deepCopy();
+      return snapshotCopy;
+    }
+
+    private static Snapshot deepCopyWithoutTasks(Snapshot snapshot) {
+      return copyWithoutTasks(snapshot).deepCopy();
     }
 
     @Override
@@ -140,6 +180,49 @@ public interface SnapshotDeduplicator {
       return deduplicatedSnapshot;
     }
 
+    @Override
+    @Timed("snapshot_deduplicate_write")
+    public void write(Snapshot snapshot, TProtocol protocol) throws TException {
+      // Fields are written in the same order and form as DeduplicatedSnapshot#write, so that the
+      // encoded bytes match those of the object returned by deduplicate().
+      protocol.writeStructBegin(DEDUPLICATED_SNAPSHOT_STRUCT);
+      protocol.writeFieldBegin(PARTIAL_SNAPSHOT_FIELD);
+      copyWithoutTasks(snapshot).write(protocol);
+      protocol.writeFieldEnd();
+
+      if (snapshot.getTasksSize() > 0) {
+        ListMultimap<TaskConfig, ScheduledTask> index = Multimaps.index(
+            snapshot.getTasks(),
+            SCHEDULED_TO_CONFIG);
+
+        protocol.writeFieldBegin(PARTIAL_TASKS_FIELD);
+        protocol.writeListBegin(new TList(TType.STRUCT, index.size()));
+        int taskConfigId = 0;
+        for (List<ScheduledTask> tasks : Multimaps.asMap(index).values()) {
+          for (ScheduledTask scheduledTask : tasks) {
+            new DeduplicatedScheduledTask()
+                .setPartialScheduledTask(copyWithoutTaskConfig(scheduledTask))
+                .setTaskConfigId(taskConfigId)
+                .write(protocol);
+          }
+          taskConfigId++;
+        }
+        protocol.writeListEnd();
+        protocol.writeFieldEnd();
+
+        protocol.writeFieldBegin(TASK_CONFIGS_FIELD);
+        protocol.writeListBegin(new TList(TType.STRUCT, index.keySet().size()));
+        for (TaskConfig config : index.keySet()) {
+          config.write(protocol);
+        }
+        protocol.writeListEnd();
+        protocol.writeFieldEnd();
+      }
+
+      protocol.writeFieldStop();
+      protocol.writeStructEnd();
+    }
+
     @Override
     @Timed("snapshot_reduplicate")
     public Snapshot reduplicate(DeduplicatedSnapshot deduplicatedSnapshot) throws CodingException {
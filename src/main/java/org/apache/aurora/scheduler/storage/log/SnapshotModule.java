@@ -36,6 +36,19 @@ public class SnapshotModule extends AbstractModule {
         description = "Specifies the frequency at which snapshots of local storage are taken and "
             + "written to the log.")
     public TimeAmount snapshotInterval = new TimeAmount(1, Time.HOURS);
+
+    @Parameter(names = "-dlog_snapshot_min_log_growth",
+        description = "Minimum size of the entries appended to the log since the last snapshot, "
+            + "as a fraction of that snapshot's size, before a periodic snapshot is taken. "
+            + "Periodic snapshots are skipped until the log has grown by this much, or until "
+            + "-dlog_snapshot_max_interval has elapsed. Storage backups are only saved when a "
+            + "snapshot is taken. A value of 0 takes a snapshot on every interval.")
+    public double snapshotMinLogGrowth = 0;
+
+    @Parameter(names = "-dlog_snapshot_max_interval",
+        description = "Maximum time between snapshots when periodic snapshots are skipped due to "
+            + "-dlog_snapshot_min_log_growth.")
+    public TimeAmount snapshotMaxInterval = new TimeAmount(1, Time.DAYS);
   }
 
   private final Options options;
@@ -46,7 +59,10 @@ public class SnapshotModule extends AbstractModule {
 
   @Override
   protected void configure() {
-    bind(Settings.class).toInstance(new Settings(options.snapshotInterval));
+    bind(Settings.class).toInstance(new Settings(
+        options.snapshotInterval,
+        options.snapshotMinLogGrowth,
+        options.snapshotMaxInterval));
     bind(SnapshotStore.class).to(SnapshotService.class);
     bind(SnapshotService.class).in(Singleton.class);
     SchedulerServicesModule.addSchedulerActiveServiceBinding(binder()).to(SnapshotService.class);
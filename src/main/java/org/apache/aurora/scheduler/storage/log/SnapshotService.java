@@ -13,6 +13,10 @@
  */
 package org.apache.aurora.scheduler.storage.log;
 
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import javax.inject.Inject;
 
 import com.google.common.util.concurrent.AbstractScheduledService;
@@ -21,14 +25,19 @@ import org.apache.aurora.codec.ThriftBinaryCodec.CodingException;
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.stats.SlidingStats;
+import org.apache.aurora.common.stats.Stats;
 import org.apache.aurora.gen.storage.Snapshot;
 import org.apache.aurora.scheduler.log.Log.Stream.InvalidPositionException;
 import org.apache.aurora.scheduler.log.Log.Stream.StreamAccessException;
 import org.apache.aurora.scheduler.storage.SnapshotStore;
 import org.apache.aurora.scheduler.storage.Snapshotter;
 import org.apache.aurora.scheduler.storage.Storage;
-import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult;
+import org.apache.aurora.scheduler.storage.Storage.MutateWork;
 import org.apache.aurora.scheduler.storage.Storage.StorageException;
+import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
+import org.apache.aurora.scheduler.storage.Storage.Work;
+import org.apache.aurora.scheduler.storage.durability.DurableStorage.GroupCommitSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +46,19 @@ import static java.util.Objects.requireNonNull;
 /**
  * A {@link SnapshotStore} that snapshots to the log, and automatically snapshots on
  * a fixed interval.
+ * <p>
+ * Recovery replays the most recent snapshot followed by the transactions appended after it, so the
+ * transactions since a snapshot act as an incremental delta on top of it.  When a minimum log
+ * growth is configured, periodic snapshots are skipped while that delta is small relative to the
+ * last snapshot, avoiding the write lock and the cost of writing out all of storage.  A snapshot
+ * is still taken at least once per maximum snapshot interval to bound recovery time.
+ * <p>
+ * Snapshots are built and saved while holding the storage write lock.  With group commit, where
+ * transactions are persisted after the write lock is released, the lock is instead only held
+ * while a point-in-time view of storage is captured.  The snapshot is built from the view while
+ * writers continue, and transactions are held back from the log until the snapshot is saved so
+ * that it precedes every transaction it does not include.  Without group commit, holding back the
+ * log would also hold back writers, since they persist while holding the write lock.
  */
 class SnapshotService extends AbstractScheduledService implements SnapshotStore {
   private static final Logger LOG = LoggerFactory.getLogger(SnapshotService.class);
@@ -44,19 +66,63 @@ class SnapshotService extends AbstractScheduledService implements SnapshotStore
   private final Storage storage;
   private final LogPersistence log;
   private final Snapshotter snapshotter;
+  private final boolean groupCommit;
   private final Amount<Long, Time> snapshotInterval;
+  private final double minLogGrowth;
+  private final Amount<Long, Time> maxSnapshotInterval;
+  private final AtomicInteger consecutiveSkips = new AtomicInteger();
+  private final AtomicLong skippedSnapshots = Stats.exportLong("scheduler_log_snapshots_skipped");
+  private final SlidingStats lockHoldStats =
+      new SlidingStats("scheduler_log_snapshot_lock_hold", "nanos");
+  private final SlidingStats viewHoldStats =
+      new SlidingStats("scheduler_log_snapshot_view_hold", "nanos");
 
   @Inject
-  SnapshotService(Storage storage, LogPersistence log, Snapshotter snapshotter, Settings settings) {
+  SnapshotService(
+      Storage storage,
+      LogPersistence log,
+      Snapshotter snapshotter,
+      Settings settings,
+      GroupCommitSettings groupCommitSettings) {
+
     this.storage = requireNonNull(storage);
     this.log = requireNonNull(log);
     this.snapshotter = requireNonNull(snapshotter);
+    this.groupCommit = groupCommitSettings.isEnabled();
     this.snapshotInterval = settings.getSnapshotInterval();
+    this.minLogGrowth = settings.getMinLogGrowth();
+    this.maxSnapshotInterval = settings.getMaxSnapshotInterval();
   }
 
   @Override
   protected void runOneIteration() {
-    snapshot();
+    if (isSnapshotDue()) {
+      snapshot();
+    } else {
+      consecutiveSkips.incrementAndGet();
+      skippedSnapshots.incrementAndGet();
+    }
+  }
+
+  private boolean isSnapshotDue() {
+    if (minLogGrowth <= 0) {
+      return true;
+    }
+
+    long sinceSnapshotMs =
+        snapshotInterval.as(Time.MILLISECONDS) * (consecutiveSkips.get() + 1);
+    if (sinceSnapshotMs >= maxSnapshotInterval.as(Time.MILLISECONDS)) {
+      return true;
+    }
+
+    Optional<Double> growth = log.getGrowthSinceSnapshot();
+    if (growth.isPresent() && growth.get() < minLogGrowth) {
+      LOG.info(String.format(
+          "Skipping snapshot, log has grown by %.1f%% of the last snapshot",
+          growth.get() * 100));
+      return false;
+    }
+    return true;
   }
 
   @Timed("scheduler_log_snapshot")
@@ -64,22 +130,16 @@ class SnapshotService extends AbstractScheduledService implements SnapshotStore
   public void snapshot() throws StorageException {
     try {
       LOG.info("Creating snapshot");
-
-      // It's important to perform snapshot creation in a write lock to ensure all upstream callers
-      // are correctly synchronized (e.g. during backup creation).
-      storage.write((NoResult.Quiet) stores -> {
-        Snapshot snapshot = snapshotter.from(stores);
-        LOG.info("Saving snapshot");
-        snapshotWith(snapshot);
-
-        LOG.info("Snapshot complete."
-            + " host attrs: " + snapshot.getHostAttributesSize()
-            + ", cron jobs: " + snapshot.getCronJobsSize()
-            + ", quota confs: " + snapshot.getQuotaConfigurationsSize()
-            + ", tasks: " + snapshot.getTasksSize()
-            + ", updates: " + snapshot.getJobUpdateDetailsSize()
-            + ", host maintenance requests: " + snapshot.getHostMaintenanceRequestsSize());
-      });
+      Snapshot snapshot = groupCommit ? snapshotFromView() : snapshotLocked();
+      consecutiveSkips.set(0);
+
+      LOG.info("Snapshot complete."
+          + " host attrs: " + snapshot.getHostAttributesSize()
+          + ", cron jobs: " + snapshot.getCronJobsSize()
+          + ", quota confs: " + snapshot.getQuotaConfigurationsSize()
+          + ", tasks: " + snapshot.getTasksSize()
+          + ", updates: " + snapshot.getJobUpdateDetailsSize()
+          + ", host maintenance requests: " + snapshot.getHostMaintenanceRequestsSize());
     } catch (CodingException e) {
       throw new StorageException("Failed to encode a snapshot", e);
     } catch (InvalidPositionException e) {
@@ -89,6 +149,50 @@ class SnapshotService extends AbstractScheduledService implements SnapshotStore
     }
   }
 
+  private Snapshot snapshotLocked()
+      throws CodingException, InvalidPositionException, StreamAccessException {
+
+    // It's important to perform snapshot creation in a write lock to ensure all upstream callers
+    // are correctly synchronized (e.g. during backup creation).
+    long lockStart = System.nanoTime();
+    try {
+      return storage.write((MutateWork.Quiet<Snapshot>) stores -> {
+        Snapshot snapshot = snapshotter.from(stores);
+        LOG.info("Saving snapshot");
+        snapshotWith(snapshot);
+        return snapshot;
+      });
+    } finally {
+      lockHoldStats.accumulate(System.nanoTime() - lockStart);
+    }
+  }
+
+  private Snapshot snapshotFromView()
+      throws CodingException, InvalidPositionException, StreamAccessException {
+
+    // The view must be captured and the log held in the same write operation, so that no
+    // transaction is both reflected in the view and appended to the log before the snapshot.
+    long lockStart = System.nanoTime();
+    long viewStart = lockStart;
+    try {
+      StoreProvider view = storage.write((MutateWork.Quiet<StoreProvider>) stores -> {
+        StoreProvider frozen = storage.readSnapshot((Work.Quiet<StoreProvider>) v -> v);
+        log.beginSnapshot();
+        return frozen;
+      });
+      viewStart = System.nanoTime();
+      lockHoldStats.accumulate(viewStart - lockStart);
+
+      Snapshot snapshot = snapshotter.from(view);
+      LOG.info("Saving snapshot");
+      snapshotWith(snapshot);
+      return snapshot;
+    } finally {
+      log.abortSnapshot();
+      viewHoldStats.accumulate(System.nanoTime() - viewStart);
+    }
+  }
+
   @Timed("scheduler_log_snapshot_persist")
   @Override
   public void snapshotWith(Snapshot snapshot)
@@ -110,13 +214,29 @@ class SnapshotService extends AbstractScheduledService implements SnapshotStore
    */
   public static class Settings {
     private final Amount<Long, Time> snapshotInterval;
+    private final double minLogGrowth;
+    private final Amount<Long, Time> maxSnapshotInterval;
+
+    Settings(
+        Amount<Long, Time> snapshotInterval,
+        double minLogGrowth,
+        Amount<Long, Time> maxSnapshotInterval) {
 
-    Settings(Amount<Long, Time> snapshotInterval) {
       this.snapshotInterval = requireNonNull(snapshotInterval);
+      this.minLogGrowth = minLogGrowth;
+      this.maxSnapshotInterval = requireNonNull(maxSnapshotInterval);
     }
 
     public Amount<Long, Time> getSnapshotInterval() {
       return snapshotInterval;
     }
+
+    public double getMinLogGrowth() {
+      return minLogGrowth;
+    }
+
+    public Amount<Long, Time> getMaxSnapshotInterval() {
+      return maxSnapshotInterval;
+    }
   }
 }
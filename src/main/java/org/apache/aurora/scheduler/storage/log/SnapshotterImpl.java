@@ -121,8 +121,9 @@ public class SnapshotterImpl implements Snapshotter {
 
         @Override
         void saveToSnapshot(StoreProvider store, Snapshot snapshot) {
-          snapshot.setTasks(
-              IScheduledTask.toBuildersSet(store.getTaskStore().fetchTasks(Query.unscoped())));
+          snapshot.setTasks(store.getTaskStore().streamTasks(Query.unscoped())
+              .map(IScheduledTask::newBuilder)
+              .collect(Collectors.toSet()));
         }
 
         @Override
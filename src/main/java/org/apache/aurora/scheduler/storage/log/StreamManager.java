@@ -15,6 +15,7 @@ package org.apache.aurora.scheduler.storage.log;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.aurora.gen.storage.LogEntry;
 import org.apache.aurora.gen.storage.Op;
@@ -60,9 +61,27 @@ public interface StreamManager {
    */
   void commit(List<Op> mutations);
 
+  /**
+   * Holds back transactions from being committed to the log until the calling thread saves a
+   * snapshot with {@link #snapshot(Snapshot)} or abandons it with {@link #abortSnapshot()}.  This
+   * allows a snapshot to be built from a view of storage captured before this call, while ensuring
+   * that transactions applied after the view was captured are appended after the snapshot.
+   * Threads committing transactions block until the snapshot completes, so this must not be used
+   * while committing threads hold locks that other threads need to make progress.
+   *
+   * @throws IllegalStateException if a snapshot is already pending.
+   */
+  void beginSnapshot();
+
+  /**
+   * Abandons a snapshot started by the calling thread with {@link #beginSnapshot()}, allowing
+   * transactions to be committed again.  Has no effect if no snapshot is pending.
+   */
+  void abortSnapshot();
+
   /**
    * Adds a snapshot to the log and if successful, truncates the log entries preceding the
-   * snapshot.
+   * snapshot.  Completes any snapshot pending from {@link #beginSnapshot()}, even if unsuccessful.
    *
    * @param snapshot The snapshot to add.
    * @throws CodingException if the was a problem encoding the snapshot into a log entry.
@@ -71,4 +90,14 @@ public interface StreamManager {
    */
   void snapshot(Snapshot snapshot)
       throws CodingException, InvalidPositionException, StreamAccessException;
+
+  /**
+   * Gets the number of bytes appended to the log since the most recent snapshot, as a fraction of
+   * the size of that snapshot.  Recovery replays the most recent snapshot followed by every entry
+   * appended after it, so this approximates how much a new snapshot would shrink the log.
+   *
+   * @return The log growth since the last snapshot, or absent if no snapshot has been written
+   *         through this stream manager.
+   */
+  Optional<Double> getGrowthSinceSnapshot();
 }
@@ -13,21 +13,36 @@
  */
 package org.apache.aurora.scheduler.storage.log;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
 import com.google.common.primitives.Bytes;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.assistedinject.Assisted;
 
+import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.common.stats.Stats;
 import org.apache.aurora.gen.storage.Frame;
 import org.apache.aurora.gen.storage.FrameHeader;
@@ -63,26 +78,45 @@ class StreamManagerImpl implements StreamManager {
     private final AtomicLong deflatedEntriesRead =
         Stats.exportLong("scheduler_log_deflated_entries_read");
     private final AtomicLong snapshots = Stats.exportLong("scheduler_log_snapshots");
+    private final SlidingStats recoveryReadStats =
+        new SlidingStats("scheduler_log_recovery_read", "nanos");
+    private final SlidingStats recoveryDecodeStats =
+        new SlidingStats("scheduler_log_recovery_decode", "nanos");
+    private final SlidingStats recoveryDecodeWaitStats =
+        new SlidingStats("scheduler_log_recovery_decode_wait", "nanos");
+    private final SlidingStats commitAppendWaitStats =
+        new SlidingStats("scheduler_log_commit_append_wait", "nanos");
   }
   private final Vars vars = new Vars();
 
-  private final Object writeMutex = new Object();
+  // Ensures all sub-entries of an entry are written as a unit, and holds back commits while a
+  // snapshot is pending.
+  private final ReentrantLock appendLock = new ReentrantLock();
+  // Guarded by appendLock.
+  private long bytesSinceSnapshot = 0;
+  // Guarded by appendLock, zero until a snapshot is written.
+  private long snapshotBytes = 0;
+  // Guarded by appendLock, whether the holding thread has begun a snapshot.
+  private boolean snapshotPending = false;
   private final Log.Stream stream;
   private final EntrySerializer entrySerializer;
   private final HashFunction hashFunction;
   private final SnapshotDeduplicator snapshotDeduplicator;
+  private final RecoverySettings recoverySettings;
 
   @Inject
   StreamManagerImpl(
       @Assisted Stream stream,
       EntrySerializer entrySerializer,
       @LogEntryHashFunction HashFunction hashFunction,
-      SnapshotDeduplicator snapshotDeduplicator) {
+      SnapshotDeduplicator snapshotDeduplicator,
+      RecoverySettings recoverySettings) {
 
     this.stream = requireNonNull(stream);
     this.entrySerializer = requireNonNull(entrySerializer);
     this.hashFunction = requireNonNull(hashFunction);
     this.snapshotDeduplicator = requireNonNull(snapshotDeduplicator);
+    this.recoverySettings = requireNonNull(recoverySettings);
   }
 
   @Override
@@ -91,36 +125,127 @@ class StreamManagerImpl implements StreamManager {
 
     Iterator<Log.Entry> entries = stream.readAll();
 
-    return new AbstractIterator<LogEntry>() {
+    // Entries are read and reassembled from frames sequentially, since frames span consecutive log
+    // positions.  Decoding, inflating and reduplicating are deferred to the decode stage.
+    Iterator<ReadEntry> reads = new AbstractIterator<ReadEntry>() {
       @Override
-      protected LogEntry computeNext() {
-        while (entries.hasNext()) {
-          LogEntry logEntry = decodeLogEntry(entries.next());
-          while (logEntry != null && isFrame(logEntry)) {
-            logEntry = tryDecodeFrame(logEntry.getFrame(), entries);
-          }
-          if (logEntry != null) {
-            if (logEntry.isSet(LogEntry._Fields.DEFLATED_ENTRY)) {
-              logEntry = Entries.inflate(logEntry);
-              vars.deflatedEntriesRead.incrementAndGet();
+      protected ReadEntry computeNext() {
+        long start = System.nanoTime();
+        try {
+          while (entries.hasNext()) {
+            ReadEntry read = ReadEntry.decoded(decodeLogEntry(entries.next()));
+            while (read != null && read.isFrame()) {
+              read = tryReadFrame(read.entry.getFrame(), entries);
             }
-
-            if (logEntry.isSetDeduplicatedSnapshot()) {
-              logEntry = LogEntry.snapshot(
-                  snapshotDeduplicator.reduplicate(logEntry.getDeduplicatedSnapshot()));
+            if (read != null) {
+              return read;
             }
-
-            vars.entriesRead.incrementAndGet();
-            return logEntry;
           }
+          return endOfData();
+        } finally {
+          vars.recoveryReadStats.accumulate(System.nanoTime() - start);
         }
-        return endOfData();
       }
     };
+
+    return recoverySettings.decodeThreads > 1
+        ? new PipelinedDecoder(reads)
+        : Iterators.transform(reads, this::decode);
+  }
+
+  /**
+   * Decodes entries on a worker pool while preserving log order.  Up to
+   * {@link RecoverySettings#readAhead} entries are read and decoded ahead of the consumer, which
+   * applies them on its own thread.
+   */
+  private class PipelinedDecoder extends AbstractIterator<LogEntry> {
+    private final Iterator<ReadEntry> reads;
+    private final Deque<Future<LogEntry>> window = new ArrayDeque<>();
+    private final ThreadPoolExecutor executor;
+
+    PipelinedDecoder(Iterator<ReadEntry> reads) {
+      this.reads = reads;
+      // Core threads time out so that the pool is reclaimed even if the consumer abandons
+      // iteration part way.
+      executor = new ThreadPoolExecutor(
+          recoverySettings.decodeThreads,
+          recoverySettings.decodeThreads,
+          1,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(),
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("LogRecoveryDecoder-%d")
+              .build());
+      executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    protected LogEntry computeNext() {
+      try {
+        while (window.size() < recoverySettings.readAhead && reads.hasNext()) {
+          ReadEntry read = reads.next();
+          window.add(executor.submit(() -> decode(read)));
+        }
+      } catch (RuntimeException e) {
+        executor.shutdownNow();
+        throw e;
+      }
+
+      if (window.isEmpty()) {
+        executor.shutdown();
+        return endOfData();
+      }
+
+      long start = System.nanoTime();
+      try {
+        return Uninterruptibles.getUninterruptibly(window.remove());
+      } catch (ExecutionException e) {
+        executor.shutdownNow();
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new IllegalStateException("Failed to decode log entry", e.getCause());
+      } finally {
+        vars.recoveryDecodeWaitStats.accumulate(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private LogEntry decode(ReadEntry read) throws CodingException {
+    long start = System.nanoTime();
+    try {
+      LogEntry logEntry = read.entry;
+      if (logEntry == null) {
+        Hasher hasher = hashFunction.newHasher();
+        for (byte[] chunk : read.chunks) {
+          hasher.putBytes(chunk);
+        }
+        if (!Arrays.equals(read.checksum, hasher.hash().asBytes())) {
+          throw new CodingException("Read back a framed log entry that failed its checksum");
+        }
+        logEntry = Entries.thriftBinaryDecode(Bytes.concat(read.chunks));
+      }
+
+      if (logEntry.isSet(LogEntry._Fields.DEFLATED_ENTRY)) {
+        logEntry = Entries.inflate(logEntry);
+        vars.deflatedEntriesRead.incrementAndGet();
+      }
+
+      if (logEntry.isSetDeduplicatedSnapshot()) {
+        logEntry = LogEntry.snapshot(
+            snapshotDeduplicator.reduplicate(logEntry.getDeduplicatedSnapshot()));
+      }
+
+      vars.entriesRead.incrementAndGet();
+      return logEntry;
+    } finally {
+      vars.recoveryDecodeStats.accumulate(System.nanoTime() - start);
+    }
   }
 
   @Nullable
-  private LogEntry tryDecodeFrame(Frame frame, Iterator<Log.Entry> entries) throws CodingException {
+  private ReadEntry tryReadFrame(Frame frame, Iterator<Log.Entry> entries)
+      throws CodingException {
+
     if (!isHeader(frame)) {
       LOG.warn("Found a frame with no preceding header, skipping.");
       return null;
@@ -128,7 +253,6 @@ class StreamManagerImpl implements StreamManager {
     FrameHeader header = frame.getHeader();
     byte[][] chunks = new byte[header.getChunkCount()][];
 
-    Hasher hasher = hashFunction.newHasher();
     for (int i = 0; i < header.getChunkCount(); i++) {
       if (!entries.hasNext()) {
         logBadFrame(header, i);
@@ -137,21 +261,65 @@ class StreamManagerImpl implements StreamManager {
       LogEntry logEntry = decodeLogEntry(entries.next());
       if (!isFrame(logEntry)) {
         logBadFrame(header, i);
-        return logEntry;
+        return ReadEntry.decoded(logEntry);
       }
       Frame chunkFrame = logEntry.getFrame();
       if (!isChunk(chunkFrame)) {
         logBadFrame(header, i);
-        return logEntry;
+        return ReadEntry.decoded(logEntry);
       }
-      byte[] chunkData = chunkFrame.getChunk().getData();
-      hasher.putBytes(chunkData);
-      chunks[i] = chunkData;
+      chunks[i] = chunkFrame.getChunk().getData();
     }
-    if (!Arrays.equals(header.getChecksum(), hasher.hash().asBytes())) {
-      throw new CodingException("Read back a framed log entry that failed its checksum");
+    return ReadEntry.framed(chunks, header.getChecksum());
+  }
+
+  /**
+   * A log entry that has been read from the stream, but not yet fully decoded.  This is either an
+   * entry decoded from a single log position, or the chunks of a framed entry.
+   */
+  private static final class ReadEntry {
+    @Nullable private final LogEntry entry;
+    @Nullable private final byte[][] chunks;
+    @Nullable private final byte[] checksum;
+
+    private ReadEntry(
+        @Nullable LogEntry entry,
+        @Nullable byte[][] chunks,
+        @Nullable byte[] checksum) {
+
+      this.entry = entry;
+      this.chunks = chunks;
+      this.checksum = checksum;
+    }
+
+    static ReadEntry decoded(LogEntry entry) {
+      return new ReadEntry(requireNonNull(entry), null, null);
+    }
+
+    static ReadEntry framed(byte[][] chunks, byte[] checksum) {
+      return new ReadEntry(null, requireNonNull(chunks), requireNonNull(checksum));
+    }
+
+    boolean isFrame() {
+      return entry != null && StreamManagerImpl.isFrame(entry);
+    }
+  }
+
+  /**
+   * Settings for recovering entries from the log.
+   */
+  static class RecoverySettings {
+    static final RecoverySettings SEQUENTIAL = new RecoverySettings(1, 1);
+
+    private final int decodeThreads;
+    private final int readAhead;
+
+    RecoverySettings(int decodeThreads, int readAhead) {
+      Preconditions.checkArgument(decodeThreads > 0);
+      Preconditions.checkArgument(readAhead > 0);
+      this.decodeThreads = decodeThreads;
+      this.readAhead = readAhead;
     }
-    return Entries.thriftBinaryDecode(Bytes.concat(chunks));
   }
 
   private static boolean isFrame(LogEntry logEntry) {
@@ -192,18 +360,59 @@ class StreamManagerImpl implements StreamManager {
     Transaction transaction = new Transaction()
         .setSchemaVersion(storageConstants.CURRENT_SCHEMA_VERSION)
         .setOps(mutations);
-    appendAndGetPosition(LogEntry.transaction(transaction));
+
+    // Includes the time a commit is held back by a pending snapshot, which stalls the committing
+    // thread along with any writers waiting for it.
+    long waitStart = System.nanoTime();
+    appendLock.lock();
+    try {
+      vars.commitAppendWaitStats.accumulate(System.nanoTime() - waitStart);
+      appendAndGetPosition(LogEntry.transaction(transaction));
+    } finally {
+      appendLock.unlock();
+    }
     vars.unSnapshottedTransactions.incrementAndGet();
   }
 
+  @Override
+  public void beginSnapshot() {
+    appendLock.lock();
+    if (snapshotPending) {
+      appendLock.unlock();
+      throw new IllegalStateException("A snapshot is already pending");
+    }
+    snapshotPending = true;
+  }
+
+  @Override
+  public void abortSnapshot() {
+    if (appendLock.isHeldByCurrentThread() && snapshotPending) {
+      snapshotPending = false;
+      appendLock.unlock();
+    }
+  }
+
   @Override
   @Timed("log_manager_snapshot")
   public void snapshot(Snapshot snapshot)
       throws CodingException, InvalidPositionException, StreamAccessException {
 
-    LogEntry entry =
-        deflate(LogEntry.deduplicatedSnapshot(snapshotDeduplicator.deduplicate(snapshot)));
-    Log.Position position = appendAndGetPosition(entry);
+    Log.Position position;
+    try {
+      Iterable<byte[]> entries = deflate(snapshot);
+      appendLock.lock();
+      try {
+        bytesSinceSnapshot = 0;
+        position = append(entries);
+        vars.entriesWritten.incrementAndGet();
+        snapshotBytes = bytesSinceSnapshot;
+        bytesSinceSnapshot = 0;
+      } finally {
+        appendLock.unlock();
+      }
+    } finally {
+      abortSnapshot();
+    }
     vars.snapshots.incrementAndGet();
     vars.unSnapshottedTransactions.set(0);
     stream.truncateBefore(position);
@@ -212,26 +421,51 @@ class StreamManagerImpl implements StreamManager {
   // Not meant to be subclassed, but timed methods must be non-private.
   // See https://github.com/google/guice/wiki/AOP#limitations
   @Timed("log_manager_deflate")
-  protected LogEntry deflate(LogEntry entry) throws CodingException {
-    return Entries.deflate(entry);
+  protected Iterable<byte[]> deflate(Snapshot snapshot) throws CodingException {
+    // The deduplicated snapshot is encoded straight into compressed chunks, rather than building
+    // a deduplicated copy of the snapshot and a contiguous encoding of it.
+    return entrySerializer.serializeDeflated(Entries.structEntry(
+        LogEntry._Fields.DEDUPLICATED_SNAPSHOT,
+        protocol -> snapshotDeduplicator.write(snapshot, protocol)));
   }
 
   // Not meant to be subclassed, but timed methods must be non-private.
   // See https://github.com/google/guice/wiki/AOP#limitations
   @Timed("log_manager_append")
   protected Log.Position appendAndGetPosition(LogEntry logEntry) throws CodingException {
+    Log.Position position = append(entrySerializer.serialize(logEntry));
+    vars.entriesWritten.incrementAndGet();
+    return position;
+  }
+
+  // Appends the serialized sub-entries of an entry, returning the position of the first.
+  private Log.Position append(Iterable<byte[]> entries) {
     Log.Position firstPosition = null;
-    Iterable<byte[]> entries = entrySerializer.serialize(logEntry);
-    synchronized (writeMutex) { // ensure all sub-entries are written as a unit
+    appendLock.lock();
+    try {
       for (byte[] entry : entries) {
         Log.Position position = stream.append(entry);
         if (firstPosition == null) {
           firstPosition = position;
         }
         vars.bytesWritten.addAndGet(entry.length);
+        bytesSinceSnapshot += entry.length;
       }
+    } finally {
+      appendLock.unlock();
     }
-    vars.entriesWritten.incrementAndGet();
     return firstPosition;
   }
+
+  @Override
+  public Optional<Double> getGrowthSinceSnapshot() {
+    appendLock.lock();
+    try {
+      return snapshotBytes == 0
+          ? Optional.empty()
+          : Optional.of((double) bytesSinceSnapshot / snapshotBytes);
+    } finally {
+      appendLock.unlock();
+    }
+  }
 }
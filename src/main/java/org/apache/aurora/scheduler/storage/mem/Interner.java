@@ -13,84 +13,150 @@
  */
 package org.apache.aurora.scheduler.storage.mem;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
+import com.google.common.base.Preconditions;
+
+import static java.util.Objects.requireNonNull;
 
 /**
- * An interning pool that can be used to retrieve the canonical instances of objects, while
- * maintaining a reference count to the canonical instances.
+ * A concurrent interning pool that can be used to retrieve the canonical instances of objects,
+ * while maintaining a reference count to the canonical instances.  Entries are dropped from the
+ * pool as soon as their last reference is released.
+ * <p>
+ * Keys should be cheap to hash repeatedly (e.g. immutable types that cache their hash code), since
+ * the key acts as the fingerprint of the canonical value.  Reference counts are only modified
+ * while holding the pool's per-key lock, so distinct keys may be interned in parallel.
  *
- * @param <T> The interned object type.
- * @param <A> The type used for maintaining associations.
+ * @param <K> The key type used to identify equivalent values.
+ * @param <V> The interned value type.
  */
-class Interner<T, A> {
+class Interner<K, V> {
 
-  private final Map<T, InternEntry<A, T>> pool = Maps.newHashMap();
+  private final ConcurrentHashMap<K, Entry<K, V>> pool = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
 
   /**
-   * Retrieves the canonical instance of {@code t} and maintains {@code association} with the
-   * interned value.  If {@code t} was not previously interned, the provided instance is stored.
+   * Retrieves the canonical entry for {@code key} and adds a reference to it.  If {@code key} was
+   * not previously interned, the canonical value is created with {@code canonicalizer}.
    *
-   * @param t The object to intern, or get the previously-interned value for.
-   * @param association A value to associate with {@code t}.
-   * @return The interned value, which may be reference-equivalent to {@code t}.
+   * @param key The key to intern, or get the previously-interned entry for.
+   * @param canonicalizer Creates the canonical value for a key that is not yet interned.
+   * @return The interned entry, which must eventually be passed to {@link #release(Entry)}.
    */
-  synchronized T addAssociation(T t, A association) {
-    InternEntry<A, T> entry = pool.get(t);
-    if (entry == null) {
-      entry = new InternEntry<>(t, association);
-      pool.put(t, entry);
-    } else {
-      entry.associations.add(association);
-    }
-    return entry.interned;
+  Entry<K, V> acquire(K key, Function<? super K, ? extends V> canonicalizer) {
+    requireNonNull(key);
+    requireNonNull(canonicalizer);
+
+    return pool.compute(key, (k, existing) -> {
+      if (existing == null) {
+        misses.incrementAndGet();
+        return new Entry<>(k, canonicalizer.apply(k));
+      }
+      hits.incrementAndGet();
+      existing.references++;
+      return existing;
+    });
+  }
+
+  /**
+   * Adds a reference to an entry that is already held, without re-evaluating the key.
+   *
+   * @param entry An entry previously returned by {@link #acquire(Object, Function)}.
+   * @return {@code entry}, which must be released one additional time.
+   */
+  Entry<K, V> retain(Entry<K, V> entry) {
+    Entry<K, V> retained = pool.computeIfPresent(entry.key, (k, existing) -> {
+      Preconditions.checkState(existing == entry, "Entry is no longer interned.");
+      existing.references++;
+      return existing;
+    });
+    Preconditions.checkState(retained != null, "Entry is no longer interned.");
+    hits.incrementAndGet();
+    return retained;
   }
 
   /**
-   * Removes an association with an interned value, effectively decrementing the reference count.
+   * Removes a reference to an interned entry, dropping it from the pool when no references remain.
+   * Releasing an entry that is no longer interned (e.g. after {@link #clear()}) is a no-op.
    *
-   * @param t The interned value that {@code association} was associated with.
-   * @param association The association to remove.
+   * @param entry The entry to release.
    */
-  synchronized void removeAssociation(T t, A association) {
-    InternEntry<A, T> entry = pool.get(t);
-    if (entry != null) {
-      entry.associations.remove(association);
-      if (entry.associations.isEmpty()) {
-        pool.remove(t);
+  void release(Entry<K, V> entry) {
+    pool.computeIfPresent(entry.key, (k, existing) -> {
+      if (existing != entry) {
+        return existing;
       }
-    }
+      return --existing.references == 0 ? null : existing;
+    });
   }
 
   /**
-   * Removes all interned values and associations.
+   * Removes all interned values.
    */
-  synchronized void clear() {
+  void clear() {
     pool.clear();
   }
 
+  /**
+   * Gets the number of distinct values currently interned.
+   *
+   * @return The pool size.
+   */
+  int size() {
+    return pool.size();
+  }
+
+  /**
+   * Gets the fraction of {@link #acquire(Object, Function)} and {@link #retain(Entry)} calls that
+   * were satisfied by an existing canonical value.
+   *
+   * @return The hit ratio, or {@code 0} if nothing has been interned.
+   */
+  double hitRatio() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
   @VisibleForTesting
-  synchronized boolean isInterned(T t) {
-    return pool.containsKey(t);
+  boolean isInterned(K key) {
+    return pool.containsKey(key);
   }
 
   @VisibleForTesting
-  synchronized Set<A> getAssociations(T t) {
-    return ImmutableSet.copyOf(pool.get(t).associations);
+  int getReferences(K key) {
+    Entry<K, V> entry = pool.get(key);
+    return entry == null ? 0 : entry.references;
   }
 
-  private static class InternEntry<A, T> {
-    private final T interned;
-    private final Set<A> associations = Sets.newHashSet();
+  /**
+   * A canonical value and the number of outstanding references to it.
+   *
+   * @param <K> The key type.
+   * @param <V> The value type.
+   */
+  static final class Entry<K, V> {
+    private final K key;
+    private final V value;
+    // Guarded by the pool's lock on key.
+    private int references = 1;
+
+    private Entry(K key, V value) {
+      this.key = key;
+      this.value = requireNonNull(value);
+    }
+
+    K getKey() {
+      return key;
+    }
 
-    InternEntry(T interned, A initialAssociation) {
-      this.interned = interned;
-      associations.add(initialAssociation);
+    V get() {
+      return value;
     }
   }
 }
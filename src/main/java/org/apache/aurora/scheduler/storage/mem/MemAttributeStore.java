@@ -20,6 +20,7 @@ import java.util.Set;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
@@ -90,4 +91,24 @@ class MemAttributeStore implements AttributeStore.Mutable {
   public Set<IHostAttributes> getHostAttributes() {
     return ImmutableSet.copyOf(hostAttributes.values());
   }
+
+  /**
+   * Captures an immutable view of the host attributes currently in the store.
+   *
+   * @return A read-only store that is unaffected by subsequent mutations.
+   */
+  AttributeStore view() {
+    ImmutableMap<String, IHostAttributes> frozen = ImmutableMap.copyOf(hostAttributes);
+    return new AttributeStore() {
+      @Override
+      public Optional<IHostAttributes> getHostAttributes(String host) {
+        return Optional.ofNullable(frozen.get(host));
+      }
+
+      @Override
+      public Set<IHostAttributes> getHostAttributes() {
+        return ImmutableSet.copyOf(frozen.values());
+      }
+    };
+  }
 }
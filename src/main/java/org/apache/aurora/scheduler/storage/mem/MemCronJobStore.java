@@ -19,6 +19,7 @@ import java.util.Optional;
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
@@ -73,4 +74,24 @@ class MemCronJobStore implements CronJobStore.Mutable {
   public Optional<IJobConfiguration> fetchJob(IJobKey jobKey) {
     return Optional.ofNullable(jobs.get(jobKey));
   }
+
+  /**
+   * Captures an immutable view of the jobs currently in the store.
+   *
+   * @return A read-only store that is unaffected by subsequent mutations.
+   */
+  CronJobStore view() {
+    ImmutableMap<IJobKey, IJobConfiguration> frozen = ImmutableMap.copyOf(jobs);
+    return new CronJobStore() {
+      @Override
+      public Iterable<IJobConfiguration> fetchJobs() {
+        return frozen.values();
+      }
+
+      @Override
+      public Optional<IJobConfiguration> fetchJob(IJobKey jobKey) {
+        return Optional.ofNullable(frozen.get(jobKey));
+      }
+    };
+  }
 }
@@ -20,6 +20,7 @@ import java.util.Set;
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
@@ -49,6 +50,27 @@ public class MemHostMaintenanceStore implements HostMaintenanceStore.Mutable {
     return ImmutableSet.copyOf(hostMaintenanceRequests.values());
   }
 
+  /**
+   * Captures an immutable view of the maintenance requests currently in the store.
+   *
+   * @return A read-only store that is unaffected by subsequent mutations.
+   */
+  HostMaintenanceStore view() {
+    ImmutableMap<String, IHostMaintenanceRequest> frozen =
+        ImmutableMap.copyOf(hostMaintenanceRequests);
+    return new HostMaintenanceStore() {
+      @Override
+      public Optional<IHostMaintenanceRequest> getHostMaintenanceRequest(String host) {
+        return Optional.ofNullable(frozen.get(host));
+      }
+
+      @Override
+      public Set<IHostMaintenanceRequest> getHostMaintenanceRequests() {
+        return ImmutableSet.copyOf(frozen.values());
+      }
+    };
+  }
+
   @Override
   public void deleteHostMaintenanceRequests() {
     hostMaintenanceRequests.clear();
@@ -14,18 +14,28 @@
 
 package org.apache.aurora.scheduler.storage.mem;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import com.google.common.primitives.Longs;
@@ -34,22 +44,32 @@ import com.google.inject.Inject;
 import org.apache.aurora.common.base.MorePreconditions;
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import org.apache.aurora.common.stats.StatsProvider;
-import org.apache.aurora.gen.JobInstanceUpdateEvent;
 import org.apache.aurora.gen.JobUpdateDetails;
-import org.apache.aurora.gen.JobUpdateEvent;
 import org.apache.aurora.gen.JobUpdateState;
+import org.apache.aurora.gen.JobUpdateStatus;
 import org.apache.aurora.scheduler.storage.JobUpdateStore;
 import org.apache.aurora.scheduler.storage.Storage.StorageException;
 import org.apache.aurora.scheduler.storage.entities.IJobInstanceUpdateEvent;
+import org.apache.aurora.scheduler.storage.entities.IJobKey;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdate;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateDetails;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateEvent;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateInstructions;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateKey;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateQuery;
+import org.apache.aurora.scheduler.storage.entities.IJobUpdateState;
+import org.apache.aurora.scheduler.storage.entities.IJobUpdateSummary;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * An in-memory job update store.
+ * <p>
+ * Events are appended to a log per update, and the summary state of each update is maintained as
+ * events arrive.  Updates are indexed by role, job key and status, each index ordered by last
+ * modification time, so that paginated queries only visit the updates they return.  Full update
+ * details are materialized on demand and cached until the update is next modified.
+ */
 public class MemJobUpdateStore implements JobUpdateStore.Mutable {
   @VisibleForTesting
   static final String UPDATE_STORE_SIZE = "mem_storage_update_size";
@@ -58,7 +78,21 @@ public class MemJobUpdateStore implements JobUpdateStore.Mutable {
       .reverse()
       .onResultOf(u -> u.getUpdate().getSummary().getState().getLastModifiedTimestampMs());
 
-  private final Map<IJobUpdateKey, IJobUpdateDetails> updates = Maps.newConcurrentMap();
+  // Most recently modified first, breaking ties by the order updates were saved in.
+  private static final Comparator<Update> INDEX_ORDER =
+      Comparator.comparingLong(Update::getLastModifiedTimestampMs).reversed()
+          .thenComparingLong(u -> u.sequence);
+
+  private final Map<IJobUpdateKey, Update> updates = Maps.newConcurrentMap();
+
+  // Indexes are guarded by the intrinsic lock.  An update must be removed from the indexes
+  // before its summary changes, and added back afterwards.
+  private final NavigableSet<Update> byLastModified = new TreeSet<>(INDEX_ORDER);
+  private final Map<String, NavigableSet<Update>> byRole = Maps.newHashMap();
+  private final Map<IJobKey, NavigableSet<Update>> byJob = Maps.newHashMap();
+  private final Map<JobUpdateStatus, NavigableSet<Update>> byStatus =
+      Maps.newEnumMap(JobUpdateStatus.class);
+  private long nextSequence = 0;
 
   @Inject
   MemJobUpdateStore(StatsProvider statsProvider) {
@@ -68,13 +102,34 @@ public class MemJobUpdateStore implements JobUpdateStore.Mutable {
   @Timed("job_update_store_fetch_details_query")
   @Override
   public synchronized List<IJobUpdateDetails> fetchJobUpdates(IJobUpdateQuery query) {
-    return performQuery(query).collect(Collectors.toList());
+    return performIndexedQuery(query).collect(Collectors.toList());
   }
 
   @Timed("job_update_store_fetch_details")
   @Override
   public synchronized Optional<IJobUpdateDetails> fetchJobUpdate(IJobUpdateKey key) {
-    return Optional.ofNullable(updates.get(key));
+    return Optional.ofNullable(updates.get(key)).map(Update::getDetails);
+  }
+
+  /**
+   * Captures an immutable view of the updates currently in the store.
+   *
+   * @return A read-only store that is unaffected by subsequent mutations.
+   */
+  synchronized JobUpdateStore view() {
+    ImmutableMap<IJobUpdateKey, IJobUpdateDetails> frozen =
+        ImmutableMap.copyOf(Maps.transformValues(updates, Update::getDetails));
+    return new JobUpdateStore() {
+      @Override
+      public List<IJobUpdateDetails> fetchJobUpdates(IJobUpdateQuery query) {
+        return performQuery(frozen, query).collect(Collectors.toList());
+      }
+
+      @Override
+      public Optional<IJobUpdateDetails> fetchJobUpdate(IJobUpdateKey key) {
+        return Optional.ofNullable(frozen.get(key));
+      }
+    };
   }
 
   private static void validateInstructions(IJobUpdateInstructions instructions) {
@@ -104,115 +159,179 @@ public class MemJobUpdateStore implements JobUpdateStore.Mutable {
     requireNonNull(update);
     validateInstructions(update.getInstructions());
 
-    JobUpdateDetails mutable = new JobUpdateDetails()
-        .setUpdate(update.newBuilder())
-        .setUpdateEvents(ImmutableList.of())
-        .setInstanceEvents(ImmutableList.of());
-    mutable.getUpdate().getSummary().setState(synthesizeUpdateState(mutable));
-
-    updates.put(update.getSummary().getKey(), IJobUpdateDetails.build(mutable));
+    Update existing = updates.get(update.getSummary().getKey());
+    if (existing != null) {
+      unindex(existing);
+    }
+    Update saved = new Update(nextSequence++, update);
+    updates.put(update.getSummary().getKey(), saved);
+    index(saved);
   }
 
-  private static final Ordering<JobUpdateEvent> EVENT_ORDERING = Ordering.natural()
-      .onResultOf(JobUpdateEvent::getTimestampMs);
-
   @Timed("job_update_store_save_event")
   @Override
   public synchronized void saveJobUpdateEvent(IJobUpdateKey key, IJobUpdateEvent event) {
-    IJobUpdateDetails update = updates.get(key);
-    if (update == null) {
-      throw new StorageException("Update not found: " + key);
-    }
-
-    JobUpdateDetails mutable = update.newBuilder();
-    mutable.addToUpdateEvents(event.newBuilder());
-    mutable.setUpdateEvents(EVENT_ORDERING.sortedCopy(mutable.getUpdateEvents()));
-    mutable.getUpdate().getSummary().setState(synthesizeUpdateState(mutable));
-    updates.put(key, IJobUpdateDetails.build(mutable));
+    Update update = getUpdate(key);
+    unindex(update);
+    update.addUpdateEvent(event);
+    index(update);
   }
 
-  private static final Ordering<JobInstanceUpdateEvent> INSTANCE_EVENT_ORDERING = Ordering.natural()
-      .onResultOf(JobInstanceUpdateEvent::getTimestampMs);
-
   @Timed("job_update_store_save_instance_event")
   @Override
   public synchronized void saveJobInstanceUpdateEvent(
       IJobUpdateKey key,
       IJobInstanceUpdateEvent event) {
 
-    IJobUpdateDetails update = updates.get(key);
-    if (update == null) {
-      throw new StorageException("Update not found: " + key);
-    }
-
-    JobUpdateDetails mutable = update.newBuilder();
-    mutable.addToInstanceEvents(event.newBuilder());
-    mutable.setInstanceEvents(INSTANCE_EVENT_ORDERING.sortedCopy(mutable.getInstanceEvents()));
-    mutable.getUpdate().getSummary().setState(synthesizeUpdateState(mutable));
-    updates.put(key, IJobUpdateDetails.build(mutable));
+    Update update = getUpdate(key);
+    unindex(update);
+    update.addInstanceEvent(event);
+    index(update);
   }
 
   @Timed("job_update_store_delete_updates")
   @Override
   public synchronized void removeJobUpdates(Set<IJobUpdateKey> key) {
     requireNonNull(key);
-    updates.keySet().removeAll(key);
+    for (IJobUpdateKey updateKey : key) {
+      Update removed = updates.remove(updateKey);
+      if (removed != null) {
+        unindex(removed);
+      }
+    }
   }
 
   @Timed("job_update_store_delete_all")
   @Override
   public synchronized void deleteAllUpdates() {
     updates.clear();
+    byLastModified.clear();
+    byRole.clear();
+    byJob.clear();
+    byStatus.clear();
   }
 
-  private static JobUpdateState synthesizeUpdateState(JobUpdateDetails update) {
-    JobUpdateState state = new JobUpdateState();
+  private Update getUpdate(IJobUpdateKey key) {
+    Update update = updates.get(key);
+    if (update == null) {
+      throw new StorageException("Update not found: " + key);
+    }
+    return update;
+  }
+
+  private void index(Update update) {
+    byLastModified.add(update);
+    IJobUpdateKey key = update.summary.getKey();
+    addToIndex(byRole, key.getJob().getRole(), update);
+    addToIndex(byJob, key.getJob(), update);
+    JobUpdateStatus status = update.summary.getState().getStatus();
+    if (status != null) {
+      addToIndex(byStatus, status, update);
+    }
+  }
+
+  private void unindex(Update update) {
+    byLastModified.remove(update);
+    IJobUpdateKey key = update.summary.getKey();
+    removeFromIndex(byRole, key.getJob().getRole(), update);
+    removeFromIndex(byJob, key.getJob(), update);
+    JobUpdateStatus status = update.summary.getState().getStatus();
+    if (status != null) {
+      removeFromIndex(byStatus, status, update);
+    }
+  }
+
+  private static <K> void addToIndex(Map<K, NavigableSet<Update>> index, K key, Update update) {
+    index.computeIfAbsent(key, k -> new TreeSet<>(INDEX_ORDER)).add(update);
+  }
 
-    JobUpdateEvent firstEvent = Iterables.getFirst(update.getUpdateEvents(), null);
-    if (firstEvent != null) {
-      state.setCreatedTimestampMs(firstEvent.getTimestampMs());
+  private static <K> void removeFromIndex(
+      Map<K, NavigableSet<Update>> index,
+      K key,
+      Update update) {
+
+    NavigableSet<Update> indexed = index.get(key);
+    if (indexed != null) {
+      indexed.remove(update);
+      if (indexed.isEmpty()) {
+        index.remove(key);
+      }
     }
+  }
+
+  private static NavigableSet<Update> lookup(Map<?, NavigableSet<Update>> index, Object key) {
+    return index.getOrDefault(key, Collections.emptyNavigableSet());
+  }
 
-    JobUpdateEvent lastEvent = Iterables.getLast(update.getUpdateEvents(), null);
-    if (lastEvent != null) {
-      state.setStatus(lastEvent.getStatus());
-      state.setLastModifiedTimestampMs(lastEvent.getTimestampMs());
+  /**
+   * Finds the updates matching a query, most recently modified first.  Candidates are drawn from
+   * the most selective index that applies to the query, in index order, so that only the updates
+   * up to the end of the requested page are examined.
+   */
+  private Stream<IJobUpdateDetails> performIndexedQuery(IJobUpdateQuery query) {
+    Iterator<Update> candidates;
+    if (query.getKey() != null) {
+      Update update = updates.get(query.getKey());
+      candidates = update == null
+          ? Collections.emptyIterator()
+          : Iterators.singletonIterator(update);
+    } else if (query.getJobKey() != null) {
+      candidates = lookup(byJob, query.getJobKey()).iterator();
+    } else if (query.getRole() != null) {
+      candidates = lookup(byRole, query.getRole()).iterator();
+    } else if (query.getUpdateStatuses() != null && !query.getUpdateStatuses().isEmpty()) {
+      candidates = Iterators.mergeSorted(
+          query.getUpdateStatuses().stream()
+              .map(status -> lookup(byStatus, status).iterator())
+              .collect(Collectors.toList()),
+          INDEX_ORDER);
+    } else {
+      candidates = byLastModified.iterator();
     }
 
-    JobInstanceUpdateEvent lastInstanceEvent = Iterables.getLast(update.getInstanceEvents(), null);
-    if (lastInstanceEvent != null) {
-      state.setLastModifiedTimestampMs(
-          Longs.max(state.getLastModifiedTimestampMs(), lastInstanceEvent.getTimestampMs()));
+    Predicate<IJobUpdateSummary> filter = getFilter(query);
+    Stream<Update> matches = StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(candidates, Spliterator.ORDERED), false)
+        .filter(u -> filter.test(u.summary))
+        .skip(query.getOffset());
+
+    if (query.getLimit() > 0) {
+      matches = matches.limit(query.getLimit());
     }
 
-    return state;
+    return matches.map(Update::getDetails);
   }
 
-  private Stream<IJobUpdateDetails> performQuery(IJobUpdateQuery query) {
-    Predicate<IJobUpdateDetails> filter = u -> true;
+  private static Predicate<IJobUpdateSummary> getFilter(IJobUpdateQuery query) {
+    Predicate<IJobUpdateSummary> filter = u -> true;
     if (query.getRole() != null) {
-      filter = filter.and(
-          u -> u.getUpdate().getSummary().getKey().getJob().getRole().equals(query.getRole()));
+      filter = filter.and(u -> u.getKey().getJob().getRole().equals(query.getRole()));
     }
     if (query.getKey() != null) {
-      filter = filter.and(u -> u.getUpdate().getSummary().getKey().equals(query.getKey()));
+      filter = filter.and(u -> u.getKey().equals(query.getKey()));
     }
     if (query.getJobKey() != null) {
-      filter = filter.and(
-          u -> u.getUpdate().getSummary().getKey().getJob().equals(query.getJobKey()));
+      filter = filter.and(u -> u.getKey().getJob().equals(query.getJobKey()));
     }
     if (query.getUser() != null) {
-      filter = filter.and(u -> u.getUpdate().getSummary().getUser().equals(query.getUser()));
+      filter = filter.and(u -> u.getUser().equals(query.getUser()));
     }
     if (query.getUpdateStatuses() != null && !query.getUpdateStatuses().isEmpty()) {
-      filter = filter.and(u -> query.getUpdateStatuses()
-          .contains(u.getUpdate().getSummary().getState().getStatus()));
+      filter = filter.and(u -> query.getUpdateStatuses().contains(u.getState().getStatus()));
     }
+    return filter;
+  }
+
+  private static Stream<IJobUpdateDetails> performQuery(
+      Map<IJobUpdateKey, IJobUpdateDetails> updates,
+      IJobUpdateQuery query) {
+
+    Predicate<IJobUpdateSummary> filter = getFilter(query);
 
     // TODO(wfarner): Modification time is not a stable ordering for pagination, but we use it as
     // such here.  The behavior is carried over from DbJobupdateStore; determine if it is desired.
     Stream<IJobUpdateDetails> matches = updates.values().stream()
-        .filter(filter)
+        .filter(u -> filter.test(u.getUpdate().getSummary()))
         .sorted(REVERSE_LAST_MODIFIED_ORDER)
         .skip(query.getOffset());
 
@@ -222,4 +341,93 @@ public class MemJobUpdateStore implements JobUpdateStore.Mutable {
 
     return matches;
   }
+
+  private static IJobUpdateState synthesizeUpdateState(
+      Optional<IJobUpdateEvent> firstEvent,
+      Optional<IJobUpdateEvent> lastEvent,
+      Optional<IJobInstanceUpdateEvent> lastInstanceEvent) {
+
+    JobUpdateState state = new JobUpdateState();
+    firstEvent.ifPresent(event -> state.setCreatedTimestampMs(event.getTimestampMs()));
+    lastEvent.ifPresent(event -> {
+      state.setStatus(event.getStatus());
+      state.setLastModifiedTimestampMs(event.getTimestampMs());
+    });
+    lastInstanceEvent.ifPresent(event -> state.setLastModifiedTimestampMs(
+        Longs.max(state.getLastModifiedTimestampMs(), event.getTimestampMs())));
+    return IJobUpdateState.build(state);
+  }
+
+  /**
+   * Inserts an event into a log ordered by timestamp, after any events with the same timestamp.
+   * Events almost always arrive in order, so the insertion point is searched for from the end.
+   */
+  private static <T> void append(List<T> log, T event, ToLongFunction<T> timestamp) {
+    long timestampMs = timestamp.applyAsLong(event);
+    int position = log.size();
+    while (position > 0 && timestamp.applyAsLong(log.get(position - 1)) > timestampMs) {
+      position--;
+    }
+    log.add(position, event);
+  }
+
+  private static <T> Optional<T> last(List<T> log) {
+    return log.isEmpty() ? Optional.empty() : Optional.of(log.get(log.size() - 1));
+  }
+
+  /**
+   * A stored update along with its event logs.
+   */
+  private static final class Update {
+    private final long sequence;
+    private final IJobUpdate update;
+    private final List<IJobUpdateEvent> updateEvents = new ArrayList<>();
+    private final List<IJobInstanceUpdateEvent> instanceEvents = new ArrayList<>();
+    private IJobUpdateSummary summary;
+    // Materialized details, or null if the update changed since they were last requested.
+    private IJobUpdateDetails details;
+
+    Update(long sequence, IJobUpdate update) {
+      this.sequence = sequence;
+      this.update = update;
+      refreshSummary();
+    }
+
+    long getLastModifiedTimestampMs() {
+      return summary.getState().getLastModifiedTimestampMs();
+    }
+
+    void addUpdateEvent(IJobUpdateEvent event) {
+      append(updateEvents, event, IJobUpdateEvent::getTimestampMs);
+      refreshSummary();
+    }
+
+    void addInstanceEvent(IJobInstanceUpdateEvent event) {
+      append(instanceEvents, event, IJobInstanceUpdateEvent::getTimestampMs);
+      refreshSummary();
+    }
+
+    private void refreshSummary() {
+      IJobUpdateState state = synthesizeUpdateState(
+          updateEvents.isEmpty() ? Optional.empty() : Optional.of(updateEvents.get(0)),
+          last(updateEvents),
+          last(instanceEvents));
+      summary = IJobUpdateSummary.build(update.getSummary().newBuilder()
+          .setState(state.newBuilder()));
+      details = null;
+    }
+
+    IJobUpdateDetails getDetails() {
+      IJobUpdateDetails materialized = details;
+      if (materialized == null) {
+        JobUpdateDetails mutable = new JobUpdateDetails()
+            .setUpdate(update.newBuilder().setSummary(summary.newBuilder()))
+            .setUpdateEvents(IJobUpdateEvent.toBuildersList(updateEvents))
+            .setInstanceEvents(IJobInstanceUpdateEvent.toBuildersList(instanceEvents));
+        materialized = IJobUpdateDetails.build(mutable);
+        details = materialized;
+      }
+      return materialized;
+    }
+  }
 }
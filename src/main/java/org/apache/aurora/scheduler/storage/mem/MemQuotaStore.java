@@ -63,4 +63,24 @@ class MemQuotaStore implements QuotaStore.Mutable {
   public Map<String, IResourceAggregate> fetchQuotas() {
     return ImmutableMap.copyOf(quotas);
   }
+
+  /**
+   * Captures an immutable view of the quotas currently in the store.
+   *
+   * @return A read-only store that is unaffected by subsequent mutations.
+   */
+  QuotaStore view() {
+    ImmutableMap<String, IResourceAggregate> frozen = ImmutableMap.copyOf(quotas);
+    return new QuotaStore() {
+      @Override
+      public Optional<IResourceAggregate> fetchQuota(String role) {
+        return Optional.ofNullable(frozen.get(role));
+      }
+
+      @Override
+      public Map<String, IResourceAggregate> fetchQuotas() {
+        return frozen;
+      }
+    };
+  }
 }
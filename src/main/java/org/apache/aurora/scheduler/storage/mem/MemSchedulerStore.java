@@ -35,4 +35,14 @@ class MemSchedulerStore implements SchedulerStore.Mutable {
   public Optional<String> fetchFrameworkId() {
     return Optional.ofNullable(frameworkId.get());
   }
+
+  /**
+   * Captures an immutable view of the store's current contents.
+   *
+   * @return A read-only store that is unaffected by subsequent mutations.
+   */
+  SchedulerStore view() {
+    Optional<String> frozen = fetchFrameworkId();
+    return () -> frozen;
+  }
 }
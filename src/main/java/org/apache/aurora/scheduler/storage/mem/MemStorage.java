@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.storage.mem;
 import javax.inject.Inject;
 
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
+import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.scheduler.storage.AttributeStore;
 import org.apache.aurora.scheduler.storage.CronJobStore;
 import org.apache.aurora.scheduler.storage.HostMaintenanceStore;
@@ -29,18 +30,34 @@ import org.apache.aurora.scheduler.storage.TaskStore;
  * A storage implementation comprised of individual in-memory store implementations.
  */
 public class MemStorage implements Storage {
+  private final MemSchedulerStore schedulerStore;
+  private final MemCronJobStore jobStore;
+  private final MemTaskStore taskStore;
+  private final MemQuotaStore quotaStore;
+  private final MemAttributeStore attributeStore;
+  private final MemJobUpdateStore updateStore;
+  private final MemHostMaintenanceStore hostMaintenanceStore;
   private final MutableStoreProvider storeProvider;
+  private final SlidingStats viewCaptureStats =
+      new SlidingStats("mem_storage_view_capture", "nanos");
 
   @Inject
   MemStorage(
-      @Volatile final SchedulerStore.Mutable schedulerStore,
-      @Volatile final CronJobStore.Mutable jobStore,
-      @Volatile final TaskStore.Mutable taskStore,
-      @Volatile final QuotaStore.Mutable quotaStore,
-      @Volatile final AttributeStore.Mutable attributeStore,
-      @Volatile final JobUpdateStore.Mutable updateStore,
-      @Volatile final HostMaintenanceStore.Mutable hostMaintenanceStore) {
+      final MemSchedulerStore schedulerStore,
+      final MemCronJobStore jobStore,
+      final MemTaskStore taskStore,
+      final MemQuotaStore quotaStore,
+      final MemAttributeStore attributeStore,
+      final MemJobUpdateStore updateStore,
+      final MemHostMaintenanceStore hostMaintenanceStore) {
 
+    this.schedulerStore = schedulerStore;
+    this.jobStore = jobStore;
+    this.taskStore = taskStore;
+    this.quotaStore = quotaStore;
+    this.attributeStore = attributeStore;
+    this.updateStore = updateStore;
+    this.hostMaintenanceStore = hostMaintenanceStore;
     storeProvider = new MutableStoreProvider() {
       @Override
       public SchedulerStore.Mutable getSchedulerStore() {
@@ -96,6 +113,68 @@ public class MemStorage implements Storage {
     return work.apply(storeProvider);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The stores hold immutable entities, so a view is captured by copying references to the
+   * current contents of each store.  This storage does not serialize writes itself, and callers
+   * must ensure no writes are in progress until the view is captured.  The view remains valid
+   * after the work completes, and may be returned from it.
+   */
+  @Override
+  public <T, E extends Exception> T readSnapshot(Work<T, E> work) throws StorageException, E {
+    return work.apply(captureView());
+  }
+
+  private StoreProvider captureView() {
+    long start = System.nanoTime();
+    SchedulerStore schedulerView = schedulerStore.view();
+    CronJobStore jobView = jobStore.view();
+    TaskStore taskView = taskStore.view();
+    QuotaStore quotaView = quotaStore.view();
+    AttributeStore attributeView = attributeStore.view();
+    JobUpdateStore updateView = updateStore.view();
+    HostMaintenanceStore hostMaintenanceView = hostMaintenanceStore.view();
+    viewCaptureStats.accumulate(System.nanoTime() - start);
+
+    return new StoreProvider() {
+      @Override
+      public SchedulerStore getSchedulerStore() {
+        return schedulerView;
+      }
+
+      @Override
+      public CronJobStore getCronJobStore() {
+        return jobView;
+      }
+
+      @Override
+      public TaskStore getTaskStore() {
+        return taskView;
+      }
+
+      @Override
+      public QuotaStore getQuotaStore() {
+        return quotaView;
+      }
+
+      @Override
+      public AttributeStore getAttributeStore() {
+        return attributeView;
+      }
+
+      @Override
+      public JobUpdateStore getJobUpdateStore() {
+        return updateView;
+      }
+
+      @Override
+      public HostMaintenanceStore getHostMaintenanceStore() {
+        return hostMaintenanceView;
+      }
+    };
+  }
+
   @Override
   public void prepare() {
     // No-op.
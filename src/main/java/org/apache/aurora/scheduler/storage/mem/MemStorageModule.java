@@ -15,6 +15,8 @@ package org.apache.aurora.scheduler.storage.mem;
 
 import javax.inject.Singleton;
 
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
@@ -36,6 +38,7 @@ import org.apache.aurora.scheduler.storage.SchedulerStore;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.Storage.Volatile;
 import org.apache.aurora.scheduler.storage.TaskStore;
+import org.apache.aurora.scheduler.storage.mem.MemTaskStore.CompactTerminalTasks;
 import org.apache.aurora.scheduler.storage.mem.MemTaskStore.SlowQueryThreshold;
 import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 
@@ -48,13 +51,29 @@ import static java.util.Objects.requireNonNull;
  */
 public final class MemStorageModule extends PrivateModule {
 
+  @Parameters(separators = "=")
+  public static class Options {
+    @Parameter(names = "-compact_terminal_tasks",
+        description = "Store terminal tasks in a compact serialized form that is decoded when the "
+            + "tasks are fetched. Reduces heap usage when retaining a large task history, at the "
+            + "cost of CPU when terminal tasks are read.",
+        arity = 1)
+    public boolean compactTerminalTasks = false;
+  }
+
+  private final Options options;
   private final KeyFactory keyFactory;
 
   public MemStorageModule() {
-    this(KeyFactory.PLAIN);
+    this(new Options(), KeyFactory.PLAIN);
   }
 
   public MemStorageModule(KeyFactory keyFactory) {
+    this(new Options(), keyFactory);
+  }
+
+  public MemStorageModule(Options options, KeyFactory keyFactory) {
+    this.options = requireNonNull(options);
     this.keyFactory = requireNonNull(keyFactory);
   }
 
@@ -71,6 +90,8 @@ public final class MemStorageModule extends PrivateModule {
   protected void configure() {
     bind(new TypeLiteral<Amount<Long, Time>>() { }).annotatedWith(SlowQueryThreshold.class)
         .toInstance(Amount.of(25L, Time.MILLISECONDS));
+    bind(Boolean.class).annotatedWith(CompactTerminalTasks.class)
+        .toInstance(options.compactTerminalTasks);
     bindStore(TaskStore.Mutable.class, MemTaskStore.class);
     bindStore(CronJobStore.Mutable.class, MemCronJobStore.class);
     bindStore(AttributeStore.Mutable.class, MemAttributeStore.class);
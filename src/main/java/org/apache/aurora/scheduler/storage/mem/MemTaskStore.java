@@ -18,42 +18,55 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Qualifier;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.Striped;
 
+import org.apache.aurora.codec.ThriftBinaryCodec;
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.gen.ScheduledTask;
-import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.scheduler.base.InstanceKeys;
 import org.apache.aurora.scheduler.base.JobKeys;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.storage.TaskStore;
+import org.apache.aurora.scheduler.storage.entities.IInstanceKey;
 import org.apache.aurora.scheduler.storage.entities.IJobKey;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.apache.aurora.scheduler.storage.entities.ITaskQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,6 +87,14 @@ class MemTaskStore implements TaskStore.Mutable {
   @Qualifier
   public @interface SlowQueryThreshold { }
 
+  /**
+   * When true, terminal tasks are kept in a compact serialized form.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.METHOD, ElementType.PARAMETER})
+  @Qualifier
+  public @interface CompactTerminalTasks { }
+
   private final long slowQueryThresholdNanos;
 
   private static final Function<Query.Builder, Optional<Set<IJobKey>>> QUERY_TO_JOB_KEY =
@@ -82,6 +103,35 @@ class MemTaskStore implements TaskStore.Mutable {
       query -> query.get().getSlaveHosts().isEmpty()
           ? Optional.empty()
           : Optional.of(query.get().getSlaveHosts());
+  private static final Function<Query.Builder, Optional<Set<ScheduleStatus>>> QUERY_TO_STATUS =
+      query -> query.get().getStatuses().isEmpty()
+          ? Optional.empty()
+          : Optional.of(query.get().getStatuses());
+  // Blank roles are treated as unset by the query filter, so they must not be used as index keys.
+  private static final Function<Query.Builder, Optional<Set<String>>> QUERY_TO_ROLE =
+      query -> query.get().getRole() == null
+          || CharMatcher.whitespace().matchesAllOf(query.get().getRole())
+          ? Optional.empty()
+          : Optional.of(ImmutableSet.of(query.get().getRole()));
+  private static final Function<Query.Builder, Optional<Set<IInstanceKey>>> QUERY_TO_INSTANCE =
+      query -> {
+        ITaskQuery taskQuery = query.get();
+        if (!taskQuery.isSetRole()
+            || !taskQuery.isSetEnvironment()
+            || !taskQuery.isSetJobName()
+            || taskQuery.getInstanceIds().isEmpty()) {
+          return Optional.empty();
+        }
+        IJobKey jobKey = JobKeys.from(
+            taskQuery.getRole(),
+            taskQuery.getEnvironment(),
+            taskQuery.getJobName());
+        ImmutableSet.Builder<IInstanceKey> keys = ImmutableSet.builder();
+        for (int instanceId : taskQuery.getInstanceIds()) {
+          keys.add(InstanceKeys.from(jobKey, instanceId));
+        }
+        return Optional.of(keys.build());
+      };
 
   // Since this class operates under the API and umbrella of {@link Storage}, it is expected to be
   // thread-safe but not necessarily strongly-consistent unless the externally-controlled storage
@@ -97,35 +147,64 @@ class MemTaskStore implements TaskStore.Mutable {
   private final List<SecondaryIndex<?>> secondaryIndices;
   // An interner is used here to collapse equivalent TaskConfig instances into canonical instances.
   // Ideally this would fall out of the object hierarchy (TaskConfig being associated with the job
-  // rather than the task), but we intuit this detail here for performance reasons.
-  private final Interner<TaskConfig, String> configInterner = new Interner<>();
+  // rather than the task), but we intuit this detail here for performance reasons.  The immutable
+  // form of the first config interned is its own canonical instance, so each distinct config is
+  // held once, and its cached hash code serves as a fingerprint.
+  private final Interner<ITaskConfig, ITaskConfig> configInterner = new Interner<>();
+  // Terminal tasks are only retained for history until they are pruned, so they may optionally be
+  // stored as serialized bytes (excluding their interned TaskConfig) and decoded on each fetch.
+  private final boolean compactTerminalTasks;
+  private final AtomicLong compactTasks = new AtomicLong();
+  private final AtomicLong compactTaskBytes = new AtomicLong();
 
   private final AtomicLong taskQueriesById;
   private final AtomicLong taskQueriesAll;
+  private final AtomicLong taskQueriesIntersected;
+  private final AtomicLong compactTaskDecodes;
 
   @Inject
   MemTaskStore(
       StatsProvider statsProvider,
-      @SlowQueryThreshold Amount<Long, Time> slowQueryThreshold) {
+      @SlowQueryThreshold Amount<Long, Time> slowQueryThreshold,
+      @CompactTerminalTasks boolean compactTerminalTasks) {
 
     jobIndex = new SecondaryIndex<>(Tasks::getJob, QUERY_TO_JOB_KEY, statsProvider, "job");
+    // Indices are listed from most to least specific, which breaks ties during query planning.
     secondaryIndices = ImmutableList.of(
+        new SecondaryIndex<>(
+            task -> InstanceKeys.from(Tasks.getJob(task), Tasks.getInstanceId(task)),
+            QUERY_TO_INSTANCE,
+            statsProvider,
+            "instance"),
         jobIndex,
         new SecondaryIndex<>(
             Tasks::scheduledToSlaveHost,
             QUERY_TO_SLAVE_HOST,
             statsProvider,
-            "host"));
+            "host"),
+        new SecondaryIndex<>(IScheduledTask::getStatus, QUERY_TO_STATUS, statsProvider, "status"),
+        new SecondaryIndex<>(
+            task -> Tasks.getJob(task).getRole(),
+            QUERY_TO_ROLE,
+            statsProvider,
+            "role"));
     slowQueryThresholdNanos = slowQueryThreshold.as(Time.NANOSECONDS);
     taskQueriesById = statsProvider.makeCounter("task_queries_by_id");
     taskQueriesAll = statsProvider.makeCounter("task_queries_all");
+    taskQueriesIntersected = statsProvider.makeCounter("task_queries_intersected");
+    this.compactTerminalTasks = compactTerminalTasks;
+    compactTaskDecodes = statsProvider.makeCounter("task_store_compact_task_decodes");
+    statsProvider.makeGauge("task_store_compact_tasks", compactTasks::get);
+    statsProvider.makeGauge("task_store_compact_task_bytes", compactTaskBytes::get);
+    statsProvider.makeGauge("task_store_config_interner_size", configInterner::size);
+    statsProvider.makeGauge("task_store_config_interner_hit_ratio", configInterner::hitRatio);
   }
 
   @Timed("mem_storage_fetch_task")
   @Override
   public Optional<IScheduledTask> fetchTask(String taskId) {
     requireNonNull(taskId);
-    return Optional.ofNullable(tasks.get(taskId)).map(t -> t.storedTask);
+    return Optional.ofNullable(tasks.get(taskId)).map(this::decode);
   }
 
   @Timed("mem_storage_fetch_tasks")
@@ -134,7 +213,8 @@ class MemTaskStore implements TaskStore.Mutable {
     requireNonNull(query);
 
     long start = System.nanoTime();
-    Collection<IScheduledTask> result = matches(query);
+    Collection<IScheduledTask> result = Collections.unmodifiableCollection(
+        matches(query).collect(Collectors.toCollection(ArrayDeque::new)));
     long durationNanos = System.nanoTime() - start;
     boolean infoLevel = durationNanos >= slowQueryThresholdNanos;
     long time = Amount.of(durationNanos, Time.NANOSECONDS).as(Time.MILLISECONDS);
@@ -148,13 +228,116 @@ class MemTaskStore implements TaskStore.Mutable {
     return result;
   }
 
+  @Override
+  public Stream<IScheduledTask> streamTasks(Query.Builder query) {
+    requireNonNull(query);
+
+    return matches(query);
+  }
+
   @Timed("mem_storage_get_job_keys")
   @Override
   public Set<IJobKey> getJobKeys() {
     return jobIndex.keySet();
   }
 
-  private final Function<IScheduledTask, Task> toTask = task -> new Task(task, configInterner);
+  /**
+   * Captures an immutable view of the tasks currently in the store.  Stored tasks are immutable, so
+   * capturing only copies references, and the view serves queries by scanning rather than through
+   * the secondary indices.
+   *
+   * @return A read-only store that is unaffected by subsequent mutations.
+   */
+  TaskStore view() {
+    ImmutableMap<String, Task> frozen = ImmutableMap.copyOf(tasks);
+    return new TaskStore() {
+      @Override
+      public Optional<IScheduledTask> fetchTask(String taskId) {
+        requireNonNull(taskId);
+        return Optional.ofNullable(frozen.get(taskId)).map(MemTaskStore.this::decode);
+      }
+
+      @Override
+      public Collection<IScheduledTask> fetchTasks(Query.Builder query) {
+        return Collections.unmodifiableCollection(
+            streamTasks(query).collect(Collectors.toCollection(ArrayDeque::new)));
+      }
+
+      @Override
+      public Stream<IScheduledTask> streamTasks(Query.Builder query) {
+        requireNonNull(query);
+
+        ITaskQuery taskQuery = query.get();
+        Stream<Task> candidates = taskQuery.getTaskIds().isEmpty()
+            ? frozen.values().stream()
+            : taskQuery.getTaskIds().stream().map(frozen::get).filter(Objects::nonNull);
+        Stream<IScheduledTask> result = candidates
+            .map(MemTaskStore.this::decode)
+            .filter(Util.queryFilter(query));
+        if (taskQuery.getOffset() > 0) {
+          result = result.skip(taskQuery.getOffset());
+        }
+        if (taskQuery.getLimit() > 0) {
+          result = result.limit(taskQuery.getLimit());
+        }
+        return result;
+      }
+
+      @Override
+      public Set<IJobKey> getJobKeys() {
+        return frozen.values().stream()
+            .map(task -> Tasks.getJob(decode(task)))
+            .collect(Collectors.toSet());
+      }
+    };
+  }
+
+  private void store(IScheduledTask task) {
+    String id = Tasks.id(task);
+    Task stored = new Task(
+        task,
+        internConfig(task.getAssignedTask().getTask(), tasks.get(id)),
+        compactTerminalTasks && Tasks.isTerminated(task.getStatus()));
+    Task replaced = tasks.put(id, stored);
+    if (replaced != null) {
+      configInterner.release(replaced.config);
+      untrackCompacted(replaced);
+    }
+    if (stored.compactTask != null) {
+      compactTasks.incrementAndGet();
+      compactTaskBytes.addAndGet(stored.compactTask.length);
+    }
+  }
+
+  private Interner.Entry<ITaskConfig, ITaskConfig> internConfig(
+      ITaskConfig config,
+      @Nullable Task existing) {
+
+    // Most mutations (e.g. status changes) leave the config untouched, in which case the existing
+    // canonical instance is retained without hashing the config.
+    if (existing != null) {
+      ITaskConfig existingConfig = existing.config.getKey();
+      if (existingConfig == config
+          || (existingConfig.hashCode() == config.hashCode() && existingConfig.equals(config))) {
+        return configInterner.retain(existing.config);
+      }
+    }
+    return configInterner.acquire(config, canonical -> canonical);
+  }
+
+  private void untrackCompacted(Task task) {
+    if (task.compactTask != null) {
+      compactTasks.decrementAndGet();
+      compactTaskBytes.addAndGet(-task.compactTask.length);
+    }
+  }
+
+  private IScheduledTask decode(Task task) {
+    if (task.storedTask == null) {
+      compactTaskDecodes.incrementAndGet();
+    }
+    return task.get();
+  }
 
   @Timed("mem_storage_save_tasks")
   @Override
@@ -163,10 +346,11 @@ class MemTaskStore implements TaskStore.Mutable {
     Preconditions.checkState(Tasks.ids(newTasks).size() == newTasks.size(),
         "Proposed new tasks would create task ID collision.");
 
-    Iterable<Task> canonicalized = Iterables.transform(newTasks, toTask);
-    tasks.putAll(Maps.uniqueIndex(canonicalized, task -> Tasks.id(task.storedTask)));
+    for (IScheduledTask task : newTasks) {
+      store(task);
+    }
     for (SecondaryIndex<?> index : secondaryIndices) {
-      index.insert(Iterables.transform(canonicalized, task -> task.storedTask));
+      index.insert(newTasks);
     }
   }
 
@@ -178,6 +362,8 @@ class MemTaskStore implements TaskStore.Mutable {
       index.clear();
     }
     configInterner.clear();
+    compactTasks.set(0);
+    compactTaskBytes.set(0);
   }
 
   @Timed("mem_storage_delete_tasks")
@@ -188,12 +374,12 @@ class MemTaskStore implements TaskStore.Mutable {
     for (String id : taskIds) {
       Task removed = tasks.remove(id);
       if (removed != null) {
+        IScheduledTask removedTask = decode(removed);
         for (SecondaryIndex<?> index : secondaryIndices) {
-          index.remove(removed.storedTask);
+          index.remove(removedTask);
         }
-        configInterner.removeAssociation(
-            removed.storedTask.getAssignedTask().getTask().newBuilder(),
-            id);
+        configInterner.release(removed.config);
+        untrackCompacted(removed);
       }
     }
   }
@@ -211,7 +397,7 @@ class MemTaskStore implements TaskStore.Mutable {
         Preconditions.checkState(
             Tasks.id(original).equals(Tasks.id(maybeMutated)),
             "A task's ID may not be mutated.");
-        tasks.put(Tasks.id(maybeMutated), toTask.apply(maybeMutated));
+        store(maybeMutated);
         for (SecondaryIndex<?> index : secondaryIndices) {
           index.replace(original, maybeMutated);
         }
@@ -220,61 +406,119 @@ class MemTaskStore implements TaskStore.Mutable {
     });
   }
 
-  private Collection<IScheduledTask> fromIdIndex(
+  private Stream<IScheduledTask> fromIdIndex(
       Iterable<String> taskIds,
-      Predicate<IScheduledTask> filter) {
+      List<IndexMatch<?>> probes) {
 
-    Collection<IScheduledTask> result = new ArrayDeque<>();
-    for (String id : taskIds) {
-      Task match = tasks.get(id);
-      if (match != null && filter.apply(match.storedTask)) {
-        result.add(match.storedTask);
+    return StreamSupport.stream(taskIds.spliterator(), false)
+        .filter(id -> allContain(probes, id))
+        .map(tasks::get)
+        .filter(Objects::nonNull)
+        .map(this::decode);
+  }
+
+  private static boolean allContain(List<IndexMatch<?>> probes, String taskId) {
+    for (IndexMatch<?> probe : probes) {
+      if (!probe.contains(taskId)) {
+        return false;
       }
     }
-    return result;
+    return true;
   }
 
-  private Collection<IScheduledTask> matches(Query.Builder query) {
-    Predicate<IScheduledTask> filter = Util.queryFilter(query);
-    if (query.get().getTaskIds().isEmpty()) {
+  private static final Comparator<IndexMatch<?>> BY_ESTIMATED_SIZE =
+      Comparator.comparingInt(IndexMatch::estimatedSize);
+
+  private Stream<IScheduledTask> matches(Query.Builder query) {
+    ITaskQuery taskQuery = query.get();
+    Stream<IScheduledTask> candidates;
+    if (taskQuery.getTaskIds().isEmpty()) {
+      // Plan the query by estimating the number of candidate IDs each applicable index yields.
+      // The most selective index drives the lookup, and any other index that excludes at least
+      // some tasks is probed for each candidate before the task itself is fetched and filtered.
+      List<IndexMatch<?>> plan = new ArrayList<>(secondaryIndices.size());
       for (SecondaryIndex<?> index : secondaryIndices) {
-        Optional<Iterable<String>> indexMatch = index.getMatches(query);
-        if (indexMatch.isPresent()) {
-          // Note: we could leverage multiple indexes here if the query applies to them, by
-          // choosing to intersect the results.  Given current indexes and query profile, this is
-          // unlikely to offer much improvement, though.
-          return fromIdIndex(indexMatch.get(), filter);
-        }
+        index.getMatches(query).ifPresent(plan::add);
       }
-
-      // No indices match, fall back to a full scan.
-      taskQueriesAll.incrementAndGet();
-      Collection<IScheduledTask> result = new ArrayDeque<>();
-      for (Task task : tasks.values()) {
-        if (filter.test(task.storedTask)) {
-          result.add(task.storedTask);
+      plan.sort(BY_ESTIMATED_SIZE);
+
+      int storeSize = tasks.size();
+      if (!plan.isEmpty() && plan.get(0).estimatedSize() < storeSize) {
+        IndexMatch<?> driver = plan.get(0);
+        List<IndexMatch<?>> probes = new ArrayList<>(plan.size() - 1);
+        for (IndexMatch<?> candidate : plan.subList(1, plan.size())) {
+          if (candidate.estimatedSize() < storeSize) {
+            probes.add(candidate);
+          }
         }
+        if (!probes.isEmpty()) {
+          taskQueriesIntersected.incrementAndGet();
+        }
+        candidates = fromIdIndex(driver.lookup(), probes);
+      } else {
+        // No indices match or none of them would narrow the result, fall back to a full scan.
+        taskQueriesAll.incrementAndGet();
+        candidates = tasks.values().stream().map(this::decode);
       }
-      return Collections.unmodifiableCollection(result);
     } else {
       taskQueriesById.incrementAndGet();
-      return fromIdIndex(query.get().getTaskIds(), filter);
+      candidates = fromIdIndex(taskQuery.getTaskIds(), ImmutableList.of());
+    }
+
+    Stream<IScheduledTask> result = candidates.filter(Util.queryFilter(query));
+    if (taskQuery.getOffset() > 0) {
+      result = result.skip(taskQuery.getOffset());
     }
+    if (taskQuery.getLimit() > 0) {
+      result = result.limit(taskQuery.getLimit());
+    }
+    return result;
   }
 
-  private static class Task {
+  /**
+   * A stored task, which is either held as an immutable task, or compacted into its binary thrift
+   * encoding without its TaskConfig.  The canonical config is retained in both cases, and supplies
+   * the TaskConfig of a compacted task when it is decoded.
+   */
+  private static final class Task {
+    private final Interner.Entry<ITaskConfig, ITaskConfig> config;
+    @Nullable
     private final IScheduledTask storedTask;
+    @Nullable
+    private final byte[] compactTask;
+
+    Task(
+        IScheduledTask storedTask,
+        Interner.Entry<ITaskConfig, ITaskConfig> config,
+        boolean compact) {
+
+      this.config = config;
+      if (compact) {
+        ScheduledTask builder = storedTask.newBuilder();
+        builder.getAssignedTask().unsetTask();
+        this.storedTask = null;
+        this.compactTask = ThriftBinaryCodec.encodeNonNull(builder);
+      } else if (storedTask.getAssignedTask().getTask() == config.get()) {
+        this.storedTask = storedTask;
+        this.compactTask = null;
+      } else {
+        // Immutable entities are built from copies, but rebuilding the task around the canonical
+        // config still shares the config's field values (e.g. executor data) with it.
+        ScheduledTask builder = storedTask.newBuilder();
+        builder.getAssignedTask().setTask(config.get().newBuilder());
+        this.storedTask = IScheduledTask.build(builder);
+        this.compactTask = null;
+      }
+    }
+
+    IScheduledTask get() {
+      if (storedTask != null) {
+        return storedTask;
+      }
 
-    Task(IScheduledTask storedTask, Interner<TaskConfig, String> interner) {
-      interner.removeAssociation(
-          storedTask.getAssignedTask().getTask().newBuilder(),
-          Tasks.id(storedTask));
-      TaskConfig canonical = interner.addAssociation(
-          storedTask.getAssignedTask().getTask().newBuilder(),
-          Tasks.id(storedTask));
-      ScheduledTask builder = storedTask.newBuilder();
-      builder.getAssignedTask().setTask(canonical);
-      this.storedTask = IScheduledTask.build(builder);
+      ScheduledTask builder = ThriftBinaryCodec.decodeNonNull(ScheduledTask.class, compactTask);
+      builder.getAssignedTask().setTask(config.get().newBuilder());
+      return IScheduledTask.build(builder);
     }
 
     @Override
@@ -284,12 +528,12 @@ class MemTaskStore implements TaskStore.Mutable {
       }
 
       Task other = (Task) o;
-      return storedTask.equals(other.storedTask);
+      return get().equals(other.get());
     }
 
     @Override
     public int hashCode() {
-      return storedTask.hashCode();
+      return get().hashCode();
     }
   }
 
@@ -300,12 +544,19 @@ class MemTaskStore implements TaskStore.Mutable {
 
   /**
    * A non-unique secondary index on the task store.  Maps a custom key type to a set of task IDs.
+   * <p>
+   * Each key's ID set is guarded by one lock out of a fixed pool of read-write lock stripes, so
+   * readers of the same key proceed in parallel and only contend with writers that touch a key
+   * hashing to the same stripe.  A lookup observes a consistent snapshot of each key's ID set.
    *
    * @param <K> Key type.
    */
   private static class SecondaryIndex<K> {
-    private final Multimap<K, String> index =
-        Multimaps.synchronizedSetMultimap(HashMultimap.create());
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<K, Set<String>> index = Maps.newConcurrentMap();
+    private final Striped<ReadWriteLock> locks = Striped.readWriteLock(LOCK_STRIPES);
+    private final AtomicLong size = new AtomicLong();
     private final Function<IScheduledTask, K> indexer;
     private final Function<Query.Builder, Optional<Set<K>>> queryExtractor;
     private final AtomicLong hitCount;
@@ -332,7 +583,7 @@ class MemTaskStore implements TaskStore.Mutable {
           new Supplier<Number>() {
             @Override
             public Number get() {
-              return index.size();
+              return size.get();
             }
           });
     }
@@ -350,45 +601,186 @@ class MemTaskStore implements TaskStore.Mutable {
     void insert(IScheduledTask task) {
       K key = indexer.apply(task);
       if (key != null) {
-        index.put(key, Tasks.id(task));
+        Lock lock = locks.get(key).writeLock();
+        lock.lock();
+        try {
+          add(key, Tasks.id(task));
+        } finally {
+          lock.unlock();
+        }
       }
     }
 
     void clear() {
-      index.clear();
+      List<Lock> held = new ArrayList<>(locks.size());
+      try {
+        for (int i = 0; i < locks.size(); i++) {
+          Lock lock = locks.getAt(i).writeLock();
+          lock.lock();
+          held.add(lock);
+        }
+        index.clear();
+        size.set(0);
+      } finally {
+        held.forEach(Lock::unlock);
+      }
     }
 
     void remove(IScheduledTask task) {
       K key = indexer.apply(task);
       if (key != null) {
-        index.remove(key, Tasks.id(task));
+        Lock lock = locks.get(key).writeLock();
+        lock.lock();
+        try {
+          remove(key, Tasks.id(task));
+        } finally {
+          lock.unlock();
+        }
       }
     }
 
     void replace(IScheduledTask old, IScheduledTask replacement) {
-      synchronized (index) {
-        remove(old);
-        insert(replacement);
+      K oldKey = indexer.apply(old);
+      K newKey = indexer.apply(replacement);
+      if (Objects.equals(oldKey, newKey)) {
+        // Task IDs are immutable, so the index entry is unchanged.
+        return;
+      }
+
+      // Both stripes are held so that the task is never visible under neither or both keys.
+      // Striped.bulkGet orders the locks consistently, which prevents lock-order deadlocks.
+      List<Lock> held = new ArrayList<>(2);
+      try {
+        for (ReadWriteLock stripe : locks.bulkGet(nonNullKeys(oldKey, newKey))) {
+          Lock lock = stripe.writeLock();
+          lock.lock();
+          held.add(lock);
+        }
+        String taskId = Tasks.id(replacement);
+        if (oldKey != null) {
+          remove(oldKey, taskId);
+        }
+        if (newKey != null) {
+          add(newKey, taskId);
+        }
+      } finally {
+        held.forEach(Lock::unlock);
       }
     }
 
-    private final Function<Set<K>, Iterable<String>> lookup =
-        new Function<Set<K>, Iterable<String>>() {
-          @Override
-          public Iterable<String> apply(Set<K> keys) {
-            hitCount.incrementAndGet();
-            Collection<String> matches = new ArrayDeque<>();
-            synchronized (index) {
-              for (K key : keys) {
-                matches.addAll(index.get(key));
-              }
-            }
-            return matches;
+    private static <T> List<T> nonNullKeys(T first, T second) {
+      List<T> keys = new ArrayList<>(2);
+      if (first != null) {
+        keys.add(first);
+      }
+      if (second != null) {
+        keys.add(second);
+      }
+      return keys;
+    }
+
+    // Must be called while holding the write lock for the key's stripe.
+    private void add(K key, String taskId) {
+      if (index.computeIfAbsent(key, k -> new HashSet<>()).add(taskId)) {
+        size.incrementAndGet();
+      }
+    }
+
+    // Must be called while holding the write lock for the key's stripe.
+    private void remove(K key, String taskId) {
+      Set<String> ids = index.get(key);
+      if (ids != null && ids.remove(taskId)) {
+        size.decrementAndGet();
+        if (ids.isEmpty()) {
+          index.remove(key);
+        }
+      }
+    }
+
+    private int estimateSize(Set<K> keys) {
+      int estimate = 0;
+      for (K key : keys) {
+        Lock lock = locks.get(key).readLock();
+        lock.lock();
+        try {
+          Set<String> ids = index.get(key);
+          if (ids != null) {
+            estimate += ids.size();
           }
-    };
+        } finally {
+          lock.unlock();
+        }
+      }
+      return estimate;
+    }
+
+    private Iterable<String> lookup(Set<K> keys) {
+      hitCount.incrementAndGet();
+      Collection<String> matches = new ArrayDeque<>();
+      for (K key : keys) {
+        Lock lock = locks.get(key).readLock();
+        lock.lock();
+        try {
+          Set<String> ids = index.get(key);
+          if (ids != null) {
+            matches.addAll(ids);
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+      return matches;
+    }
+
+    private boolean contains(Set<K> keys, String taskId) {
+      for (K key : keys) {
+        Lock lock = locks.get(key).readLock();
+        lock.lock();
+        try {
+          Set<String> ids = index.get(key);
+          if (ids != null && ids.contains(taskId)) {
+            return true;
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+      return false;
+    }
+
+    Optional<IndexMatch<K>> getMatches(Query.Builder query) {
+      return queryExtractor.apply(query)
+          .map(keys -> new IndexMatch<>(this, keys, estimateSize(keys)));
+    }
+  }
+
+  /**
+   * The keys of a secondary index that apply to a query, along with an estimate of the number of
+   * task IDs stored under them.
+   *
+   * @param <K> Key type.
+   */
+  private static final class IndexMatch<K> {
+    private final SecondaryIndex<K> index;
+    private final Set<K> keys;
+    private final int estimatedSize;
+
+    IndexMatch(SecondaryIndex<K> index, Set<K> keys, int estimatedSize) {
+      this.index = index;
+      this.keys = keys;
+      this.estimatedSize = estimatedSize;
+    }
+
+    int estimatedSize() {
+      return estimatedSize;
+    }
+
+    Iterable<String> lookup() {
+      return index.lookup(keys);
+    }
 
-    Optional<Iterable<String>> getMatches(Query.Builder query) {
-      return queryExtractor.apply(query).map(lookup);
+    boolean contains(String taskId) {
+      return index.contains(keys, taskId);
     }
   }
 }
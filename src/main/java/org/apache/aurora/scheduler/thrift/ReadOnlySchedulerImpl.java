@@ -43,6 +43,7 @@ import com.google.common.collect.Sets;
 
 import org.apache.aurora.GuavaUtils;
 import org.apache.aurora.common.base.MorePreconditions;
+import org.apache.aurora.gen.AssignedTask;
 import org.apache.aurora.gen.ConfigGroup;
 import org.apache.aurora.gen.ConfigSummary;
 import org.apache.aurora.gen.ConfigSummaryResult;
@@ -100,6 +101,7 @@ import org.apache.aurora.scheduler.storage.entities.IJobUpdateSummary;
 import org.apache.aurora.scheduler.storage.entities.IRange;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.apache.aurora.scheduler.storage.entities.ITaskEvent;
 import org.apache.aurora.scheduler.updater.JobDiff;
 import org.apache.thrift.TException;
 
@@ -168,14 +170,56 @@ class ReadOnlySchedulerImpl implements ReadOnlyScheduler.Iface {
 
   @Override
   public Response getTasksWithoutConfigs(TaskQuery query) {
-    List<ScheduledTask> tasks = Lists.transform(
-        getTasks(query),
-        task -> {
-          task.getAssignedTask().getTask().getExecutorConfig().unsetData();
-          return task;
-        });
-
-    return ok(Result.scheduleStatusResult(new ScheduleStatusResult().setTasks(tasks)));
+    requireNonNull(query);
+
+    // The offset and limit of the query are applied by the task store.
+    Iterable<IScheduledTask> tasks = Storage.Util.fetchTasks(storage, Query.arbitrary(query));
+
+    // Tasks of a job usually share their config, so each distinct config is converted once and
+    // the result is shared by all tasks using it.
+    Map<ITaskConfig, TaskConfig> configs = Maps.newHashMap();
+    List<ScheduledTask> result = Lists.newArrayList();
+    for (IScheduledTask task : tasks) {
+      result.add(withoutExecutorData(task, configs));
+    }
+
+    return ok(Result.scheduleStatusResult(new ScheduleStatusResult().setTasks(result)));
+  }
+
+  /**
+   * Converts a task to its thrift representation, omitting the executor data of its config.  This
+   * mirrors {@link IScheduledTask#newBuilder()}, but avoids copying the task config, which is
+   * taken from (or added to) {@code configs}.
+   *
+   * @param task Task to convert.
+   * @param configs Converted configs, which must not be modified by callers.
+   * @return The converted task.
+   */
+  @VisibleForTesting
+  static ScheduledTask withoutExecutorData(
+      IScheduledTask task,
+      Map<ITaskConfig, TaskConfig> configs) {
+
+    IAssignedTask assignedTask = task.getAssignedTask();
+    TaskConfig config = assignedTask.getTask() == null
+        ? null
+        : configs.computeIfAbsent(
+            assignedTask.getTask(),
+            ReadOnlySchedulerImpl::configWithoutExecutorData);
+
+    return new ScheduledTask()
+        .setAssignedTask(new AssignedTask()
+            .setTaskId(assignedTask.getTaskId())
+            .setSlaveId(assignedTask.getSlaveId())
+            .setSlaveHost(assignedTask.getSlaveHost())
+            .setTask(config)
+            .setAssignedPorts(assignedTask.getAssignedPorts())
+            .setInstanceId(assignedTask.getInstanceId()))
+        .setStatus(task.getStatus())
+        .setFailureCount(task.getFailureCount())
+        .setTimesPartitioned(task.getTimesPartitioned())
+        .setTaskEvents(ITaskEvent.toBuildersList(task.getTaskEvents()))
+        .setAncestorId(task.getAncestorId());
   }
 
   @Override
@@ -421,18 +465,20 @@ class ReadOnlySchedulerImpl implements ReadOnlyScheduler.Iface {
         Iterables.transform(instancesByDetails.asMap().entrySet(), TO_GROUP));
   }
 
+  private static TaskConfig configWithoutExecutorData(ITaskConfig config) {
+    TaskConfig builder = config.newBuilder();
+    if (builder.isSetExecutorConfig()) {
+      builder.getExecutorConfig().unsetData();
+    }
+    return builder;
+  }
+
   private List<ScheduledTask> getTasks(TaskQuery query) {
     requireNonNull(query);
 
-    Iterable<IScheduledTask> tasks = Storage.Util.fetchTasks(storage, Query.arbitrary(query));
-    if (query.getOffset() > 0) {
-      tasks = Iterables.skip(tasks, query.getOffset());
-    }
-    if (query.getLimit() > 0) {
-      tasks = Iterables.limit(tasks, query.getLimit());
-    }
-
-    return IScheduledTask.toBuildersList(tasks);
+    // The offset and limit of the query are applied by the task store.
+    return IScheduledTask.toBuildersList(
+        Storage.Util.fetchTasks(storage, Query.arbitrary(query)));
   }
 
   private Query.Builder maybeRoleScoped(Optional<String> ownerRole) {
@@ -1010,8 +1010,8 @@ class SchedulerThriftInterface implements AnnotatedAuroraAdmin {
 
     Iterable<IScheduledTask> tasks = storage.read(storeProvider ->
         storeProvider.getTaskStore().fetchTasks(Query.arbitrary(query)));
-    // For some reason fetchTasks ignores the offset/limit options of a TaskQuery. So we have to
-    // manually apply the limit here. To be fixed in AURORA-1892.
+    // The task store applies positive limits, but ignores a limit of zero, which must prune
+    // nothing.
     if (query.isSetLimit()) {
       tasks = Iterables.limit(tasks, query.getLimit());
     }
@@ -20,11 +20,15 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
+import org.apache.aurora.gen.ScheduleStatus;
+import org.apache.aurora.scheduler.base.Query;
+import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.mesos.Driver;
 import org.apache.aurora.scheduler.state.StateChangeResult;
 import org.apache.aurora.scheduler.state.StateManager;
 import org.apache.aurora.scheduler.stats.CachedCounters;
 import org.apache.aurora.scheduler.storage.Storage.StorageException;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
 import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.apache.mesos.v1.Protos.TaskID;
@@ -36,8 +40,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.apache.aurora.gen.ScheduleStatus.FAILED;
+import static org.apache.aurora.gen.ScheduleStatus.FINISHED;
 import static org.apache.aurora.gen.ScheduleStatus.KILLED;
 import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
+import static org.apache.aurora.gen.ScheduleStatus.STARTING;
+import static org.apache.aurora.scheduler.TaskStatusHandlerImpl.NOOP_UPDATES;
+import static org.apache.aurora.scheduler.TaskStatusHandlerImpl.PROCESSED_UPDATES;
+import static org.apache.aurora.scheduler.TaskStatusHandlerImpl.batchSizeStatName;
 import static org.apache.aurora.scheduler.TaskStatusHandlerImpl.statName;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
@@ -73,9 +82,28 @@ public class TaskStatusHandlerImplTest extends EasyMockTest {
         1000,
         new CachedCounters(stats));
 
+    storageUtil.expectStoreAccesses();
     statusHandler.startAsync();
   }
 
+  private void expectStoredTasks(IScheduledTask... tasks) {
+    storageUtil.expectRead();
+    storageUtil.expectTaskFetch(Query.taskScoped(TASK_ID_A), tasks);
+  }
+
+  private static IScheduledTask makeTask(ScheduleStatus status) {
+    return IScheduledTask.build(
+        TaskTestUtil.makeTask(TASK_ID_A, TaskTestUtil.JOB).newBuilder().setStatus(status));
+  }
+
+  private static TaskStatus makeStatus(TaskState state) {
+    return TaskStatus.newBuilder()
+        .setState(state)
+        .setReason(TaskStatus.Reason.REASON_RECONCILIATION)
+        .setTaskId(TaskID.newBuilder().setValue(TASK_ID_A))
+        .build();
+  }
+
   @After
   public void after() {
     statusHandler.stopAsync();
@@ -90,6 +118,7 @@ public class TaskStatusHandlerImplTest extends EasyMockTest {
         .setMessage("fake message")
         .build();
 
+    expectStoredTasks();
     storageUtil.expectWrite();
 
     expect(stateManager.changeState(
@@ -112,8 +141,96 @@ public class TaskStatusHandlerImplTest extends EasyMockTest {
     assertEquals(1L, stats.getValue(statName(status, StateChangeResult.SUCCESS)));
   }
 
+  @Test
+  public void testNoopStatusUpdate() throws Exception {
+    TaskStatus status = makeStatus(TaskState.TASK_RUNNING);
+    expectStoredTasks(makeTask(RUNNING));
+
+    CountDownLatch latch = new CountDownLatch(1);
+
+    driver.acknowledgeStatusUpdate(status);
+    waitAndAnswer(latch);
+
+    control.replay();
+
+    statusHandler.statusUpdate(status);
+    assertTrue(latch.await(5L, TimeUnit.SECONDS));
+    assertEquals(1L, stats.getValue(statName(status, StateChangeResult.NOOP)));
+    assertEquals(1L, stats.getValue(NOOP_UPDATES));
+    assertEquals(1L, stats.getValue(PROCESSED_UPDATES));
+    assertEquals(1L, stats.getValue(batchSizeStatName(1)));
+  }
+
+  @Test
+  public void testCoalescesRepeatedStatusUpdates() throws Exception {
+    // Re-create the handler, so that all updates are queued before it starts.
+    statusHandler.stopAsync();
+    statusHandler.awaitTerminated();
+    statusHandler = new TaskStatusHandlerImpl(
+        storageUtil.storage,
+        stateManager,
+        stats,
+        driver,
+        queue,
+        1000,
+        new CachedCounters(stats));
+
+    TaskStatus running = makeStatus(TaskState.TASK_RUNNING);
+    TaskStatus finished = makeStatus(TaskState.TASK_FINISHED);
+    expectStoredTasks(makeTask(STARTING));
+    storageUtil.expectWrite();
+    expect(stateManager.changeState(
+        storageUtil.mutableStoreProvider,
+        TASK_ID_A,
+        Optional.empty(),
+        RUNNING,
+        Optional.empty()))
+        .andReturn(StateChangeResult.SUCCESS);
+    storageUtil.expectTaskFetch(TASK_ID_A, makeTask(RUNNING));
+    expect(stateManager.changeState(
+        storageUtil.mutableStoreProvider,
+        TASK_ID_A,
+        Optional.empty(),
+        FINISHED,
+        Optional.empty()))
+        .andReturn(StateChangeResult.SUCCESS);
+
+    CountDownLatch latch = new CountDownLatch(3);
+    driver.acknowledgeStatusUpdate(running);
+    expectLastCall().andAnswer(() -> {
+      latch.countDown();
+      return null;
+    }).times(2);
+    driver.acknowledgeStatusUpdate(finished);
+    waitAndAnswer(latch);
+
+    control.replay();
+
+    statusHandler.statusUpdate(running);
+    statusHandler.statusUpdate(running);
+    statusHandler.statusUpdate(finished);
+    statusHandler.startAsync();
+
+    assertTrue(latch.await(5L, TimeUnit.SECONDS));
+    assertEquals(1L, stats.getValue(statName(running, StateChangeResult.NOOP)));
+    assertEquals(1L, stats.getValue(NOOP_UPDATES));
+    assertEquals(3L, stats.getValue(PROCESSED_UPDATES));
+    assertEquals(1L, stats.getValue(batchSizeStatName(3)));
+  }
+
+  @Test
+  public void testBatchSizeStatName() {
+    control.replay();
+
+    assertEquals("status_updates_batch_size_le_1", batchSizeStatName(1));
+    assertEquals("status_updates_batch_size_le_10", batchSizeStatName(2));
+    assertEquals("status_updates_batch_size_le_1000", batchSizeStatName(1000));
+    assertEquals("status_updates_batch_size_gt_1000", batchSizeStatName(1001));
+  }
+
   @Test
   public void testFailedStatusUpdate() throws Exception {
+    expectStoredTasks();
     storageUtil.expectWrite();
 
     CountDownLatch latch = new CountDownLatch(1);
@@ -147,6 +264,7 @@ public class TaskStatusHandlerImplTest extends EasyMockTest {
       Optional<String> mesosMessage,
       Optional<String> expectedMessage) throws Exception {
 
+    expectStoredTasks();
     storageUtil.expectWrite();
 
     TaskStatus.Builder taskStatusBuilder = TaskStatus.newBuilder()
@@ -218,6 +336,7 @@ public class TaskStatusHandlerImplTest extends EasyMockTest {
 
   @Test
   public void testSuppressUnregisteredExecutorMessage() throws Exception {
+    expectStoredTasks();
     storageUtil.expectWrite();
 
     TaskStatus status = TaskStatus.newBuilder()
@@ -116,10 +116,14 @@ public class CommandLineTest {
     expected.reconciliation.reconciliationScheduleSpread = TEST_TIME;
     expected.reconciliation.reconciliationBatchSize = 42;
     expected.reconciliation.reconciliationBatchInterval = TEST_TIME;
+    expected.reconciliation.reconciliationExplicitAdaptive = true;
+    expected.reconciliation.reconciliationAdaptiveMaxQueueDepth = 42;
+    expected.reconciliation.reconciliationAdaptiveMaxLockWait = TEST_TIME;
     expected.offer.holdOffersForever = true;
     expected.offer.minOfferHoldTime = TEST_TIME;
     expected.offer.offerHoldJitterWindow = TEST_TIME;
     expected.offer.offerStaticBanCacheMaxSize = 42L;
+    expected.offer.offerVetoParallelism = 42;
     expected.offer.offerFilterDuration = TEST_TIME;
     expected.offer.unavailabilityThreshold = TEST_TIME;
     expected.offer.offerOrder = ImmutableList.of(OfferOrder.CPU, OfferOrder.DISK);
@@ -160,6 +164,9 @@ public class CommandLineTest {
     expected.scheduling.reservationDuration = TEST_TIME;
     expected.scheduling.schedulingMaxBatchSize = 42;
     expected.scheduling.maxTasksPerScheduleAttempt = 42;
+    expected.scheduling.schedulingBestFit = true;
+    expected.scheduling.maxTaskGroupsPerScheduleRound = 42;
+    expected.scheduling.incrementalAttributeAggregates = true;
     expected.async.asyncWorkerThreads = 42;
     expected.zk.inProcess = true;
     expected.zk.zkEndpoints = ImmutableList.of(InetSocketAddress.createUnresolved("testing", 42));
@@ -174,7 +181,15 @@ public class CommandLineTest {
     expected.updater.slaAwareKillRetryMaxDelay = new TimeAmount(42, Time.DAYS);
     expected.state.taskAssignerModules = ImmutableList.of(NoopModule.class);
     expected.snapshot.snapshotInterval = TEST_TIME;
+    expected.snapshot.snapshotMinLogGrowth = 42;
+    expected.snapshot.snapshotMaxInterval = TEST_TIME;
     expected.logPersistence.maxLogEntrySize = TEST_DATA;
+    expected.logPersistence.recoveryDecodeThreads = 42;
+    expected.logPersistence.recoveryReadAhead = 42;
+    expected.memStorage.compactTerminalTasks = true;
+    expected.durableStorage.groupCommit = true;
+    expected.durableStorage.groupCommitMaxBatchSize = 42;
+    expected.durableStorage.groupCommitMaxLinger = TEST_TIME;
     expected.backup.backupInterval = TEST_TIME;
     expected.backup.maxSavedBackups = 42;
     expected.backup.backupDir = new File("testing");
@@ -226,6 +241,7 @@ public class CommandLineTest {
     expected.preemptor.preemptionSlotSearchInitialDelay = TEST_TIME;
     expected.preemptor.preemptionSlotSearchInterval = TEST_TIME;
     expected.preemptor.reservationMaxBatchSize = 42;
+    expected.preemptor.slotSearchThreads = 42;
     expected.preemptor.slotFinderModules = ImmutableList.of(NoopModule.class);
     expected.mesosLog.quorumSize = 42;
     expected.mesosLog.logPath = new File("testing");
@@ -233,6 +249,7 @@ public class CommandLineTest {
     expected.mesosLog.coordinatorElectionTimeout = TEST_TIME;
     expected.mesosLog.coordinatorElectionRetries = 42;
     expected.mesosLog.readTimeout = TEST_TIME;
+    expected.mesosLog.readBatchSize = 42;
     expected.mesosLog.writeTimeout = TEST_TIME;
     expected.sla.minRequiredInstances = 42;
     expected.sla.maxParallelCoordinators = 42;
@@ -242,6 +259,7 @@ public class CommandLineTest {
     expected.sla.slaNonProdMetrics = ImmutableList.of(MetricCategory.JOB_UPTIMES);
     expected.sla.slaRefreshInterval = TEST_TIME;
     expected.sla.slaAwareKillNonProd = true;
+    expected.sla.slaIncrementalMetrics = true;
     expected.webhook.webhookConfigFile = tempFile;
     expected.scheduler.maxRegistrationDelay = TEST_TIME;
     expected.scheduler.maxLeadingDuration = TEST_TIME;
@@ -272,6 +290,9 @@ public class CommandLineTest {
         "-reconciliation_schedule_spread=42days",
         "-reconciliation_explicit_batch_size=42",
         "-reconciliation_explicit_batch_interval=42days",
+        "-reconciliation_explicit_adaptive=true",
+        "-reconciliation_explicit_adaptive_max_queue_depth=42",
+        "-reconciliation_explicit_adaptive_max_lock_wait=42days",
         "-hold_offers_forever=true",
         "-min_offer_hold_time=42days",
         "-offer_hold_jitter_window=42days",
@@ -280,6 +301,7 @@ public class CommandLineTest {
         "-offer_order=CPU,DISK",
         "-offer_set_module=org.apache.aurora.scheduler.config.CommandLineTest$NoopModule",
         "-offer_static_ban_cache_max_size=42",
+        "-offer_veto_parallelism=42",
         "-custom_executor_config=" + tempFile.getAbsolutePath(),
         "-thermos_executor_path=testing",
         "-thermos_executor_resources=testing",
@@ -315,6 +337,9 @@ public class CommandLineTest {
         "-offer_reservation_duration=42days",
         "-scheduling_max_batch_size=42",
         "-max_tasks_per_schedule_attempt=42",
+        "-scheduling_best_fit=true",
+        "-max_task_groups_per_schedule_round=42",
+        "-incremental_attribute_aggregates=true",
         "-async_worker_threads=42",
         "-zk_in_proc=true",
         "-zk_endpoints=testing:42",
@@ -330,7 +355,15 @@ public class CommandLineTest {
         "-sla_aware_kill_non_prod=true",
         "-task_assigner_modules=org.apache.aurora.scheduler.config.CommandLineTest$NoopModule",
         "-dlog_snapshot_interval=42days",
+        "-dlog_snapshot_min_log_growth=42",
+        "-dlog_snapshot_max_interval=42days",
         "-dlog_max_entry_size=42GB",
+        "-dlog_recovery_decode_threads=42",
+        "-dlog_recovery_read_ahead=42",
+        "-compact_terminal_tasks=true",
+        "-storage_group_commit=true",
+        "-storage_group_commit_max_batch_size=42",
+        "-storage_group_commit_max_linger=42days",
         "-backup_interval=42days",
         "-max_saved_backups=42",
         "-backup_dir=testing",
@@ -369,6 +402,7 @@ public class CommandLineTest {
         "-preemption_slot_search_initial_delay=42days",
         "-preemption_slot_search_interval=42days",
         "-preemption_reservation_max_batch_size=42",
+        "-preemption_slot_search_threads=42",
         "-preemption_slot_finder_modules="
             + "org.apache.aurora.scheduler.config.CommandLineTest$NoopModule",
         "-native_log_quorum_size=42",
@@ -377,10 +411,12 @@ public class CommandLineTest {
         "-native_log_election_timeout=42days",
         "-native_log_election_retries=42",
         "-native_log_read_timeout=42days",
+        "-native_log_read_batch_size=42",
         "-native_log_write_timeout=42days",
         "-sla_stat_refresh_interval=42days",
         "-sla_prod_metrics=JOB_UPTIMES",
         "-sla_non_prod_metrics=JOB_UPTIMES",
+        "-sla_incremental_metrics=true",
         "-webhook_config=" + tempFile.getAbsolutePath(),
         "-max_registration_delay=42days",
         "-max_leading_duration=42days",
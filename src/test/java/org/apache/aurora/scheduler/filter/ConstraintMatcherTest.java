@@ -0,0 +1,134 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.filter;
+
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.common.collections.Pair;
+import org.apache.aurora.gen.Constraint;
+import org.apache.aurora.gen.LimitConstraint;
+import org.apache.aurora.gen.TaskConstraint;
+import org.apache.aurora.gen.ValueConstraint;
+import org.apache.aurora.scheduler.filter.ConstraintMatcher.CompiledConstraint;
+import org.apache.aurora.scheduler.filter.SchedulingFilter.Veto;
+import org.apache.aurora.scheduler.storage.entities.IConstraint;
+import org.junit.Test;
+
+import static org.apache.aurora.scheduler.filter.IndexedHostAttributesTest.attribute;
+import static org.apache.aurora.scheduler.filter.IndexedHostAttributesTest.index;
+import static org.junit.Assert.assertEquals;
+
+public class ConstraintMatcherTest {
+  private static final Optional<Veto> NONE = Optional.empty();
+  private static final Optional<Veto> RACK_MISMATCH =
+      Optional.of(Veto.constraintMismatch("rack"));
+  private static final Optional<Veto> RACK_LIMIT = Optional.of(Veto.unsatisfiedLimit("rack"));
+
+  @Test
+  public void testValueConstraint() {
+    CompiledConstraint constraint = compile(valueConstraint("rack", false, "a", "b"));
+
+    assertEquals(NONE, veto(constraint, index(attribute("rack", "a"))));
+    assertEquals(NONE, veto(constraint, index(attribute("rack", "b", "c"))));
+    assertEquals(RACK_MISMATCH, veto(constraint, index(attribute("rack", "c"))));
+    assertEquals(RACK_MISMATCH, veto(constraint, index(attribute("host", "a"))));
+  }
+
+  @Test
+  public void testNegatedValueConstraint() {
+    CompiledConstraint constraint = compile(valueConstraint("rack", true, "a", "b"));
+
+    assertEquals(RACK_MISMATCH, veto(constraint, index(attribute("rack", "a"))));
+    assertEquals(RACK_MISMATCH, veto(constraint, index(attribute("rack", "b", "c"))));
+    assertEquals(NONE, veto(constraint, index(attribute("rack", "c"))));
+    assertEquals(NONE, veto(constraint, index(attribute("host", "a"))));
+  }
+
+  @Test
+  public void testValueConstraintMergedAttributes() {
+    CompiledConstraint constraint = compile(valueConstraint("rack", false, "b"));
+    CompiledConstraint negated = compile(valueConstraint("rack", true, "b"));
+    IndexedHostAttributes attributes = index(attribute("rack", "a"), attribute("rack", "b"));
+
+    assertEquals(NONE, veto(constraint, attributes));
+    assertEquals(RACK_MISMATCH, veto(negated, attributes));
+  }
+
+  @Test
+  public void testLimitConstraint() {
+    CompiledConstraint constraint = compile(limitConstraint("rack", 2));
+    AttributeAggregate jobState = AttributeAggregate.fromCounts(
+        ImmutableMultiset.<Pair<String, String>>builder()
+            .add(Pair.of("rack", "a"))
+            .addCopies(Pair.of("rack", "b"), 2)
+            .build());
+
+    assertEquals(NONE, constraint.getVeto(jobState, index(attribute("rack", "a"))));
+    assertEquals(NONE, constraint.getVeto(jobState, index(attribute("rack", "c"))));
+    assertEquals(RACK_LIMIT, constraint.getVeto(jobState, index(attribute("rack", "b"))));
+    assertEquals(
+        RACK_LIMIT,
+        constraint.getVeto(jobState, index(attribute("rack", "a"), attribute("rack", "b"))));
+  }
+
+  @Test
+  public void testLimitConstraintMissingAttribute() {
+    CompiledConstraint constraint = compile(limitConstraint("rack", 1));
+
+    assertEquals(RACK_MISMATCH, veto(constraint, index()));
+    assertEquals(RACK_MISMATCH, veto(constraint, index(attribute("host", "a1"))));
+  }
+
+  @Test
+  public void testCompileOrdersValuesFirst() {
+    IConstraint limit = limitConstraint("host", 1);
+    IConstraint value = valueConstraint("rack", false, "a");
+    IndexedHostAttributes attributes = index();
+
+    ImmutableList<CompiledConstraint> compiled =
+        ConstraintMatcher.compile(ImmutableList.of(limit, value));
+
+    assertEquals(2, compiled.size());
+    assertEquals(RACK_MISMATCH, veto(compiled.get(0), attributes));
+    assertEquals(
+        Optional.of(Veto.constraintMismatch("host")),
+        veto(compiled.get(1), attributes));
+  }
+
+  private static CompiledConstraint compile(IConstraint constraint) {
+    return new CompiledConstraint(constraint);
+  }
+
+  private static Optional<Veto> veto(
+      CompiledConstraint constraint,
+      IndexedHostAttributes attributes) {
+
+    return constraint.getVeto(AttributeAggregate.empty(), attributes);
+  }
+
+  private static IConstraint valueConstraint(String name, boolean negated, String... values) {
+    return IConstraint.build(new Constraint(
+        name,
+        TaskConstraint.value(new ValueConstraint(negated, ImmutableSet.copyOf(values)))));
+  }
+
+  private static IConstraint limitConstraint(String name, int limit) {
+    return IConstraint.build(
+        new Constraint(name, TaskConstraint.limit(new LimitConstraint(limit))));
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.filter;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.gen.Attribute;
+import org.apache.aurora.gen.HostAttributes;
+import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
+import org.junit.Test;
+
+import static org.apache.aurora.scheduler.configuration.ConfigurationManager.DEDICATED_ATTRIBUTE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedHostAttributesTest {
+
+  @Test
+  public void testNoAttributes() {
+    IndexedHostAttributes indexed = index();
+
+    assertFalse(indexed.hasAttribute("rack"));
+    assertEquals(ImmutableSet.of(), indexed.getValues("rack"));
+    assertFalse(indexed.isDedicated());
+  }
+
+  @Test
+  public void testIndexByName() {
+    IndexedHostAttributes indexed = index(
+        attribute("host", "a1"),
+        attribute("pdu", "p1", "p2"));
+
+    assertTrue(indexed.hasAttribute("host"));
+    assertEquals(ImmutableSet.of("a1"), indexed.getValues("host"));
+    assertEquals(ImmutableSet.of("p1", "p2"), indexed.getValues("pdu"));
+    assertFalse(indexed.hasAttribute("rack"));
+    assertEquals(ImmutableSet.of(), indexed.getValues("rack"));
+  }
+
+  @Test
+  public void testSameNameMerged() {
+    IndexedHostAttributes indexed = index(
+        attribute("rack", "a"),
+        attribute("rack", "b", "c"),
+        attribute("host", "a1"));
+
+    assertEquals(ImmutableSet.of("a", "b", "c"), indexed.getValues("rack"));
+    assertEquals(ImmutableSet.of("a1"), indexed.getValues("host"));
+  }
+
+  @Test
+  public void testAttributeWithoutValues() {
+    IndexedHostAttributes indexed = index(attribute("ssd"));
+
+    assertTrue(indexed.hasAttribute("ssd"));
+    assertEquals(ImmutableSet.of(), indexed.getValues("ssd"));
+  }
+
+  @Test
+  public void testDedicated() {
+    assertTrue(index(attribute(DEDICATED_ATTRIBUTE, "role/job")).isDedicated());
+    assertFalse(index(attribute("host", "a1")).isDedicated());
+  }
+
+  static IndexedHostAttributes index(Attribute... attributes) {
+    return IndexedHostAttributes.from(IHostAttributes.build(new HostAttributes()
+        .setHost("a1")
+        .setAttributes(ImmutableSet.copyOf(attributes))));
+  }
+
+  static Attribute attribute(String name, String... values) {
+    return new Attribute()
+        .setName(name)
+        .setValues(ImmutableSet.copyOf(values));
+  }
+}
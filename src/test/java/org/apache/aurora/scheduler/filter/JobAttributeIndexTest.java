@@ -0,0 +1,171 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.filter;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.gen.Attribute;
+import org.apache.aurora.gen.HostAttributes;
+import org.apache.aurora.gen.ScheduleStatus;
+import org.apache.aurora.gen.ScheduledTask;
+import org.apache.aurora.scheduler.base.JobKeys;
+import org.apache.aurora.scheduler.base.TaskTestUtil;
+import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.events.PubsubEvent.HostAttributesChanged;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
+import org.apache.aurora.scheduler.storage.Storage;
+import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult;
+import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
+import org.apache.aurora.scheduler.storage.entities.IJobKey;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.storage.mem.MemStorageModule;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.aurora.gen.MaintenanceMode.NONE;
+import static org.apache.aurora.gen.ScheduleStatus.ASSIGNED;
+import static org.apache.aurora.gen.ScheduleStatus.FINISHED;
+import static org.apache.aurora.gen.ScheduleStatus.PENDING;
+import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
+import static org.junit.Assert.assertEquals;
+
+public class JobAttributeIndexTest {
+  private static final IJobKey JOB = JobKeys.from("role", "env", "job");
+  private static final IJobKey OTHER_JOB = JobKeys.from("role", "env", "other");
+
+  private Storage storage;
+  private JobAttributeIndex index;
+
+  @Before
+  public void setUp() {
+    storage = MemStorageModule.newEmptyStorage();
+    index = new JobAttributeIndex(storage, true);
+    saveAttributes("hostA", "rackA");
+    saveAttributes("hostB", "rackA");
+  }
+
+  private void saveAttributes(String host, String rack) {
+    IHostAttributes attributes = IHostAttributes.build(new HostAttributes()
+        .setHost(host)
+        .setMode(NONE)
+        .setAttributes(ImmutableSet.of(
+            new Attribute("host", ImmutableSet.of(host)),
+            new Attribute("rack", ImmutableSet.of(rack)))));
+    storage.write((NoResult.Quiet)
+        storeProvider -> storeProvider.getAttributeStore().saveHostAttributes(attributes));
+  }
+
+  private static IScheduledTask task(String id, IJobKey job, ScheduleStatus status, String host) {
+    ScheduledTask builder = TaskTestUtil.makeTask(id, job).newBuilder().setStatus(status);
+    builder.getAssignedTask().setSlaveHost(host);
+    return IScheduledTask.build(builder);
+  }
+
+  private void save(IScheduledTask task) {
+    storage.write((NoResult.Quiet) storeProvider -> {
+      storeProvider.getUnsafeTaskStore().deleteTasks(ImmutableSet.of(Tasks.id(task)));
+      storeProvider.getUnsafeTaskStore().saveTasks(ImmutableSet.of(task));
+    });
+    index.taskChangedState(TaskStateChange.initialized(task));
+  }
+
+  private AttributeAggregate getJobState(IJobKey job) {
+    return storage.read(storeProvider -> index.getJobState(storeProvider, job));
+  }
+
+  private static void assertCount(AttributeAggregate aggregate, String name, String value, long n) {
+    assertEquals(n, aggregate.getNumTasksWithAttribute(name, value));
+  }
+
+  @Test
+  public void testCountsAssignedTasks() {
+    save(task("a", JOB, ASSIGNED, "hostA"));
+    save(task("b", JOB, RUNNING, "hostB"));
+    save(task("c", JOB, PENDING, null));
+    save(task("d", OTHER_JOB, RUNNING, "hostA"));
+
+    AttributeAggregate aggregate = getJobState(JOB);
+    assertCount(aggregate, "rack", "rackA", 2);
+    assertCount(aggregate, "host", "hostA", 1);
+    assertCount(aggregate, "host", "hostB", 1);
+    assertCount(getJobState(OTHER_JOB), "rack", "rackA", 1);
+
+    // The index must agree with computing the aggregate from storage.
+    assertEquals(
+        storage.read(storeProvider -> AttributeAggregate.getJobActiveState(storeProvider, JOB)),
+        aggregate);
+  }
+
+  @Test
+  public void testTaskStateChanges() {
+    IScheduledTask assigned = task("a", JOB, ASSIGNED, "hostA");
+    save(assigned);
+    AttributeAggregate before = getJobState(JOB);
+
+    save(task("a", JOB, FINISHED, "hostA"));
+    assertCount(getJobState(JOB), "rack", "rackA", 0);
+    // Previously obtained aggregates are unaffected.
+    assertCount(before, "rack", "rackA", 1);
+
+    // A stale event is resolved against the stored task.
+    index.taskChangedState(TaskStateChange.transition(assigned, PENDING));
+    assertCount(getJobState(JOB), "rack", "rackA", 0);
+  }
+
+  @Test
+  public void testRefreshWithinTransaction() {
+    storage.write((NoResult.Quiet) storeProvider -> {
+      storeProvider.getUnsafeTaskStore()
+          .saveTasks(ImmutableSet.of(task("a", JOB, ASSIGNED, "hostA")));
+      index.refresh(storeProvider, ImmutableSet.of("a"));
+    });
+
+    assertCount(getJobState(JOB), "host", "hostA", 1);
+  }
+
+  @Test
+  public void testHostAttributesChanged() {
+    save(task("a", JOB, RUNNING, "hostA"));
+    save(task("b", JOB, RUNNING, "hostB"));
+
+    saveAttributes("hostB", "rackB");
+    index.hostAttributesChanged(new HostAttributesChanged(
+        IHostAttributes.build(new HostAttributes().setHost("hostB"))));
+
+    AttributeAggregate aggregate = getJobState(JOB);
+    assertCount(aggregate, "rack", "rackA", 1);
+    assertCount(aggregate, "rack", "rackB", 1);
+  }
+
+  @Test
+  public void testTasksDeleted() {
+    IScheduledTask task = task("a", JOB, RUNNING, "hostA");
+    save(task);
+
+    storage.write((NoResult.Quiet) storeProvider ->
+        storeProvider.getUnsafeTaskStore().deleteTasks(ImmutableSet.of("a")));
+    index.tasksDeleted(new TasksDeleted(ImmutableSet.of(task)));
+
+    assertEquals(AttributeAggregate.empty(), getJobState(JOB));
+  }
+
+  @Test
+  public void testDisabled() {
+    index = new JobAttributeIndex(storage, false);
+    save(task("a", JOB, RUNNING, "hostA"));
+
+    assertCount(getJobState(JOB), "host", "hostA", 1);
+  }
+}
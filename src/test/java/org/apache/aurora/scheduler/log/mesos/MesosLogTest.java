@@ -65,7 +65,10 @@ public class MesosLogTest extends EasyMockTest {
     backingLog = createMock(LogInterface.class);
     logReader = createMock(ReaderInterface.class);
     logWriter = createMock(WriterInterface.class);
+    logStream = openStream(1);
+  }
 
+  private org.apache.aurora.scheduler.log.Log.Stream openStream(int readBatchSize) {
     Injector injector = Guice.createInjector(new AbstractModule() {
       @Override
       protected void configure() {
@@ -73,6 +76,8 @@ public class MesosLogTest extends EasyMockTest {
         bind(ReaderInterface.class).toInstance(logReader);
         bind(new TypeLiteral<Amount<Long, Time>>() { }).annotatedWith(MesosLog.ReadTimeout.class)
             .toInstance(READ_TIMEOUT);
+        bind(Integer.class).annotatedWith(MesosLog.ReadBatchSize.class)
+            .toInstance(readBatchSize);
         bind(WriterInterface.class).toInstance(logWriter);
         bind(new TypeLiteral<Amount<Long, Time>>() { }).annotatedWith(MesosLog.WriteTimeout.class)
             .toInstance(WRITE_TIMEOUT);
@@ -83,7 +88,7 @@ public class MesosLogTest extends EasyMockTest {
     });
 
     MesosLog log = injector.getInstance(MesosLog.class);
-    logStream = log.open();
+    return log.open();
   }
 
   @Test
@@ -209,6 +214,39 @@ public class MesosLogTest extends EasyMockTest {
 
   }
 
+  @Test
+  public void testBatchedLogRead() throws Exception {
+    logStream = openStream(2);
+
+    Position beginning = makePosition(1);
+    Position second = makePosition(2);
+    Position third = makePosition(3);
+    Position end = expectWrite(DUMMY_CONTENT, 4);
+    expectDiscoverEntryRange(beginning, end);
+    expectSetPosition(beginning);
+    expectSetPosition(second);
+    expect(logReader.read(
+        beginning,
+        second,
+        READ_TIMEOUT.getValue(),
+        READ_TIMEOUT.getUnit().getTimeUnit()))
+        .andReturn(ImmutableList.of(makeEntry(beginning, "beginningData")));
+    expectSetPosition(third);
+    expectSetPosition(end);
+    expect(logReader.read(
+        third,
+        end,
+        READ_TIMEOUT.getValue(),
+        READ_TIMEOUT.getUnit().getTimeUnit()))
+        .andReturn(ImmutableList.of(
+            makeEntry(third, "thirdData"),
+            makeEntry(end, DUMMY_CONTENT)));
+
+    control.replay();
+
+    assertEquals(ImmutableList.of("beginningData", "thirdData", DUMMY_CONTENT), readAll());
+  }
+
   @Test(expected = StreamAccessException.class)
   public void testInitialAppendFails() throws Exception {
     expectWrite(DUMMY_CONTENT).andThrow(new Log.WriterFailedException("injected"));
@@ -0,0 +1,118 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.offers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.gen.HostAttributes;
+import org.apache.aurora.scheduler.base.TaskGroupKey;
+import org.apache.aurora.scheduler.base.TaskTestUtil;
+import org.apache.aurora.scheduler.filter.SchedulingFilter.ResourceRequest;
+import org.apache.aurora.scheduler.resources.ResourceBag;
+import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
+import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.aurora.gen.MaintenanceMode.NONE;
+import static org.apache.aurora.scheduler.base.TaskTestUtil.JOB;
+import static org.apache.aurora.scheduler.resources.ResourceTestUtil.mesosScalar;
+import static org.apache.aurora.scheduler.resources.ResourceTestUtil.offer;
+import static org.apache.aurora.scheduler.resources.ResourceTestUtil.resetPorts;
+import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
+import static org.apache.aurora.scheduler.resources.ResourceType.DISK_MB;
+import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
+import static org.junit.Assert.assertEquals;
+
+public class IndexedOfferSetTest {
+
+  private static final ITaskConfig TASK =
+      resetPorts(TaskTestUtil.makeConfig(JOB), ImmutableSet.of());
+  private static final TaskGroupKey GROUP_KEY = TaskGroupKey.from(TASK);
+  private static final ResourceRequest REQUEST = TaskTestUtil.toResourceRequest(TASK);
+  private static final ResourceBag REQUESTED = REQUEST.getResourceBag();
+
+  private OfferSet offers;
+
+  @Before
+  public void setUp() {
+    offers = new IndexedOfferSet(OfferOrderBuilder.create(ImmutableList.of(OfferOrder.CPU)));
+  }
+
+  private static HostOffer hostOffer(String host, double cpus, double ramMb, double diskMb) {
+    return new HostOffer(
+        offer(
+            host,
+            mesosScalar(CPUS, cpus),
+            mesosScalar(RAM_MB, ramMb),
+            mesosScalar(DISK_MB, diskMb)),
+        IHostAttributes.build(new HostAttributes().setMode(NONE).setHost(host)));
+  }
+
+  private static HostOffer scaled(String host, double cpus, double ramMb, double diskMb) {
+    return hostOffer(
+        host,
+        REQUESTED.valueOf(CPUS) * cpus,
+        REQUESTED.valueOf(RAM_MB) * ramMb,
+        REQUESTED.valueOf(DISK_MB) * diskMb);
+  }
+
+  @Test
+  public void testOnlyFittingOffers() {
+    HostOffer exact = scaled("exact", 1, 1, 1);
+    HostOffer large = scaled("large", 4, 4, 4);
+    HostOffer fewCpus = scaled("fewCpus", 0.9, 4, 4);
+    HostOffer littleRam = scaled("littleRam", 2, 0.125, 4);
+    HostOffer noDisk = hostOffer("noDisk", 64, 65536, 0);
+
+    offers.add(large);
+    offers.add(fewCpus);
+    offers.add(exact);
+    offers.add(littleRam);
+    offers.add(noDisk);
+
+    assertEquals(5, offers.size());
+    assertEquals(
+        ImmutableList.of(fewCpus, exact, littleRam, large, noDisk),
+        ImmutableList.copyOf(offers.values()));
+    assertEquals(
+        ImmutableList.of(exact, large),
+        ImmutableList.copyOf(offers.getOrdered(GROUP_KEY, REQUEST)));
+  }
+
+  @Test
+  public void testRemoveAndClear() {
+    HostOffer small = scaled("small", 1, 1, 1);
+    HostOffer medium = scaled("medium", 2, 2, 2);
+    HostOffer large = scaled("large", 4, 4, 4);
+
+    offers.add(small);
+    offers.add(medium);
+    offers.add(large);
+    Iterable<HostOffer> ordered = offers.getOrdered(GROUP_KEY, REQUEST);
+    assertEquals(ImmutableList.of(small, medium, large), ImmutableList.copyOf(ordered));
+
+    offers.remove(medium);
+    assertEquals(ImmutableList.of(small, large), ImmutableList.copyOf(ordered));
+    assertEquals(2, offers.size());
+
+    offers.add(medium);
+    assertEquals(ImmutableList.of(small, medium, large), ImmutableList.copyOf(ordered));
+
+    offers.clear();
+    assertEquals(0, offers.size());
+    assertEquals(ImmutableList.of(), ImmutableList.copyOf(ordered));
+  }
+}
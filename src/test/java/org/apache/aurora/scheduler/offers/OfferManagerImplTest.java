@@ -13,6 +13,7 @@
  */
 package org.apache.aurora.scheduler.offers;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
@@ -57,6 +58,7 @@ import static org.apache.aurora.gen.MaintenanceMode.DRAINING;
 import static org.apache.aurora.gen.MaintenanceMode.NONE;
 import static org.apache.aurora.scheduler.base.TaskTestUtil.JOB;
 import static org.apache.aurora.scheduler.base.TaskTestUtil.makeTask;
+import static org.apache.aurora.scheduler.offers.HostOffers.PARALLEL_VETO_THRESHOLD;
 import static org.apache.aurora.scheduler.offers.OfferManagerImpl.GLOBALLY_BANNED_OFFERS;
 import static org.apache.aurora.scheduler.offers.OfferManagerImpl.OFFER_ACCEPT_RACES;
 import static org.apache.aurora.scheduler.offers.OfferManagerImpl.OFFER_CANCEL_FAILURES;
@@ -753,4 +755,49 @@ public class OfferManagerImplTest extends EasyMockTest {
     assertEquals(ImmutableSet.of(Pair.of(OFFER_A.getOffer().getId(), GROUP_KEY)),
         offerManager.getStaticBans());
   }
+
+  @Test
+  public void testGetAllMatchingParallel() {
+    expectFilterNone();
+
+    control.replay();
+
+    offerManager = new OfferManagerImpl(
+        driver,
+        new OfferSettings(
+            Amount.of(OFFER_FILTER_SECONDS, Time.SECONDS),
+            new OfferSetImpl(OfferOrderBuilder.create(ImmutableList.of(OfferOrder.CPU))),
+            RETURN_DELAY,
+            Long.MAX_VALUE,
+            FAKE_TICKER,
+            4),
+        statsProvider,
+        new Noop(),
+        schedulingFilter);
+
+    ImmutableList.Builder<HostOffer> builder = ImmutableList.builder();
+    for (int i = 0; i < PARALLEL_VETO_THRESHOLD * 4; i++) {
+      HostOffer offer = new HostOffer(
+          offer("agent-" + i, mesosScalar(CPUS, i + 1), mesosScalar(RAM_MB, 1024)),
+          HOST_ATTRIBUTES_A);
+      offerManager.add(offer);
+      builder.add(offer);
+    }
+    List<HostOffer> offers = builder.build();
+
+    assertEquals(
+        offers,
+        ImmutableList.copyOf(offerManager.getAllMatching(GROUP_KEY, EMPTY_REQUEST)));
+    assertEquals(offers.size(), statsProvider.getLongValue(VETO_EVALUATED_OFFERS));
+
+    // Offers removed while matching offers are being iterated are not matched.
+    Iterator<HostOffer> matching =
+        offerManager.getAllMatching(GROUP_KEY, EMPTY_REQUEST).iterator();
+    assertEquals(offers.get(0), matching.next());
+    HostOffer removed = Iterables.getLast(offers);
+    assertTrue(offerManager.cancel(removed.getOffer().getId()));
+    assertEquals(
+        offers.subList(1, offers.size() - 1),
+        ImmutableList.copyOf(matching));
+  }
 }
@@ -15,6 +15,7 @@ package org.apache.aurora.scheduler.preemptor;
 
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimap;
 
 import org.apache.aurora.gen.AssignedTask;
 import org.apache.aurora.gen.JobKey;
@@ -37,6 +38,8 @@ import static org.apache.aurora.gen.ScheduleStatus.PENDING;
 import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
 import static org.apache.aurora.gen.ScheduleStatus.THROTTLED;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class ClusterStateImplTest {
 
@@ -109,6 +112,21 @@ public class ClusterStateImplTest {
     assertVictims(b, d, f);
   }
 
+  @Test
+  public void testSnapshotReused() {
+    IAssignedTask a = makeTask("a", "s1");
+    changeState(a, RUNNING);
+    Multimap<String, PreemptionVictim> snapshot = state.getSlavesToActiveTasks();
+    assertSame(snapshot, state.getSlavesToActiveTasks());
+
+    // A transition between active states does not change the victims.
+    changeState(a, KILLING);
+    assertSame(snapshot, state.getSlavesToActiveTasks());
+
+    changeState(makeTask("b", "s1"), RUNNING);
+    assertNotSame(snapshot, state.getSlavesToActiveTasks());
+  }
+
   private void assertVictims(IAssignedTask... tasks) {
     ImmutableMultimap.Builder<String, PreemptionVictim> victims = ImmutableSetMultimap.builder();
     for (IAssignedTask task : tasks) {
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
@@ -97,6 +98,9 @@ public class PendingTaskProcessorTest extends EasyMockTest {
     storageUtil.expectOperations();
     offerManager = createMock(OfferManager.class);
     preemptionVictimFilter = createMock(PreemptionVictimFilter.class);
+    expect(preemptionVictimFilter.getSlaveFilter(anyObject()))
+        .andReturn((slaveId, offer) -> true)
+        .anyTimes();
     statsProvider = new FakeStatsProvider();
     clusterState = createMock(ClusterState.class);
     clock = new FakeClock();
@@ -105,7 +109,11 @@ public class PendingTaskProcessorTest extends EasyMockTest {
         new BiCache.BiCacheSettings(EXPIRATION, CACHE_NAME),
         clock);
 
-    slotFinder = new PendingTaskProcessor(
+    slotFinder = createSlotFinder(1);
+  }
+
+  private PendingTaskProcessor createSlotFinder(int slotSearchThreads) {
+    return new PendingTaskProcessor(
         storageUtil.storage,
         offerManager,
         preemptionVictimFilter,
@@ -114,7 +122,9 @@ public class PendingTaskProcessorTest extends EasyMockTest {
         slotCache,
         clusterState,
         clock,
-        RESERVATION_BATCH_SIZE);
+        RESERVATION_BATCH_SIZE,
+        slotSearchThreads,
+        MoreExecutors.directExecutor());
   }
 
   @Test
@@ -166,6 +176,51 @@ public class PendingTaskProcessorTest extends EasyMockTest {
     assertEquals(1L, statsProvider.getLongValue(UNMATCHED_TASKS));
   }
 
+  @Test
+  public void testParallelSearchSlotSuccessful() throws Exception {
+    slotFinder = createSlotFinder(2);
+    expectGetPendingTasks(TASK_A, TASK_B);
+    expectGetClusterState(TASK_A, TASK_B);
+    HostOffer offer1 = makeOffer(SLAVE_ID_1);
+    HostOffer offer2 = makeOffer(SLAVE_ID_2);
+    expectOffers(offer1, offer2);
+    expectSlotSearch(TASK_A.getAssignedTask().getTask(), TASK_A);
+    expectSlotSearch(TASK_B.getAssignedTask().getTask(), TASK_B);
+
+    control.replay();
+
+    clock.advance(PREEMPTION_DELAY);
+
+    slotFinder.run();
+    // Only the first matching agent is counted for each group, as with a sequential search.
+    assertEquals(2L, statsProvider.getLongValue(attemptsStatName(true)));
+    assertEquals(2L, statsProvider.getLongValue(slotSearchStatName(true, true)));
+    assertEquals(0L, statsProvider.getLongValue(slotSearchStatName(false, true)));
+    assertEquals(0L, statsProvider.getLongValue(UNMATCHED_TASKS));
+    assertEquals(2L, statsProvider.getLongValue(CACHE_SIZE_STAT_NAME));
+  }
+
+  @Test
+  public void testParallelSearchSlotFailed() throws Exception {
+    slotFinder = createSlotFinder(2);
+    expectGetPendingTasks(TASK_A);
+    expectGetClusterState(TASK_A, TASK_B);
+    HostOffer offer1 = makeOffer(SLAVE_ID_1);
+    HostOffer offer2 = makeOffer(SLAVE_ID_2);
+    expectOffers(offer1, offer2);
+    expectSlotSearch(TASK_A.getAssignedTask().getTask());
+
+    control.replay();
+
+    clock.advance(PREEMPTION_DELAY);
+
+    slotFinder.run();
+    assertEquals(1L, statsProvider.getLongValue(attemptsStatName(true)));
+    assertEquals(0L, statsProvider.getLongValue(slotSearchStatName(true, true)));
+    assertEquals(2L, statsProvider.getLongValue(slotSearchStatName(false, true)));
+    assertEquals(1L, statsProvider.getLongValue(UNMATCHED_TASKS));
+  }
+
   @Test
   public void testHasCachedSlots() throws Exception {
     slotCache.put(SLOT_A, group(TASK_A));
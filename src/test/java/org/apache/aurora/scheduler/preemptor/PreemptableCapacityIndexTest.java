@@ -0,0 +1,153 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.preemptor;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.gen.AssignedTask;
+import org.apache.aurora.gen.JobKey;
+import org.apache.aurora.gen.ScheduleStatus;
+import org.apache.aurora.gen.ScheduledTask;
+import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.resources.ResourceBag;
+import org.apache.aurora.scheduler.resources.ResourceManager;
+import org.apache.aurora.scheduler.resources.ResourceType;
+import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.aurora.gen.Resource.numCpus;
+import static org.apache.aurora.gen.Resource.ramMb;
+import static org.apache.aurora.gen.ScheduleStatus.FINISHED;
+import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
+import static org.apache.aurora.scheduler.base.TaskTestUtil.DEV_TIER_NAME;
+import static org.apache.aurora.scheduler.base.TaskTestUtil.PROD_TIER_NAME;
+import static org.apache.aurora.scheduler.base.TaskTestUtil.REVOCABLE_TIER_NAME;
+import static org.apache.aurora.scheduler.base.TaskTestUtil.TIER_MANAGER;
+import static org.apache.aurora.scheduler.mesos.TaskExecutors.NO_OVERHEAD_EXECUTOR;
+import static org.apache.aurora.scheduler.resources.ResourceBag.EMPTY;
+import static org.apache.aurora.scheduler.resources.ResourceTestUtil.bag;
+import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PreemptableCapacityIndexTest {
+  private static final String SLAVE_ID = "slave";
+  private static final String ROLE_A = "role_a";
+  private static final String ROLE_B = "role_b";
+
+  private PreemptableCapacityIndex index;
+
+  @Before
+  public void setUp() {
+    ResourceType.initializeEmptyCliArgsForTest();
+    index = new PreemptableCapacityIndex(NO_OVERHEAD_EXECUTOR, TIER_MANAGER);
+  }
+
+  private static IAssignedTask makeTask(
+      String taskId,
+      String role,
+      String tier,
+      int priority,
+      double cpus) {
+
+    return IAssignedTask.build(new AssignedTask()
+        .setTaskId(taskId)
+        .setSlaveId(SLAVE_ID)
+        .setSlaveHost(SLAVE_ID + "host")
+        .setTask(new TaskConfig()
+            .setJob(new JobKey(role, "env", "job"))
+            .setTier(tier)
+            .setPriority(priority)
+            .setResources(ImmutableSet.of(numCpus(cpus), ramMb(1024)))));
+  }
+
+  private void changeState(IAssignedTask assignedTask, ScheduleStatus status) {
+    IScheduledTask task = IScheduledTask.build(new ScheduledTask()
+        .setStatus(status)
+        .setAssignedTask(assignedTask.newBuilder()));
+    index.taskChangedState(TaskStateChange.transition(task, ScheduleStatus.INIT));
+  }
+
+  private boolean mayFit(IAssignedTask pending, ResourceBag slack) {
+    ITaskConfig task = pending.getTask();
+    return index.mayFit(
+        SLAVE_ID,
+        task,
+        ResourceManager.bagFromTask(task, NO_OVERHEAD_EXECUTOR),
+        slack);
+  }
+
+  @Test
+  public void testNoVictims() {
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 1), bag(4, 4096, 0)));
+  }
+
+  @Test
+  public void testProductionPreemptsPreemptibleTier() {
+    changeState(makeTask("a", ROLE_B, DEV_TIER_NAME, 10, 2), RUNNING);
+    changeState(makeTask("b", ROLE_B, DEV_TIER_NAME, 10, 2), RUNNING);
+
+    assertTrue(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 4), EMPTY));
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 5), EMPTY));
+    // Unused resources on the agent count towards the task.
+    assertTrue(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 5), bag(1, 0, 0)));
+  }
+
+  @Test
+  public void testSameTierRequiresSameRoleAndLowerPriority() {
+    changeState(makeTask("a", ROLE_A, PROD_TIER_NAME, 5, 2), RUNNING);
+    changeState(makeTask("b", ROLE_B, PROD_TIER_NAME, 1, 2), RUNNING);
+
+    assertTrue(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 6, 2), EMPTY));
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 6, 3), EMPTY));
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 5, 1), EMPTY));
+    // A preemptible task may not preempt a non-preemptible one.
+    assertFalse(mayFit(makeTask("p", ROLE_A, DEV_TIER_NAME, 10, 1), EMPTY));
+  }
+
+  @Test
+  public void testRevocableCpuExcluded() {
+    IAssignedTask revocable = makeTask("a", ROLE_B, REVOCABLE_TIER_NAME, 1, 4);
+    changeState(revocable, RUNNING);
+
+    assertEquals(
+        bag(ImmutableMap.of(RAM_MB, 1024.0)),
+        index.getResources(PreemptionVictim.fromTask(revocable)));
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 1), EMPTY));
+  }
+
+  @Test
+  public void testVictimRemoved() {
+    IAssignedTask a = makeTask("a", ROLE_B, DEV_TIER_NAME, 1, 2);
+    IAssignedTask b = makeTask("b", ROLE_B, DEV_TIER_NAME, 1, 2);
+    changeState(a, RUNNING);
+    changeState(b, RUNNING);
+    // Repeated active states do not count a victim twice.
+    changeState(b, RUNNING);
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 5), EMPTY));
+
+    changeState(a, FINISHED);
+    assertTrue(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 2), EMPTY));
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 3), EMPTY));
+
+    changeState(b, FINISHED);
+    assertFalse(mayFit(makeTask("p", ROLE_A, PROD_TIER_NAME, 1, 1), EMPTY));
+  }
+}
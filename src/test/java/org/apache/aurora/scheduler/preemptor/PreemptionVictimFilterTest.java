@@ -128,7 +128,10 @@ public class PreemptionVictimFilterTest extends EasyMockTest {
         schedulingFilter,
         TaskExecutors.NO_OVERHEAD_EXECUTOR,
         preemptorMetrics,
-        TaskTestUtil.TIER_MANAGER);
+        TaskTestUtil.TIER_MANAGER,
+        new PreemptableCapacityIndex(
+            TaskExecutors.NO_OVERHEAD_EXECUTOR,
+            TaskTestUtil.TIER_MANAGER));
 
     return filter.filterPreemptionVictims(
         ITaskConfig.build(pendingTask.getAssignedTask().getTask()),
@@ -34,17 +34,24 @@ import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.mesos.Driver;
+import org.apache.aurora.scheduler.reconciliation.TaskReconciler.SchedulerLoad;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
 import org.apache.aurora.scheduler.testing.FakeScheduledExecutor;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.apache.mesos.v1.Protos;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.apache.aurora.common.quantity.Time.MILLISECONDS;
 import static org.apache.aurora.common.quantity.Time.MINUTES;
 import static org.apache.aurora.common.quantity.Time.SECONDS;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.EXPLICIT_BACKOFF_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.EXPLICIT_ETA_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.EXPLICIT_PROGRESS_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.EXPLICIT_REMAINING_STAT_NAME;
 import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.EXPLICIT_STAT_NAME;
 import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.IMPLICIT_STAT_NAME;
 import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.TASK_TO_PROTO;
@@ -60,18 +67,24 @@ public class TaskReconcilerTest extends EasyMockTest {
   private static final Amount<Long, Time> SPREAD = Amount.of(30L, MINUTES);
   private static final Amount<Long, Time> BATCH_DELAY = Amount.of(3L, SECONDS);
   private static final int BATCH_SIZE = 1;
+  private static final int MAX_QUEUE_DEPTH = 1000;
+  private static final Amount<Long, Time> MAX_LOCK_WAIT = Amount.of(10L, MILLISECONDS);
   private static final TaskReconcilerSettings SETTINGS = new TaskReconcilerSettings(
       INITIAL_DELAY,
       EXPLICIT_SCHEDULE,
       IMPLICT_SCHEDULE,
       SPREAD,
       BATCH_DELAY,
-      BATCH_SIZE);
+      BATCH_SIZE,
+      false,
+      MAX_QUEUE_DEPTH,
+      MAX_LOCK_WAIT);
 
   private StorageTestUtil storageUtil;
   private StatsProvider statsProvider;
   private Driver driver;
   private ScheduledExecutorService executorService;
+  private SchedulerLoad load;
   private AtomicLong explicitRuns;
   private AtomicLong implicitRuns;
 
@@ -81,6 +94,7 @@ public class TaskReconcilerTest extends EasyMockTest {
     statsProvider = createMock(StatsProvider.class);
     driver = createMock(Driver.class);
     executorService = createMock(ScheduledExecutorService.class);
+    load = createMock(SchedulerLoad.class);
     explicitRuns = new AtomicLong();
     implicitRuns = new AtomicLong();
   }
@@ -120,6 +134,7 @@ public class TaskReconcilerTest extends EasyMockTest {
         storageUtil.storage,
         driver,
         executorService,
+        load,
         statsProvider);
 
     reconciler.startAsync().awaitRunning();
@@ -150,6 +165,140 @@ public class TaskReconcilerTest extends EasyMockTest {
     assertEquals(3L, implicitRuns.get());
   }
 
+  @Test
+  public void testAdaptiveExecution() {
+    FakeScheduledExecutor clock = FakeScheduledExecutor.scheduleExecutor(executorService);
+    FakeStatsProvider stats = new FakeStatsProvider();
+
+    List<IScheduledTask> tasks = Lists.newArrayList();
+    for (int i = 1; i <= 6; i++) {
+      tasks.add(makeTask("id" + i, TaskTestUtil.makeConfig(TaskTestUtil.JOB)));
+    }
+    storageUtil.expectOperations();
+    expect(storageUtil.taskStore.streamTasks(
+        Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES)))
+        .andReturn(tasks.stream());
+
+    // Load is sampled before each batch after the first.
+    expect(load.getStatusUpdateQueueDepth()).andReturn(0);
+    expect(load.sampleWriteLockWaitNanos()).andReturn(0L);
+    expect(load.getStatusUpdateQueueDepth()).andReturn(MAX_QUEUE_DEPTH + 1);
+    expect(load.sampleWriteLockWaitNanos()).andReturn(0L);
+    expect(load.getStatusUpdateQueueDepth()).andReturn(0);
+    expect(load.sampleWriteLockWaitNanos()).andReturn(MAX_LOCK_WAIT.as(Time.NANOSECONDS) + 1);
+    expect(load.getStatusUpdateQueueDepth()).andReturn(0);
+    expect(load.sampleWriteLockWaitNanos()).andReturn(0L);
+
+    expectReconcile(tasks.subList(0, 1));
+    // The batch grows while the scheduler keeps up.
+    expectReconcile(tasks.subList(1, 3));
+    // And shrinks when the status update queue or write lock wait exceed their limits.
+    expectReconcile(tasks.subList(3, 4));
+    expectReconcile(tasks.subList(4, 5));
+    expectReconcile(tasks.subList(5, 6));
+
+    control.replay();
+
+    TaskReconciler reconciler = new TaskReconciler(
+        new TaskReconcilerSettings(
+            INITIAL_DELAY,
+            EXPLICIT_SCHEDULE,
+            IMPLICT_SCHEDULE,
+            SPREAD,
+            BATCH_DELAY,
+            BATCH_SIZE,
+            true,
+            MAX_QUEUE_DEPTH,
+            MAX_LOCK_WAIT),
+        storageUtil.storage,
+        driver,
+        executorService,
+        load,
+        stats);
+
+    reconciler.triggerExplicitReconciliation(Optional.empty());
+    assertEquals(1L, stats.getLongValue(EXPLICIT_STAT_NAME));
+    assertEquals(5L, stats.getLongValue(EXPLICIT_REMAINING_STAT_NAME));
+
+    clock.advance(BATCH_DELAY);
+    clock.advance(Amount.of(1500L, MILLISECONDS));
+    assertEquals(2L, stats.getLongValue(EXPLICIT_REMAINING_STAT_NAME));
+    assertEquals(4 * 100.0 / 6, stats.getValue(EXPLICIT_PROGRESS_STAT_NAME).doubleValue(), 0.01);
+    assertEquals(6L, stats.getLongValue(EXPLICIT_ETA_STAT_NAME));
+    assertEquals(1L, stats.getLongValue(EXPLICIT_BACKOFF_STAT_NAME));
+
+    clock.advance(BATCH_DELAY);
+    clock.advance(Amount.of(6L, SECONDS));
+    assertEquals(0L, stats.getLongValue(EXPLICIT_REMAINING_STAT_NAME));
+    assertEquals(100.0, stats.getValue(EXPLICIT_PROGRESS_STAT_NAME).doubleValue(), 0.01);
+    assertEquals(0L, stats.getLongValue(EXPLICIT_ETA_STAT_NAME));
+    assertEquals(2L, stats.getLongValue(EXPLICIT_BACKOFF_STAT_NAME));
+    clock.assertEmpty();
+  }
+
+  @Test
+  public void testAdaptiveBackoffBounded() {
+    FakeScheduledExecutor clock = FakeScheduledExecutor.scheduleExecutor(executorService);
+    FakeStatsProvider stats = new FakeStatsProvider();
+
+    int batchSize = 16;
+    List<IScheduledTask> tasks = Lists.newArrayList();
+    for (int i = 1; i <= 34; i++) {
+      tasks.add(makeTask("id" + i, TaskTestUtil.makeConfig(TaskTestUtil.JOB)));
+    }
+    storageUtil.expectOperations();
+    expect(storageUtil.taskStore.streamTasks(
+        Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES)))
+        .andReturn(tasks.stream());
+
+    // The scheduler stays overloaded for every batch after the first.
+    expect(load.getStatusUpdateQueueDepth()).andReturn(MAX_QUEUE_DEPTH + 1).times(5);
+    expect(load.sampleWriteLockWaitNanos()).andReturn(0L).times(5);
+
+    // The batch size halves on each backoff, but not below 1/ADAPTIVE_SCALE of its initial size.
+    expectReconcile(tasks.subList(0, 16));
+    expectReconcile(tasks.subList(16, 24));
+    expectReconcile(tasks.subList(24, 28));
+    expectReconcile(tasks.subList(28, 30));
+    expectReconcile(tasks.subList(30, 32));
+    expectReconcile(tasks.subList(32, 34));
+
+    control.replay();
+
+    TaskReconciler reconciler = new TaskReconciler(
+        new TaskReconcilerSettings(
+            INITIAL_DELAY,
+            EXPLICIT_SCHEDULE,
+            IMPLICT_SCHEDULE,
+            SPREAD,
+            BATCH_DELAY,
+            BATCH_SIZE,
+            true,
+            MAX_QUEUE_DEPTH,
+            MAX_LOCK_WAIT),
+        storageUtil.storage,
+        driver,
+        executorService,
+        load,
+        stats);
+
+    reconciler.triggerExplicitReconciliation(Optional.of(batchSize));
+    // The interval doubles on each backoff, up to ADAPTIVE_SCALE times the configured delay.
+    Amount<Long, Time> maxDelay = Amount.of(
+        BATCH_DELAY.as(SECONDS) * TaskReconciler.ADAPTIVE_SCALE,
+        SECONDS);
+    for (int i = 0; i < 5; i++) {
+      clock.advance(maxDelay);
+    }
+    assertEquals(0L, stats.getLongValue(EXPLICIT_REMAINING_STAT_NAME));
+    assertEquals(5L, stats.getLongValue(EXPLICIT_BACKOFF_STAT_NAME));
+    clock.assertEmpty();
+  }
+
+  private void expectReconcile(List<IScheduledTask> batch) {
+    driver.reconcileTasks(Lists.transform(batch, TASK_TO_PROTO));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testInvalidImplicitDelay() throws Exception {
     control.replay();
@@ -160,7 +309,10 @@ public class TaskReconcilerTest extends EasyMockTest {
         IMPLICT_SCHEDULE,
         Amount.of(Long.MAX_VALUE, MINUTES),
         BATCH_DELAY,
-        BATCH_SIZE);
+        BATCH_SIZE,
+        false,
+        MAX_QUEUE_DEPTH,
+        MAX_LOCK_WAIT);
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -173,7 +325,10 @@ public class TaskReconcilerTest extends EasyMockTest {
         IMPLICT_SCHEDULE,
         SPREAD,
         BATCH_DELAY,
-        BATCH_SIZE);
+        BATCH_SIZE,
+        false,
+        MAX_QUEUE_DEPTH,
+        MAX_LOCK_WAIT);
   }
 
   private static IScheduledTask makeTask(String id, ITaskConfig config) {
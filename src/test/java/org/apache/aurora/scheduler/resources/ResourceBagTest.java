@@ -104,4 +104,34 @@ public class ResourceBagTest {
         new ResourceBag(ImmutableMap.of(CPUS, 1.0))
             .greaterThanOrEqualTo(new ResourceBag(ImmutableMap.of(CPUS, 1.0, RAM_MB, 132768.0))));
   }
+
+  @Test
+  public void testAccumulator() {
+    ResourceBag.Accumulator sum = new ResourceBag.Accumulator(SMALL);
+    sum.add(MEDIUM).add(MEDIUM).subtract(SMALL);
+    assertEquals(LARGE, sum.toBag());
+    assertTrue(sum.greaterThanOrEqualTo(LARGE));
+    assertFalse(sum.greaterThanOrEqualTo(XLARGE));
+
+    // Bags obtained from the accumulator are unaffected by further changes.
+    ResourceBag snapshot = sum.toBag();
+    sum.add(SMALL);
+    assertEquals(LARGE, snapshot);
+
+    assertEquals(
+        new ResourceBag(ImmutableMap.of(CPUS, 1.0)),
+        new ResourceBag.Accumulator().add(new ResourceBag(ImmutableMap.of(CPUS, 1.0))).toBag());
+  }
+
+  @Test
+  public void testMapView() {
+    ResourceBag bag = new ResourceBag(ImmutableMap.of(CPUS, 1.0, PORTS, 0.0));
+    assertEquals(ImmutableMap.of(CPUS, 1.0, PORTS, 0.0), bag.getResourceVectors());
+    assertEquals(bag.getResourceVectors().hashCode(), bag.hashCode());
+    assertFalse(bag.equals(new ResourceBag(ImmutableMap.of(CPUS, 1.0))));
+
+    ImmutableMap.Builder<ResourceType, Double> visited = ImmutableMap.builder();
+    bag.forEachVector(visited::put);
+    assertEquals(bag.getResourceVectors(), visited.build());
+  }
 }
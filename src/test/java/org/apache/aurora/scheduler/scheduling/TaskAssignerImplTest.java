@@ -60,6 +60,7 @@ import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
 import static org.apache.aurora.scheduler.resources.ResourceType.PORTS;
 import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
 import static org.apache.aurora.scheduler.scheduling.TaskAssignerImpl.ASSIGNER_LAUNCH_FAILURES;
+import static org.apache.aurora.scheduler.scheduling.TaskAssignerImpl.ASSIGNER_PACKING_EFFICIENCY;
 import static org.apache.aurora.scheduler.scheduling.TaskAssignerImpl.LAUNCH_FAILED_MSG;
 import static org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
 import static org.apache.mesos.v1.Protos.Offer;
@@ -99,6 +100,18 @@ public class TaskAssignerImplTest extends EasyMockTest {
           .setAttributes(ImmutableSet.of(
               new Attribute("host", ImmutableSet.of(MESOS_OFFER_2.getHostname()))))));
 
+  private static final Offer MESOS_OFFER_LARGE =
+      offer(
+          "offer-large",
+          mesosScalar(CPUS, 4),
+          mesosScalar(RAM_MB, 4096),
+          mesosRange(PORTS, PORT));
+  private static final HostOffer OFFER_LARGE =
+      new HostOffer(MESOS_OFFER_LARGE, IHostAttributes.build(new HostAttributes()
+          .setHost(MESOS_OFFER_LARGE.getHostname())
+          .setAttributes(ImmutableSet.of(
+              new Attribute("host", ImmutableSet.of(MESOS_OFFER_LARGE.getHostname()))))));
+
   private static final Set<String> NO_ASSIGNMENT = ImmutableSet.of();
 
   private AttributeAggregate aggregate;
@@ -125,7 +138,8 @@ public class TaskAssignerImplTest extends EasyMockTest {
         taskFactory,
         offerManager,
         updateAgentReserver,
-        statsProvider);
+        statsProvider,
+        false);
     aggregate = empty();
     resourceRequest = ResourceRequest.fromTask(
         TASK.getTask(),
@@ -230,6 +244,58 @@ public class TaskAssignerImplTest extends EasyMockTest {
             ImmutableMap.of(SLAVE_ID, GROUP_KEY)));
   }
 
+  @Test
+  public void testFirstFitPacking() throws Exception {
+    expectNoUpdateReservations(1);
+    expect(offerManager.getAllMatching(GROUP_KEY, resourceRequest))
+        .andReturn(ImmutableSet.of(OFFER_LARGE, OFFER));
+    expectAssignTask(MESOS_OFFER_LARGE);
+    expect(taskFactory.createFrom(TASK, MESOS_OFFER_LARGE, false)).andReturn(TASK_INFO);
+    offerManager.launchTask(MESOS_OFFER_LARGE.getId(), TASK_INFO);
+
+    control.replay();
+
+    assertEquals(
+        ImmutableSet.of(TASK.getTaskId()),
+        assigner.maybeAssign(
+            storeProvider,
+            resourceRequest,
+            GROUP_KEY,
+            ImmutableSet.of(TASK),
+            NO_RESERVATION));
+    assertEquals(25L, statsProvider.getLongValue(ASSIGNER_PACKING_EFFICIENCY));
+  }
+
+  @Test
+  public void testBestFitPacking() throws Exception {
+    assigner = new TaskAssignerImpl(
+        stateManager,
+        taskFactory,
+        offerManager,
+        updateAgentReserver,
+        statsProvider,
+        true);
+
+    expectNoUpdateReservations(2);
+    expect(offerManager.getAllMatching(GROUP_KEY, resourceRequest))
+        .andReturn(ImmutableSet.of(OFFER_LARGE, OFFER));
+    expectAssignTask(MESOS_OFFER);
+    expect(taskFactory.createFrom(TASK, MESOS_OFFER, false)).andReturn(TASK_INFO);
+    offerManager.launchTask(MESOS_OFFER.getId(), TASK_INFO);
+
+    control.replay();
+
+    assertEquals(
+        ImmutableSet.of(TASK.getTaskId()),
+        assigner.maybeAssign(
+            storeProvider,
+            resourceRequest,
+            GROUP_KEY,
+            ImmutableSet.of(TASK),
+            NO_RESERVATION));
+    assertEquals(100L, statsProvider.getLongValue(ASSIGNER_PACKING_EFFICIENCY));
+  }
+
   @Test
   public void testResourceMapperCallback() {
     AssignedTask builder = TASK.newBuilder();
@@ -13,10 +13,14 @@
  */
 package org.apache.aurora.scheduler.scheduling;
 
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.RateLimiter;
 
 import org.apache.aurora.common.quantity.Amount;
@@ -28,6 +32,8 @@ import org.apache.aurora.gen.JobKey;
 import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.gen.ScheduledTask;
 import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.scheduler.BatchWorker.Work;
+import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.events.PubsubEvent;
 import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
@@ -38,6 +44,7 @@ import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
 import org.apache.aurora.scheduler.testing.FakeScheduledExecutor;
 import org.apache.aurora.scheduler.testing.FakeStatsProvider;
+import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -59,6 +66,7 @@ public class TaskGroupsTest extends EasyMockTest {
   private BackoffStrategy backoffStrategy;
   private TaskScheduler taskScheduler;
   private RateLimiter rateLimiter;
+  private ScheduledExecutorService executor;
   private FakeScheduledExecutor clock;
   private RescheduleCalculator rescheduleCalculator;
   private TaskGroups taskGroups;
@@ -70,7 +78,7 @@ public class TaskGroupsTest extends EasyMockTest {
   public void setUp() throws Exception {
     storageUtil = new StorageTestUtil(this);
     storageUtil.expectOperations();
-    ScheduledExecutorService executor = createMock(ScheduledExecutorService.class);
+    executor = createMock(ScheduledExecutorService.class);
     clock = FakeScheduledExecutor.fromScheduledExecutorService(executor);
     backoffStrategy = createMock(BackoffStrategy.class);
     taskScheduler = createMock(TaskScheduler.class);
@@ -171,6 +179,97 @@ public class TaskGroupsTest extends EasyMockTest {
     assertEquals(2L, statsProvider.getLongValue(TaskGroups.SCHEDULE_ATTEMPTS_BLOCKS));
   }
 
+  @Test
+  public void testGroupsScheduledInRounds() throws Exception {
+    taskGroups = new TaskGroups(
+        executor,
+        new TaskGroupsSettings(FIRST_SCHEDULE_DELAY, backoffStrategy, rateLimiter, 2, 2),
+        taskScheduler,
+        rescheduleCalculator,
+        batchWorker,
+        statsProvider);
+
+    IJobKey jobB = IJobKey.build(JOB_A.newBuilder().setName("jobB"));
+    IJobKey jobC = IJobKey.build(JOB_A.newBuilder().setName("jobC"));
+    IScheduledTask a0 = makeTask(JOB_A, "a0", 0);
+    IScheduledTask b0 = makeTask(jobB, "b0", 0);
+    IScheduledTask c0 = makeTask(jobC, "c0", 0);
+
+    expect(rateLimiter.acquire()).andReturn(0D).times(3);
+    List<Runnable> rounds = Lists.newArrayList();
+    expect(batchWorker.execute(anyObject())).andAnswer(() -> {
+      @SuppressWarnings("unchecked")
+      Work<Set<String>> work = (Work<Set<String>>) EasyMock.getCurrentArguments()[0];
+      CompletableFuture<Set<String>> result = new CompletableFuture<>();
+      rounds.add(() -> result.complete(work.execute(storageUtil.mutableStoreProvider)));
+      return result;
+    }).times(2);
+    expect(taskScheduler.scheduleRound(anyObject(), eq(ImmutableMap.of(groupKey(a0), ids(a0)))))
+        .andReturn(ids(a0));
+    // Groups that become ready while a round is in flight share the next round.
+    expect(taskScheduler.scheduleRound(
+        anyObject(),
+        eq(ImmutableMap.of(groupKey(b0), ids(b0), groupKey(c0), ids(c0)))))
+        .andReturn(ids(b0));
+    expect(backoffStrategy.calculateBackoffMs(FIRST_SCHEDULE_DELAY.as(Time.MILLISECONDS)))
+        .andReturn(1000L);
+
+    control.replay();
+
+    taskGroups.taskChangedState(TaskStateChange.transition(a0, INIT));
+    taskGroups.taskChangedState(TaskStateChange.transition(b0, INIT));
+    taskGroups.taskChangedState(TaskStateChange.transition(c0, INIT));
+    clock.advance(FIRST_SCHEDULE_DELAY);
+    assertEquals(1, rounds.size());
+
+    rounds.get(0).run();
+    assertEquals(2, rounds.size());
+    rounds.get(1).run();
+  }
+
+  @Test
+  public void testNextRoundStartsAfterRoundCompletionFails() throws Exception {
+    taskGroups = new TaskGroups(
+        executor,
+        new TaskGroupsSettings(FIRST_SCHEDULE_DELAY, backoffStrategy, rateLimiter, 2, 2),
+        taskScheduler,
+        rescheduleCalculator,
+        batchWorker,
+        statsProvider);
+
+    IJobKey jobB = IJobKey.build(JOB_A.newBuilder().setName("jobB"));
+    IScheduledTask a0 = makeTask(JOB_A, "a0", 0);
+    IScheduledTask b0 = makeTask(jobB, "b0", 0);
+
+    expect(rateLimiter.acquire()).andReturn(0D).times(2);
+    List<Runnable> rounds = Lists.newArrayList();
+    expect(batchWorker.execute(anyObject())).andAnswer(() -> {
+      @SuppressWarnings("unchecked")
+      Work<Set<String>> work = (Work<Set<String>>) EasyMock.getCurrentArguments()[0];
+      CompletableFuture<Set<String>> result = new CompletableFuture<>();
+      rounds.add(() -> result.complete(work.execute(storageUtil.mutableStoreProvider)));
+      return result;
+    }).times(2);
+    expect(taskScheduler.scheduleRound(anyObject(), eq(ImmutableMap.of(groupKey(a0), ids(a0)))))
+        .andReturn(ImmutableSet.of());
+    expect(backoffStrategy.calculateBackoffMs(FIRST_SCHEDULE_DELAY.as(Time.MILLISECONDS)))
+        .andThrow(new IllegalStateException("Failed"));
+    expect(taskScheduler.scheduleRound(anyObject(), eq(ImmutableMap.of(groupKey(b0), ids(b0)))))
+        .andReturn(ids(b0));
+
+    control.replay();
+
+    taskGroups.taskChangedState(TaskStateChange.transition(a0, INIT));
+    taskGroups.taskChangedState(TaskStateChange.transition(b0, INIT));
+    clock.advance(FIRST_SCHEDULE_DELAY);
+    assertEquals(1, rounds.size());
+
+    // Completing the first round fails, but must still start the round for the queued group.
+    rounds.get(0).run();
+    assertEquals(2, rounds.size());
+    rounds.get(1).run();
+  }
+
   @Test
   public void testNonPendingIgnored() {
     control.replay();
@@ -180,6 +279,14 @@ public class TaskGroupsTest extends EasyMockTest {
     taskGroups.taskChangedState(TaskStateChange.initialized(task));
   }
 
+  private static TaskGroupKey groupKey(IScheduledTask task) {
+    return TaskGroupKey.from(task.getAssignedTask().getTask());
+  }
+
+  private static Set<String> ids(IScheduledTask task) {
+    return ImmutableSet.of(Tasks.id(task));
+  }
+
   private static IScheduledTask makeTask(String id) {
     return makeTask(JOB_A, id, 0);
   }
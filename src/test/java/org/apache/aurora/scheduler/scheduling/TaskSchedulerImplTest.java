@@ -42,6 +42,7 @@ import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
 import org.apache.aurora.scheduler.events.EventSink;
 import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
 import org.apache.aurora.scheduler.events.PubsubEventModule;
+import org.apache.aurora.scheduler.filter.JobAttributeIndex.IncrementalAggregates;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.ResourceRequest;
 import org.apache.aurora.scheduler.preemptor.BiCache;
 import org.apache.aurora.scheduler.preemptor.Preemptor;
@@ -116,6 +117,7 @@ public class TaskSchedulerImplTest extends EasyMockTest {
             bind(StatsProvider.class).toInstance(new FakeStatsProvider());
             bind(Storage.class).toInstance(storageImpl);
             bind(ExecutorSettings.class).toInstance(THERMOS_EXECUTOR);
+            bind(Boolean.class).annotatedWith(IncrementalAggregates.class).toInstance(false);
             PubsubEventModule.bindSubscriber(binder(), TaskScheduler.class);
           }
         });
@@ -209,6 +211,37 @@ public class TaskSchedulerImplTest extends EasyMockTest {
         scheduler.schedule(storageUtil.mutableStoreProvider, ImmutableSet.of(TASK_ID, taskB)));
   }
 
+  @Test
+  public void testScheduleRound() {
+    storageUtil.expectOperations();
+
+    IScheduledTask taskB = TaskTestUtil.makeTask("b", JobKeys.from("b", "b", "b"));
+    String taskC = "c";
+    expectAsMap(NO_RESERVATION);
+    expectAsMap(NO_RESERVATION);
+    storageUtil.expectTaskFetch(
+        Query.taskScoped(Tasks.id(TASK_A), Tasks.id(taskB), taskC).byStatus(PENDING),
+        ImmutableSet.of(TASK_A, taskB));
+    expectActiveJobFetch(TASK_A);
+    expectActiveJobFetch(taskB);
+    expectAssigned(TASK_A, NO_RESERVATION).andReturn(SCHEDULED_RESULT);
+    expectAssigned(taskB, NO_RESERVATION).andReturn(NOT_SCHEDULED_RESULT);
+    expectNoReservation(taskB);
+    expectPreemptorCall(taskB, Optional.empty());
+
+    control.replay();
+
+    // Task c is no longer pending, and should be returned to be purged from its TaskGroup.
+    assertEquals(
+        ImmutableSet.of(TASK_ID, taskC),
+        scheduler.scheduleRound(
+            storageUtil.mutableStoreProvider,
+            ImmutableMap.of(
+                GROUP_KEY, ImmutableSet.of(TASK_ID, taskC),
+                TaskGroupKey.from(taskB.getAssignedTask().getTask()),
+                ImmutableSet.of(Tasks.id(taskB)))));
+  }
+
   @Test
   public void testReservation() {
     storageUtil.expectOperations();
@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.sla;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
@@ -25,18 +26,33 @@ import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
+import org.apache.aurora.common.util.Clock;
 import org.apache.aurora.common.util.testing.FakeClock;
+import org.apache.aurora.gen.ScheduledTask;
+import org.apache.aurora.gen.TaskEvent;
 import org.apache.aurora.scheduler.base.Query;
+import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
 import org.apache.aurora.scheduler.sla.MetricCalculator.MetricCalculatorSettings;
 import org.apache.aurora.scheduler.sla.SlaGroup.GroupType;
+import org.apache.aurora.scheduler.storage.Storage;
+import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.storage.mem.MemStorageModule;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.easymock.Capture;
 import org.easymock.CaptureType;
 import org.easymock.EasyMock;
 import org.junit.Test;
 
+import static org.apache.aurora.gen.ScheduleStatus.ASSIGNED;
+import static org.apache.aurora.gen.ScheduleStatus.KILLED;
+import static org.apache.aurora.gen.ScheduleStatus.LOST;
 import static org.apache.aurora.gen.ScheduleStatus.PENDING;
+import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
+import static org.apache.aurora.gen.ScheduleStatus.STARTING;
 import static org.apache.aurora.scheduler.sla.MetricCalculator.MetricCategory.JOB_UPTIMES;
 import static org.apache.aurora.scheduler.sla.MetricCalculator.MetricCategory.MEDIANS;
 import static org.apache.aurora.scheduler.sla.MetricCalculator.MetricCategory.PLATFORM_UPTIME;
@@ -46,6 +62,7 @@ import static org.apache.aurora.scheduler.sla.SlaAlgorithm.AlgorithmType;
 import static org.apache.aurora.scheduler.sla.SlaTestUtil.makeTask;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class MetricCalculatorTest extends EasyMockTest {
 
@@ -71,10 +88,12 @@ public class MetricCalculatorTest extends EasyMockTest {
     MetricCalculatorSettings settings = new MetricCalculatorSettings(
         10000,
         ImmutableSet.of(JOB_UPTIMES, MEDIANS, PLATFORM_UPTIME),
-        ImmutableSet.of(JOB_UPTIMES, MEDIANS, PLATFORM_UPTIME));
+        ImmutableSet.of(JOB_UPTIMES, MEDIANS, PLATFORM_UPTIME),
+        false);
     StorageTestUtil storageUtil = new StorageTestUtil(this);
     MetricCalculator calculator = new MetricCalculator(
         storageUtil.storage,
+        new SlaIndex(storageUtil.storage, settings),
         clock,
         settings,
         statsProvider);
@@ -105,6 +124,92 @@ public class MetricCalculatorTest extends EasyMockTest {
     assertEquals(metricNames, ImmutableSet.copyOf(names.getValues()));
   }
 
+  @Test
+  public void testIncrementalMatchesScan() {
+    control.replay();
+
+    FakeClock clock = new FakeClock();
+    clock.advance(Amount.of(1L, Time.HOURS));
+    long now = clock.nowMillis();
+    IScheduledTask running = withId("a", makeTask(ImmutableMap.of(
+        now - 50000, PENDING,
+        now - 40000, ASSIGNED,
+        now - 30000, STARTING,
+        now - 20000, RUNNING), 0));
+    IScheduledTask lost = withId("b", makeTask(ImmutableMap.of(
+        now - 50000, PENDING,
+        now - 45000, ASSIGNED,
+        now - 44000, STARTING,
+        now - 43000, RUNNING,
+        now - 5000, LOST), 1));
+    IScheduledTask replacement = withId("c", makeTask(ImmutableMap.of(
+        now - 4000, PENDING,
+        now - 3000, ASSIGNED,
+        now - 2000, STARTING,
+        now - 1000, RUNNING), 1));
+    IScheduledTask nonProd = withId("d", makeTask(ImmutableMap.of(
+        now - 9000, PENDING,
+        now - 8000, ASSIGNED,
+        now - 7000, STARTING,
+        now - 6000, RUNNING), 2, false));
+
+    Storage storage = MemStorageModule.newEmptyStorage();
+    SlaIndex index = new SlaIndex(storage, makeSettings(true));
+    saveTasks(storage, index, running, lost, replacement, nonProd);
+    assertIncrementalMatchesScan(storage, index, clock);
+
+    IScheduledTask killed = IScheduledTask.build(running.newBuilder()
+        .setStatus(KILLED)
+        .setTaskEvents(ImmutableList.<TaskEvent>builder()
+            .addAll(running.newBuilder().getTaskEvents())
+            .add(new TaskEvent(now - 500, KILLED))
+            .build()));
+    saveTasks(storage, index, killed);
+    storage.write((NoResult.Quiet)
+        storeProvider -> storeProvider.getUnsafeTaskStore().deleteTasks(ImmutableSet.of("b")));
+    index.tasksDeleted(new TasksDeleted(ImmutableSet.of(lost)));
+    assertIncrementalMatchesScan(storage, index, clock);
+  }
+
+  private static MetricCalculatorSettings makeSettings(boolean incremental) {
+    return new MetricCalculatorSettings(
+        10000,
+        ImmutableSet.of(JOB_UPTIMES, MEDIANS, PLATFORM_UPTIME),
+        ImmutableSet.of(JOB_UPTIMES, MEDIANS, PLATFORM_UPTIME),
+        incremental);
+  }
+
+  private static IScheduledTask withId(String taskId, IScheduledTask task) {
+    ScheduledTask builder = task.newBuilder();
+    builder.getAssignedTask().setTaskId(taskId);
+    return IScheduledTask.build(builder);
+  }
+
+  private static void saveTasks(Storage storage, SlaIndex index, IScheduledTask... tasks) {
+    storage.write((NoResult.Quiet) storeProvider -> {
+      for (IScheduledTask task : tasks) {
+        storeProvider.getUnsafeTaskStore().deleteTasks(ImmutableSet.of(Tasks.id(task)));
+        storeProvider.getUnsafeTaskStore().saveTasks(ImmutableSet.of(task));
+      }
+    });
+    for (IScheduledTask task : tasks) {
+      index.taskChangedState(TaskStateChange.initialized(task));
+    }
+  }
+
+  private static void assertIncrementalMatchesScan(Storage storage, SlaIndex index, Clock clock) {
+    MetricCalculatorSettings scanSettings = makeSettings(false);
+    FakeStatsProvider scanStats = new FakeStatsProvider();
+    SlaIndex disabled = new SlaIndex(storage, scanSettings);
+    new MetricCalculator(storage, disabled, clock, scanSettings, scanStats).run();
+
+    FakeStatsProvider incrementalStats = new FakeStatsProvider();
+    new MetricCalculator(storage, index, clock, makeSettings(true), incrementalStats).run();
+
+    assertFalse(scanStats.getAllValues().isEmpty());
+    assertEquals(scanStats.getAllValues(), incrementalStats.getAllValues());
+  }
+
   private Set<String> generateMetricNames(
       Set<IScheduledTask> tasks,
       Set<Multimap<AlgorithmType, GroupType>> definitions) {
@@ -162,4 +162,22 @@ public class SlaUtilTest {
     actual = SlaUtil.percentile(samples, 0);
     assertEquals(90.0, actual);
   }
+
+  @Test
+  public void testElapsedPercentile() {
+    long now = 1000L;
+    assertEquals(0.0, SlaUtil.elapsedPercentile(new long[0], now, 50));
+
+    // Elapsed times of 30, 60, 70 and 90.
+    long[] timestamps = {910L, 930L, 940L, 970L};
+    for (double percentile : new double[] {0, 50, 75, 90, 99, 99.9, 100}) {
+      samples = new LinkedList<>();
+      for (long timestamp : timestamps) {
+        samples.add(now - timestamp);
+      }
+      assertEquals(
+          SlaUtil.percentile(samples, percentile),
+          SlaUtil.elapsedPercentile(timestamps, now, percentile));
+    }
+  }
 }
@@ -33,6 +33,7 @@ import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
 import static org.apache.aurora.scheduler.resources.ResourceType.DISK_MB;
 import static org.apache.aurora.scheduler.resources.ResourceType.PORTS;
 import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
+import static org.apache.aurora.scheduler.stats.SlotSizeCounter.getFragmentationStatName;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
 
@@ -55,6 +56,8 @@ public class SlotSizeCounterTest extends EasyMockTest {
   private final AtomicLong largeDedicatedCounter = new AtomicLong();
   private final AtomicLong largeRevocableCounter = new AtomicLong();
   private final AtomicLong largeDedicatedRevocableCounter = new AtomicLong();
+  private final AtomicLong smallFragmentation = new AtomicLong();
+  private final AtomicLong largeFragmentation = new AtomicLong();
 
   @Before
   public void setUp() {
@@ -80,6 +83,17 @@ public class SlotSizeCounterTest extends EasyMockTest {
         .andReturn(largeRevocableCounter);
     expect(statsProvider.makeCounter(SlotSizeCounter.getStatName("large", true, true)))
         .andReturn(largeDedicatedRevocableCounter);
+
+    expect(statsProvider.makeCounter(getFragmentationStatName("small", false, false)))
+        .andReturn(smallFragmentation);
+    expect(statsProvider.makeCounter(getFragmentationStatName("large", false, false)))
+        .andReturn(largeFragmentation);
+    for (String slot : SLOT_SIZES.keySet()) {
+      for (boolean[] group : new boolean[][] {{true, false}, {false, true}, {true, true}}) {
+        expect(statsProvider.makeCounter(getFragmentationStatName(slot, group[0], group[1])))
+            .andReturn(new AtomicLong());
+      }
+    }
   }
 
   private void expectGetSlots(MachineResource... returned) {
@@ -189,6 +203,26 @@ public class SlotSizeCounterTest extends EasyMockTest {
     assertEquals(0, largeDedicatedCounter.get());
     assertEquals(1, largeRevocableCounter.get());
     assertEquals(1, largeDedicatedRevocableCounter.get());
+    assertEquals(0, smallFragmentation.get());
+    assertEquals(0, largeFragmentation.get());
+  }
+
+  @Test
+  public void testFragmentation() {
+    expectStatExport();
+    // Each host lacks a resource that the other has spare, so only one small slot fits on the
+    // hosts while the pooled slack would fit two.
+    expectGetSlots(
+        new MachineResource(bag(2, 1024, 8192), false, false),
+        new MachineResource(bag(0, 1024, 0), false, false));
+
+    control.replay();
+
+    slotCounter.run();
+    assertEquals(1, smallCounter.get());
+    assertEquals(50, smallFragmentation.get());
+    assertEquals(0, largeCounter.get());
+    assertEquals(0, largeFragmentation.get());
   }
 
   private static ResourceBag bag(double cpus, double ram, double disk) {
@@ -22,6 +22,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
@@ -346,6 +347,36 @@ public abstract class AbstractTaskStoreTest extends TearDownTestCase {
         TASK_B);
   }
 
+  @Test
+  public void testQueryPagination() {
+    saveTasks(TASK_A, TASK_B, TASK_C, TASK_D);
+
+    List<IScheduledTask> all = ImmutableList.copyOf(fetchTasks(Query.unscoped()));
+    List<IScheduledTask> pages = ImmutableList.<IScheduledTask>builder()
+        .addAll(fetchTasks(Query.unscoped().limit(3)))
+        .addAll(fetchTasks(Query.unscoped().offset(3).limit(3)))
+        .build();
+    assertEquals(all, pages);
+    assertQueryResults(Query.unscoped().offset(4));
+    assertEquals(1, Iterables.size(fetchTasks(Query.unscoped().byStatus(ASSIGNED).limit(1))));
+  }
+
+  @Test
+  public void testStreamTasks() {
+    saveTasks(TASK_A, TASK_B, TASK_C, TASK_D);
+
+    assertEquals(
+        ImmutableSet.copyOf(fetchTasks(Query.roleScoped("role-b"))),
+        storage.read(storeProvider -> storeProvider.getTaskStore()
+            .streamTasks(Query.roleScoped("role-b"))
+            .collect(Collectors.toSet())));
+    assertEquals(
+        ImmutableList.copyOf(fetchTasks(Query.unscoped().offset(1).limit(2))),
+        storage.read(storeProvider -> storeProvider.getTaskStore()
+            .streamTasks(Query.unscoped().offset(1).limit(2))
+            .collect(Collectors.toList())));
+  }
+
   @Test
   public void testMutate() {
     saveTasks(TASK_A, TASK_B, TASK_C, TASK_D);
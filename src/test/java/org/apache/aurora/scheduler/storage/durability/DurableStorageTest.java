@@ -80,6 +80,7 @@ import org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
 import org.apache.aurora.scheduler.storage.Storage.MutateWork;
 import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult;
 import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult.Quiet;
+import org.apache.aurora.scheduler.storage.durability.DurableStorage.GroupCommitSettings;
 import org.apache.aurora.scheduler.storage.durability.Persistence.Edit;
 import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
 import org.apache.aurora.scheduler.storage.entities.IHostMaintenanceRequest;
@@ -140,7 +141,8 @@ public class DurableStorageTest extends EasyMockTest {
         storageUtil.hostMaintenanceStore,
         eventSink,
         new ReentrantLock(),
-        TaskTestUtil.THRIFT_BACKFILL);
+        TaskTestUtil.THRIFT_BACKFILL,
+        GroupCommitSettings.DISABLED);
 
     storageUtil.storage.prepare();
   }
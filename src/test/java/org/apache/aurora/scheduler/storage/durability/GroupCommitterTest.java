@@ -0,0 +1,169 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.storage.durability;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.gen.storage.Op;
+import org.apache.aurora.gen.storage.RemoveQuota;
+import org.apache.aurora.gen.storage.RemoveTasks;
+import org.apache.aurora.scheduler.storage.Storage.StorageException;
+import org.apache.aurora.scheduler.storage.durability.GroupCommitter.Commit;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GroupCommitterTest {
+
+  private static final Amount<Long, Time> NO_LINGER = Amount.of(0L, Time.MILLISECONDS);
+
+  private List<List<Op>> persisted;
+
+  @Before
+  public void setUp() {
+    persisted = Lists.newArrayList();
+  }
+
+  private GroupCommitter committer(int maxBatchSize) {
+    return new GroupCommitter(persisted::add, maxBatchSize, NO_LINGER);
+  }
+
+  private static class PersistError extends Error {
+  }
+
+  private static Op removeQuota(String role) {
+    return Op.removeQuota(new RemoveQuota(role));
+  }
+
+  @Test
+  public void testSingleTransaction() {
+    GroupCommitter committer = committer(10);
+
+    committer.await(committer.enqueue(ImmutableList.of(removeQuota("a"))), true);
+    assertEquals(ImmutableList.of(ImmutableList.of(removeQuota("a"))), persisted);
+    assertEquals(0, committer.getPendingCount());
+  }
+
+  @Test
+  public void testTransactionsShareCommit() {
+    GroupCommitter committer = committer(10);
+
+    Commit first = committer.enqueue(ImmutableList.of(removeQuota("a")));
+    Commit second = committer.enqueue(ImmutableList.of(
+        Op.removeTasks(new RemoveTasks().setTaskIds(ImmutableSet.of("1"))),
+        removeQuota("b")));
+    Commit third = committer.enqueue(ImmutableList.of(removeQuota("c")));
+
+    committer.await(second, false);
+    committer.await(first, false);
+    committer.await(third, false);
+    assertEquals(
+        ImmutableList.of(ImmutableList.of(
+            removeQuota("a"),
+            Op.removeTasks(new RemoveTasks().setTaskIds(ImmutableSet.of("1"))),
+            removeQuota("b"),
+            removeQuota("c"))),
+        persisted);
+  }
+
+  @Test
+  public void testMaxBatchSize() {
+    GroupCommitter committer = committer(2);
+
+    committer.enqueue(ImmutableList.of(removeQuota("a")));
+    committer.enqueue(ImmutableList.of(removeQuota("b")));
+    Commit last = committer.enqueue(ImmutableList.of(removeQuota("c")));
+
+    committer.await(last, false);
+    assertEquals(
+        ImmutableList.of(
+            ImmutableList.of(removeQuota("a"), removeQuota("b")),
+            ImmutableList.of(removeQuota("c"))),
+        persisted);
+  }
+
+  @Test
+  public void testFlush() {
+    GroupCommitter committer = committer(10);
+
+    committer.flush();
+    assertEquals(ImmutableList.of(), persisted);
+
+    committer.enqueue(ImmutableList.of(removeQuota("a")));
+    committer.enqueue(ImmutableList.of(removeQuota("b")));
+    committer.flush();
+    assertEquals(
+        ImmutableList.of(ImmutableList.of(removeQuota("a"), removeQuota("b"))),
+        persisted);
+    assertEquals(0, committer.getPendingCount());
+  }
+
+  @Test
+  public void testFailedBatch() {
+    GroupCommitter committer = new GroupCommitter(
+        ops -> {
+          throw new StorageException("Failed");
+        },
+        10,
+        NO_LINGER);
+
+    Commit first = committer.enqueue(ImmutableList.of(removeQuota("a")));
+    Commit second = committer.enqueue(ImmutableList.of(removeQuota("b")));
+    for (Commit commit : ImmutableList.of(first, second)) {
+      try {
+        committer.await(commit, false);
+        fail();
+      } catch (StorageException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testErrorReleasesBatch() {
+    GroupCommitter committer = new GroupCommitter(
+        ops -> {
+          throw new PersistError();
+        },
+        10,
+        NO_LINGER);
+
+    Commit first = committer.enqueue(ImmutableList.of(removeQuota("a")));
+    Commit second = committer.enqueue(ImmutableList.of(removeQuota("b")));
+    try {
+      committer.await(first, false);
+      fail();
+    } catch (PersistError e) {
+      // Expected.
+    }
+
+    // The second transaction was in the failed batch, so must not wait for another flush.
+    try {
+      committer.await(second, false);
+      fail();
+    } catch (StorageException e) {
+      assertTrue(e.getCause() instanceof PersistError);
+    }
+    assertEquals(0, committer.getPendingCount());
+  }
+}
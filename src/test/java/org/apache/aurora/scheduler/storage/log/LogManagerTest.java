@@ -17,6 +17,7 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -55,6 +56,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.apache.aurora.scheduler.storage.log.SnapshotDeduplicator.SnapshotDeduplicatorImpl;
+import static org.apache.aurora.scheduler.storage.log.StreamManagerImpl.RecoverySettings;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
 
@@ -79,11 +81,19 @@ public class LogManagerTest extends EasyMockTest {
   }
 
   private StreamManager createStreamManager(final Amount<Integer, Data> maxEntrySize) {
+    return createStreamManager(maxEntrySize, RecoverySettings.SEQUENTIAL);
+  }
+
+  private StreamManager createStreamManager(
+      Amount<Integer, Data> maxEntrySize,
+      RecoverySettings recoverySettings) {
+
     return new StreamManagerImpl(
         stream,
         new EntrySerializer.EntrySerializerImpl(maxEntrySize, Hashing.md5()),
         Hashing.md5(),
-        new SnapshotDeduplicatorImpl());
+        new SnapshotDeduplicatorImpl(),
+        recoverySettings);
   }
 
   @Test
@@ -183,6 +193,63 @@ public class LogManagerTest extends EasyMockTest {
     streamManager.commit(ImmutableList.of(saveFrameworkId, deleteJob));
   }
 
+  @Test
+  public void testGrowthSinceSnapshot() throws CodingException {
+    Snapshot snapshot = createSnapshot();
+    DeduplicatedSnapshot deduplicated = new SnapshotDeduplicatorImpl().deduplicate(snapshot);
+    LogEntry snapshotEntry = Entries.deflate(LogEntry.deduplicatedSnapshot(deduplicated));
+    expectAppend(position1, snapshotEntry);
+    stream.truncateBefore(position1);
+    Op saveFrameworkId = Op.saveFrameworkId(new SaveFrameworkId("jake"));
+    expectTransaction(position2, saveFrameworkId);
+
+    StreamManager streamManager = createNoMessagesStreamManager();
+    control.replay();
+
+    assertEquals(Optional.empty(), streamManager.getGrowthSinceSnapshot());
+    streamManager.snapshot(snapshot);
+    assertEquals(Optional.of(0D), streamManager.getGrowthSinceSnapshot());
+    streamManager.commit(ImmutableList.of(saveFrameworkId));
+    assertEquals(
+        Optional.of((double) encode(createLogEntry(saveFrameworkId)).length
+            / encode(snapshotEntry).length),
+        streamManager.getGrowthSinceSnapshot());
+  }
+
+  @Test
+  public void testPendingSnapshotHoldsBackCommits() throws Exception {
+    Snapshot snapshot = createSnapshot();
+    DeduplicatedSnapshot deduplicated = new SnapshotDeduplicatorImpl().deduplicate(snapshot);
+    Op saveFrameworkId = Op.saveFrameworkId(new SaveFrameworkId("jake"));
+    List<String> appended = Collections.synchronizedList(Lists.newArrayList());
+    expect(stream.append(entryEq(Entries.deflate(LogEntry.deduplicatedSnapshot(deduplicated)))))
+        .andAnswer(() -> {
+          appended.add("snapshot");
+          return position1;
+        });
+    expect(stream.append(entryEq(createLogEntry(saveFrameworkId))))
+        .andAnswer(() -> {
+          appended.add("transaction");
+          return position2;
+        });
+    stream.truncateBefore(position1);
+
+    StreamManager streamManager = createNoMessagesStreamManager();
+    control.replay();
+
+    streamManager.beginSnapshot();
+    Thread committer = new Thread(() -> streamManager.commit(ImmutableList.of(saveFrameworkId)));
+    committer.start();
+    // Wait for the commit to block on the pending snapshot.
+    while (committer.isAlive() && committer.getState() != Thread.State.WAITING) {
+      Thread.yield();
+    }
+    streamManager.snapshot(snapshot);
+    committer.join();
+
+    assertEquals(ImmutableList.of("snapshot", "transaction"), appended);
+  }
+
   static class Message {
     private final Amount<Integer, Data> chunkSize;
     private final LogEntry header;
@@ -231,6 +298,21 @@ public class LogManagerTest extends EasyMockTest {
     streamManager.commit(ImmutableList.of(saveFrameworkId));
   }
 
+  @Test
+  public void testSnapshotFrames() throws Exception {
+    Snapshot snapshot = createSnapshot();
+    DeduplicatedSnapshot deduplicated = new SnapshotDeduplicatorImpl().deduplicate(snapshot);
+
+    Message message = frame(Entries.deflate(LogEntry.deduplicatedSnapshot(deduplicated)));
+    expectFrames(position1, message);
+    stream.truncateBefore(position1);
+
+    StreamManager streamManager = createStreamManager(message.chunkSize);
+    control.replay();
+
+    streamManager.snapshot(snapshot);
+  }
+
   @Test
   public void testStreamManagerReadFrames() throws Exception {
     LogEntry transaction1 = createLogEntry(
@@ -284,6 +366,26 @@ public class LogManagerTest extends EasyMockTest {
         ImmutableList.copyOf(streamManager.readFromBeginning()));
   }
 
+  @Test
+  public void testStreamManagerPipelinedRead() throws Exception {
+    List<LogEntry> transactions = Lists.newArrayList();
+    List<Entry> entries = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      LogEntry transaction = createLogEntry(
+          Op.removeJob(new RemoveJob(JobKeys.from("r" + i, "env", "name").newBuilder())));
+      transactions.add(transaction);
+      byte[] contents = encode(transaction);
+      entries.add(() -> contents);
+    }
+    expect(stream.readAll()).andReturn(entries.iterator());
+
+    control.replay();
+
+    StreamManager streamManager =
+        createStreamManager(NO_FRAMES_EVER_SIZE, new RecoverySettings(4, 8));
+    assertEquals(transactions, ImmutableList.copyOf(streamManager.readFromBeginning()));
+  }
+
   @Test
   public void testWriteAndReadDeflatedEntry() throws Exception {
     Snapshot snapshot = createSnapshot();
@@ -306,7 +408,8 @@ public class LogManagerTest extends EasyMockTest {
         stream,
         new EntrySerializer.EntrySerializerImpl(NO_FRAMES_EVER_SIZE, md5),
         md5,
-        new SnapshotDeduplicatorImpl());
+        new SnapshotDeduplicatorImpl(),
+        RecoverySettings.SEQUENTIAL);
     streamManager.snapshot(snapshot);
     assertEquals(
         ImmutableList.of(snapshotLogEntry),
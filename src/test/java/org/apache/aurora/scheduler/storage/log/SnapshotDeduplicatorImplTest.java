@@ -13,6 +13,7 @@
  */
 package org.apache.aurora.scheduler.storage.log;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -20,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
+import org.apache.aurora.codec.ThriftBinaryCodec;
 import org.apache.aurora.codec.ThriftBinaryCodec.CodingException;
 import org.apache.aurora.gen.AssignedTask;
 import org.apache.aurora.gen.ExecutorConfig;
@@ -30,8 +32,10 @@ import org.apache.aurora.gen.storage.DeduplicatedSnapshot;
 import org.apache.aurora.gen.storage.SchedulerMetadata;
 import org.apache.aurora.gen.storage.Snapshot;
 import org.apache.aurora.scheduler.storage.log.SnapshotDeduplicator.SnapshotDeduplicatorImpl;
+import org.apache.thrift.transport.TMemoryBuffer;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -107,6 +111,24 @@ public class SnapshotDeduplicatorImplTest {
     }
   }
 
+  private byte[] write(Snapshot snapshot) throws Exception {
+    TMemoryBuffer buffer = new TMemoryBuffer(1024);
+    snapshotDeduplicator.write(snapshot, ThriftBinaryCodec.PROTOCOL_FACTORY.getProtocol(buffer));
+    return Arrays.copyOf(buffer.getArray(), buffer.length());
+  }
+
+  @Test
+  public void testWriteMatchesDeduplicate() throws Exception {
+    Snapshot snapshot = makeSnapshot();
+
+    assertArrayEquals(
+        ThriftBinaryCodec.encodeNonNull(snapshotDeduplicator.deduplicate(snapshot)),
+        write(snapshot));
+    assertArrayEquals(
+        ThriftBinaryCodec.encodeNonNull(snapshotDeduplicator.deduplicate(new Snapshot())),
+        write(new Snapshot()));
+  }
+
   @Test(expected = CodingException.class)
   public void testReduplicateFailure() throws Exception {
     DeduplicatedSnapshot corrupt = new DeduplicatedSnapshot()
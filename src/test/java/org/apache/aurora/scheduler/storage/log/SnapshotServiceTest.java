@@ -73,21 +73,30 @@ public class SnapshotServiceTest extends EasyMockTest {
   private Stream mockStream;
   private Position mockPosition;
 
+  private SnapshotService snapshotService;
+
   private void setUp(Amount<Long, Time> snapshotInterval) {
+    Options options = new Options();
+    options.snapshotInterval =
+        new TimeAmount(snapshotInterval.getValue(), snapshotInterval.getUnit());
+    setUp(options);
+  }
+
+  private void setUp(Options options) {
+    setUp(options, new DurableStorageModule.Options());
+  }
+
+  private void setUp(Options options, DurableStorageModule.Options durableOptions) {
     mockSnapshotter = createMock(Snapshotter.class);
     mockLog = createMock(Log.class);
     mockStream = createMock(Stream.class);
     mockPosition = createMock(Position.class);
 
-    Options options = new Options();
-    options.snapshotInterval =
-        new TimeAmount(snapshotInterval.getValue(), snapshotInterval.getUnit());
-
     Injector injector = Guice.createInjector(
         new SchedulerServicesModule(),
         new LogPersistenceModule(new LogPersistenceModule.Options()),
         new SnapshotModule(options),
-        new DurableStorageModule(),
+        new DurableStorageModule(durableOptions),
         new MemStorageModule(Bindings.annotatedKeyFactory(Volatile.class)),
         new TierModule(TaskTestUtil.TIER_CONFIG),
         new AbstractModule() {
@@ -104,6 +113,7 @@ public class SnapshotServiceTest extends EasyMockTest {
 
     storage = injector.getInstance(NonVolatileStorage.class);
     snapshotStore = injector.getInstance(SnapshotStore.class);
+    snapshotService = injector.getInstance(SnapshotService.class);
     serviceManager =
         injector.getInstance(Key.get(ServiceManagerIface.class, SchedulerActive.class));
   }
@@ -161,6 +171,52 @@ public class SnapshotServiceTest extends EasyMockTest {
     snapshotStore.snapshot();
   }
 
+  @Test
+  public void testExplicitInternalSnapshotWithGroupCommit() throws Exception {
+    Options options = new Options();
+    options.snapshotInterval = new TimeAmount(1, Time.HOURS);
+    DurableStorageModule.Options durableOptions = new DurableStorageModule.Options();
+    durableOptions.groupCommit = true;
+    setUp(options, durableOptions);
+
+    expectStorageInitialized();
+
+    expect(mockSnapshotter.from(anyObject())).andReturn(SNAPSHOT);
+    expectSnapshotPersist(new CountDownLatch(1));
+
+    control.replay();
+
+    storage.prepare();
+    storage.start(stores -> { });
+    snapshotStore.snapshot();
+  }
+
+  @Test
+  public void testSkipSnapshotsWithoutLogGrowth() throws Exception {
+    Options options = new Options();
+    options.snapshotInterval = new TimeAmount(1, Time.HOURS);
+    options.snapshotMinLogGrowth = 0.5;
+    options.snapshotMaxInterval = new TimeAmount(2, Time.HOURS);
+    setUp(options);
+
+    expectStorageInitialized();
+
+    // The first snapshot is always taken, since the log has not yet been snapshotted.  The next is
+    // skipped as nothing has been appended, and the third is forced by the maximum interval.
+    expect(mockSnapshotter.from(anyObject())).andReturn(SNAPSHOT).times(2);
+    expect(mockStream.append(anyObject())).andReturn(mockPosition).times(2);
+    mockStream.truncateBefore(mockPosition);
+    expectLastCall().times(2);
+
+    control.replay();
+
+    storage.prepare();
+    storage.start(stores -> { });
+    snapshotService.runOneIteration();
+    snapshotService.runOneIteration();
+    snapshotService.runOneIteration();
+  }
+
   @Test
   public void testExplicitProvidedSnapshot() throws Exception {
     setUp(Amount.of(1L, Time.HOURS));
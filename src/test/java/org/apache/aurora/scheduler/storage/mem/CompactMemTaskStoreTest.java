@@ -0,0 +1,80 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.storage.mem;
+
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import org.apache.aurora.common.inject.Bindings.KeyFactory;
+import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.scheduler.base.Query;
+import org.apache.aurora.scheduler.base.TaskTestUtil;
+import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.storage.AbstractTaskStoreTest;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
+import org.junit.Test;
+
+import static org.apache.aurora.gen.ScheduleStatus.FINISHED;
+import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
+import static org.junit.Assert.assertEquals;
+
+public class CompactMemTaskStoreTest extends AbstractTaskStoreTest {
+
+  private FakeStatsProvider statsProvider;
+
+  @Override
+  protected Module getStorageModule() {
+    statsProvider = new FakeStatsProvider();
+    MemStorageModule.Options options = new MemStorageModule.Options();
+    options.compactTerminalTasks = true;
+    return Modules.combine(
+        new MemStorageModule(options, KeyFactory.PLAIN),
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(StatsProvider.class).toInstance(statsProvider);
+          }
+        });
+  }
+
+  @Test
+  public void testTerminalTasksCompacted() {
+    IScheduledTask finishedA = TaskTestUtil.addStateTransition(TASK_A, FINISHED, 200L);
+    saveTasks(finishedA, TASK_B);
+    assertEquals(1L, statsProvider.getLongValue("task_store_compact_tasks"));
+
+    assertEquals(
+        Optional.of(finishedA),
+        storage.read(store -> store.getTaskStore().fetchTask(Tasks.id(finishedA))));
+    assertEquals(
+        ImmutableSet.of(finishedA),
+        ImmutableSet.copyOf(storage.read(
+            store -> store.getTaskStore().fetchTasks(Query.unscoped().terminal()))));
+    assertEquals(2L, statsProvider.getLongValue("task_store_compact_task_decodes"));
+
+    // Tasks that are saved in an active state are expanded again.
+    saveTasks(TaskTestUtil.addStateTransition(finishedA, RUNNING, 300L));
+    assertEquals(0L, statsProvider.getLongValue("task_store_compact_tasks"));
+
+    saveTasks(TaskTestUtil.addStateTransition(TASK_B, FINISHED, 400L));
+    deleteTasks(Tasks.id(TASK_B));
+    assertEquals(0L, statsProvider.getLongValue("task_store_compact_tasks"));
+    assertEquals(0L, statsProvider.getLongValue("task_store_compact_task_bytes"));
+  }
+}
@@ -13,7 +13,7 @@
  */
 package org.apache.aurora.scheduler.storage.mem;
 
-import com.google.common.collect.ImmutableSet;
+import java.util.function.Function;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -29,9 +29,7 @@ public class InternerTest {
   private static final Internable SAME_JOAN = new Internable("joan");
   private static final Internable STEVE = new Internable("steve");
 
-  private static final String BOB = "bob";
-  private static final String BOB2 = "bob2";
-  private static final String BARRY = "barry";
+  private static final Function<Internable, String> CANONICALIZE = internable -> internable.value;
 
   private Interner<Internable, String> interner;
 
@@ -42,58 +40,81 @@ public class InternerTest {
 
   @Test
   public void testReferenceCounting() {
-    assertSame(JOAN, interner.addAssociation(JOAN, BOB));
-    assertSame(JOAN, interner.addAssociation(SAME_JOAN, BOB2));
-    assertEquals(ImmutableSet.of(BOB2, BOB), interner.getAssociations(JOAN));
+    Interner.Entry<Internable, String> first = interner.acquire(JOAN, CANONICALIZE);
+    Interner.Entry<Internable, String> second = interner.acquire(SAME_JOAN, CANONICALIZE);
+    assertSame(first, second);
+    assertSame(JOAN, second.getKey());
+    assertEquals(2, interner.getReferences(JOAN));
     assertTrue(interner.isInterned(JOAN));
     assertTrue(interner.isInterned(SAME_JOAN));
 
-    // Re-associate.
-    assertSame(JOAN, interner.addAssociation(JOAN, BOB));
-    assertEquals(ImmutableSet.of(BOB2, BOB), interner.getAssociations(JOAN));
+    assertSame(first, interner.retain(first));
+    assertEquals(3, interner.getReferences(JOAN));
 
-    // Noop.
-    interner.removeAssociation(JOAN, "bob3");
-    assertEquals(ImmutableSet.of(BOB2, BOB), interner.getAssociations(JOAN));
+    interner.release(first);
+    interner.release(second);
+    assertEquals(1, interner.getReferences(JOAN));
 
-    interner.removeAssociation(JOAN, BOB);
-    assertEquals(ImmutableSet.of(BOB2), interner.getAssociations(JOAN));
-
-    interner.removeAssociation(JOAN, BOB2);
+    interner.release(first);
     assertFalse(interner.isInterned(JOAN));
+    assertEquals(0, interner.size());
   }
 
   @Test
   public void testNonEqual() {
-    assertSame(JOAN, interner.addAssociation(JOAN, BOB));
-    assertSame(STEVE, interner.addAssociation(STEVE, BOB));
-    assertSame(JOAN, interner.addAssociation(JOAN, BOB));
-    assertSame(STEVE, interner.addAssociation(STEVE, BOB));
-    assertSame(STEVE, interner.addAssociation(STEVE, BARRY));
-    assertEquals(ImmutableSet.of(BOB), interner.getAssociations(JOAN));
-    assertEquals(ImmutableSet.of(BARRY, BOB), interner.getAssociations(STEVE));
-
-    interner.removeAssociation(JOAN, BOB);
+    Interner.Entry<Internable, String> joan = interner.acquire(JOAN, CANONICALIZE);
+    Interner.Entry<Internable, String> steve = interner.acquire(STEVE, CANONICALIZE);
+    assertEquals("joan", joan.get());
+    assertEquals("steve", steve.get());
+    assertEquals(2, interner.size());
+
+    interner.release(joan);
     assertFalse(interner.isInterned(JOAN));
+    assertTrue(interner.isInterned(STEVE));
 
-    interner.removeAssociation(STEVE, BOB);
-    assertEquals(ImmutableSet.of(BARRY), interner.getAssociations(STEVE));
-    interner.removeAssociation(STEVE, BARRY);
+    interner.release(steve);
     assertFalse(interner.isInterned(STEVE));
   }
 
   @Test
-  public void testNoopRemoveAssociation() {
-    interner.removeAssociation(JOAN, BOB);
-    assertFalse(interner.isInterned(JOAN));
+  public void testCanonicalizedOnce() {
+    interner.acquire(JOAN, CANONICALIZE);
+    interner.acquire(SAME_JOAN, internable -> {
+      throw new AssertionError("Value is already interned.");
+    });
   }
 
   @Test
-  public void testClear() {
-    assertSame(JOAN, interner.addAssociation(JOAN, BOB));
+  public void testHitRatio() {
+    assertEquals(0, interner.hitRatio(), 0);
+
+    Interner.Entry<Internable, String> joan = interner.acquire(JOAN, CANONICALIZE);
+    assertEquals(0, interner.hitRatio(), 0);
+
+    interner.acquire(SAME_JOAN, CANONICALIZE);
+    interner.retain(joan);
+    interner.acquire(STEVE, CANONICALIZE);
+    assertEquals(0.5, interner.hitRatio(), 0);
+  }
 
+  @Test
+  public void testStaleReleaseIgnored() {
+    Interner.Entry<Internable, String> stale = interner.acquire(JOAN, CANONICALIZE);
     interner.clear();
     assertFalse(interner.isInterned(JOAN));
+
+    Interner.Entry<Internable, String> current = interner.acquire(SAME_JOAN, CANONICALIZE);
+    interner.release(stale);
+    assertTrue(interner.isInterned(JOAN));
+    interner.release(current);
+    assertFalse(interner.isInterned(JOAN));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRetainReleased() {
+    Interner.Entry<Internable, String> joan = interner.acquire(JOAN, CANONICALIZE);
+    interner.release(joan);
+    interner.retain(joan);
   }
 
   private static class Internable {
@@ -13,18 +13,33 @@
  */
 package org.apache.aurora.scheduler.storage.mem;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
 import com.google.inject.util.Modules;
 
 import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.gen.JobInstanceUpdateEvent;
+import org.apache.aurora.gen.JobUpdateEvent;
+import org.apache.aurora.gen.JobUpdateQuery;
 import org.apache.aurora.scheduler.base.JobKeys;
 import org.apache.aurora.scheduler.storage.AbstractJobUpdateStoreTest;
+import org.apache.aurora.scheduler.storage.JobUpdateStore;
+import org.apache.aurora.scheduler.storage.entities.IJobInstanceUpdateEvent;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateDetails;
+import org.apache.aurora.scheduler.storage.entities.IJobUpdateEvent;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateKey;
+import org.apache.aurora.scheduler.storage.entities.IJobUpdateQuery;
 import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.junit.Test;
 
+import static org.apache.aurora.gen.JobUpdateAction.INSTANCE_UPDATING;
+import static org.apache.aurora.gen.JobUpdateStatus.ABORTED;
+import static org.apache.aurora.gen.JobUpdateStatus.ROLLING_FORWARD;
 import static org.apache.aurora.scheduler.storage.mem.MemJobUpdateStore.UPDATE_STORE_SIZE;
 import static org.junit.Assert.assertEquals;
 
@@ -61,4 +76,65 @@ public class MemJobUpdateStoreTest extends AbstractJobUpdateStoreTest {
     truncateUpdates();
     assertEquals(0L, statsProvider.getLongValue(UPDATE_STORE_SIZE));
   }
+
+  private static IJobUpdateKey save(MemJobUpdateStore store, String role, String id) {
+    IJobUpdateKey key = makeKey(JobKeys.from(role, "env", "job"), id);
+    store.saveJobUpdate(makeJobUpdate(key).getUpdate());
+    return key;
+  }
+
+  private static List<String> fetchIds(JobUpdateStore store, JobUpdateQuery query) {
+    return store.fetchJobUpdates(IJobUpdateQuery.build(query)).stream()
+        .map(u -> u.getUpdate().getSummary().getKey().getId())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testIndexedQueriesFollowModificationOrder() {
+    MemJobUpdateStore store = new MemJobUpdateStore(new FakeStatsProvider());
+    IJobUpdateKey a = save(store, "role1", "a");
+    IJobUpdateKey b = save(store, "role2", "b");
+    IJobUpdateKey c = save(store, "role1", "c");
+    store.saveJobUpdateEvent(a, IJobUpdateEvent.build(new JobUpdateEvent(ROLLING_FORWARD, 10L)));
+    store.saveJobUpdateEvent(b, IJobUpdateEvent.build(new JobUpdateEvent(ROLLING_FORWARD, 20L)));
+    store.saveJobUpdateEvent(c, IJobUpdateEvent.build(new JobUpdateEvent(ROLLING_FORWARD, 30L)));
+    store.saveJobInstanceUpdateEvent(
+        a,
+        IJobInstanceUpdateEvent.build(new JobInstanceUpdateEvent(0, 40L, INSTANCE_UPDATING)));
+    // An event older than the latest one is ordered by timestamp.
+    store.saveJobUpdateEvent(b, IJobUpdateEvent.build(new JobUpdateEvent(ABORTED, 15L)));
+
+    assertEquals(ImmutableList.of("a", "c", "b"), fetchIds(store, new JobUpdateQuery()));
+    assertEquals(
+        ImmutableList.of("c"),
+        fetchIds(store, new JobUpdateQuery().setOffset(1).setLimit(1)));
+    assertEquals(
+        ImmutableList.of("c"),
+        fetchIds(store, new JobUpdateQuery().setRole("role1").setOffset(1)));
+    assertEquals(
+        ImmutableList.of("a", "c", "b"),
+        fetchIds(store, new JobUpdateQuery().setUpdateStatuses(ImmutableSet.of(ROLLING_FORWARD))));
+    assertEquals(
+        ImmutableList.of(),
+        fetchIds(store, new JobUpdateQuery().setUpdateStatuses(ImmutableSet.of(ABORTED))));
+    assertEquals(
+        ImmutableList.of(15L, 20L),
+        store.fetchJobUpdate(b).get().getUpdateEvents().stream()
+            .map(IJobUpdateEvent::getTimestampMs)
+            .collect(Collectors.toList()));
+
+    // Indexed queries agree with scanning a view of the store.
+    JobUpdateStore view = store.view();
+    for (JobUpdateQuery query : ImmutableList.of(
+        new JobUpdateQuery(),
+        new JobUpdateQuery().setRole("role1"),
+        new JobUpdateQuery().setJobKey(a.getJob().newBuilder()),
+        new JobUpdateQuery().setUpdateStatuses(ImmutableSet.of(ROLLING_FORWARD, ABORTED)))) {
+
+      assertEquals(fetchIds(view, query), fetchIds(store, query));
+    }
+
+    store.removeJobUpdates(ImmutableSet.of(a));
+    assertEquals(ImmutableList.of("c"), fetchIds(store, new JobUpdateQuery().setRole("role1")));
+  }
 }
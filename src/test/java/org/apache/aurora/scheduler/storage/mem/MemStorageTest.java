@@ -33,6 +33,7 @@ import org.apache.aurora.gen.TaskConfig;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.Storage.MutateWork;
+import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
 import org.apache.aurora.scheduler.storage.Storage.Work;
 import org.apache.aurora.scheduler.storage.Storage.Work.Quiet;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
@@ -170,4 +171,32 @@ public class MemStorageTest extends TearDownTestCase {
     });
     expectTasks("a", "c", "d");
   }
+
+  @Test
+  public void testReadSnapshotIsolatedFromWrites() {
+    storage.write((MutateWork.NoResult.Quiet) storeProvider -> {
+      storeProvider.getUnsafeTaskStore().saveTasks(ImmutableSet.of(makeTask("a"), makeTask("b")));
+      storeProvider.getSchedulerStore().saveFrameworkId("framework");
+    });
+
+    StoreProvider view = storage.readSnapshot((Quiet<StoreProvider>) storeProvider -> storeProvider);
+
+    storage.write((MutateWork.NoResult.Quiet) storeProvider -> {
+      storeProvider.getUnsafeTaskStore().deleteTasks(ImmutableSet.of("a"));
+      storeProvider.getUnsafeTaskStore().saveTasks(ImmutableSet.of(makeTask("c")));
+      storeProvider.getSchedulerStore().saveFrameworkId("other");
+    });
+    expectTasks("b", "c");
+
+    assertEquals(
+        ImmutableSet.of(makeTask("a"), makeTask("b")),
+        ImmutableSet.copyOf(view.getTaskStore().fetchTasks(Query.unscoped())));
+    assertEquals(
+        makeTask("a"),
+        Iterables.getOnlyElement(view.getTaskStore().fetchTasks(Query.taskScoped("a"))));
+    assertEquals(
+        ImmutableSet.of(makeTask("b")),
+        ImmutableSet.copyOf(view.getTaskStore().fetchTasks(Query.roleScoped("role-b"))));
+    assertEquals("framework", view.getSchedulerStore().fetchFrameworkId().get());
+  }
 }
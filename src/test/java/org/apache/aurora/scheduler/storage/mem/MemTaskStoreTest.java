@@ -13,20 +13,29 @@
  */
 package org.apache.aurora.scheduler.storage.mem;
 
+import java.util.Collection;
+
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
 import com.google.inject.util.Modules;
 
 import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.scheduler.base.Query;
+import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.storage.AbstractTaskStoreTest;
 import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult;
 import org.apache.aurora.scheduler.storage.TaskStore;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.junit.Test;
 
+import static org.apache.aurora.gen.ScheduleStatus.ASSIGNED;
+import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class MemTaskStoreTest extends AbstractTaskStoreTest {
 
@@ -55,4 +64,62 @@ public class MemTaskStoreTest extends AbstractTaskStoreTest {
       assertEquals(0L, statsProvider.getLongValue(MemTaskStore.getIndexSizeStatName("job")));
     });
   }
+
+  @Test
+  public void testQueryPlanning() {
+    IScheduledTask runningB = TaskTestUtil.addStateTransition(TASK_B, RUNNING, 200L);
+    saveTasks(TASK_A, runningB, TASK_C, TASK_D);
+
+    assertEquals(
+        ImmutableSet.of(runningB),
+        ImmutableSet.copyOf(fetch(Query.statusScoped(RUNNING))));
+    assertEquals(1L, statsProvider.getLongValue("task_queries_by_status"));
+    assertEquals(0L, statsProvider.getLongValue("task_queries_all"));
+
+    // The role index is the most selective, and the status index is probed for each candidate.
+    assertEquals(
+        ImmutableSet.of(TASK_A),
+        ImmutableSet.copyOf(fetch(Query.roleScoped("role-a").byStatus(ASSIGNED))));
+    assertEquals(1L, statsProvider.getLongValue("task_queries_by_role"));
+    assertEquals(1L, statsProvider.getLongValue("task_queries_intersected"));
+
+    assertEquals(
+        ImmutableSet.of(TASK_C),
+        ImmutableSet.copyOf(fetch(Query.instanceScoped(Tasks.getJob(TASK_C), 2))));
+    assertEquals(1L, statsProvider.getLongValue("task_queries_by_instance"));
+
+    // An index that matches every task does not narrow the result, so the store is scanned.
+    assertEquals(4, fetch(Query.unscoped().byStatus(ASSIGNED, RUNNING)).size());
+    assertEquals(1L, statsProvider.getLongValue("task_queries_all"));
+  }
+
+  @Test
+  public void testConfigInterning() {
+    saveTasks(TASK_A);
+    assertEquals(1L, statsProvider.getLongValue("task_store_config_interner_size"));
+    // The first config interned is the canonical instance, rather than a copy of it.
+    assertSame(
+        TASK_A.getAssignedTask().getTask(),
+        Iterables.getOnlyElement(fetch(Query.taskScoped(Tasks.id(TASK_A))))
+            .getAssignedTask().getTask());
+
+    // A mutation that leaves the config untouched reuses the canonical config.
+    storage.write((NoResult.Quiet) storeProvider ->
+        storeProvider.getUnsafeTaskStore().mutateTask(
+            Tasks.id(TASK_A),
+            task -> TaskTestUtil.addStateTransition(task, RUNNING, 200L)));
+    assertEquals(1L, statsProvider.getLongValue("task_store_config_interner_size"));
+    assertEquals(
+        0.5,
+        statsProvider.getValue("task_store_config_interner_hit_ratio").doubleValue(),
+        0.0);
+
+    storage.write((NoResult.Quiet) storeProvider ->
+        storeProvider.getUnsafeTaskStore().deleteTasks(Tasks.ids(TASK_A)));
+    assertEquals(0L, statsProvider.getLongValue("task_store_config_interner_size"));
+  }
+
+  private Collection<IScheduledTask> fetch(Query.Builder query) {
+    return storage.read(storeProvider -> storeProvider.getTaskStore().fetchTasks(query));
+  }
 }
@@ -15,6 +15,7 @@ package org.apache.aurora.scheduler.thrift;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -24,9 +25,11 @@ import javax.annotation.Nullable;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
@@ -63,6 +66,7 @@ import org.apache.aurora.gen.RoleSummaryResult;
 import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.gen.ScheduledTask;
 import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.gen.TaskEvent;
 import org.apache.aurora.gen.TaskQuery;
 import org.apache.aurora.scheduler.TierManager;
 import org.apache.aurora.scheduler.base.JobKeys;
@@ -87,6 +91,7 @@ import org.apache.aurora.scheduler.storage.entities.IRange;
 import org.apache.aurora.scheduler.storage.entities.IResponse;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.apache.aurora.scheduler.storage.testing.StorageEntityUtil;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
 import org.junit.Before;
 import org.junit.Test;
@@ -121,6 +126,7 @@ import static org.apache.aurora.scheduler.thrift.ReadOnlySchedulerImpl.NO_CRON;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ReadOnlySchedulerImplTest extends EasyMockTest {
@@ -364,6 +370,42 @@ public class ReadOnlySchedulerImplTest extends EasyMockTest {
     assertEquals(expected, response.getResult().getScheduleStatusResult().getTasks());
   }
 
+  @Test
+  public void testWithoutExecutorData() throws Exception {
+    control.replay();
+
+    ScheduledTask task = Iterables.getOnlyElement(makeDefaultScheduledTasks(1)).newBuilder()
+        .setStatus(ScheduleStatus.RUNNING)
+        .setFailureCount(1)
+        .setTimesPartitioned(2)
+        .setAncestorId("ancestor")
+        .setTaskEvents(ImmutableList.of(new TaskEvent(100L, ScheduleStatus.RUNNING)
+            .setMessage("message")
+            .setScheduler("scheduler")));
+    task.getAssignedTask()
+        .setTaskId("task")
+        .setSlaveId("slave")
+        .setSlaveHost("host")
+        .setAssignedPorts(ImmutableMap.of("http", 1000))
+        .setInstanceId(1);
+    // Ensures that any fields added to tasks are carried over by the conversion.
+    StorageEntityUtil.assertFullyPopulated(
+        task,
+        StorageEntityUtil.getField(AssignedTask.class, "task"));
+
+    ScheduledTask expected = task.deepCopy();
+    expected.getAssignedTask().getTask().getExecutorConfig().unsetData();
+
+    Map<ITaskConfig, TaskConfig> configs = Maps.newHashMap();
+    ScheduledTask first =
+        ReadOnlySchedulerImpl.withoutExecutorData(IScheduledTask.build(task), configs);
+    ScheduledTask second =
+        ReadOnlySchedulerImpl.withoutExecutorData(IScheduledTask.build(task), configs);
+    assertEquals(expected, first);
+    assertEquals(expected, second);
+    assertSame(first.getAssignedTask().getTask(), second.getAssignedTask().getTask());
+  }
+
   @Test
   public void testGetPendingReasonFailsSlavesSet() throws Exception {
     Builder query = Query.unscoped().bySlave("host1");
@@ -514,7 +556,10 @@ public class ReadOnlySchedulerImplTest extends EasyMockTest {
   private TaskQuery setupPaginatedQuery(Iterable<IScheduledTask> tasks, int offset, int limit) {
     TaskQuery query = new TaskQuery().setOffset(offset).setLimit(limit);
     Builder builder = Query.arbitrary(query);
-    storageUtil.expectTaskFetch(builder, ImmutableSet.copyOf(tasks));
+    // Pagination is applied by the task store.
+    storageUtil.expectTaskFetch(
+        builder,
+        ImmutableSet.copyOf(Iterables.limit(Iterables.skip(tasks, offset), limit)));
     return query;
   }
 
@@ -744,6 +744,20 @@ public class SchedulerThriftInterfaceTest extends EasyMockTest {
     assertEquals(3L, statsProvider.getLongValue(PRUNE_TASKS));
   }
 
+  @Test
+  public void testPruneTasksZeroLimit() throws Exception {
+    TaskQuery query = new TaskQuery().setLimit(0);
+    storageUtil.expectTaskFetch(
+        Query.arbitrary(query.setStatuses(Tasks.TERMINAL_STATES)),
+        buildScheduledTask("a/b/c", "task1"),
+        buildScheduledTask("a/b/c", "task2"));
+    stateManager.deleteTasks(storageUtil.mutableStoreProvider, ImmutableSet.of());
+    control.replay();
+
+    assertOkResponse(thrift.pruneTasks(query));
+    assertEquals(0L, statsProvider.getLongValue(PRUNE_TASKS));
+  }
+
   @Test
   public void testSetQuota() throws Exception {
     ResourceAggregate resourceAggregate = new ResourceAggregate()